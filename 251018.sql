@@ -101,11 +101,14 @@ CREATE TABLE IF NOT EXISTS `sc_25K_LI4_p3_2`.`note_folders` (
   `folder_name` VARCHAR(255) NOT NULL COMMENT '폴더 이름',
   `sort_order` INT NOT NULL DEFAULT '0' COMMENT '정렬 순서',
   `status` VARCHAR(20) NOT NULL DEFAULT 'ACTIVE' COMMENT '상태',
+  `path` VARCHAR(512) NULL DEFAULT NULL COMMENT '루트부터 자신까지의 폴더 ID 경로 (/1/5/12/)',
+  `depth` INT NOT NULL DEFAULT 0 COMMENT '폴더 깊이 (루트 0)',
   `created_at` TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP COMMENT '생성 일시',
   `updated_at` TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP COMMENT '수정일시',
   PRIMARY KEY (`folder_id`),
   UNIQUE INDEX `uq_note_folder_user_parent_name` (`user_idx` ASC, `parent_folder_id` ASC, `folder_name` ASC) VISIBLE,
   INDEX `idx_nf_parent` (`parent_folder_id` ASC) VISIBLE,
+  INDEX `idx_nf_user_path` (`user_idx` ASC, `path` ASC) VISIBLE,
   CONSTRAINT `fk_nf_parent`
     FOREIGN KEY (`parent_folder_id`)
     REFERENCES `sc_25K_LI4_p3_2`.`note_folders` (`folder_id`)
@@ -139,8 +142,10 @@ CREATE TABLE IF NOT EXISTS `sc_25K_LI4_p3_2`.`notes` (
   `ai_satisfaction_score` TINYINT NULL DEFAULT NULL COMMENT 'AI 만족도(1-5점)',
   `created_at` TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP COMMENT '노트 작성 일시',
   `updated_at` TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP COMMENT '노트 수정 일시',
+  `content_hash` INT UNSIGNED GENERATED ALWAYS AS (CAST(CONV(LEFT(MD5(CONCAT(COALESCE(`title`, ''), CHAR(10 USING utf8mb4), COALESCE(`content`, ''))), 8), 16, 10) AS UNSIGNED)) STORED COMMENT '드리프트 점검용 내용 해시 (md5 앞 32bit)',
   PRIMARY KEY (`note_idx`),
   INDEX `idx_notes_user` (`user_idx` ASC) VISIBLE,
+  INDEX `idx_notes_user_status_hash` (`user_idx` ASC, `status` ASC, `content_hash` ASC) VISIBLE,
   INDEX `idx_notes_user_created` (`user_idx` ASC, `created_at` ASC) VISIBLE,
   INDEX `idx_notes_status_public_created` (`status` ASC, `is_public` ASC, `created_at` ASC) VISIBLE,
   INDEX `idx_notes_ai_prompt` (`ai_prompt_id` ASC) VISIBLE,
@@ -245,6 +250,34 @@ DEFAULT CHARACTER SET = utf8mb4
 COLLATE = utf8mb4_0900_ai_ci;
 
 
+-- -----------------------------------------------------
+-- Table `sc_25K_LI4_p3_2`.`chat_user_stats`
+-- -----------------------------------------------------
+CREATE TABLE IF NOT EXISTS `sc_25K_LI4_p3_2`.`chat_user_stats` (
+  `user_idx` BIGINT NOT NULL COMMENT '사용자 식별자',
+  `total_chats` BIGINT NOT NULL DEFAULT 0 COMMENT '전체 대화 수',
+  `total_response_ms` BIGINT NOT NULL DEFAULT 0 COMMENT '응답 시간 합계(밀리초)',
+  `timed_chats` BIGINT NOT NULL DEFAULT 0 COMMENT '응답 시간이 기록된 대화 수',
+  `rated_chats` BIGINT NOT NULL DEFAULT 0 COMMENT '평가된 대화 수',
+  `rating_sum` BIGINT NOT NULL DEFAULT 0 COMMENT '평가 점수 합계',
+  `rating_1` BIGINT NOT NULL DEFAULT 0 COMMENT '1점 평가 수',
+  `rating_2` BIGINT NOT NULL DEFAULT 0 COMMENT '2점 평가 수',
+  `rating_3` BIGINT NOT NULL DEFAULT 0 COMMENT '3점 평가 수',
+  `rating_4` BIGINT NOT NULL DEFAULT 0 COMMENT '4점 평가 수',
+  `rating_5` BIGINT NOT NULL DEFAULT 0 COMMENT '5점 평가 수',
+  `last_chat_at` TIMESTAMP NULL DEFAULT NULL COMMENT '마지막 대화 일시',
+  `updated_at` TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP COMMENT '집계 갱신 일시',
+  PRIMARY KEY (`user_idx`),
+  CONSTRAINT `fk_cus_user`
+    FOREIGN KEY (`user_idx`)
+    REFERENCES `sc_25K_LI4_p3_2`.`users` (`user_idx`)
+    ON DELETE CASCADE
+    ON UPDATE CASCADE)
+ENGINE = InnoDB
+DEFAULT CHARACTER SET = utf8mb4
+COLLATE = utf8mb4_0900_ai_ci;
+
+
 -- -----------------------------------------------------
 -- Table `sc_25K_LI4_p3_2`.`chats`
 -- -----------------------------------------------------
@@ -401,6 +434,25 @@ DEFAULT CHARACTER SET = utf8mb4
 COLLATE = utf8mb4_0900_ai_ci;
 
 
+-- -----------------------------------------------------
+-- Table `sc_25K_LI4_p3_2`.`migration_checkpoints`
+-- -----------------------------------------------------
+CREATE TABLE IF NOT EXISTS `sc_25K_LI4_p3_2`.`migration_checkpoints` (
+  `job_name` VARCHAR(64) NOT NULL COMMENT '마이그레이션 작업 이름 (플러그인 이름)',
+  `last_key` VARCHAR(100) NULL DEFAULT NULL COMMENT '마지막으로 반영한 원본 키 (keyset 재개 지점)',
+  `status` VARCHAR(12) NOT NULL DEFAULT 'IDLE' COMMENT '상태 (IDLE, RUNNING, STOPPED, COMPLETED, FAILED)',
+  `processed` BIGINT NOT NULL DEFAULT 0 COMMENT '반영한 누적 행 수',
+  `skipped` BIGINT NOT NULL DEFAULT 0 COMMENT '건너뛴 누적 행 수',
+  `last_error` VARCHAR(500) NULL DEFAULT NULL COMMENT '마지막 오류 메시지',
+  `started_at` DATETIME NULL DEFAULT NULL COMMENT '이번 실행 시작 일시',
+  `finished_at` DATETIME NULL DEFAULT NULL COMMENT '완료/중단 일시',
+  `updated_at` DATETIME NOT NULL COMMENT '체크포인트 갱신 일시',
+  PRIMARY KEY (`job_name`))
+ENGINE = InnoDB
+DEFAULT CHARACTER SET = utf8mb4
+COLLATE = utf8mb4_0900_ai_ci;
+
+
 -- -----------------------------------------------------
 -- Table `sc_25K_LI4_p3_2`.`note_comments`
 -- -----------------------------------------------------
@@ -645,6 +697,29 @@ DEFAULT CHARACTER SET = utf8mb4
 COLLATE = utf8mb4_0900_ai_ci;
 
 
+-- -----------------------------------------------------
+-- Table `sc_25K_LI4_p3_2`.`sync_outbox`
+-- -----------------------------------------------------
+CREATE TABLE IF NOT EXISTS `sc_25K_LI4_p3_2`.`sync_outbox` (
+  `outbox_idx` BIGINT NOT NULL AUTO_INCREMENT COMMENT '아웃박스 식별자',
+  `aggregate_type` VARCHAR(20) NOT NULL COMMENT '대상 종류 (NOTE, EXAM_RESULT)',
+  `aggregate_id` BIGINT NOT NULL COMMENT '대상 식별자 (note_idx, result_idx)',
+  `op` VARCHAR(10) NOT NULL COMMENT '동기화 작업 (UPSERT, DELETE)',
+  `user_idx` BIGINT NULL DEFAULT NULL COMMENT '사용자 식별자',
+  `status` VARCHAR(12) NOT NULL DEFAULT 'PENDING' COMMENT '상태 (PENDING, PROCESSING, DONE, FAILED)',
+  `attempts` INT NOT NULL DEFAULT 0 COMMENT '처리 시도 횟수',
+  `last_error` VARCHAR(500) NULL DEFAULT NULL COMMENT '마지막 오류 메시지',
+  `available_at` DATETIME(3) NOT NULL COMMENT '처리 가능 시각 (재시도 대기/처리 중 임대 만료)',
+  `created_at` DATETIME(3) NOT NULL COMMENT '기록 일시',
+  `processed_at` DATETIME(3) NULL DEFAULT NULL COMMENT '처리 완료 일시',
+  PRIMARY KEY (`outbox_idx`),
+  INDEX `idx_outbox_status_available` (`status` ASC, `available_at` ASC, `outbox_idx` ASC) VISIBLE,
+  INDEX `idx_outbox_aggregate` (`aggregate_type` ASC, `aggregate_id` ASC) VISIBLE)
+ENGINE = InnoDB
+DEFAULT CHARACTER SET = utf8mb4
+COLLATE = utf8mb4_0900_ai_ci;
+
+
 -- -----------------------------------------------------
 -- Table `sc_25K_LI4_p3_2`.`system_notices`
 -- -----------------------------------------------------
@@ -0,0 +1,38 @@
+-- -----------------------------------------------------
+-- PostgreSQL (pgvector) user_notes 스키마 변경
+-- 애플리케이션은 기동 시 이 컬럼/인덱스가 있는지만 확인한다 (VectorIndexManager).
+-- CREATE INDEX CONCURRENTLY 는 트랜잭션 블록 안에서 실행할 수 없으므로 psql 로 한 줄씩 (autocommit) 적용할 것.
+-- -----------------------------------------------------
+
+-- -----------------------------------------------------
+-- 벡터 검색: HNSW (코사인) + user_idx 필터/최근순 btree
+-- -----------------------------------------------------
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_user_notes_embedding_hnsw ON user_notes USING hnsw (embedding vector_cosine_ops) WITH (m = 16, ef_construction = 64);
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_user_notes_user_created ON user_notes (user_idx, created_at DESC);
+
+-- -----------------------------------------------------
+-- 하이브리드 검색: search_tsv (제목 A, 본문 B 가중치) + trigram
+-- ADD COLUMN ... STORED 는 테이블 전체를 다시 쓰고 그동안 ACCESS EXCLUSIVE 잠금을 잡으므로 점검 시간에 적용
+-- -----------------------------------------------------
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+
+ALTER TABLE user_notes ADD COLUMN IF NOT EXISTS search_tsv tsvector
+GENERATED ALWAYS AS (
+    setweight(to_tsvector('simple', coalesce(title, '')), 'A') ||
+    setweight(to_tsvector('simple', coalesce(content, '')), 'B')
+) STORED;
+
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_user_notes_search_tsv ON user_notes USING gin (search_tsv);
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_user_notes_title_trgm ON user_notes USING gin (title gin_trgm_ops);
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_user_notes_content_trgm ON user_notes USING gin (content gin_trgm_ops);
+
+-- -----------------------------------------------------
+-- 저장소 간 드리프트 점검: content_hash = md5(title || '\n' || content) 앞 32bit (MySQL notes.content_hash 와 같은 식)
+-- 테이블 재작성이므로 점검 시간에 적용
+-- -----------------------------------------------------
+ALTER TABLE user_notes ADD COLUMN IF NOT EXISTS content_hash bigint
+GENERATED ALWAYS AS (
+    ('x' || substr(md5(coalesce(title, '') || chr(10) || coalesce(content, '')), 1, 8))::bit(32)::bigint
+) STORED;
+
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_user_notes_user_note_hash ON user_notes (user_idx, note_idx) INCLUDE (content_hash);
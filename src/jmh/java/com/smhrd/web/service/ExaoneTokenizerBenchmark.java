@@ -0,0 +1,190 @@
+package com.smhrd.web.service;
+
+import com.knuddels.jtokkit.Encodings;
+import com.knuddels.jtokkit.api.Encoding;
+import com.knuddels.jtokkit.api.EncodingType;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 토큰 수 계산: 기존 글자 수 추정(길이 / 2.5) vs ExaoneTokenizer, 청크 분할: 기존 4000자 분할 vs splitByTokens.
+ *
+ * 실행: mvn -Pjmh test-compile exec:exec -Djmh.args="ExaoneTokenizerBenchmark"
+ * 실제 EXAONE 어휘로 재려면 -Djmh.args="ExaoneTokenizerBenchmark -jvmArgs -Dbench.tokenizer-path=/path/to/tokenizer.json"
+ * 경로가 없으면 cl100k_base 를 변환한 tokenizer.json 을 쓰고, jtokkit 결과와 토큰 수가 같은지도 확인한다.
+ *
+ * 정확도(추정 오차, 청크별 토큰 수)는 Trial 시작 시 한 번 계산해 출력한다.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ExaoneTokenizerBenchmark {
+
+	// application.properties 기본값 (vllm.api.chunk-tokens / chunk-overlap-tokens)
+	private static final int CHUNK_TOKENS = 1600;
+	private static final int OVERLAP_TOKENS = 200;
+	// 변경 전 splitWithOverlap 설정
+	private static final int LEGACY_CHUNK_CHARS = 4000;
+	private static final int LEGACY_OVERLAP_CHARS = 500;
+	// 청크 분할이 일어나는 긴 문서 크기
+	private static final int DOC_CHARS = 40_000;
+
+	@Param({"ko", "en", "mixed"})
+	public String corpus;
+
+	private String text;
+	private List<String> paragraphs;
+	private ExaoneTokenizer tokenizer;
+
+	@State(Scope.Thread)
+	public static class ColdCache {
+		private Map<?, ?> wordCache;
+
+		@Setup(Level.Invocation)
+		public void clear(ExaoneTokenizerBenchmark bench) {
+			if (wordCache == null) {
+				wordCache = (Map<?, ?>) ReflectionTestUtils.getField(bench.tokenizer, "wordCache");
+			}
+			wordCache.clear();
+		}
+	}
+
+	@Setup(Level.Trial)
+	public void setUp() throws IOException {
+		String note = readCorpus(corpus);
+		paragraphs = new ArrayList<>();
+		for (String p : note.split("\n\\s*\n")) {
+			if (!p.isBlank()) paragraphs.add(p.strip());
+		}
+		StringBuilder sb = new StringBuilder(DOC_CHARS + note.length());
+		while (sb.length() < DOC_CHARS) sb.append(note).append('\n');
+		text = sb.toString();
+
+		String path = System.getProperty("bench.tokenizer-path");
+		boolean fixture = path == null || path.isBlank();
+		if (fixture) {
+			path = TiktokenJsonFixture.write("cl100k_base", TiktokenJsonFixture.CL100K_REGEX).toString();
+		}
+		tokenizer = new ExaoneTokenizer();
+		ReflectionTestUtils.setField(tokenizer, "tokenizerPath", path);
+		tokenizer.load();
+		if (!tokenizer.isLoaded()) throw new IllegalStateException("토크나이저 로드 실패: " + path);
+
+		report(fixture ? Encodings.newDefaultEncodingRegistry().getEncoding(EncodingType.CL100K_BASE) : null);
+	}
+
+	@Benchmark
+	public int heuristicCount() {
+		return (int) Math.ceil(text.length() / 2.5);
+	}
+
+	@Benchmark
+	public int countTokens() {
+		return tokenizer.countTokens(text);
+	}
+
+	@Benchmark
+	public int countTokensColdCache(ColdCache cold) {
+		return tokenizer.countTokens(text);
+	}
+
+	@Benchmark
+	public List<String> legacyCharSplit() {
+		return legacySplit(text);
+	}
+
+	@Benchmark
+	public List<String> splitByTokens() {
+		return tokenizer.splitByTokens(text, CHUNK_TOKENS, OVERLAP_TOKENS);
+	}
+
+	// ====== 정확도 ======
+
+	private void report(Encoding reference) {
+		int exact = tokenizer.countTokens(text);
+		int heuristic = heuristicCount();
+		System.out.printf("%n[%s] 문서 %d자: 토큰 %d, 추정 %d (오차 %+.1f%%)%n",
+				corpus, text.length(), exact, heuristic, pct(heuristic, exact));
+
+		double absErr = 0;
+		double worst = 0;
+		for (String p : paragraphs) {
+			double e = pct((int) Math.ceil(p.length() / 2.5), tokenizer.countTokens(p));
+			absErr += Math.abs(e);
+			if (Math.abs(e) > Math.abs(worst)) worst = e;
+		}
+		System.out.printf("[%s] 문단 %d개 추정 오차: 평균 |%.1f%%|, 최대 %+.1f%%%n",
+				corpus, paragraphs.size(), absErr / paragraphs.size(), worst);
+
+		if (reference != null) {
+			int mismatched = 0;
+			for (String p : paragraphs) {
+				if (tokenizer.countTokens(p) != reference.countTokens(p)) mismatched++;
+			}
+			System.out.printf("[%s] jtokkit cl100k_base 대비: 문서 %d vs %d, 토큰 수가 다른 문단 %d/%d%n",
+					corpus, exact, reference.countTokens(text), mismatched, paragraphs.size());
+		}
+
+		printChunks("4000자 분할", legacySplit(text));
+		printChunks("토큰 분할", tokenizer.splitByTokens(text, CHUNK_TOKENS, OVERLAP_TOKENS));
+	}
+
+	private void printChunks(String label, List<String> chunks) {
+		int min = Integer.MAX_VALUE;
+		int max = 0;
+		int over = 0;
+		for (String c : chunks) {
+			int t = tokenizer.countTokens(c);
+			min = Math.min(min, t);
+			max = Math.max(max, t);
+			if (t > CHUNK_TOKENS) over++;
+		}
+		System.out.printf("[%s] %s: 청크 %d개, 청크당 토큰 %d~%d, 예산(%d) 초과 %d개%n",
+				corpus, label, chunks.size(), min, max, CHUNK_TOKENS, over);
+	}
+
+	private static double pct(int estimate, int exact) {
+		return exact == 0 ? 0 : (estimate - exact) * 100.0 / exact;
+	}
+
+	// 변경 전 LLMUnifiedService.splitWithOverlap
+	private static List<String> legacySplit(String text) {
+		List<String> chunks = new ArrayList<>();
+		int start = 0;
+		while (start < text.length()) {
+			int end = Math.min(start + LEGACY_CHUNK_CHARS, text.length());
+			chunks.add(text.substring(start, end));
+			start += (LEGACY_CHUNK_CHARS - LEGACY_OVERLAP_CHARS);
+		}
+		return chunks;
+	}
+
+	private static String readCorpus(String name) throws IOException {
+		try (InputStream in = ExaoneTokenizerBenchmark.class.getResourceAsStream("/bench/notes-" + name + ".txt")) {
+			if (in == null) throw new IOException("코퍼스 없음: " + name);
+			return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+		}
+	}
+}
@@ -0,0 +1,135 @@
+package com.smhrd.web.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * 벤치마크용 tokenizer.json 생성기.
+ * EXAONE tokenizer.json 을 구할 수 없는 환경(-Dbench.tokenizer-path 미지정)에서는 jtokkit 에 들어 있는
+ * tiktoken 랭크 파일(cl100k_base)을 HuggingFace byte-level BPE 형식(vocab + merges + Split 정규식)으로 바꿔 쓴다.
+ * 같은 어휘를 jtokkit 으로도 셀 수 있으므로 ExaoneTokenizer 의 BPE 구현이 정확한지 함께 확인할 수 있다.
+ *
+ * merges 복원은 HuggingFace 변환기와 같은 방식: 랭크 r 인 토큰을 r 보다 낮은 랭크만으로 BPE 하면
+ * 정확히 두 조각이 남고, 그 두 조각이 r 번째 merge 가 된다.
+ */
+final class TiktokenJsonFixture {
+
+	// tiktoken cl100k_base 공식 pre-tokenizer 정규식
+	static final String CL100K_REGEX =
+			"(?i:'s|'t|'re|'ve|'m|'ll|'d)|[^\\r\\n\\p{L}\\p{N}]?\\p{L}+|\\p{N}{1,3}| ?[^\\s\\p{L}\\p{N}]+[\\r\\n]*|\\s*[\\r\\n]+|\\s+(?!\\S)|\\s+";
+
+	private TiktokenJsonFixture() {
+	}
+
+	static Path write(String encoding, String regex) throws IOException {
+		Map<String, Integer> ranks = readRanks(encoding);
+		char[] byteToUnicode = byteToUnicode();
+
+		// 랭크 순서대로 merge 를 쌓아야 ExaoneTokenizer 가 같은 우선순위를 쓴다
+		TreeMap<Integer, String> byRank = new TreeMap<>();
+		ranks.forEach((token, rank) -> byRank.put(rank, token));
+
+		ObjectMapper mapper = new ObjectMapper();
+		ObjectNode root = mapper.createObjectNode();
+		ObjectNode model = root.putObject("model");
+		model.put("type", "BPE");
+		ObjectNode vocab = model.putObject("vocab");
+		ArrayNode merges = model.putArray("merges");
+
+		for (Map.Entry<Integer, String> e : byRank.entrySet()) {
+			String token = e.getValue();
+			vocab.put(toUnicode(token, byteToUnicode), e.getKey());
+			if (token.length() < 2) continue;
+			List<String> parts = bpe(token, ranks, e.getKey());
+			if (parts.size() != 2) {
+				throw new IllegalStateException("merge 복원 실패: rank=" + e.getKey() + ", parts=" + parts.size());
+			}
+			merges.add(toUnicode(parts.get(0), byteToUnicode) + " " + toUnicode(parts.get(1), byteToUnicode));
+		}
+
+		ObjectNode split = mapper.createObjectNode();
+		split.put("type", "Split");
+		split.putObject("pattern").put("Regex", regex);
+		split.put("behavior", "Isolated");
+		ObjectNode pre = root.putObject("pre_tokenizer");
+		pre.put("type", "Sequence");
+		pre.putArray("pretokenizers").add(split).addObject().put("type", "ByteLevel");
+
+		Path file = Files.createTempFile("bench-" + encoding + "-", ".json");
+		file.toFile().deleteOnExit();
+		mapper.writeValue(file.toFile(), root);
+		return file;
+	}
+
+	// 토큰 바이트는 ISO-8859-1 문자열로 들고 다닌다 (바이트 하나 = 문자 하나)
+	private static Map<String, Integer> readRanks(String encoding) throws IOException {
+		String resource = "/com/knuddels/jtokkit/" + encoding + ".tiktoken";
+		Map<String, Integer> ranks = new HashMap<>(200_000);
+		try (InputStream in = TiktokenJsonFixture.class.getResourceAsStream(resource)) {
+			if (in == null) throw new IOException("리소스 없음: " + resource);
+			BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.US_ASCII));
+			String line;
+			while ((line = reader.readLine()) != null) {
+				int sp = line.indexOf(' ');
+				if (sp < 0) continue;
+				byte[] bytes = Base64.getDecoder().decode(line.substring(0, sp));
+				ranks.put(new String(bytes, StandardCharsets.ISO_8859_1), Integer.parseInt(line.substring(sp + 1).trim()));
+			}
+		}
+		return ranks;
+	}
+
+	private static List<String> bpe(String token, Map<String, Integer> ranks, int maxRank) {
+		List<String> parts = new ArrayList<>(token.length());
+		for (int i = 0; i < token.length(); i++) parts.add(token.substring(i, i + 1));
+		while (parts.size() > 1) {
+			int best = -1;
+			int bestRank = maxRank;
+			for (int i = 0; i < parts.size() - 1; i++) {
+				Integer r = ranks.get(parts.get(i) + parts.get(i + 1));
+				if (r != null && r < bestRank) {
+					bestRank = r;
+					best = i;
+				}
+			}
+			if (best < 0) break;
+			parts.set(best, parts.get(best) + parts.remove(best + 1));
+		}
+		return parts;
+	}
+
+	private static String toUnicode(String latin1, char[] byteToUnicode) {
+		char[] out = new char[latin1.length()];
+		for (int i = 0; i < out.length; i++) out[i] = byteToUnicode[latin1.charAt(i) & 0xFF];
+		return new String(out);
+	}
+
+	// ExaoneTokenizer.buildByteToUnicode 와 같은 GPT-2 매핑
+	private static char[] byteToUnicode() {
+		char[] table = new char[256];
+		boolean[] direct = new boolean[256];
+		for (int b = '!'; b <= '~'; b++) direct[b] = true;
+		for (int b = 0xA1; b <= 0xAC; b++) direct[b] = true;
+		for (int b = 0xAE; b <= 0xFF; b++) direct[b] = true;
+		int next = 0;
+		for (int b = 0; b < 256; b++) {
+			table[b] = direct[b] ? (char) b : (char) (256 + next++);
+		}
+		return table;
+	}
+}
@@ -0,0 +1,233 @@
+package com.smhrd.web.util;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 시맨틱 청크 병합 경로: 변경 전 List&lt;Float&gt; 임베딩 vs FloatVector.
+ * 두 병합 루프는 LLMUnifiedService.mergeSemanticChunks 의 변경 전/후 코드를 그대로 옮긴 것이고
+ * 유사도 계산만 다르다 (토큰 수는 둘 다 길이 / 2.5 로 고정해 토크나이저 비용은 뺀다).
+ *
+ * mergeBoxedWithConversion 은 변경 전 getParagraphEmbeddings 처럼 임베딩 캐시의 float[] 를 요청마다
+ * List&lt;Float&gt; 로 박싱하는 비용까지 포함한다 (현재는 캐시가 FloatVector 를 그대로 돌려주므로 변환 없음).
+ *
+ * 실행: mvn -Pjmh test-compile exec:exec -Djmh.args="FloatVectorBenchmark -prof gc"
+ * (-prof gc 의 gc.alloc.rate.norm 이 호출 1회당 할당 바이트)
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class FloatVectorBenchmark {
+
+	private static final double THRESHOLD = 0.75;
+	// application.properties 기본값 (vllm.api.semantic-chunk-tokens)
+	private static final int SEMANTIC_CHUNK_TOKENS = 2000;
+
+	@Param({"768", "1024"})
+	public int dimension;
+
+	@Param({"200"})
+	public int paragraphCount;
+
+	private List<String> paragraphs;
+	private List<float[]> cached;
+	private List<List<Float>> boxed;
+	private List<FloatVector> vectors;
+
+	@Setup(Level.Trial)
+	public void setUp() {
+		Random random = new Random(42);
+		paragraphs = new ArrayList<>(paragraphCount);
+		cached = new ArrayList<>(paragraphCount);
+		boxed = new ArrayList<>(paragraphCount);
+		vectors = new ArrayList<>(paragraphCount);
+
+		// 이웃 문단끼리 비슷하고 가끔 주제가 바뀌는 임베딩 (병합/분리가 둘 다 일어나도록)
+		float[] topic = randomUnit(random);
+		for (int i = 0; i < paragraphCount; i++) {
+			if (random.nextInt(6) == 0) topic = randomUnit(random);
+			float[] noise = randomUnit(random);
+			float[] v = new float[dimension];
+			for (int d = 0; d < dimension; d++) v[d] = 0.9f * topic[d] + 0.45f * noise[d];
+
+			paragraphs.add("문단 ".repeat(100 + random.nextInt(300)));
+			cached.add(v);
+			vectors.add(FloatVector.wrap(v));
+			boxed.add(toFloatList(v));
+		}
+
+		int before = mergeBoxed().size();
+		int after = mergeFloatVector().size();
+		if (before != after) throw new IllegalStateException("병합 결과가 다름: " + before + " vs " + after);
+		System.out.printf("%n[dim=%d] 문단 %d개 → 청크 %d개%n", dimension, paragraphCount, after);
+	}
+
+	// ====== 유사도 1회 ======
+
+	@Benchmark
+	public double cosineBoxed() {
+		return cosineSimilarity(boxed.get(0), boxed.get(1));
+	}
+
+	@Benchmark
+	public double cosineFloatVector() {
+		return vectors.get(0).cosine(vectors.get(1));
+	}
+
+	// ====== 병합 전체 ======
+
+	@Benchmark
+	public List<Chunk> mergeBoxed() {
+		return mergeBoxed(paragraphs, boxed, THRESHOLD);
+	}
+
+	@Benchmark
+	public List<Chunk> mergeBoxedWithConversion() {
+		List<List<Float>> embeddings = new ArrayList<>(cached.size());
+		for (float[] v : cached) embeddings.add(toFloatList(v));
+		return mergeBoxed(paragraphs, embeddings, THRESHOLD);
+	}
+
+	@Benchmark
+	public List<Chunk> mergeFloatVector() {
+		return mergeFloatVector(paragraphs, vectors, THRESHOLD);
+	}
+
+	// ====== 변경 전 코드 ======
+
+	// 변경 전 EmbeddingService.toFloatList
+	private static List<Float> toFloatList(float[] vector) {
+		List<Float> list = new ArrayList<>(vector.length);
+		for (float v : vector) list.add(v);
+		return list;
+	}
+
+	private static double cosineSimilarity(List<Float> vec1, List<Float> vec2) {
+		if (vec1.isEmpty() || vec2.isEmpty()) return 0.0;
+		double dotProduct = 0.0, norm1 = 0.0, norm2 = 0.0;
+		for (int i = 0; i < Math.min(vec1.size(), vec2.size()); i++) {
+			dotProduct += vec1.get(i) * vec2.get(i);
+			norm1 += vec1.get(i) * vec1.get(i);
+			norm2 += vec2.get(i) * vec2.get(i);
+		}
+		return dotProduct / (Math.sqrt(norm1) * Math.sqrt(norm2));
+	}
+
+	private static List<Chunk> mergeBoxed(List<String> paragraphs, List<List<Float>> embeddings, double threshold) {
+		List<Chunk> chunks = new ArrayList<>();
+		StringBuilder current = new StringBuilder();
+		List<Integer> indices = new ArrayList<>();
+		int currentTokens = 0;
+
+		for (int i = 0; i < paragraphs.size(); i++) {
+			int paraTokens = estimateTokens(paragraphs.get(i));
+			if (current.length() == 0) {
+				current.append(paragraphs.get(i));
+				indices.add(i);
+				currentTokens = paraTokens;
+			} else {
+				int prevIdx = indices.get(indices.size() - 1);
+				double sim = cosineSimilarity(embeddings.get(prevIdx), embeddings.get(i));
+
+				if (sim >= threshold && currentTokens + paraTokens <= SEMANTIC_CHUNK_TOKENS) {
+					current.append("\n\n").append(paragraphs.get(i));
+					indices.add(i);
+					currentTokens += paraTokens;
+				} else {
+					chunks.add(new Chunk(current.toString(), new ArrayList<>(indices)));
+					current = new StringBuilder(paragraphs.get(i));
+					indices.clear();
+					indices.add(i);
+					currentTokens = paraTokens;
+				}
+			}
+		}
+
+		if (current.length() > 0) {
+			chunks.add(new Chunk(current.toString(), indices));
+		}
+		return chunks;
+	}
+
+	// ====== 현재 코드 ======
+
+	private static List<Chunk> mergeFloatVector(List<String> paragraphs, List<FloatVector> embeddings, double threshold) {
+		List<Chunk> chunks = new ArrayList<>();
+		StringBuilder current = new StringBuilder();
+		List<Integer> indices = new ArrayList<>();
+		int currentTokens = 0;
+
+		for (int i = 0; i < paragraphs.size(); i++) {
+			int paraTokens = estimateTokens(paragraphs.get(i));
+			if (current.length() == 0) {
+				current.append(paragraphs.get(i));
+				indices.add(i);
+				currentTokens = paraTokens;
+			} else {
+				int prevIdx = indices.get(indices.size() - 1);
+				double sim = embeddings.get(prevIdx).cosine(embeddings.get(i));
+
+				if (sim >= threshold && currentTokens + paraTokens <= SEMANTIC_CHUNK_TOKENS) {
+					current.append("\n\n").append(paragraphs.get(i));
+					indices.add(i);
+					currentTokens += paraTokens;
+				} else {
+					chunks.add(new Chunk(current.toString(), new ArrayList<>(indices)));
+					current = new StringBuilder(paragraphs.get(i));
+					indices.clear();
+					indices.add(i);
+					currentTokens = paraTokens;
+				}
+			}
+		}
+
+		if (current.length() > 0) {
+			chunks.add(new Chunk(current.toString(), indices));
+		}
+		return chunks;
+	}
+
+	private static int estimateTokens(String text) {
+		return (int) Math.ceil(text.length() / 2.5);
+	}
+
+	private float[] randomUnit(Random random) {
+		float[] v = new float[dimension];
+		double norm = 0;
+		for (int d = 0; d < dimension; d++) {
+			v[d] = (float) random.nextGaussian();
+			norm += v[d] * v[d];
+		}
+		float inv = (float) (1.0 / Math.sqrt(norm));
+		for (int d = 0; d < dimension; d++) v[d] *= inv;
+		return v;
+	}
+
+	public static final class Chunk {
+		final String text;
+		final List<Integer> paragraphIndices;
+
+		Chunk(String text, List<Integer> paragraphIndices) {
+			this.text = text;
+			this.paragraphIndices = paragraphIndices;
+		}
+	}
+}
@@ -1,9 +1,65 @@
 package com.smhrd.web.config;
 
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.aop.interceptor.AsyncUncaughtExceptionHandler;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.AsyncConfigurer;
 import org.springframework.scheduling.annotation.EnableAsync;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 
+import java.util.concurrent.Executor;
+import java.util.concurrent.ThreadPoolExecutor;
+
+/**
+ * @Async 실행기 설정.
+ * 기본 실행기는 스레드 수/큐 제한이 없어 이벤트가 몰리면 스레드가 계속 늘어나므로 상한을 둔다.
+ * 큐까지 가득 차면 호출한 스레드에서 직접 실행해 작업을 버리지 않고 속도를 늦춘다.
+ * (빈으로 등록하지 않음 — 다른 서비스는 각자 전용 실행기를 사용)
+ */
+@Slf4j
 @Configuration
 @EnableAsync
-public class AsyncConfig {
+public class AsyncConfig implements AsyncConfigurer, DisposableBean {
+
+    @Value("${async.core-size:4}")
+    private int coreSize;
+
+    @Value("${async.max-size:16}")
+    private int maxSize;
+
+    @Value("${async.queue-capacity:500}")
+    private int queueCapacity;
+
+    private ThreadPoolTaskExecutor executor;
+
+    @Override
+    public synchronized Executor getAsyncExecutor() {
+        if (executor == null) {
+            ThreadPoolTaskExecutor e = new ThreadPoolTaskExecutor();
+            e.setCorePoolSize(Math.max(1, coreSize));
+            e.setMaxPoolSize(Math.max(Math.max(1, coreSize), maxSize));
+            e.setQueueCapacity(Math.max(0, queueCapacity));
+            e.setThreadNamePrefix("async-");
+            e.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+            e.setWaitForTasksToCompleteOnShutdown(true);
+            e.setAwaitTerminationSeconds(10);
+            e.initialize();
+            executor = e;
+        }
+        return executor;
+    }
+
+    @Override
+    public AsyncUncaughtExceptionHandler getAsyncUncaughtExceptionHandler() {
+        return (ex, method, params) ->
+                log.error("❌ @Async 작업 실패 - {}.{}: {}",
+                        method.getDeclaringClass().getSimpleName(), method.getName(), ex.getMessage(), ex);
+    }
+
+    @Override
+    public void destroy() {
+        if (executor != null) executor.shutdown();
+    }
 }
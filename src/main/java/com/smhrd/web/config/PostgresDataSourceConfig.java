@@ -1,5 +1,6 @@
 package com.smhrd.web.config;
 
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
@@ -9,7 +10,13 @@ import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
 import org.springframework.jdbc.datasource.DriverManagerDataSource;
 
 import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.Properties;
 
+@Slf4j
 @Configuration
 public class PostgresDataSourceConfig {
 
@@ -22,6 +29,10 @@ public class PostgresDataSourceConfig {
     @Value("${spring.postgres.datasource.password}")
     private String password;
 
+    // pgvector vector 파라미터(PgVector)를 바이너리로 전송할지 여부
+    @Value("${spring.postgres.datasource.binary-vector:true}")
+    private boolean binaryVector;
+
 
     @Bean(name = "postgresDataSource")
     public DataSource postgresDataSource() {
@@ -30,9 +41,37 @@ public class PostgresDataSourceConfig {
         dataSource.setUsername(username);
         dataSource.setPassword(password);
         dataSource.setDriverClassName("org.postgresql.Driver");
+
+        if (binaryVector) {
+            Integer vectorOid = lookupVectorOid();
+            if (vectorOid != null) {
+                Properties props = new Properties();
+                props.setProperty("binaryTransferEnable", String.valueOf(vectorOid));
+                dataSource.setConnectionProperties(props);
+                log.info("✅ pgvector 바이너리 전송 활성화 (vector oid={})", vectorOid);
+            }
+        }
         return dataSource;
     }
 
+    /**
+     * vector는 확장 타입이라 OID가 DB마다 다르므로 기동 시 한 번 조회한다.
+     * 조회 실패 시 null → 텍스트 전송으로 동작 (PgVector.getValue)
+     */
+    private Integer lookupVectorOid() {
+        try (Connection conn = DriverManager.getConnection(url, username, password);
+             Statement st = conn.createStatement();
+             ResultSet rs = st.executeQuery("SELECT oid FROM pg_type WHERE typname = 'vector'")) {
+            if (rs.next()) {
+                return rs.getInt(1);
+            }
+            log.warn("⚠️ vector 타입 없음 (pgvector 미설치?) - 텍스트 전송으로 동작");
+        } catch (Exception e) {
+            log.warn("⚠️ vector OID 조회 실패 - 텍스트 전송으로 동작: {}", e.getMessage());
+        }
+        return null;
+    }
+
     @Bean(name = "postgresJdbcTemplate")
     public JdbcTemplate postgresJdbcTemplate(@Qualifier("postgresDataSource") DataSource dataSource) {
         return new JdbcTemplate(dataSource);
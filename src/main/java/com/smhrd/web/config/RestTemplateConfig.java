@@ -9,7 +9,7 @@ import java.time.Duration;
 /**
  * RestTemplate Bean 설정
  *
- * RestTemplate을 Bean으로 등록해야 DataMigrationService에서 자동 주입 가능
+ * RestTemplate을 Bean으로 등록해 서비스에서 자동 주입
  * 외부 API (Embedding 서버) 호출용
  */
 @Configuration
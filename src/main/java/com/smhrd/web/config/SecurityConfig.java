@@ -66,6 +66,8 @@ public class SecurityConfig {
                 .requestMatchers(HttpMethod.GET, "/login", "/signup").permitAll()
                 .requestMatchers(HttpMethod.POST, "/login", "/signup").permitAll()
                 .requestMatchers("/auth/**","/signup","/main","/css/**", "/js/**", "/images/**", "/fonts/**", "/static/**", "/", "/webjars/**","/templates/fragments/**","/admin/vector-test/**","/api/video/stream/**","/api/admin/migrate","/checkId",  "/check-email", "/check-nickname", "/error").permitAll()
+                // 관리 API (마이그레이션, 벡터 인덱스, 의도 예문, 드리프트 점검)는 관리자(user_role = ADMIN)만
+                .requestMatchers("/api/admin/**").hasRole("ADMIN")
                 // 그 외 요청은 인증 필요
                 .anyRequest().authenticated()
             )
@@ -1,9 +1,15 @@
 package com.smhrd.web.config;
 
+import io.netty.channel.ChannelOption;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
 import org.springframework.web.reactive.function.client.WebClient;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.time.Duration;
 
 @Configuration
 public class WebClientConfig {
@@ -12,32 +18,71 @@ public class WebClientConfig {
     @Value("${vllm.api.url}")
     private String vllmApiUrl;
 
+    @Value("${vllm.api.timeout:180000}")
+    private long vllmApiTimeoutMs;
+
     // 챗봇 vLLM (신규)
     @Value("${vllm.chatbot.url}")
     private String chatbotUrl;
 
+    @Value("${vllm.chatbot.timeout:60000}")
+    private long chatbotTimeoutMs;
+
     // 임베딩 (신규)
     @Value("${embedding.url}")
     private String embeddingUrl;
 
+    @Value("${embedding.timeout:10000}")
+    private long embeddingTimeoutMs;
+
+    // vLLM 커넥션 풀 (엔드포인트별 별도 풀)
+    @Value("${vllm.pool.max-connections:32}")
+    private int poolMaxConnections;
+
+    @Value("${vllm.pool.pending-acquire-max:256}")
+    private int poolPendingAcquireMax;
+
+    @Value("${vllm.pool.pending-acquire-timeout-ms:30000}")
+    private long poolPendingAcquireTimeoutMs;
+
+    @Value("${vllm.pool.max-idle-ms:60000}")
+    private long poolMaxIdleMs;
+
+    private static final int CONNECT_TIMEOUT_MS = 5000;
+
     @Bean(name = "vllmApiClient")
     public WebClient vllmApiClient() {
-        return WebClient.builder()
-                .baseUrl(vllmApiUrl)
-                .build();
+        return pooledClient("vllm-api", vllmApiUrl, vllmApiTimeoutMs);
     }
 
     @Bean(name = "vllmChat")
     public WebClient vllmChat() {
-        return WebClient.builder()
-                .baseUrl(chatbotUrl)
-                .build();
+        return pooledClient("vllm-chat", chatbotUrl, chatbotTimeoutMs);
     }
 
     @Bean(name = "embeddingClient")
     public WebClient embeddingClient() {
+        return pooledClient("embedding", embeddingUrl, embeddingTimeoutMs);
+    }
+
+    // 응답 타임아웃은 스트리밍 시 청크 간 간격 기준으로 적용된다
+    private WebClient pooledClient(String name, String baseUrl, long responseTimeoutMs) {
+        ConnectionProvider provider = ConnectionProvider.builder(name)
+                .maxConnections(poolMaxConnections)
+                .pendingAcquireMaxCount(poolPendingAcquireMax)
+                .pendingAcquireTimeout(Duration.ofMillis(poolPendingAcquireTimeoutMs))
+                .maxIdleTime(Duration.ofMillis(poolMaxIdleMs))
+                .evictInBackground(Duration.ofSeconds(30))
+                .build();
+
+        HttpClient httpClient = HttpClient.create(provider)
+                .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, CONNECT_TIMEOUT_MS)
+                .responseTimeout(Duration.ofMillis(responseTimeoutMs));
+
         return WebClient.builder()
-                .baseUrl(embeddingUrl)
+                .baseUrl(baseUrl)
+                .clientConnector(new ReactorClientHttpConnector(httpClient))
+                .codecs(c -> c.defaultCodecs().maxInMemorySize(16 * 1024 * 1024))
                 .build();
     }
 }
@@ -1,19 +1,22 @@
 package com.smhrd.web.controller;
 
+import com.smhrd.web.dto.ChatCompletionRequest;
+import com.smhrd.web.service.EmbeddingService;
+import com.smhrd.web.service.VllmGateway;
+import com.smhrd.web.service.VllmScheduler;
+import com.smhrd.web.util.FloatVector;
+
 // Spring
-import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.mongodb.core.MongoTemplate;
 import org.springframework.data.mongodb.core.query.Criteria;
 import org.springframework.data.mongodb.core.query.Query;
 import org.springframework.data.mongodb.gridfs.GridFsResource;
 import org.springframework.data.mongodb.gridfs.GridFsTemplate;
-import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.*;
-import org.springframework.web.reactive.function.client.WebClient;
 import org.springframework.web.multipart.MultipartFile;
 
 // MongoDB
@@ -47,11 +50,9 @@ public class AdminVectorTestController {
     private final GridFsTemplate gridFsTemplate;
     private final MongoTemplate mongoTemplate;
     
-    @Qualifier("vllmChat")
-    private final WebClient vllmChat;
+    private final VllmGateway vllmGateway;
     
-    @Qualifier("embeddingClient")
-    private final WebClient embeddingClient;
+    private final EmbeddingService embeddingService;
     
     @Value("${vllm.chatbot.model}")
     private String chatbotModel;
@@ -186,14 +187,14 @@ public class AdminVectorTestController {
                 String chunkText = chunks.get(i);
                 
                 // 임베딩 생성
-                List<Float> embedding = getEmbedding(chunkText);
+                FloatVector embedding = getEmbedding(chunkText);
                 
                 Document chunk = new Document();
                 chunk.put("file_id", request.getFileId());
                 chunk.put("file_name", gridFsFile.getFilename());
                 chunk.put("chunk_index", i);
                 chunk.put("content", chunkText);
-                chunk.put("embedding", embedding);
+                chunk.put("embedding", embedding.toList());
                 chunk.put("token_count", estimateTokenCount(chunkText));
                 chunk.put("created_at", new Date());
                 
@@ -232,7 +233,7 @@ public class AdminVectorTestController {
             long startTime = System.currentTimeMillis();
             
             // 1. 질문 임베딩 생성
-            List<Float> queryVector = getEmbedding(request.getQuestion());
+            FloatVector queryVector = getEmbedding(request.getQuestion());
             
             // 2. 1차 검색: Top-10 청크 가져오기
             int firstStageTopK = Math.min(request.getTopK() * 2, 10);
@@ -288,15 +289,15 @@ public class AdminVectorTestController {
     // Re-Ranking: 질문과 청크를 다시 유사도 비교
     private List<Document> rerankChunks(String question, List<Document> chunks, int topK) {
         // 질문 임베딩 다시 생성 (또는 캐시 사용)
-        List<Float> questionVector = getEmbedding(question);
+        FloatVector questionVector = getEmbedding(question);
         
         // 각 청크를 질문과 다시 비교
         for (Document chunk : chunks) {
             String chunkText = chunk.getString("content");
             
             // 청크의 각 문장을 질문과 비교
-            List<Float> chunkVector = getEmbedding(chunkText.substring(0, Math.min(500, chunkText.length())));
-            double relevanceScore = cosineSimilarity(questionVector, chunkVector);
+            FloatVector chunkVector = getEmbedding(chunkText.substring(0, Math.min(500, chunkText.length())));
+            double relevanceScore = questionVector.cosine(chunkVector);
             
             chunk.put("rerank_score", relevanceScore);
         }
@@ -383,29 +384,18 @@ public class AdminVectorTestController {
     }
     
     // 임베딩 생성
-    private List<Float> getEmbedding(String text) {
+    private FloatVector getEmbedding(String text) {
         try {
-            Map<String, Object> response = embeddingClient.post()
-                .uri("/embed")
-                .contentType(MediaType.APPLICATION_JSON)
-                .bodyValue(Map.of("texts", List.of(text)))
-                .retrieve()
-                .bodyToMono(Map.class)
-                .block();
-            
-            List<List<Double>> embeddings = (List<List<Double>>) response.get("embeddings");
-            return embeddings.get(0).stream()
-                .map(Double::floatValue)
-                .collect(Collectors.toList());
+            return embeddingService.embed(text);
                 
         } catch (Exception e) {
             e.printStackTrace();
-            return new ArrayList<>();
+            return FloatVector.EMPTY;
         }
     }
     
     // 벡터 유사도 검색
-    private List<Document> searchRelevantChunks(String fileId, List<Float> queryVector, int topK) {
+    private List<Document> searchRelevantChunks(String fileId, FloatVector queryVector, int topK) {
         List<Document> chunks = mongoTemplate.find(
             Query.query(Criteria.where("file_id").is(fileId)),
             Document.class,
@@ -413,13 +403,11 @@ public class AdminVectorTestController {
         );
         
         chunks.forEach(chunk -> {
-            List<Double> chunkEmbedding = (List<Double>) chunk.get("embedding");
+            List<Number> chunkEmbedding = (List<Number>) chunk.get("embedding");
             if (chunkEmbedding != null) {
-                List<Float> chunkVector = chunkEmbedding.stream()
-                    .map(Double::floatValue)
-                    .collect(Collectors.toList());
+                FloatVector chunkVector = FloatVector.fromList(chunkEmbedding);
                 
-                double similarity = cosineSimilarity(queryVector, chunkVector);
+                double similarity = queryVector.cosine(chunkVector);
                 chunk.put("similarity_score", similarity);
             } else {
                 chunk.put("similarity_score", 0.0);
@@ -435,20 +423,6 @@ public class AdminVectorTestController {
             .collect(Collectors.toList());
     }
     
-    private double cosineSimilarity(List<Float> vec1, List<Float> vec2) {
-        double dotProduct = 0.0;
-        double norm1 = 0.0;
-        double norm2 = 0.0;
-        
-        for (int i = 0; i < Math.min(vec1.size(), vec2.size()); i++) {
-            dotProduct += vec1.get(i) * vec2.get(i);
-            norm1 += vec1.get(i) * vec1.get(i);
-            norm2 += vec2.get(i) * vec2.get(i);
-        }
-        
-        return dotProduct / (Math.sqrt(norm1) * Math.sqrt(norm2));
-    }
-    
     private String buildContext(List<Document> chunks) {
         StringBuilder context = new StringBuilder();
         int totalLength = 0;
@@ -510,15 +484,8 @@ public class AdminVectorTestController {
     }
     
     private String callVllm(String prompt) {
-        List<Map<String, String>> messages = new ArrayList<>();
-        
-        messages.add(Map.of(
-            "role", "system",
-            "content", "너는 학습 도우미야. 사용자가 공부한 내용을 기반으로 정확하게 답변해줘. " +
-                       "관련 문서가 제공되면 그 내용을 우선 참고하고, 없으면 일반 지식으로 답변해."
-        ));
-        
-        messages.add(Map.of("role", "user", "content", prompt));
+        String system = "너는 학습 도우미야. 사용자가 공부한 내용을 기반으로 정확하게 답변해줘. " +
+                        "관련 문서가 제공되면 그 내용을 우선 참고하고, 없으면 일반 지식으로 답변해.";
         
         // 입력 토큰 수 추정 (대략 1.5자 = 1토큰)
         int estimatedInputTokens = prompt.length() / 2; // 더 보수적으로 계산
@@ -530,12 +497,8 @@ public class AdminVectorTestController {
         int dynamicMaxTokens = maxContextLength - estimatedInputTokens - 100; // 여유분 100
         dynamicMaxTokens = Math.max(100, Math.min(dynamicMaxTokens, maxTokens)); // 최소 100, 최대 설정값
         
-        Map<String, Object> request = Map.of(
-            "model", chatbotModel,
-            "messages", messages,
-            "max_tokens", dynamicMaxTokens,
-            "temperature", temperature
-        );
+        ChatCompletionRequest request = ChatCompletionRequest.of(
+            chatbotModel, system, prompt, dynamicMaxTokens, temperature);
         
         try {
             System.out.println("=== vLLM 요청 디버깅 ===");
@@ -545,19 +508,11 @@ public class AdminVectorTestController {
             System.out.println("Dynamic max_tokens: " + dynamicMaxTokens);
             System.out.println("Total estimated: " + (estimatedInputTokens + dynamicMaxTokens));
             
-            Map<String, Object> response = vllmChat.post()
-                .uri("/v1/chat/completions")
-                .contentType(MediaType.APPLICATION_JSON)
-                .bodyValue(request)
-                .retrieve()
-                .bodyToMono(Map.class)
-                .block();
+            String content = vllmGateway.completeText(VllmGateway.Endpoint.CHAT, VllmScheduler.Caller.interactive(null), request);
             
             System.out.println("=== vLLM 응답 성공 ===");
             
-            List<Map<String, Object>> choices = (List<Map<String, Object>>) response.get("choices");
-            Map<String, Object> message = (Map<String, Object>) choices.get(0).get("message");
-            return (String) message.get("content");
+            return content;
             
         } catch (org.springframework.web.reactive.function.client.WebClientResponseException e) {
             System.err.println("=== vLLM 응답 에러 ===");
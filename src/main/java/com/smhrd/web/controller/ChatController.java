@@ -7,14 +7,19 @@ import lombok.AllArgsConstructor;
 import lombok.Getter;
 import lombok.RequiredArgsConstructor;
 import lombok.Setter;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletionException;
 
+@Slf4j
 @RestController
 @RequiredArgsConstructor
 @RequestMapping("/api/chat")
@@ -50,6 +55,41 @@ public class ChatController {
         }
     }
 
+    // ------------------------------------------------------------
+    // 스트리밍 채팅 (SSE) — /send 의 스트리밍 버전
+    //   event: start  {sessionId, intent}
+    //   event: token  {t}  답변 토큰 조각
+    //   event: done   ChatResponse 와 동일한 필드 (저장 완료 후)
+    //   event: error  {error}
+    // ------------------------------------------------------------
+    private static final long CHAT_STREAM_TIMEOUT_MS = 3 * 60 * 1000L;
+
+    @PostMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamMessage(
+            @RequestBody ChatRequest request,
+            Authentication auth) {
+
+        Long userIdx = ((CustomUserDetails) auth.getPrincipal()).getUserIdx();
+        SseEmitter emitter = new SseEmitter(CHAT_STREAM_TIMEOUT_MS);
+        ChatSseListener listener = new ChatSseListener(emitter);
+        emitter.onCompletion(listener::close);
+        emitter.onTimeout(listener::close);
+        emitter.onError(ex -> listener.close());
+
+        chatService.streamChat(userIdx, request.getMessage(), request.getSessionId(), listener)
+                .whenComplete((response, ex) -> {
+                    if (ex != null) {
+                        Throwable cause = (ex instanceof CompletionException && ex.getCause() != null) ? ex.getCause() : ex;
+                        log.error("스트리밍 채팅 실패: {}", cause.getMessage(), cause);
+                        listener.send("error", Map.of("error", "죄송합니다. 처리 중 오류가 발생했습니다."));
+                    } else if (response != null) {
+                        listener.send("done", response);
+                    }
+                    emitter.complete();
+                });
+        return emitter;
+    }
+
     /**
      * 세션별 대화 히스토리 조회
      */
@@ -88,11 +128,12 @@ public class ChatController {
     @GetMapping("/recent")
     public ResponseEntity<List<ChatHistoryDto>> getRecentChats(
             @RequestParam(defaultValue = "10") int limit,
+            @RequestParam(required = false) Long before,
             Authentication auth) {
 
         try {
             Long userIdx = ((CustomUserDetails) auth.getPrincipal()).getUserIdx();
-            List<Chat> recentChats = chatService.getUserRecentChats(userIdx, limit);
+            List<Chat> recentChats = chatService.getUserRecentChats(userIdx, limit, before);
 
             List<ChatHistoryDto> response = recentChats.stream()
                     .map(chat -> new ChatHistoryDto(
@@ -163,7 +204,46 @@ public class ChatController {
 
         } catch (Exception e) {
             e.printStackTrace();
-            return ResponseEntity.ok(new ChatStatsDto(0, 0, 0.0));
+            return ResponseEntity.ok(ChatStatsDto.empty());
+        }
+    }
+
+    /** 채팅 스트림 콜백 → SSE 이벤트. 클라이언트 연결이 끊기면 생성을 중단시킨다. */
+    private static class ChatSseListener implements ChatService.ChatStreamListener {
+        private final SseEmitter emitter;
+        private volatile boolean closed = false;
+
+        ChatSseListener(SseEmitter emitter) {
+            this.emitter = emitter;
+        }
+
+        void close() {
+            closed = true;
+        }
+
+        void send(String name, Object data) {
+            if (closed) return;
+            try {
+                emitter.send(SseEmitter.event().name(name).data(data, MediaType.APPLICATION_JSON));
+            } catch (Exception e) {
+                closed = true;
+                log.debug("SSE 전송 중단 (클라이언트 연결 종료): {}", e.getMessage());
+            }
+        }
+
+        @Override
+        public void onStart(String sessionId, String intent) {
+            send("start", Map.of("sessionId", sessionId, "intent", intent));
+        }
+
+        @Override
+        public void onToken(String delta) {
+            send("token", Map.of("t", delta));
+        }
+
+        @Override
+        public boolean isCancelled() {
+            return closed;
         }
     }
 
@@ -207,5 +287,11 @@ public class ChatController {
         private int totalChats;
         private int avgResponseTimeMs;
         private double avgRating;
+        private List<Long> ratingHistogram;   // 1~5점 평가 수
+        private String lastChatAt;
+
+        public static ChatStatsDto empty() {
+            return new ChatStatsDto(0, 0, 0.0, List.of(0L, 0L, 0L, 0L, 0L), null);
+        }
     }
 }
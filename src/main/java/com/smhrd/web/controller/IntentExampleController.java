@@ -0,0 +1,53 @@
+package com.smhrd.web.controller;
+
+import com.smhrd.web.service.IntentClassifier;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.Map;
+
+/**
+ * 챗봇 인텐트 예시 문장 관리 (빠른 분류용 중심 벡터의 재료)
+ */
+@Slf4j
+@RestController
+@RequestMapping("/api/admin/intent-examples")
+@RequiredArgsConstructor
+public class IntentExampleController {
+
+    private final IntentClassifier intentClassifier;
+
+    /** 라벨별 예시 수, 빠른 분류 적중률 */
+    @GetMapping
+    public ResponseEntity<Map<String, Object>> stats() {
+        return ResponseEntity.ok(intentClassifier.stats());
+    }
+
+    /** 예시 추가: {"intent": "NOTE_SEARCH", "text": "자바 정리한 거 찾아줘"} */
+    @PostMapping
+    public ResponseEntity<Map<String, Object>> addExample(@RequestBody Map<String, String> req) {
+        try {
+            intentClassifier.addExample(req.get("intent"), req.get("text"));
+            return ResponseEntity.ok(Map.of("status", "success"));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("status", "error", "message", e.getMessage()));
+        } catch (Exception e) {
+            log.error("인텐트 예시 추가 실패", e);
+            return ResponseEntity.status(500).body(Map.of("status", "error", "message", "실패: " + e.getMessage()));
+        }
+    }
+
+    /** 중심 벡터 즉시 재계산 */
+    @PostMapping("/rebuild")
+    public ResponseEntity<Map<String, Object>> rebuild() {
+        try {
+            intentClassifier.rebuild();
+            return ResponseEntity.ok(intentClassifier.stats());
+        } catch (Exception e) {
+            log.error("인텐트 중심 벡터 재계산 실패", e);
+            return ResponseEntity.status(500).body(Map.of("status", "error", "message", "실패: " + e.getMessage()));
+        }
+    }
+}
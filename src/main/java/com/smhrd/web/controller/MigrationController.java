@@ -1,21 +1,20 @@
 package com.smhrd.web.controller;
 
-import com.smhrd.web.service.DataMigrationService;
-import com.smhrd.web.service.DirectMigrationService;
-import com.smhrd.web.service.MigrationService;
+import com.smhrd.web.service.MigrationEngine;
+import com.smhrd.web.service.NoteDriftReconciler;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
 import org.bson.Document;
 import org.springframework.data.mongodb.core.MongoTemplate;
 import org.springframework.http.ResponseEntity;
-import org.springframework.web.bind.annotation.GetMapping;
-import org.springframework.web.bind.annotation.PostMapping;
-import org.springframework.web.bind.annotation.RequestMapping;
-import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
 import java.util.Map;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
+@Slf4j
 @RestController
 @RequestMapping("/api/admin")
 @RequiredArgsConstructor
@@ -23,40 +22,64 @@ public class MigrationController {
 
 
     private final MongoTemplate mongoTemplate;
-    private final DataMigrationService dataMigrationService;
-    private final DirectMigrationService directMigrationService;
-    private final MigrationService lectureMigrationService;
+    private final MigrationEngine migrationEngine;
+    private final NoteDriftReconciler noteDriftReconciler;
+
+    // ========================================
+    // 마이그레이션 작업 (MigrationEngine)
+    // ========================================
+
+    /** 전체 작업 상태 (체크포인트, 실행 중이면 rows/sec, ETA) */
+    @GetMapping("/migrations")
+    public ResponseEntity<List<Map<String, Object>>> migrations() {
+        return ResponseEntity.ok(migrationEngine.statusAll());
+    }
+
+    @GetMapping("/migrations/{job}")
+    public ResponseEntity<Map<String, Object>> migrationStatus(@PathVariable String job) {
+        return run(() -> migrationEngine.status(job));
+    }
+
+    /** 시작/재개: /migrations/notes-postgres/start?restart=true 면 처음부터 */
+    @PostMapping("/migrations/{job}/start")
+    public ResponseEntity<Map<String, Object>> startMigration(@PathVariable String job,
+                                                              @RequestParam(defaultValue = "false") boolean restart) {
+        return run(() -> migrationEngine.start(job, restart));
+    }
+
+    /** 현재 페이지까지 쓰고 중단 (start 로 이어서 실행) */
+    @PostMapping("/migrations/{job}/stop")
+    public ResponseEntity<Map<String, Object>> stopMigration(@PathVariable String job) {
+        return run(() -> migrationEngine.stop(job));
+    }
+
+    // ========================================
+    // 저장소 간 드리프트 점검 (MySQL ↔ Postgres / MongoDB)
+    // ========================================
+
+    /** 마지막 점검 결과 */
+    @GetMapping("/drift")
+    public ResponseEntity<Map<String, Object>> driftStatus() {
+        return ResponseEntity.ok(noteDriftReconciler.status());
+    }
+
+    /** 지금 점검 + 복구 (동기 실행, 이미 실행 중이면 409) */
+    @PostMapping("/drift/run")
+    public ResponseEntity<Map<String, Object>> runDrift() {
+        return run(noteDriftReconciler::reconcile);
+    }
+
+    // 기존 경로 유지: 노트 전체를 PostgreSQL 로 (백그라운드 실행, 진행은 /migrations/notes-postgres)
     @PostMapping("/migrate-notes")
-    public ResponseEntity<Map<String, String>> migrateNotes() {
-        try {
-            directMigrationService.migrateNotesDirectlyToPostgres();
-            return ResponseEntity.ok(Map.of(
-                    "status", "success",
-                    "message", "마이그레이션 완료"
-            ));
-        } catch (Exception e) {
-            return ResponseEntity.status(500).body(Map.of(
-                    "status", "error",
-                    "message", "실패: " + e.getMessage()
-            ));
-        }
+    public ResponseEntity<Map<String, Object>> migrateNotes() {
+        return run(() -> migrationEngine.start("notes-postgres", false));
     }
 
     @GetMapping("/migrate-notes")  // ← GET 추가
-    public ResponseEntity<Map<String, String>> migrateNotesGet() {
-        try {
-            directMigrationService.migrateNotesDirectlyToPostgres();
-            return ResponseEntity.ok(Map.of(
-                    "status", "success",
-                    "message", "마이그레이션 완료"
-            ));
-        } catch (Exception e) {
-            return ResponseEntity.status(500).body(Map.of(
-                    "status", "error",
-                    "message", "실패: " + e.getMessage()
-            ));
-        }
+    public ResponseEntity<Map<String, Object>> migrateNotesGet() {
+        return run(() -> migrationEngine.start("notes-postgres", false));
     }
+
     @GetMapping("/mongo-check")
     public ResponseEntity<Map<String, Object>> checkMongo() {
         try {
@@ -89,9 +112,22 @@ public class MigrationController {
             ));
         }
     }
+
     @PostMapping("/lectures")
-    public ResponseEntity<String> migrateLectures() {
-        lectureMigrationService.migrateLecturesToPostgres(); // 이거 호출
-        return ResponseEntity.ok("완료");
+    public ResponseEntity<Map<String, Object>> migrateLectures() {
+        return run(() -> migrationEngine.start("lectures-postgres", false));
+    }
+
+    private ResponseEntity<Map<String, Object>> run(Supplier<Map<String, Object>> action) {
+        try {
+            return ResponseEntity.ok(action.get());
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(404).body(Map.of("status", "error", "message", e.getMessage()));
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(409).body(Map.of("status", "error", "message", e.getMessage()));
+        } catch (Exception e) {
+            log.error("마이그레이션 요청 실패", e);
+            return ResponseEntity.status(500).body(Map.of("status", "error", "message", "실패: " + e.getMessage()));
+        }
     }
 }
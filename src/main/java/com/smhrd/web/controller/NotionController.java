@@ -1,7 +1,10 @@
 package com.smhrd.web.controller;
 
 import com.smhrd.web.dto.CategoryResult;
+import com.smhrd.web.dto.NoteSearchHit;
 import com.smhrd.web.entity.*;
+import com.smhrd.web.event.NoteDeletedEvent;
+import com.smhrd.web.event.NoteSavedEvent;
 import com.smhrd.web.repository.*;
 import com.smhrd.web.security.CustomUserDetails;
 import com.smhrd.web.service.*;
@@ -13,6 +16,7 @@ import lombok.extern.slf4j.Slf4j;
 
 import org.apache.tika.metadata.HttpHeaders;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.core.env.Environment;
 import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.http.MediaType;
@@ -25,6 +29,7 @@ import org.springframework.transaction.annotation.Transactional;
 import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.io.IOException;
 import java.net.URLEncoder;
@@ -32,6 +37,8 @@ import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.*;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletionException;
 import java.util.stream.Collectors;
 
 @Slf4j
@@ -55,6 +62,10 @@ public class NotionController {
     private final FileMetadataRepository fileMetadataRepository;
     private final FolderRepository folderRepository;
     private final NoteFolderRepository noteFolderRepository;
+    private final SummaryJobService summaryJobService;
+    private final HybridNoteSearchService hybridNoteSearchService;
+    private final PostgresVectorService postgresVectorService;
+    private final ApplicationEventPublisher eventPublisher;
 
 
     // ------------------------------------------------------------
@@ -224,6 +235,249 @@ public class NotionController {
         }
     }
 
+    // ------------------------------------------------------------
+    // 스트리밍 요약 (SSE) — 위 3개 엔드포인트의 스트리밍 버전
+    //   event: progress  {stage, mode, done, total, level, inputs, outputs}
+    //   event: token     {t}  최종 요약 토큰 조각
+    //   event: done      기존 JSON 응답과 동일한 필드
+    //   event: error     {success:false, error}
+    // ------------------------------------------------------------
+    private static final long SUMMARY_STREAM_TIMEOUT_MS = 10 * 60 * 1000L;
+
+    @PostMapping(value = "/create-by-id/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @ResponseBody
+    public SseEmitter streamFromFileId(
+            @RequestBody Map<String, String> req,
+            @AuthenticationPrincipal(expression = "userIdx") Long userIdx
+    ) {
+        try {
+            String gridfsId = req.get("fileId");
+            FileStorageService.FileInfo meta = fileStorageService.previewFile(gridfsId);
+            if (meta == null) {
+                return singleErrorEmitter("파일을 찾을 수 없습니다.");
+            }
+            if (userIdx == null || !String.valueOf(userIdx).equals(meta.getUploaderIdx())) {
+                return singleErrorEmitter("권한이 없습니다.");
+            }
+
+            byte[] bytes = fileStorageService.downloadFile(gridfsId);
+            String filename = (meta.getOriginalName() == null) ? "file" : meta.getOriginalName();
+            String fullText = fileParseService.extractText(bytes, filename);
+
+            return streamSummary(userIdx, resolvePromptId(req), fullText, Map.of());
+        } catch (Exception e) {
+            log.error("파일 스트리밍 요약 준비 실패: {}", e.getMessage(), e);
+            return singleErrorEmitter(e.getMessage());
+        }
+    }
+
+    @PostMapping(value = "/create-text/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @ResponseBody
+    public SseEmitter streamFromText(
+            @RequestBody Map<String, String> req,
+            Authentication auth
+    ) {
+        Long userIdx = ((CustomUserDetails) auth.getPrincipal()).getUserIdx();
+        try {
+            return streamSummary(userIdx, resolvePromptId(req), req.getOrDefault("content", ""), Map.of());
+        } catch (Exception e) {
+            log.error("텍스트 스트리밍 요약 준비 실패: {}", e.getMessage(), e);
+            return singleErrorEmitter(e.getMessage());
+        }
+    }
+
+    @PostMapping(value = "/create-file/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @ResponseBody
+    public SseEmitter streamFromFile(
+            @RequestParam("file") MultipartFile file,
+            @RequestParam(value = "promptId", required = false) String promptId,
+            @RequestParam(value = "promptTitle", required = false) String promptTitle,
+            Authentication auth
+    ) {
+        Long userIdx = ((CustomUserDetails) auth.getPrincipal()).getUserIdx();
+        try {
+            // 업로드 임시 파일은 요청 종료 후 정리되므로 파싱은 요청 스레드에서 끝낸다
+            String text = fileParseService.extractText(file);
+            Map<String, String> promptReq = new HashMap<>();
+            if (promptId != null) promptReq.put("promptId", promptId);
+            if (promptTitle != null) promptReq.put("promptTitle", promptTitle);
+
+            Map<String, Object> extra = new HashMap<>();
+            extra.put("fileName", file.getOriginalFilename());
+            extra.put("fileSize", file.getSize());
+            return streamSummary(userIdx, resolvePromptId(promptReq), text, extra);
+        } catch (Exception e) {
+            log.error("파일 스트리밍 요약 준비 실패: {}", e.getMessage(), e);
+            return singleErrorEmitter(e.getMessage());
+        }
+    }
+
+    // ------------------------------------------------------------
+    // 비동기 요약 작업 — 제출 즉시 jobId 반환, 진행률은 /user/queue/summary-jobs 또는 상태 조회
+    // ------------------------------------------------------------
+    @PostMapping("/summary-jobs")
+    @ResponseBody
+    public ResponseEntity<Map<String, Object>> submitSummaryJob(
+            @RequestBody Map<String, String> req,
+            @AuthenticationPrincipal(expression = "userIdx") Long userIdx
+    ) {
+        if (userIdx == null) {
+            return ResponseEntity.status(401).body(Map.of("success", false, "error", "로그인이 필요합니다."));
+        }
+        try {
+            Long promptId = resolvePromptId(req);
+            String fileId = req.get("fileId");
+            SummaryJob job;
+
+            if (fileId != null && !fileId.isBlank()) {
+                FileStorageService.FileInfo meta = fileStorageService.previewFile(fileId);
+                if (meta == null) {
+                    return ResponseEntity.ok(Map.of("success", false, "error", "파일을 찾을 수 없습니다."));
+                }
+                if (!String.valueOf(userIdx).equals(meta.getUploaderIdx())) {
+                    return ResponseEntity.status(403).body(Map.of("success", false, "error", "권한이 없습니다."));
+                }
+                job = summaryJobService.submitFile(userIdx, fileId, promptId);
+            } else {
+                job = summaryJobService.submitText(userIdx, req.getOrDefault("content", ""), promptId);
+            }
+
+            return ResponseEntity.ok(Map.of("success", true, "jobId", job.getId(), "status", job.getStatus()));
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(503).body(Map.of("success", false, "error", e.getMessage()));
+        } catch (Exception e) {
+            log.error("요약 작업 등록 실패: {}", e.getMessage(), e);
+            return ResponseEntity.status(500).body(Map.of("success", false, "error", String.valueOf(e.getMessage())));
+        }
+    }
+
+    @GetMapping("/summary-jobs/{jobId}")
+    @ResponseBody
+    public ResponseEntity<Map<String, Object>> getSummaryJob(
+            @PathVariable String jobId,
+            @AuthenticationPrincipal(expression = "userIdx") Long userIdx
+    ) {
+        return summaryJobService.getJob(jobId, userIdx)
+                .map(job -> {
+                    Map<String, Object> out = new HashMap<>();
+                    out.put("success", true);
+                    out.put("jobId", job.getId());
+                    out.put("status", job.getStatus());
+                    out.put("mode", job.getMode());
+                    out.put("totalChunks", job.getTotalChunks());
+                    out.put("doneChunks", job.getDoneChunks());
+                    out.put("reduceLevel", job.getReduceLevel());
+                    out.put("summary", job.getSummary());
+                    out.put("keywords", job.getKeywords());
+                    out.put("message", job.getMessage());
+                    out.put("error", job.getError());
+                    return ResponseEntity.ok(out);
+                })
+                .orElseGet(() -> ResponseEntity.status(404).body(Map.of("success", false, "error", "작업을 찾을 수 없습니다.")));
+    }
+
+    // promptId가 있으면 우선 사용, 없으면 promptTitle(기본 "심플버전")로 조회
+    private Long resolvePromptId(Map<String, String> req) {
+        String promptId = req.get("promptId");
+        if (promptId != null && !promptId.isBlank()) {
+            return Long.parseLong(promptId.trim());
+        }
+        return llmService.findPromptIdByTitle(req.getOrDefault("promptTitle", "심플버전"));
+    }
+
+    private SseEmitter streamSummary(Long userIdx, Long promptId, String text, Map<String, Object> extra) {
+        SseEmitter emitter = new SseEmitter(SUMMARY_STREAM_TIMEOUT_MS);
+        SummarySseListener listener = new SummarySseListener(emitter);
+        // 클라이언트가 끊으면 listener 가 취소 상태가 되어 남은 청크 호출과 vLLM 토큰 스트림이 중단된다
+        emitter.onCompletion(listener::close);
+        emitter.onTimeout(listener::close);
+        emitter.onError(ex -> listener.close());
+
+        llmService.summarizeLongDocumentAsync(userIdx, promptId, text, listener)
+                .whenComplete((summary, ex) -> {
+                    if (ex != null) {
+                        Throwable cause = (ex instanceof CompletionException && ex.getCause() != null) ? ex.getCause() : ex;
+                        if (cause instanceof CancellationException || listener.isCancelled()) {
+                            log.info("스트리밍 요약 중단 (클라이언트 연결 종료)");
+                        } else {
+                            log.error("스트리밍 요약 실패: {}", cause.getMessage(), cause);
+                            listener.send("error", Map.of("success", false, "error", String.valueOf(cause.getMessage())));
+                        }
+                    } else {
+                        Map<String, Object> out = new HashMap<>(extra);
+                        out.put("success", summary.isSuccess());
+                        out.put("mode", summary.getMode());
+                        out.put("summary", summary.getSummaryMarkdown());
+                        out.put("keywords", summary.getKeywords());
+                        out.put("message", summary.getMessage());
+                        listener.send("done", out);
+                    }
+                    emitter.complete();
+                });
+        return emitter;
+    }
+
+    private SseEmitter singleErrorEmitter(String message) {
+        SseEmitter emitter = new SseEmitter(SUMMARY_STREAM_TIMEOUT_MS);
+        try {
+            emitter.send(SseEmitter.event().name("error")
+                    .data(Map.of("success", false, "error", String.valueOf(message)), MediaType.APPLICATION_JSON));
+            emitter.complete();
+        } catch (IOException e) {
+            emitter.completeWithError(e);
+        }
+        return emitter;
+    }
+
+    /** 요약 진행 상황을 SSE 이벤트로 변환. 클라이언트 연결이 끊기면 이후 전송은 무시한다. */
+    private static class SummarySseListener implements LLMUnifiedService.SummaryProgressListener {
+        private final SseEmitter emitter;
+        private volatile boolean closed = false;
+
+        SummarySseListener(SseEmitter emitter) {
+            this.emitter = emitter;
+        }
+
+        void close() {
+            closed = true;
+        }
+
+        @Override
+        public boolean isCancelled() {
+            return closed;
+        }
+
+        void send(String name, Object data) {
+            if (closed) return;
+            try {
+                emitter.send(SseEmitter.event().name(name).data(data, MediaType.APPLICATION_JSON));
+            } catch (Exception e) {
+                closed = true;
+                log.debug("SSE 전송 중단 (클라이언트 연결 종료): {}", e.getMessage());
+            }
+        }
+
+        @Override
+        public void onStage(String mode, int chunkCount) {
+            send("progress", Map.of("stage", "start", "mode", mode, "total", chunkCount));
+        }
+
+        @Override
+        public void onChunkDone(int done, int total) {
+            send("progress", Map.of("stage", "chunk", "done", done, "total", total));
+        }
+
+        @Override
+        public void onReduceLevel(int level, int inputs, int outputs) {
+            send("progress", Map.of("stage", "reduce", "level", level, "inputs", inputs, "outputs", outputs));
+        }
+
+        @Override
+        public void onToken(String delta) {
+            send("token", Map.of("t", delta));
+        }
+    }
+
     // ------------------------------------------------------------
     // 저장 (현행 유지)
     // ------------------------------------------------------------
@@ -511,6 +765,7 @@ public class NotionController {
             }
 
             noteRepository.save(note);
+            eventPublisher.publishEvent(new NoteSavedEvent(this, note.getNoteIdx(), userIdx));
 
             res.put("success", true);
             res.put("message", "저장되었습니다.");
@@ -558,6 +813,7 @@ public class NotionController {
             // ✅ 노트 상태 변경 (소프트 삭제)
             note.setStatus("DELETED");
             noteRepository.save(note);
+            eventPublisher.publishEvent(new NoteDeletedEvent(this, note.getNoteIdx(), userIdx));
 
             res.put("success", true);
             res.put("message", "삭제되었습니다.");
@@ -569,6 +825,51 @@ public class NotionController {
         }
     }
 
+    // 노트 검색: 어휘 + 벡터 하이브리드 (RRF), 본문 대신 하이라이트 스니펫 반환
+    @GetMapping("/api/notion/search")
+    @ResponseBody
+    public ResponseEntity<Map<String, Object>> searchNotes(
+            @RequestParam("q") String q,
+            @RequestParam(defaultValue = "10") int limit,
+            @RequestParam(defaultValue = "SNIPPET") NoteSearchHit.Projection projection,
+            Authentication auth
+    ) {
+        Long userIdx = ((CustomUserDetails) auth.getPrincipal()).getUserIdx();
+        Map<String, Object> res = new HashMap<>();
+        try {
+            List<NoteSearchHit> results = hybridNoteSearchService.search(userIdx, q, Math.min(Math.max(limit, 1), 50), projection);
+            res.put("success", true);
+            res.put("results", results);
+            return ResponseEntity.ok(res);
+        } catch (Exception e) {
+            log.error("노트 검색 오류: q={}, error={}", q, e.getMessage(), e);
+            res.put("success", false);
+            res.put("message", e.getMessage());
+            return ResponseEntity.status(500).body(res);
+        }
+    }
+
+    // 검색 결과에서 펼쳐 볼 때만 본문 전체 조회
+    @GetMapping("/api/notion/search/{noteIdx}/content")
+    @ResponseBody
+    public ResponseEntity<Map<String, Object>> searchNoteContent(
+            @PathVariable Long noteIdx,
+            Authentication auth
+    ) {
+        Long userIdx = ((CustomUserDetails) auth.getPrincipal()).getUserIdx();
+        Map<String, Object> res = new HashMap<>();
+        Optional<String> content = postgresVectorService.loadNoteContent(userIdx, noteIdx);
+        if (content.isEmpty()) {
+            res.put("success", false);
+            res.put("message", "노트를 찾을 수 없습니다.");
+            return ResponseEntity.status(404).body(res);
+        }
+        res.put("success", true);
+        res.put("noteIdx", noteIdx);
+        res.put("content", content.get());
+        return ResponseEntity.ok(res);
+    }
+
     @GetMapping("/api/notion/download/{noteIdx}")
     public void downloadNote(
         @PathVariable Long noteIdx,
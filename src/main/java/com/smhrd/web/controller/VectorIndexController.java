@@ -0,0 +1,52 @@
+package com.smhrd.web.controller;
+
+import com.smhrd.web.service.VectorIndexManager;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.Map;
+
+/**
+ * user_notes 벡터 인덱스 상태 / 재점검 / recall 벤치마크 (관리자용)
+ */
+@Slf4j
+@RestController
+@RequestMapping("/api/admin/vector-index")
+@RequiredArgsConstructor
+public class VectorIndexController {
+
+    private final VectorIndexManager vectorIndexManager;
+
+    /** pgvector 버전, 인덱스 목록, 검색 프로필별 ef_search/probes */
+    @GetMapping
+    public ResponseEntity<Map<String, Object>> status() {
+        return ResponseEntity.ok(vectorIndexManager.status());
+    }
+
+    /** 인덱스 즉시 재점검 (없거나 INVALID면 생성) */
+    @PostMapping("/ensure")
+    public ResponseEntity<Map<String, Object>> ensure() {
+        try {
+            return ResponseEntity.ok(vectorIndexManager.ensureIndexes());
+        } catch (Exception e) {
+            log.error("벡터 인덱스 점검 실패", e);
+            return ResponseEntity.status(500).body(Map.of("status", "error", "message", "실패: " + e.getMessage()));
+        }
+    }
+
+    /** ANN vs 정확 검색 recall@k: /benchmark?sample=100&k=10&profile=BALANCED */
+    @PostMapping("/benchmark")
+    public ResponseEntity<Map<String, Object>> benchmark(
+            @RequestParam(defaultValue = "100") int sample,
+            @RequestParam(defaultValue = "10") int k,
+            @RequestParam(required = false) VectorIndexManager.Profile profile) {
+        try {
+            return ResponseEntity.ok(vectorIndexManager.benchmarkRecall(sample, k, profile));
+        } catch (Exception e) {
+            log.error("벡터 recall 벤치마크 실패", e);
+            return ResponseEntity.status(500).body(Map.of("status", "error", "message", "실패: " + e.getMessage()));
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package com.smhrd.web.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * vLLM /v1/chat/completions 요청 DTO
+ */
+@Data
+@Builder(toBuilder = true)
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class ChatCompletionRequest {
+
+    private String model;
+
+    @Builder.Default
+    private List<ChatMessage> messages = new ArrayList<>();
+
+    @JsonProperty("max_tokens")
+    private Integer maxTokens;
+
+    private Double temperature;
+
+    @Builder.Default
+    private Boolean stream = false;
+
+    /**
+     * system + user 두 메시지로 된 가장 흔한 형태
+     */
+    public static ChatCompletionRequest of(String model, String system, String user,
+                                           Integer maxTokens, Double temperature) {
+        List<ChatMessage> messages = new ArrayList<>();
+        if (system != null) {
+            messages.add(ChatMessage.system(system));
+        }
+        messages.add(ChatMessage.user(user == null ? "" : user));
+        return ChatCompletionRequest.builder()
+                .model(model)
+                .messages(messages)
+                .maxTokens(maxTokens)
+                .temperature(temperature)
+                .build();
+    }
+}
@@ -0,0 +1,59 @@
+package com.smhrd.web.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * vLLM /v1/chat/completions 응답 DTO (스트리밍 청크도 같은 형태, message 대신 delta 사용)
+ */
+@Data
+@NoArgsConstructor
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class ChatCompletionResponse {
+
+    private String id;
+    private String model;
+    private List<Choice> choices;
+    private Usage usage;
+
+    /**
+     * 첫 번째 choice의 본문 (일반 응답은 message, 스트리밍 청크는 delta)
+     */
+    public String firstContent() {
+        if (choices == null || choices.isEmpty()) return null;
+        Choice c = choices.get(0);
+        if (c.getMessage() != null && c.getMessage().getContent() != null) return c.getMessage().getContent();
+        if (c.getDelta() != null) return c.getDelta().getContent();
+        return null;
+    }
+
+    @Data
+    @NoArgsConstructor
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public static class Choice {
+        private int index;
+        private ChatMessage message;
+        private ChatMessage delta;
+
+        @JsonProperty("finish_reason")
+        private String finishReason;
+    }
+
+    @Data
+    @NoArgsConstructor
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public static class Usage {
+        @JsonProperty("prompt_tokens")
+        private int promptTokens;
+
+        @JsonProperty("completion_tokens")
+        private int completionTokens;
+
+        @JsonProperty("total_tokens")
+        private int totalTokens;
+    }
+}
@@ -0,0 +1,40 @@
+package com.smhrd.web.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * 노트 검색 결과 한 건 (user_notes).
+ * projection 에 따라 채워지는 필드가 다르고, 비어 있는 필드는 JSON에서 빠진다.
+ * 본문 전체는 담지 않는다 → PostgresVectorService.loadNoteContent 로 따로 조회
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class NoteSearchHit {
+
+    public enum Projection {
+        IDS,        // noteIdx + 점수
+        TITLE,      // + title, createdAt
+        SNIPPET     // + 질의와 가장 잘 맞는 부분 주변 N자 (또는 하이라이트)
+    }
+
+    private Long noteIdx;
+    private Long userIdx;
+    private String title;
+    private String snippet;
+    private Integer contentLength;
+    private LocalDateTime createdAt;
+
+    // 벡터 코사인 유사도 (벡터 검색으로 찾은 경우)
+    private Double similarity;
+
+    // 하이브리드 검색: RRF 점수와 각 목록에서의 순위 (1부터, 없으면 null)
+    private Double score;
+    private Integer lexicalRank;
+    private Integer vectorRank;
+}
@@ -0,0 +1,57 @@
+package com.smhrd.web.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+// 사용자별 채팅 통계 집계 (채팅 저장/평가 시 증분 갱신 → 통계 조회는 PK 한 건)
+@Entity
+@Table(name = "chat_user_stats")
+@Data
+@NoArgsConstructor
+public class ChatUserStats {
+
+    @Id
+    @Column(name = "user_idx")
+    private Long userIdx;
+
+    @Column(name = "total_chats", nullable = false)
+    private long totalChats;
+
+    // 응답 시간 합계 / 응답 시간이 기록된 대화 수
+    @Column(name = "total_response_ms", nullable = false)
+    private long totalResponseMs;
+
+    @Column(name = "timed_chats", nullable = false)
+    private long timedChats;
+
+    @Column(name = "rated_chats", nullable = false)
+    private long ratedChats;
+
+    @Column(name = "rating_sum", nullable = false)
+    private long ratingSum;
+
+    // 별점 분포 (1~5)
+    @Column(name = "rating_1", nullable = false)
+    private long rating1;
+
+    @Column(name = "rating_2", nullable = false)
+    private long rating2;
+
+    @Column(name = "rating_3", nullable = false)
+    private long rating3;
+
+    @Column(name = "rating_4", nullable = false)
+    private long rating4;
+
+    @Column(name = "rating_5", nullable = false)
+    private long rating5;
+
+    @Column(name = "last_chat_at")
+    private LocalDateTime lastChatAt;
+
+    @Column(name = "updated_at", insertable = false, updatable = false)
+    private LocalDateTime updatedAt;
+}
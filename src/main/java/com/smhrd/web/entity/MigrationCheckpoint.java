@@ -0,0 +1,54 @@
+package com.smhrd.web.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+// 대량 마이그레이션 체크포인트 (배치 하나를 쓸 때마다 갱신 → 중단/장애 후 last_key 다음부터 재개)
+@Entity
+@Table(name = "migration_checkpoints")
+@Data
+@NoArgsConstructor
+public class MigrationCheckpoint {
+
+    public static final String STATUS_IDLE = "IDLE";
+    public static final String STATUS_RUNNING = "RUNNING";
+    public static final String STATUS_STOPPED = "STOPPED";
+    public static final String STATUS_COMPLETED = "COMPLETED";
+    public static final String STATUS_FAILED = "FAILED";
+
+    @Id
+    @Column(name = "job_name", length = 64)
+    private String jobName;
+
+    @Column(name = "last_key", length = 100)
+    private String lastKey;
+
+    @Column(nullable = false, length = 12)
+    private String status = STATUS_IDLE;
+
+    @Column(nullable = false)
+    private long processed;
+
+    @Column(nullable = false)
+    private long skipped;
+
+    @Column(name = "last_error", length = 500)
+    private String lastError;
+
+    @Column(name = "started_at")
+    private LocalDateTime startedAt;
+
+    @Column(name = "finished_at")
+    private LocalDateTime finishedAt;
+
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+
+    public MigrationCheckpoint(String jobName) {
+        this.jobName = jobName;
+        this.updatedAt = LocalDateTime.now();
+    }
+}
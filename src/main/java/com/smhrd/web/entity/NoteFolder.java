@@ -46,6 +46,15 @@ public class NoteFolder {
     @Builder.Default
     private String status = "ACTIVE";
 
+    // 루트부터 자기 자신까지의 folder_id 경로 ("/3/17/42/"), NoteFolderPathService 가 SQL 로만 갱신
+    @JsonIgnore
+    @Column(name = "path", length = 512, insertable = false, updatable = false)
+    private String path;
+
+    @JsonIgnore
+    @Column(name = "depth", insertable = false, updatable = false)
+    private Integer depth;
+
     @Column(name = "created_at")
     private LocalDateTime createdAt;
 
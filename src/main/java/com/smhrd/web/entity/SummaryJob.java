@@ -0,0 +1,95 @@
+package com.smhrd.web.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+import org.springframework.data.mongodb.core.mapping.Field;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+// 비동기 요약 작업 (재시작 후에도 이어서 처리하기 위해 MongoDB에 상태 저장)
+@Document(collection = "summary_jobs")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class SummaryJob {
+
+    public static final String QUEUED = "QUEUED";
+    public static final String RUNNING = "RUNNING";
+    public static final String DONE = "DONE";
+    public static final String FAILED = "FAILED";
+
+    @Id
+    private String id;
+
+    @Field("user_idx")
+    private Long userIdx;
+
+    // 같은 사용자 + 같은 원본 + 같은 프롬프트 → 같은 키 (중복 제출 병합용)
+    @Indexed
+    @Field("dedupe_key")
+    private String dedupeKey;
+
+    @Field("file_id")
+    private String fileId;     // GridFS 파일 기반 작업
+
+    @Field("content")
+    private String content;    // 텍스트 기반 작업
+
+    @Field("prompt_id")
+    private Long promptId;
+
+    @Field("status")
+    @Builder.Default
+    private String status = QUEUED;
+
+    @Field("mode")
+    private String mode;
+
+    @Field("total_chunks")
+    private int totalChunks;
+
+    @Field("done_chunks")
+    private int doneChunks;
+
+    @Field("reduce_level")
+    private int reduceLevel;
+
+    @Field("summary")
+    private String summary;
+
+    @Field("keywords")
+    private List<String> keywords;
+
+    @Field("message")
+    private String message;
+
+    @Field("error")
+    private String error;
+
+    // 작업을 잡은 노드와 임대 만료 시각 (여러 노드가 같은 작업을 동시에 재개하지 않도록)
+    @Field("owner")
+    private String owner;
+
+    @Field("lease_until")
+    private LocalDateTime leaseUntil;
+
+    @Field("created_at")
+    private LocalDateTime createdAt;
+
+    @Field("updated_at")
+    private LocalDateTime updatedAt;
+
+    @Field("finished_at")
+    private LocalDateTime finishedAt;
+
+    public boolean isActive() {
+        return QUEUED.equals(status) || RUNNING.equals(status);
+    }
+}
@@ -0,0 +1,68 @@
+package com.smhrd.web.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+// MySQL → Postgres 동기화 아웃박스 (노트/시험 결과 저장 트랜잭션에서 함께 기록, SyncOutboxRelay 가 배치로 처리)
+@Entity
+@Table(name = "sync_outbox")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class SyncOutbox {
+
+    public static final String TYPE_NOTE = "NOTE";
+    public static final String TYPE_EXAM_RESULT = "EXAM_RESULT";
+
+    public static final String OP_UPSERT = "UPSERT";
+    public static final String OP_DELETE = "DELETE";
+
+    public static final String STATUS_PENDING = "PENDING";
+    public static final String STATUS_PROCESSING = "PROCESSING";
+    public static final String STATUS_DONE = "DONE";
+    public static final String STATUS_FAILED = "FAILED";
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "outbox_idx")
+    private Long outboxIdx;
+
+    @Column(name = "aggregate_type", nullable = false, length = 20)
+    private String aggregateType;
+
+    @Column(name = "aggregate_id", nullable = false)
+    private Long aggregateId;
+
+    @Column(nullable = false, length = 10)
+    private String op;
+
+    @Column(name = "user_idx")
+    private Long userIdx;
+
+    @Builder.Default
+    @Column(nullable = false, length = 12)
+    private String status = STATUS_PENDING;
+
+    @Builder.Default
+    @Column(nullable = false)
+    private int attempts = 0;
+
+    @Column(name = "last_error", length = 500)
+    private String lastError;
+
+    // 재시도 대기 / 처리 중 임대(lease) 만료 시각
+    @Column(name = "available_at", nullable = false)
+    private LocalDateTime availableAt;
+
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "processed_at")
+    private LocalDateTime processedAt;
+}
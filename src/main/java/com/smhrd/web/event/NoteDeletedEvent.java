@@ -0,0 +1,21 @@
+package com.smhrd.web.event;
+
+import lombok.Getter;
+import org.springframework.context.ApplicationEvent;
+
+/**
+ * 노트 삭제 이벤트 (소프트 삭제 포함)
+ */
+@Getter
+public class NoteDeletedEvent extends ApplicationEvent {
+    private static final long serialVersionUID = 1L;
+
+    private final Long noteIdx;
+    private final Long userIdx;
+
+    public NoteDeletedEvent(Object source, Long noteIdx, Long userIdx) {
+        super(source);
+        this.noteIdx = noteIdx;
+        this.userIdx = userIdx;
+    }
+}
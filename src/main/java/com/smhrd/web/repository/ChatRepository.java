@@ -1,6 +1,7 @@
 package com.smhrd.web.repository;
 
 import com.smhrd.web.entity.Chat;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 
 import java.util.List;
@@ -10,9 +11,17 @@ public interface ChatRepository extends JpaRepository<Chat, Long> {
     // 세션별 대화 조회
     List<Chat> findBySessionIdOrderByCreatedAtAsc(String sessionId);
 
+    // 세션별 최근 N개 (최신순)
+    List<Chat> findBySessionIdOrderByCreatedAtDescChatIdxDesc(String sessionId, Pageable pageable);
+
     // 사용자별 최근 대화 조회
     List<Chat> findByUserIdxOrderByCreatedAtDesc(Long userIdx);
 
+    // 사용자별 최근 대화 (limit / 키셋 페이징, chat_idx 는 생성 순서와 같음)
+    List<Chat> findByUserIdxOrderByChatIdxDesc(Long userIdx, Pageable pageable);
+
+    List<Chat> findByUserIdxAndChatIdxLessThanOrderByChatIdxDesc(Long userIdx, Long chatIdx, Pageable pageable);
+
     // 사용자별 전체 대화
     List<Chat> findByUserIdx(Long userIdx);
 
@@ -0,0 +1,77 @@
+package com.smhrd.web.repository;
+
+import com.smhrd.web.entity.ChatUserStats;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+
+public interface ChatUserStatsRepository extends JpaRepository<ChatUserStats, Long> {
+
+    // 집계 행이 없을 때 기존 chats 로 1회 채움 (이미 있으면 무시)
+    @Modifying
+    @Query(value = """
+            INSERT IGNORE INTO chat_user_stats
+                (user_idx, total_chats, total_response_ms, timed_chats, rated_chats, rating_sum,
+                 rating_1, rating_2, rating_3, rating_4, rating_5, last_chat_at)
+            SELECT :userIdx, COUNT(*), COALESCE(SUM(response_time_ms), 0), COUNT(response_time_ms),
+                   COUNT(rating), COALESCE(SUM(rating), 0),
+                   COALESCE(SUM(rating = 1), 0), COALESCE(SUM(rating = 2), 0), COALESCE(SUM(rating = 3), 0),
+                   COALESCE(SUM(rating = 4), 0), COALESCE(SUM(rating = 5), 0), MAX(created_at)
+            FROM chats WHERE user_idx = :userIdx
+            """, nativeQuery = true)
+    int backfill(@Param("userIdx") Long userIdx);
+
+    // 대화 1건 추가
+    @Modifying
+    @Query(value = """
+            UPDATE chat_user_stats
+            SET total_chats = total_chats + 1,
+                total_response_ms = total_response_ms + COALESCE(:responseMs, 0),
+                timed_chats = timed_chats + IF(:responseMs IS NULL, 0, 1),
+                last_chat_at = GREATEST(COALESCE(last_chat_at, :at), :at)
+            WHERE user_idx = :userIdx
+            """, nativeQuery = true)
+    int addChat(@Param("userIdx") Long userIdx, @Param("responseMs") Integer responseMs, @Param("at") LocalDateTime at);
+
+    // 평가 변경 (oldRating → newRating, 둘 다 null 가능)
+    @Modifying
+    @Query(value = """
+            UPDATE chat_user_stats
+            SET rated_chats = rated_chats + IF(:newRating IS NULL, 0, 1) - IF(:oldRating IS NULL, 0, 1),
+                rating_sum = rating_sum + COALESCE(:newRating, 0) - COALESCE(:oldRating, 0),
+                rating_1 = rating_1 + IF(:newRating <=> 1, 1, 0) - IF(:oldRating <=> 1, 1, 0),
+                rating_2 = rating_2 + IF(:newRating <=> 2, 1, 0) - IF(:oldRating <=> 2, 1, 0),
+                rating_3 = rating_3 + IF(:newRating <=> 3, 1, 0) - IF(:oldRating <=> 3, 1, 0),
+                rating_4 = rating_4 + IF(:newRating <=> 4, 1, 0) - IF(:oldRating <=> 4, 1, 0),
+                rating_5 = rating_5 + IF(:newRating <=> 5, 1, 0) - IF(:oldRating <=> 5, 1, 0)
+            WHERE user_idx = :userIdx
+            """, nativeQuery = true)
+    int changeRating(@Param("userIdx") Long userIdx, @Param("oldRating") Integer oldRating,
+                     @Param("newRating") Integer newRating);
+
+    // 세션 삭제 시 해당 세션 대화만큼 차감 (chats 행을 지우기 전에 호출)
+    @Modifying
+    @Query(value = """
+            UPDATE chat_user_stats s
+            JOIN (SELECT user_idx, COUNT(*) AS cnt, COALESCE(SUM(response_time_ms), 0) AS resp,
+                         COUNT(response_time_ms) AS timed, COUNT(rating) AS rated, COALESCE(SUM(rating), 0) AS rsum,
+                         COALESCE(SUM(rating = 1), 0) AS r1, COALESCE(SUM(rating = 2), 0) AS r2,
+                         COALESCE(SUM(rating = 3), 0) AS r3, COALESCE(SUM(rating = 4), 0) AS r4,
+                         COALESCE(SUM(rating = 5), 0) AS r5
+                  FROM chats WHERE session_id = :sessionId GROUP BY user_idx) d ON d.user_idx = s.user_idx
+            SET s.total_chats = GREATEST(0, s.total_chats - d.cnt),
+                s.total_response_ms = GREATEST(0, s.total_response_ms - d.resp),
+                s.timed_chats = GREATEST(0, s.timed_chats - d.timed),
+                s.rated_chats = GREATEST(0, s.rated_chats - d.rated),
+                s.rating_sum = GREATEST(0, s.rating_sum - d.rsum),
+                s.rating_1 = GREATEST(0, s.rating_1 - d.r1),
+                s.rating_2 = GREATEST(0, s.rating_2 - d.r2),
+                s.rating_3 = GREATEST(0, s.rating_3 - d.r3),
+                s.rating_4 = GREATEST(0, s.rating_4 - d.r4),
+                s.rating_5 = GREATEST(0, s.rating_5 - d.r5)
+            """, nativeQuery = true)
+    int subtractSession(@Param("sessionId") String sessionId);
+}
@@ -0,0 +1,11 @@
+package com.smhrd.web.repository;
+
+import com.smhrd.web.entity.MigrationCheckpoint;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.util.List;
+
+public interface MigrationCheckpointRepository extends JpaRepository<MigrationCheckpoint, String> {
+
+    List<MigrationCheckpoint> findByStatus(String status);
+}
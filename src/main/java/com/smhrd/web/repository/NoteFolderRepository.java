@@ -2,7 +2,11 @@ package com.smhrd.web.repository;
 
 import com.smhrd.web.entity.NoteFolder;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -30,4 +34,70 @@ public interface NoteFolderRepository extends JpaRepository<NoteFolder, Long> {
 
     Optional<NoteFolder> findRootByUserIdxAndFolderName(Long userIdx, String folderName);
 
+    // ========== 경로(path) 유지용 — NoteFolderPathService 에서만 사용 ==========
+    // path = 루트부터 자기 자신까지의 folder_id 목록 ("/3/17/42/"), depth = 루트 0
+
+    // 새 폴더의 path/depth 를 부모 기준으로 설정
+    @Modifying
+    @Query(value = """
+            UPDATE note_folders f
+            LEFT JOIN note_folders p ON p.folder_id = f.parent_folder_id
+            SET f.path = CONCAT(COALESCE(p.path, '/'), f.folder_id, '/'),
+                f.depth = COALESCE(p.depth + 1, 0)
+            WHERE f.folder_id = :folderId
+            """, nativeQuery = true)
+    int initPath(@Param("folderId") Long folderId);
+
+    // 하위 트리 전체의 path 접두어 교체 (이동)
+    @Modifying
+    @Query(value = """
+            UPDATE note_folders
+            SET path = CONCAT(:newPrefix, SUBSTRING(path, CHAR_LENGTH(:oldPrefix) + 1)),
+                depth = depth + :depthDelta
+            WHERE user_idx = :userIdx AND path LIKE CONCAT(:oldPrefix, '%')
+            """, nativeQuery = true)
+    int movePathPrefix(@Param("userIdx") Long userIdx, @Param("oldPrefix") String oldPrefix,
+                       @Param("newPrefix") String newPrefix, @Param("depthDelta") int depthDelta);
+
+    // 하위 트리에 속한 노트를 루트로 이동
+    @Modifying
+    @Query(value = """
+            UPDATE notes n
+            JOIN note_folders f ON f.folder_id = n.folder_id
+            SET n.folder_id = NULL
+            WHERE f.user_idx = :userIdx AND f.path LIKE CONCAT(:prefix, '%')
+            """, nativeQuery = true)
+    int detachNotesUnder(@Param("userIdx") Long userIdx, @Param("prefix") String prefix);
+
+    // 하위 트리 삭제 (자식부터 지워 자기 참조 FK 연쇄가 생기지 않게)
+    @Modifying
+    @Query(value = """
+            DELETE FROM note_folders
+            WHERE user_idx = :userIdx AND path LIKE CONCAT(:prefix, '%')
+            ORDER BY depth DESC
+            """, nativeQuery = true)
+    int deleteSubtree(@Param("userIdx") Long userIdx, @Param("prefix") String prefix);
+
+    // 폴더의 노트를 다른 폴더로 한 번에 이동 (병합)
+    @Modifying
+    @Query(value = """
+            UPDATE notes SET folder_id = :toFolderId
+            WHERE user_idx = :userIdx AND folder_id = :fromFolderId AND status = 'ACTIVE'
+            """, nativeQuery = true)
+    int moveNotes(@Param("userIdx") Long userIdx, @Param("fromFolderId") Long fromFolderId,
+                  @Param("toFolderId") Long toFolderId);
+
+    // 폴더별 조상 이름 (루트 → 자기 자신 순) : [folder_id, folder_name]
+    @Query(value = """
+            SELECT f.folder_id, a.folder_name
+            FROM note_folders f
+            JOIN note_folders a ON a.user_idx = f.user_idx AND f.path LIKE CONCAT(a.path, '%')
+            WHERE f.folder_id IN (:folderIds)
+            ORDER BY f.folder_id, a.depth
+            """, nativeQuery = true)
+    List<Object[]> findAncestorNames(@Param("folderIds") Collection<Long> folderIds);
+
+    @Query(value = "SELECT path FROM note_folders WHERE folder_id = :folderId", nativeQuery = true)
+    String findPath(@Param("folderId") Long folderId);
+
 }
@@ -14,13 +14,6 @@ public interface NoteRepository extends JpaRepository<Note, Long> {
 
     List<Note> findByUserAndStatusOrderByCreatedAtDesc(User user, String status);
 
-    @Query("SELECT n FROM Note n WHERE n.user.userIdx = :userIdx AND n.status = 'ACTIVE' AND " +
-            "(LOWER(n.title) LIKE LOWER(CONCAT('%', :keyword, '%')) OR " +
-            "LOWER(n.content) LIKE LOWER(CONCAT('%', :keyword, '%')))")
-    List<Note> searchByUserAndKeyword(@Param("userIdx") Long userIdx,
-                                      @Param("keyword") String keyword);
-
-
     List<Note> findByUser_UserIdxAndStatusOrderByCreatedAtDesc(Long userIdx, String status);
 
 
@@ -0,0 +1,16 @@
+package com.smhrd.web.repository;
+
+import com.smhrd.web.entity.SummaryJob;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.Optional;
+
+@Repository
+public interface SummaryJobRepository extends MongoRepository<SummaryJob, String> {
+
+    Optional<SummaryJob> findFirstByDedupeKeyAndStatusIn(String dedupeKey, Collection<String> statuses);
+
+    Optional<SummaryJob> findByIdAndUserIdx(String id, Long userIdx);
+}
@@ -0,0 +1,68 @@
+package com.smhrd.web.repository;
+
+import com.smhrd.web.entity.SyncOutbox;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+public interface SyncOutboxRepository extends JpaRepository<SyncOutbox, Long> {
+
+    // 처리 가능한 행 잠금 (PROCESSING 이라도 임대가 만료됐으면 다시 가져옴 — 처리 중 노드가 죽은 경우)
+    @Query(value = """
+            SELECT * FROM sync_outbox
+            WHERE status IN ('PENDING', 'PROCESSING') AND available_at <= :now
+            ORDER BY outbox_idx
+            LIMIT :limit
+            FOR UPDATE SKIP LOCKED
+            """, nativeQuery = true)
+    List<SyncOutbox> lockNextBatch(@Param("now") LocalDateTime now, @Param("limit") int limit);
+
+    // 영속성 컨텍스트를 비워 lockNextBatch 로 읽은 엔티티가 커밋 시 옛 상태로 다시 UPDATE 되지 않게 함
+    @Modifying(clearAutomatically = true)
+    @Query(value = """
+            UPDATE sync_outbox
+            SET status = 'PROCESSING', attempts = attempts + 1, available_at = :leaseUntil
+            WHERE outbox_idx IN (:ids)
+            """, nativeQuery = true)
+    int claim(@Param("ids") Collection<Long> ids, @Param("leaseUntil") LocalDateTime leaseUntil);
+
+    @Modifying
+    @Query(value = """
+            UPDATE sync_outbox
+            SET status = 'DONE', last_error = NULL, processed_at = :now
+            WHERE outbox_idx IN (:ids)
+            """, nativeQuery = true)
+    int markDone(@Param("ids") Collection<Long> ids, @Param("now") LocalDateTime now);
+
+    // 재시도 예약 (status = PENDING) 또는 포기 (status = FAILED)
+    @Modifying
+    @Query(value = """
+            UPDATE sync_outbox
+            SET status = :status, last_error = :error, available_at = :availableAt
+            WHERE outbox_idx IN (:ids)
+            """, nativeQuery = true)
+    int markRetry(@Param("ids") Collection<Long> ids, @Param("status") String status,
+                  @Param("error") String error, @Param("availableAt") LocalDateTime availableAt);
+
+    @Modifying
+    @Query(value = """
+            DELETE FROM sync_outbox
+            WHERE status = 'DONE' AND processed_at < :before
+            LIMIT :limit
+            """, nativeQuery = true)
+    int purgeDone(@Param("before") LocalDateTime before, @Param("limit") int limit);
+
+    @Query(value = "SELECT COUNT(*) FROM sync_outbox WHERE status IN ('PENDING', 'PROCESSING')", nativeQuery = true)
+    long countPending();
+
+    @Query(value = "SELECT MIN(created_at) FROM sync_outbox WHERE status IN ('PENDING', 'PROCESSING')", nativeQuery = true)
+    LocalDateTime oldestPendingCreatedAt();
+
+    @Query(value = "SELECT COUNT(*) FROM sync_outbox WHERE status = 'FAILED'", nativeQuery = true)
+    long countFailed();
+}
@@ -20,6 +20,7 @@ import java.util.Optional;
 public class AutoFolderService {
 
     private final NoteFolderRepository noteFolderRepository;
+    private final NoteFolderPathService noteFolderPathService;
 
     @Transactional
     public Long createOrFindFolder(Long userIdx, CategoryResult categoryResult) {
@@ -102,6 +103,7 @@ public class AutoFolderService {
                     .build();
 
             NoteFolder saved = noteFolderRepository.save(folder);
+            noteFolderPathService.onCreated(saved.getFolderId());
             log.info("새 폴더 생성: {} (id={}, parent={})", folderName, saved.getFolderId(), parentId);
             return saved.getFolderId();
         } catch (DataIntegrityViolationException e) {
@@ -0,0 +1,134 @@
+package com.smhrd.web.service;
+
+import com.smhrd.web.entity.Chat;
+import com.smhrd.web.repository.ChatRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 세션별 최근 대화 버퍼.
+ * 세션 전체를 매번 조회하지 않도록 최근 N턴과 누적 턴 수만 메모리에 유지한다.
+ * - 처음 접근 시 "최근 N개" 쿼리 + count 1회로 채움
+ * - 저장할 때마다 버퍼에 추가하고 턴 수를 1 증가
+ * - idle-minutes 동안 사용되지 않은 세션은 주기적으로 제거 (다음 접근 시 다시 로드)
+ */
+@Slf4j
+@Component
+public class ChatHistoryBuffer {
+
+    private final ChatRepository chatRepository;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${chat.history.buffer-size:5}")
+    private int bufferSize;
+
+    @Value("${chat.history.idle-minutes:30}")
+    private long idleMinutes;
+
+    private final ConcurrentHashMap<String, SessionBuffer> sessions = new ConcurrentHashMap<>();
+
+    public ChatHistoryBuffer(ChatRepository chatRepository, MeterRegistry meterRegistry) {
+        this.chatRepository = chatRepository;
+        this.meterRegistry = meterRegistry;
+        meterRegistry.gaugeMapSize("chat.history.buffer.sessions", List.of(), sessions);
+    }
+
+    /** 최근 대화 (오래된 순, 최대 buffer-size개) */
+    public List<Chat> recent(String sessionId) {
+        if (sessionId == null) return List.of();
+        return buffer(sessionId).snapshot();
+    }
+
+    /** 저장된 대화를 버퍼에 반영하고 세션의 누적 턴 수를 돌려준다 */
+    public int recordTurn(String sessionId, Chat saved) {
+        SessionBuffer buf = sessions.get(sessionId);
+        if (buf == null) {
+            // 방금 저장한 행까지 포함해서 로드됨 (다른 스레드가 먼저 넣었으면 append에서 중복 제거)
+            buf = buffer(sessionId);
+        }
+        return buf.append(saved);
+    }
+
+    public void evict(String sessionId) {
+        if (sessionId != null) sessions.remove(sessionId);
+    }
+
+    @Scheduled(fixedDelayString = "${chat.history.evict-interval-ms:60000}")
+    public void evictIdle() {
+        long cutoff = System.currentTimeMillis() - idleMinutes * 60_000L;
+        int before = sessions.size();
+        sessions.values().removeIf(b -> b.lastAccess < cutoff);
+        int removed = before - sessions.size();
+        if (removed > 0) {
+            log.debug("🧹 유휴 채팅 세션 버퍼 {}개 제거", removed);
+        }
+    }
+
+    private SessionBuffer buffer(String sessionId) {
+        SessionBuffer buf = sessions.get(sessionId);
+        if (buf != null) {
+            meterRegistry.counter("chat.history.buffer", "result", "hit").increment();
+            buf.touch();
+            return buf;
+        }
+        meterRegistry.counter("chat.history.buffer", "result", "load").increment();
+        SessionBuffer loaded = load(sessionId);
+        SessionBuffer existing = sessions.putIfAbsent(sessionId, loaded);
+        return existing != null ? existing : loaded;
+    }
+
+    // DB 쿼리는 맵 밖에서 실행 (ConcurrentHashMap compute 안에서 블로킹하지 않도록)
+    private SessionBuffer load(String sessionId) {
+        int size = Math.max(1, bufferSize);
+        List<Chat> latest = chatRepository.findBySessionIdOrderByCreatedAtDescChatIdxDesc(
+                sessionId, PageRequest.of(0, size));
+        int count = latest.size() < size ? latest.size() : chatRepository.countBySessionId(sessionId);
+        SessionBuffer buf = new SessionBuffer(size, count);
+        for (int i = latest.size() - 1; i >= 0; i--) {
+            buf.turns.addLast(latest.get(i));
+        }
+        return buf;
+    }
+
+    private static final class SessionBuffer {
+        private final int capacity;
+        private final ArrayDeque<Chat> turns;
+        private int turnCount;
+        private volatile long lastAccess = System.currentTimeMillis();
+
+        SessionBuffer(int capacity, int turnCount) {
+            this.capacity = capacity;
+            this.turns = new ArrayDeque<>(capacity);
+            this.turnCount = turnCount;
+        }
+
+        void touch() {
+            lastAccess = System.currentTimeMillis();
+        }
+
+        synchronized List<Chat> snapshot() {
+            return new ArrayList<>(turns);
+        }
+
+        synchronized int append(Chat chat) {
+            touch();
+            if (chat.getChatIdx() != null) {
+                for (Chat c : turns) {
+                    if (chat.getChatIdx().equals(c.getChatIdx())) return turnCount;   // 로드 시 이미 포함됨
+                }
+            }
+            turns.addLast(chat);
+            while (turns.size() > capacity) {
+                turns.pollFirst();
+            }
+            return ++turnCount;
+        }
+    }
+}
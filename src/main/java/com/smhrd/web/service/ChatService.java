@@ -2,21 +2,30 @@ package com.smhrd.web.service;
 
 import com.smhrd.web.controller.ChatController;
 import com.smhrd.web.controller.ChatController.ChatResponse;
+import com.smhrd.web.dto.ChatCompletionRequest;
+import com.smhrd.web.dto.ChatCompletionResponse;
+import com.smhrd.web.dto.NoteSearchHit;
 import com.smhrd.web.entity.Chat;
 import com.smhrd.web.repository.ChatRepository;
 import com.smhrd.web.repository.TestResultRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.http.MediaType;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
-import org.springframework.web.reactive.function.client.WebClient;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
 @Slf4j
@@ -24,11 +33,19 @@ import java.util.stream.Collectors;
 @RequiredArgsConstructor
 public class ChatService {
 
-    @Qualifier("vllmChat")
-    private final WebClient vllmChat;
+    private final VllmGateway vllmGateway;
 
-    @Qualifier("embeddingClient")
-    private final WebClient embeddingClient;
+    private final IntentClassifier intentClassifier;
+
+    private final SemanticAnswerCache answerCache;
+
+    private final ChatHistoryBuffer historyBuffer;
+
+    private final ChatStatsService chatStatsService;
+
+    private final HybridNoteSearchService hybridNoteSearchService;
+
+    private final MeterRegistry meterRegistry;
 
     private final ChatRepository chatRepository;
     private final TestResultRepository testResultRepository;
@@ -51,6 +68,57 @@ public class ChatService {
     @Value("${vllm.chatbot.context-limit}")
     private Integer contextLimit;
 
+    // 스트리밍 응답을 처리하는 워커 수 (스트림이 끝날 때까지 스레드 하나를 점유)
+    @Value("${vllm.chatbot.stream-workers:16}")
+    private int streamWorkers;
+
+    @Value("${vllm.chatbot.timeout:60000}")
+    private long chatbotTimeoutMs;
+
+    // 인텐트 분류와 동시에 미리 실행하는 조회(노트/벡터/강의) 워커 수
+    @Value("${chat.retrieval.workers:8}")
+    private int retrievalWorkers;
+
+    private ExecutorService streamExecutor;
+    private ExecutorService retrievalExecutor;
+
+    // 답변 캐시 세대 (모델/시스템 프롬프트/생성 파라미터가 바뀌면 이전 캐시 무효)
+    private String answerGeneration;
+
+    private static final int RECENT_NOTES_LIMIT = 20;
+
+    private static final String GENERAL_CHAT_SYSTEM_PROMPT =
+            "너는 학습 도우미 AI야. 사용자가 공부한 내용을 기반으로 정확하고 친절하게 답변해줘.";
+
+    /**
+     * 스트리밍 채팅 콜백 (SSE 등). 워커 스레드에서 호출된다.
+     * isCancelled()가 true가 되면 남은 생성을 중단한다 (클라이언트 연결 종료 등).
+     */
+    public interface ChatStreamListener {
+        void onStart(String sessionId, String intent);
+
+        void onToken(String delta);
+
+        default boolean isCancelled() {
+            return false;
+        }
+    }
+
+    @PostConstruct
+    void initStreamExecutor() {
+        streamExecutor = Executors.newFixedThreadPool(Math.max(1, streamWorkers),
+                new CustomizableThreadFactory("chat-stream-"));
+        retrievalExecutor = Executors.newFixedThreadPool(Math.max(1, retrievalWorkers),
+                new CustomizableThreadFactory("chat-retrieval-"));
+        answerGeneration = SemanticAnswerCache.generation(chatbotModel, GENERAL_CHAT_SYSTEM_PROMPT, temperature, maxTokens);
+    }
+
+    @PreDestroy
+    void shutdownStreamExecutor() {
+        streamExecutor.shutdownNow();
+        retrievalExecutor.shutdownNow();
+    }
+
     /**
      * ✅ 메인 챗 처리 로직
      */
@@ -63,12 +131,14 @@ public class ChatService {
         try {
             log.info("💬 사용자 메시지: {}", message);
 
-            // LLM 기반 인텐트 분류
-            String detectedIntent = classifyIntent(message);
+            // 인텐트 분류 (규칙으로 못 정하면 조회를 동시에 시작)
+            Retrieval retrieval = new Retrieval(userIdx, message);
+            String detectedIntent = classifyIntent(userIdx, message, retrieval);
             log.info("🎯 감지된 인텐트: {}", detectedIntent);
+            retrieval.keepOnlyFor(detectedIntent);
 
             // 인텐트별 라우팅
-            String botReply = routeByIntent(userIdx, message, detectedIntent, sessionId);
+            String botReply = routeByIntent(userIdx, message, detectedIntent, sessionId, retrieval);
 
             return saveAndReturnChat(userIdx, sessionId, message, botReply, startTime);
 
@@ -78,10 +148,119 @@ public class ChatService {
         }
     }
 
+    /**
+     * ✅ 스트리밍 챗 처리
+     * 일반 LLM 대화로 라우팅되는 경우(GENERAL_CHAT 및 전용 처리가 없는 인텐트)는 vLLM 토큰을 생성되는 대로 전달하고,
+     * 노트/시험/강의 조회처럼 전용 처리가 있는 인텐트는 완성된 답변을 한 번에 전달한다.
+     * 스트림이 끝나면 Chat 행을 저장하고 /send 와 같은 ChatResponse를 돌려준다.
+     * 중간에 취소되면 저장하지 않고 null을 돌려준다.
+     */
+    public CompletableFuture<ChatResponse> streamChat(Long userIdx, String message, String sessionId,
+                                                      ChatStreamListener listener) {
+        String sid = (sessionId == null || sessionId.isEmpty()) ? UUID.randomUUID().toString() : sessionId;
+        return CompletableFuture.supplyAsync(() -> {
+            long startTime = System.currentTimeMillis();
+            log.info("💬 사용자 메시지 (스트리밍): {}", message);
+
+            Retrieval retrieval = new Retrieval(userIdx, message);
+            String detectedIntent = classifyIntent(userIdx, message, retrieval);
+            log.info("🎯 감지된 인텐트: {}", detectedIntent);
+            retrieval.keepOnlyFor(detectedIntent);
+            listener.onStart(sid, detectedIntent);
+
+            String botReply = handleByIntent(userIdx, message, detectedIntent, retrieval);
+            if (botReply == null) {
+                botReply = streamGeneralChat(userIdx, detectedIntent, message, sid, listener, startTime);
+            } else {
+                listener.onToken(botReply);
+            }
+
+            if (listener.isCancelled()) {
+                log.info("⏹️ 스트리밍 취소 - sessionId: {}", sid);
+                return null;
+            }
+            return saveAndReturnChat(userIdx, sid, message, botReply, startTime);
+        }, streamExecutor);
+    }
+
+    private String streamGeneralChat(Long userIdx, String intent, String message, String sessionId,
+                                     ChatStreamListener listener, long startTime) {
+        List<Chat> recentHistory = recentHistory(sessionId);
+        boolean cacheable = recentHistory.isEmpty();
+        if (cacheable) {
+            Optional<String> cached = answerCache.lookup(answerGeneration, intent, message);
+            if (cached.isPresent()) {
+                listener.onToken(cached.get());
+                return cached.get();
+            }
+        }
+
+        StringBuilder reply = new StringBuilder();
+        boolean completed = false;
+        try {
+            ChatCompletionRequest request = generalChatRequest(buildGeneralChatPrompt(message, recentHistory));
+
+            vllmGateway.stream(VllmGateway.Endpoint.CHAT, VllmScheduler.Caller.interactive(userIdx), request)
+                    .doOnNext(delta -> {
+                        if (reply.length() == 0) {
+                            log.info("⚡ 첫 토큰 {}ms", System.currentTimeMillis() - startTime);
+                        }
+                        reply.append(delta);
+                        listener.onToken(delta);
+                    })
+                    .takeUntil(delta -> listener.isCancelled())
+                    .blockLast(Duration.ofMillis(chatbotTimeoutMs));
+            completed = !listener.isCancelled();
+
+        } catch (VllmGateway.VllmOverloadedException e) {
+            log.warn("⚠️ 챗봇 vLLM 과부하: {}", e.getMessage());
+            if (reply.length() == 0) {
+                reply.append(e.getMessage());
+                listener.onToken(e.getMessage());
+            }
+        } catch (Exception e) {
+            log.error("❌ vLLM 스트리밍 중 오류", e);
+            if (reply.length() == 0) {
+                String fallback = "죄송합니다. 일시적인 오류가 발생했습니다.";
+                reply.append(fallback);
+                listener.onToken(fallback);
+            }
+        }
+
+        if (reply.length() == 0) {
+            String empty = "죄송합니다. 응답을 받을 수 없었습니다.";
+            listener.onToken(empty);
+            return empty;
+        }
+        if (completed && cacheable) {
+            answerCache.put(answerGeneration, chatbotModel, intent, message, reply.toString());
+        }
+        return reply.toString();
+    }
+
+    /**
+     * ✅ 인텐트 분류: 규칙/예시 임베딩으로 먼저 시도하고, 확신이 없을 때만 LLM 호출
+     * 규칙으로 바로 정해지지 않으면 후보 조회를 분류와 동시에 시작한다 (지연 = max(분류, 조회))
+     */
+    private String classifyIntent(Long userIdx, String message, Retrieval retrieval) {
+        Optional<IntentClassifier.Result> fast = intentClassifier.classifyByRule(message);
+        if (fast.isEmpty()) {
+            retrieval.startAll();
+            fast = intentClassifier.classifyByCentroid(message);
+        }
+        if (fast.isPresent()) {
+            log.info("🎯 빠른 분류 ({}): {} ({})", fast.get().source(), fast.get().intent(),
+                    String.format("%.3f", fast.get().confidence()));
+            return fast.get().intent();
+        }
+        intentClassifier.recordLlmFallback();
+        return classifyIntentWithLlm(userIdx, message);
+    }
+
     /**
      * ✅ LLM 기반 인텐트 분류
      */
-    private String classifyIntent(String message) {
+    private String classifyIntentWithLlm(Long userIdx, String message) {
         try {
             String systemPrompt = """
 사용자 의도를 아래 중 하나로 분류하세요.
@@ -103,30 +282,9 @@ HELP, GENERAL_CHAT
 답변 형식: 인텐트명만 반환 (예: LECTURE_RECOMMEND)
 """.formatted(message);
 
-            List<Map<String, Object>> messages = new ArrayList<>();
-            messages.add(Map.of("role", "system", "content", systemPrompt));
-            messages.add(Map.of("role", "user", "content", message));
-
-            Map<String, Object> request = Map.of(
-                    "model", chatbotModel,
-                    "messages", messages,
-                    "max_tokens", 50,
-                    "temperature", 0.3
-            );
-
-            Map<String, Object> response = vllmChat.post()
-                    .uri("/v1/chat/completions")
-                    .contentType(MediaType.APPLICATION_JSON)
-                    .bodyValue(request)
-                    .retrieve()
-                    .bodyToMono(Map.class)
-                    .block();
-
-            if (response == null) return "GENERAL_CHAT";
-
-            List<Map<String, Object>> choices = (List<Map<String, Object>>) response.get("choices");
-            Map<String, Object> messageObj = (Map<String, Object>) choices.get(0).get("message");
-            String rawIntent = ((String) messageObj.get("content")).trim().toUpperCase();
+            ChatCompletionRequest request = ChatCompletionRequest.of(chatbotModel, systemPrompt, message, 50, 0.3);
+            String rawIntent = vllmGateway.completeText(VllmGateway.Endpoint.CHAT, VllmScheduler.Caller.interactive(userIdx), request).trim().toUpperCase();
+            if (rawIntent.isEmpty()) return "GENERAL_CHAT";
 
             log.info("🎯 LLM 원본 응답: {}", rawIntent);
             return extractIntent(rawIntent);
@@ -162,7 +320,15 @@ HELP, GENERAL_CHAT
     /**
      * ✅ 인텐트별 라우팅
      */
-    private String routeByIntent(Long userIdx, String message, String intent, String sessionId) {
+    private String routeByIntent(Long userIdx, String message, String intent, String sessionId, Retrieval retrieval) {
+        String reply = handleByIntent(userIdx, message, intent, retrieval);
+        return reply != null ? reply : handleGeneralChat(userIdx, intent, message, sessionId);
+    }
+
+    /**
+     * 전용 처리가 있는 인텐트의 답변. 일반 LLM 대화로 넘겨야 하면 null
+     */
+    private String handleByIntent(Long userIdx, String message, String intent, Retrieval retrieval) {
         switch (intent) {
             case "NOTE_COUNT":
                 return handleCountNotes(userIdx);
@@ -170,11 +336,11 @@ HELP, GENERAL_CHAT
                 // ✅ 추가: 검색어 있으면 Vector 검색
                 if (message.contains("파이썬") || message.contains("자바") ||
                         !message.matches(".*목록.*|.*리스트.*|.*보여줘.*")) {
-                    return handleSearchNotes(userIdx, message, sessionId);
+                    return handleSearchNotes(message, retrieval);
                 }
-                return handleListNotes(userIdx);
+                return handleListNotes(retrieval);
             case "NOTE_SEARCH":
-                return handleSearchNotes(userIdx, message, sessionId);
+                return handleSearchNotes(message, retrieval);
             case "COUNT_EXAMS":
                 return handleCountExams(userIdx);
             case "EXAM_STATS":
@@ -182,29 +348,21 @@ HELP, GENERAL_CHAT
 
             // 강의 관련 추가
             case "LECTURE_RECOMMEND":
-                return handleRecommendLecture(message);
+                return handleRecommendLecture(retrieval);
             case "LECTURE_SEARCH":  // ⬅️ 이거 없었음
-                return handleLectureSearch(message);
+                return handleLectureSearch(retrieval);
             case "LECTURE_LIST":    // ⬅️ 이것도 없었음
                 return handleLectureList(userIdx);
 
             case "GENERAL_CHAT":
             default:
-                return handleGeneralChat(userIdx, message, sessionId);
+                return null;
         }
     }
 
-    private String handleLectureSearch(String message) {
+    private String handleLectureSearch(Retrieval retrieval) {
         try {
-            Map<String, Object> parsed = chatbotLectureService.parseChatbotQuery(message);
-            String keyword = (String) parsed.get("keyword");
-
-            Map<String, Object> lectureResult = chatbotLectureService.searchLecturesForChat(
-                    keyword,
-                    (List<String>) parsed.get("tags"),
-                    (String) parsed.getOrDefault("searchMode", "OR"),
-                    null
-            );
+            Map<String, Object> lectureResult = retrieval.lectures();
 
             if ((Integer) lectureResult.get("count") == 0) {
                 return "죄송합니다. 해당 강의를 찾을 수 없습니다. 🔍";
@@ -250,9 +408,9 @@ HELP, GENERAL_CHAT
         }
     }
 
-    private String handleListNotes(Long userIdx) {
+    private String handleListNotes(Retrieval retrieval) {
         try {
-            List<Map<String, Object>> allUserNotes = postgresVectorService.getRecentNotes(userIdx, 20);
+            List<Map<String, Object>> allUserNotes = retrieval.recentNotes();
             if (allUserNotes.isEmpty()) {
                 return "아직 작성된 노트가 없습니다. 📝";
             }
@@ -283,13 +441,13 @@ HELP, GENERAL_CHAT
     }
 
 
-    private String handleSearchNotes(Long userIdx, String message, String sessionId) {
+    private String handleSearchNotes(String message, Retrieval retrieval) {
         try {
             log.info("🔍 노트 내용 검색 시작: {}", message);
 
             // "마지막", "최근" 키워드 감지
             if (message.contains("마지막") || message.contains("최근") || message.contains("내용")) {
-                List<Map<String, Object>> recentNotes = postgresVectorService.getRecentNotes(userIdx, 1);
+                List<Map<String, Object>> recentNotes = retrieval.recentNotes();
 
                 if (recentNotes.isEmpty()) {
                     return "아직 작성된 노트가 없습니다. 📝";
@@ -320,14 +478,8 @@ HELP, GENERAL_CHAT
             }
 
             // ✅ 일반 키워드 검색
-            log.info("🔍 Vector 검색 시작: {}", message);
-            List<Float> queryVector = getEmbedding(message);
-            log.info("✅ 임베딩 완료: {} 차원", queryVector.size());
-
-            List<Map<String, Object>> relevantDocs = postgresVectorService.searchVectors(
-                    userIdx, queryVector, null, null, 5);
-
-            log.info("✅ Vector 검색 결과: {} 개", relevantDocs.size());
+            log.info("🔍 Vector 검색: {}", message);
+            List<NoteSearchHit> relevantDocs = retrieval.noteHits();
 
             if (relevantDocs.isEmpty()) {
                 return "관련된 노트를 찾을 수 없습니다. 🔍";
@@ -338,14 +490,19 @@ HELP, GENERAL_CHAT
             result.append(String.format("총 **%d개**의 관련 노트를 찾았습니다.\n\n", relevantDocs.size()));
 
             for (int i = 0; i < Math.min(5, relevantDocs.size()); i++) {
-                Map<String, Object> doc = relevantDocs.get(i);
-                String title = (String) doc.get("title");
+                NoteSearchHit doc = relevantDocs.get(i);
+                String title = doc.getTitle() != null ? doc.getTitle() : "(제목 없음)";
 
                 if (title.length() > 50) {
                     title = title.substring(0, 50) + "...";
                 }
 
                 result.append(String.format("**%d.** %s\n", i + 1, title));
+
+                String snippet = doc.getSnippet();
+                if (snippet != null && !snippet.isBlank()) {
+                    result.append("   > ").append(snippet.replaceAll("\\s+", " ").strip()).append("\n");
+                }
             }
 
             result.append("\n[FORM:GET:/notion/manage::전체 노트 보기]");
@@ -396,17 +553,10 @@ HELP, GENERAL_CHAT
         }
     }
 
-    private String handleRecommendLecture(String message) {
+    private String handleRecommendLecture(Retrieval retrieval) {
         try {
-            Map<String, Object> parsed = chatbotLectureService.parseChatbotQuery(message);
-            String keyword = (String) parsed.get("keyword");
-
-            Map<String, Object> lectureResult = chatbotLectureService.searchLecturesForChat(
-                    keyword,
-                    (List<String>) parsed.get("tags"),
-                    (String) parsed.getOrDefault("searchMode", "OR"),
-                    null
-            );
+            Map<String, Object> lectureResult = retrieval.lectures();
+            String keyword = (String) lectureResult.get("keyword");
 
             if ((Integer) lectureResult.get("count") == 0) {
                 return "추천할 수 있는 강의를 찾지 못했습니다. 😢";
@@ -433,15 +583,18 @@ HELP, GENERAL_CHAT
     }
 
 
-    private String handleGeneralChat(Long userIdx, String message, String sessionId) {
+    // 의미 캐시는 사용자 간에 공유되므로 이전 대화가 없는 (프롬프트가 질문만으로 정해지는) 턴에서만 조회/저장한다
+    private String handleGeneralChat(Long userIdx, String intent, String message, String sessionId) {
         try {
-            List<Chat> chatHistory = getChatHistory(sessionId);
-            List<Chat> recentHistory = chatHistory.stream()
-                    .skip(Math.max(0, chatHistory.size() - 2))
-                    .collect(Collectors.toList());
+            List<Chat> recentHistory = recentHistory(sessionId);
+            boolean cacheable = recentHistory.isEmpty();
+            if (cacheable) {
+                Optional<String> cached = answerCache.lookup(answerGeneration, intent, message);
+                if (cached.isPresent()) return cached.get();
+            }
 
             String prompt = buildGeneralChatPrompt(message, recentHistory);
-            return callChatbot(prompt, recentHistory);
+            return callChatbot(userIdx, intent, message, prompt, cacheable);
 
         } catch (Exception e) {
             log.error("일반 대화 처리 실패", e);
@@ -449,6 +602,18 @@ HELP, GENERAL_CHAT
         }
     }
 
+    // 일반 대화 프롬프트에는 최근 2턴만 넣는다
+    private List<Chat> recentHistory(String sessionId) {
+        List<Chat> chatHistory = getChatHistory(sessionId);
+        return chatHistory.stream()
+                .skip(Math.max(0, chatHistory.size() - 2))
+                .collect(Collectors.toList());
+    }
+
+    private ChatCompletionRequest generalChatRequest(String prompt) {
+        return ChatCompletionRequest.of(chatbotModel, GENERAL_CHAT_SYSTEM_PROMPT, prompt, maxTokens, temperature);
+    }
+
     private String buildGeneralChatPrompt(String userQuestion, List<Chat> history) {
         StringBuilder prompt = new StringBuilder();
         prompt.append("너는 친근하고 도움이 되는 학습 도우미 AI야.\n\n");
@@ -486,90 +651,121 @@ HELP, GENERAL_CHAT
         chat.setQuestion(message);
         chat.setAnswer(botReply);
         chat.setResponseTimeMs(responseTimeMs);
-        chatRepository.save(chat);
+        chat = chatStatsService.recordChat(chat);
 
-        int historyCount = chatRepository.countBySessionId(sessionId);
+        int historyCount = historyBuffer.recordTurn(sessionId, chat);
         log.info("✅ 채팅 저장 완료 - sessionId: {}", sessionId);
 
         return new ChatResponse(botReply, historyCount, sessionId);
     }
 
-    // ===== 기존 메서드들 (변경 없음) =====
+    /**
+     * 라우팅에 필요한 조회 묶음.
+     * startAll()로 미리 시작하면 결과를 기다리기만 하고, 시작하지 않았으면 처음 요청할 때 동기로 실행한다.
+     * 인텐트가 정해지면 keepOnlyFor()로 그 경로가 쓰지 않는 조회를 취소한다
+     * (아직 실행 전인 작업은 건너뛰고, 이미 실행 중인 DB 조회는 끝나도 결과를 버림).
+     */
+    private final class Retrieval {
+        private static final String RECENT = "recent_notes";
+        private static final String NOTES = "note_search";
+        private static final String LECTURE = "lecture_search";
+
+        private final Long userIdx;
+        private final String message;
+        private final Map<String, CompletableFuture<?>> started = new HashMap<>();
+
+        Retrieval(Long userIdx, String message) {
+            this.userIdx = userIdx;
+            this.message = message;
+        }
 
-    private List<Float> getEmbedding(String text) {
-        try {
-            log.info("🔄 Embedding 생성 중: 텍스트 길이 = {}", text.length());
-
-            Map<String, Object> response = embeddingClient.post()
-                    .uri("/embed")
-                    .contentType(MediaType.APPLICATION_JSON)
-                    .bodyValue(Map.of("texts", List.of(text)))
-                    .retrieve()
-                    .bodyToMono(Map.class)
-                    .block();
-
-            if (response == null) {
-                log.error("❌ Embedding 응답 null");
-                return new ArrayList<>();
-            }
+        void startAll() {
+            started.put(RECENT, CompletableFuture.supplyAsync(this::loadRecentNotes, retrievalExecutor));
+            started.put(NOTES, CompletableFuture.supplyAsync(this::searchNotes, retrievalExecutor));
+            started.put(LECTURE, CompletableFuture.supplyAsync(this::searchLectures, retrievalExecutor));
+        }
+
+        void keepOnlyFor(String intent) {
+            Set<String> needed = switch (intent) {
+                case "NOTE_LIST", "NOTE_SEARCH" -> Set.of(RECENT, NOTES);
+                case "LECTURE_RECOMMEND", "LECTURE_SEARCH" -> Set.of(LECTURE);
+                default -> Set.of();
+            };
+            started.forEach((task, future) -> {
+                boolean used = needed.contains(task);
+                if (!used) future.cancel(false);
+                meterRegistry.counter("chat.retrieval.speculative", "task", task,
+                        "result", used ? "used" : "cancelled").increment();
+            });
+        }
+
+        List<Map<String, Object>> recentNotes() {
+            return get(RECENT, this::loadRecentNotes);
+        }
 
-            List<List<Double>> embeddings = (List<List<Double>>) response.get("embeddings");
-            if (embeddings == null || embeddings.isEmpty()) {
-                log.error("❌ embeddings 배열이 null 또는 비어있음");
-                return new ArrayList<>();
+        List<NoteSearchHit> noteHits() {
+            return get(NOTES, this::searchNotes);
+        }
+
+        Map<String, Object> lectures() {
+            return get(LECTURE, this::searchLectures);
+        }
+
+        @SuppressWarnings("unchecked")
+        private <T> T get(String task, Supplier<T> direct) {
+            CompletableFuture<?> future = started.get(task);
+            if (future == null) return direct.get();
+            try {
+                return (T) future.join();
+            } catch (CompletionException e) {
+                throw (e.getCause() instanceof RuntimeException re) ? re : e;
             }
+        }
 
-            List<Float> result = embeddings.get(0).stream()
-                    .map(Double::floatValue)
-                    .collect(Collectors.toList());
+        private List<Map<String, Object>> loadRecentNotes() {
+            return postgresVectorService.getRecentNotes(userIdx, RECENT_NOTES_LIMIT);
+        }
 
-            log.info("✅ Embedding 생성 성공 - 차원: {}", result.size());
-            return result;
+        // 어휘(전문/trigram) + 벡터 하이브리드 검색, content 대신 하이라이트 스니펫
+        private List<NoteSearchHit> searchNotes() {
+            List<NoteSearchHit> hits = hybridNoteSearchService.search(userIdx, message, 5, NoteSearchHit.Projection.SNIPPET);
+            log.info("✅ 노트 검색 결과: {} 개", hits.size());
+            return hits;
+        }
 
-        } catch (Exception e) {
-            log.error("❌ Embedding 생성 실패", e);
-            return new ArrayList<>();
+        @SuppressWarnings("unchecked")
+        private Map<String, Object> searchLectures() {
+            Map<String, Object> parsed = chatbotLectureService.parseChatbotQuery(message);
+            return chatbotLectureService.searchLecturesForChat(
+                    (String) parsed.get("keyword"),
+                    (List<String>) parsed.get("tags"),
+                    (String) parsed.getOrDefault("searchMode", "OR"),
+                    null
+            );
         }
     }
 
+    // ===== 기존 메서드들 (변경 없음) =====
+
+    // 세션 전체가 아니라 버퍼에 있는 최근 턴만 사용
     private List<Chat> getChatHistory(String sessionId) {
-        List<Chat> allHistory = chatRepository.findBySessionIdOrderByCreatedAtAsc(sessionId);
-        int total = allHistory.size();
-        return allHistory.stream()
-                .skip(Math.max(0, total - 5))
-                .collect(Collectors.toList());
+        return historyBuffer.recent(sessionId);
     }
 
-    private String callChatbot(String prompt, List<Chat> history) {
-        List<Map<String, Object>> messages = new ArrayList<>();
-        messages.add(Map.of(
-                "role", "system",
-                "content", "너는 학습 도우미 AI야. 사용자가 공부한 내용을 기반으로 정확하고 친절하게 답변해줘."
-        ));
-        messages.add(Map.of("role", "user", "content", prompt));
-
-        Map<String, Object> request = Map.of(
-                "model", chatbotModel,
-                "messages", messages,
-                "max_tokens", maxTokens,
-                "temperature", temperature
-        );
+    private String callChatbot(Long userIdx, String intent, String question, String prompt, boolean cacheable) {
+        ChatCompletionRequest request = generalChatRequest(prompt);
 
         try {
-            Map<String, Object> response = vllmChat.post()
-                    .uri("/v1/chat/completions")
-                    .contentType(MediaType.APPLICATION_JSON)
-                    .bodyValue(request)
-                    .retrieve()
-                    .bodyToMono(Map.class)
-                    .block();
-
-            if (response == null) return "죄송합니다. 응답을 받을 수 없었습니다.";
-
-            List<Map<String, Object>> choices = (List<Map<String, Object>>) response.get("choices");
-            Map<String, Object> message = (Map<String, Object>) choices.get(0).get("message");
-            return (String) message.get("content");
+            ChatCompletionResponse response = vllmGateway.complete(VllmGateway.Endpoint.CHAT, VllmScheduler.Caller.interactive(userIdx), request);
+            if (response == null || response.firstContent() == null) return "죄송합니다. 응답을 받을 수 없었습니다.";
+            if (cacheable) {
+                answerCache.put(answerGeneration, chatbotModel, intent, question, response.firstContent());
+            }
+            return response.firstContent();
 
+        } catch (VllmGateway.VllmOverloadedException e) {
+            log.warn("⚠️ 챗봇 vLLM 과부하: {}", e.getMessage());
+            return e.getMessage();
         } catch (Exception e) {
             log.error("❌ vLLM 호출 중 오류", e);
             return "죄송합니다. 일시적인 오류가 발생했습니다.";
@@ -583,52 +779,28 @@ HELP, GENERAL_CHAT
     }
 
     public List<Chat> getUserRecentChats(Long userIdx, int limit) {
-        return chatRepository.findByUserIdxOrderByCreatedAtDesc(userIdx)
-                .stream()
-                .limit(limit)
-                .collect(Collectors.toList());
+        return getUserRecentChats(userIdx, limit, null);
+    }
+
+    public List<Chat> getUserRecentChats(Long userIdx, int limit, Long before) {
+        return chatStatsService.recentChats(userIdx, limit, before);
     }
 
     public void rateChat(Long chatIdx, Byte rating, String feedback) {
-        Chat chat = chatRepository.findById(chatIdx)
-                .orElseThrow(() -> new RuntimeException("Chat not found"));
-        chat.setRating(rating);
-        chat.setFeedback(feedback);
-        chatRepository.save(chat);
+        chatStatsService.rateChat(chatIdx, rating, feedback);
     }
 
-    @Transactional
     public void deleteSession(String sessionId) {
-        chatRepository.deleteBySessionId(sessionId);
+        chatStatsService.deleteSession(sessionId);
+        historyBuffer.evict(sessionId);
     }
 
     public ChatController.ChatStatsDto getUserChatStats(Long userIdx) {
         try {
-            List<Chat> allChats = chatRepository.findByUserIdx(userIdx);
-
-            if (allChats.isEmpty()) {
-                return new ChatController.ChatStatsDto(0, 0, 0.0);
-            }
-
-            int totalChats = allChats.size();
-
-            int avgResponseTime = (int) allChats.stream()
-                    .filter(c -> c.getResponseTimeMs() != null)
-                    .mapToInt(Chat::getResponseTimeMs)
-                    .average()
-                    .orElse(0);
-
-            double avgRating = allChats.stream()
-                    .filter(c -> c.getRating() != null)
-                    .mapToInt(Chat::getRating)
-                    .average()
-                    .orElse(0.0);
-
-            return new ChatController.ChatStatsDto(totalChats, avgResponseTime, avgRating);
-
+            return chatStatsService.getStats(userIdx);
         } catch (Exception e) {
             log.error("❌ 통계 조회 중 오류", e);
-            return new ChatController.ChatStatsDto(0, 0, 0.0);
+            return ChatController.ChatStatsDto.empty();
         }
     }
 }
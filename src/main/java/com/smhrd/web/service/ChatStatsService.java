@@ -0,0 +1,94 @@
+package com.smhrd.web.service;
+
+import com.smhrd.web.controller.ChatController;
+import com.smhrd.web.entity.Chat;
+import com.smhrd.web.entity.ChatUserStats;
+import com.smhrd.web.repository.ChatRepository;
+import com.smhrd.web.repository.ChatUserStatsRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * 채팅 저장/평가/삭제와 사용자별 통계 집계(chat_user_stats)를 같은 트랜잭션에서 처리.
+ * 통계 조회는 전체 대화를 읽지 않고 집계 행 한 건만 읽는다.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ChatStatsService {
+
+    private final ChatRepository chatRepository;
+    private final ChatUserStatsRepository statsRepository;
+
+    /** 대화 저장 + 집계 증가 */
+    @Transactional
+    public Chat recordChat(Chat chat) {
+        // 집계 행이 없으면 이번 대화를 저장하기 전에 기존 대화로 채워 둔다 (이중 집계 방지)
+        ensureStats(chat.getUserIdx());
+        Chat saved = chatRepository.save(chat);
+        statsRepository.addChat(saved.getUserIdx(), saved.getResponseTimeMs(),
+                saved.getCreatedAt() != null ? saved.getCreatedAt() : LocalDateTime.now());
+        return saved;
+    }
+
+    /** 평가 변경 (재평가 시 이전 점수는 빼고 새 점수를 더함) */
+    @Transactional
+    public void rateChat(Long chatIdx, Byte rating, String feedback) {
+        Chat chat = chatRepository.findById(chatIdx)
+                .orElseThrow(() -> new RuntimeException("Chat not found"));
+        ensureStats(chat.getUserIdx());
+
+        Integer oldRating = chat.getRating() == null ? null : chat.getRating().intValue();
+        Integer newRating = rating == null ? null : rating.intValue();
+        chat.setRating(rating);
+        chat.setFeedback(feedback);
+        chatRepository.save(chat);
+        statsRepository.changeRating(chat.getUserIdx(), oldRating, newRating);
+    }
+
+    /** 세션 삭제 (집계에서 먼저 차감) */
+    @Transactional
+    public void deleteSession(String sessionId) {
+        statsRepository.subtractSession(sessionId);
+        chatRepository.deleteBySessionId(sessionId);
+    }
+
+    @Transactional
+    public ChatController.ChatStatsDto getStats(Long userIdx) {
+        ensureStats(userIdx);
+        ChatUserStats s = statsRepository.findById(userIdx).orElseGet(ChatUserStats::new);
+
+        int avgResponseTime = s.getTimedChats() == 0 ? 0 : (int) (s.getTotalResponseMs() / s.getTimedChats());
+        double avgRating = s.getRatedChats() == 0 ? 0.0 : (double) s.getRatingSum() / s.getRatedChats();
+        return new ChatController.ChatStatsDto(
+                (int) s.getTotalChats(),
+                avgResponseTime,
+                avgRating,
+                List.of(s.getRating1(), s.getRating2(), s.getRating3(), s.getRating4(), s.getRating5()),
+                s.getLastChatAt() == null ? null : s.getLastChatAt().toString()
+        );
+    }
+
+    /** 최근 대화 (before: 이전 페이지 마지막 chatIdx, 키셋 페이징) */
+    public List<Chat> recentChats(Long userIdx, int limit, Long before) {
+        PageRequest page = PageRequest.of(0, Math.max(1, Math.min(limit, 100)));
+        return before == null
+                ? chatRepository.findByUserIdxOrderByChatIdxDesc(userIdx, page)
+                : chatRepository.findByUserIdxAndChatIdxLessThanOrderByChatIdxDesc(userIdx, before, page);
+    }
+
+    private void ensureStats(Long userIdx) {
+        if (!statsRepository.existsById(userIdx)) {
+            int inserted = statsRepository.backfill(userIdx);
+            if (inserted > 0) {
+                log.info("📊 채팅 통계 집계 행 생성 (userIdx={})", userIdx);
+            }
+        }
+    }
+}
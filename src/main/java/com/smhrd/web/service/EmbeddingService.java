@@ -0,0 +1,283 @@
+package com.smhrd.web.service;
+
+import com.smhrd.web.util.FloatVector;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.Data;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * 임베딩 서버(/embed) 공용 클라이언트.
+ * - 짧은 시간 창(window-ms) 안에 들어온 단건 요청을 모아 한 번의 배치 호출로 보냄 (GPU는 배치가 훨씬 효율적)
+ * - 같은 텍스트의 동시 요청은 하나로 합침
+ * - 결과 벡터는 텍스트 해시 기준 LRU 캐시(FloatVector, 전체 크기 제한)에 보관
+ */
+@Slf4j
+@Service
+public class EmbeddingService {
+
+    private final WebClient embeddingClient;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${embedding.batch.window-ms:5}")
+    private long windowMs;
+
+    @Value("${embedding.batch.max-size:32}")
+    private int maxBatchSize;
+
+    // 동시에 진행 중인 배치 호출 수 (초과 시 다음 배치는 앞 배치가 끝날 때까지 대기)
+    @Value("${embedding.batch.max-in-flight:4}")
+    private int maxInFlight;
+
+    @Value("${embedding.timeout:30000}")
+    private long timeoutMs;
+
+    @Value("${embedding.cache.max-mb:64}")
+    private long cacheMaxMb;
+
+    private final BlockingQueue<Pending> queue = new LinkedBlockingQueue<>();
+    private final ConcurrentHashMap<String, CompletableFuture<FloatVector>> inFlight = new ConcurrentHashMap<>();
+    private Semaphore batchPermits;
+    private ExecutorService dispatcher;
+    private volatile boolean running = true;
+
+    // LRU 캐시: 키 = SHA-256(text), 크기 제한은 float 개수 기준
+    private final Object cacheLock = new Object();
+    private LinkedHashMap<String, FloatVector> cache;
+    private long cachedFloats = 0;
+    private long maxCachedFloats;
+
+    private DistributionSummary batchSizes;
+    private Timer batchLatency;
+
+    public EmbeddingService(@Qualifier("embeddingClient") WebClient embeddingClient, MeterRegistry meterRegistry) {
+        this.embeddingClient = embeddingClient;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @PostConstruct
+    void init() {
+        maxCachedFloats = Math.max(0, cacheMaxMb) * 1024 * 1024 / Float.BYTES;
+        cache = new LinkedHashMap<>(1024, 0.75f, true);
+        batchPermits = new Semaphore(Math.max(1, maxInFlight));
+
+        batchSizes = DistributionSummary.builder("embedding.batch.size")
+                .description("배치 1회당 텍스트 수")
+                .register(meterRegistry);
+        batchLatency = Timer.builder("embedding.batch.latency").register(meterRegistry);
+        meterRegistry.gauge("embedding.cache.entries", this, s -> s.cacheEntries());
+        meterRegistry.gauge("embedding.cache.bytes", this, s -> s.cacheBytes());
+        meterRegistry.gauge("embedding.queue.size", queue, BlockingQueue::size);
+
+        dispatcher = Executors.newSingleThreadExecutor(new CustomizableThreadFactory("embed-batch-"));
+        dispatcher.execute(this::dispatchLoop);
+        log.info("✅ EmbeddingService: window={}ms, batch≤{}, 캐시 {}MB", windowMs, maxBatchSize, cacheMaxMb);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        running = false;
+        dispatcher.shutdownNow();
+        Pending p;
+        while ((p = queue.poll()) != null) {
+            p.future.completeExceptionally(new IllegalStateException("EmbeddingService 종료"));
+        }
+    }
+
+    // ====== 공개 API ======
+
+    /** 단건 임베딩 (블로킹). 실패 시 RuntimeException */
+    public FloatVector embed(String text) {
+        return await(submit(text));
+    }
+
+    /** 여러 텍스트 임베딩 (입력 순서 유지, 블로킹). 캐시에 없는 것만 배치로 요청 */
+    public List<FloatVector> embedAll(List<String> texts) {
+        List<CompletableFuture<FloatVector>> futures = new ArrayList<>(texts.size());
+        for (String t : texts) {
+            futures.add(submit(t));
+        }
+        List<FloatVector> result = new ArrayList<>(texts.size());
+        for (CompletableFuture<FloatVector> f : futures) {
+            result.add(await(f));
+        }
+        return result;
+    }
+
+    // ====== 요청 접수 ======
+
+    private CompletableFuture<FloatVector> submit(String text) {
+        String t = (text == null) ? "" : text;
+        String key = hash(t);
+
+        FloatVector cached = cacheGet(key);
+        if (cached != null) {
+            meterRegistry.counter("embedding.texts", "result", "hit").increment();
+            return CompletableFuture.completedFuture(cached);
+        }
+        meterRegistry.counter("embedding.texts", "result", "miss").increment();
+
+        // 같은 텍스트가 이미 대기/진행 중이면 그 결과를 같이 받음
+        CompletableFuture<FloatVector> mine = new CompletableFuture<>();
+        CompletableFuture<FloatVector> existing = inFlight.putIfAbsent(key, mine);
+        if (existing != null) {
+            return existing;
+        }
+        mine.whenComplete((v, e) -> inFlight.remove(key, mine));
+        if (!running) {
+            mine.completeExceptionally(new IllegalStateException("EmbeddingService 종료"));
+            return mine;
+        }
+        queue.add(new Pending(key, t, mine));
+        return mine;
+    }
+
+    private FloatVector await(CompletableFuture<FloatVector> future) {
+        try {
+            return future.get(timeoutMs * 2, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("임베딩 대기 중단", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause() != null ? e.getCause() : e;
+            throw new RuntimeException("임베딩 실패: " + cause.getMessage(), cause);
+        } catch (TimeoutException e) {
+            throw new RuntimeException("임베딩 시간 초과", e);
+        }
+    }
+
+    // ====== 배치 전송 ======
+
+    // 첫 요청을 받으면 window-ms 동안(또는 max-size까지) 더 모아서 한 번에 전송
+    private void dispatchLoop() {
+        while (running) {
+            try {
+                Pending first = queue.take();
+                List<Pending> batch = new ArrayList<>(maxBatchSize);
+                batch.add(first);
+                long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(windowMs);
+                while (batch.size() < maxBatchSize) {
+                    long remaining = deadline - System.nanoTime();
+                    Pending next = (remaining > 0) ? queue.poll(remaining, TimeUnit.NANOSECONDS) : queue.poll();
+                    if (next == null) break;
+                    batch.add(next);
+                }
+                batchPermits.acquire();
+                send(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (Exception e) {
+                log.error("❌ 임베딩 배치 디스패치 오류: {}", e.getMessage(), e);
+            }
+        }
+    }
+
+    private void send(List<Pending> batch) {
+        List<String> texts = new ArrayList<>(batch.size());
+        for (Pending p : batch) texts.add(p.text);
+
+        batchSizes.record(batch.size());
+        long start = System.nanoTime();
+
+        embeddingClient.post()
+                .uri("/embed")
+                .bodyValue(Map.of("texts", texts))
+                .retrieve()
+                .bodyToMono(EmbedResponse.class)
+                .timeout(java.time.Duration.ofMillis(timeoutMs))
+                .doFinally(signal -> {
+                    batchPermits.release();
+                    batchLatency.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+                })
+                .subscribe(resp -> complete(batch, resp), err -> fail(batch, err));
+    }
+
+    private void complete(List<Pending> batch, EmbedResponse resp) {
+        List<float[]> vectors = (resp == null) ? null : resp.getEmbeddings();
+        if (vectors == null || vectors.size() != batch.size()) {
+            fail(batch, new IllegalStateException("임베딩 응답 개수 불일치: 요청 " + batch.size()
+                    + ", 응답 " + (vectors == null ? 0 : vectors.size())));
+            return;
+        }
+        meterRegistry.counter("embedding.batches", "result", "success").increment();
+        for (int i = 0; i < batch.size(); i++) {
+            Pending p = batch.get(i);
+            FloatVector v = FloatVector.wrap(vectors.get(i));
+            cachePut(p.key, v);
+            p.future.complete(v);
+        }
+    }
+
+    private void fail(List<Pending> batch, Throwable err) {
+        meterRegistry.counter("embedding.batches", "result", "error").increment();
+        log.error("❌ 임베딩 배치 실패 ({}건): {}", batch.size(), err.getMessage());
+        for (Pending p : batch) {
+            p.future.completeExceptionally(err);
+        }
+    }
+
+    // ====== 캐시 ======
+
+    private FloatVector cacheGet(String key) {
+        synchronized (cacheLock) {
+            return cache.get(key);
+        }
+    }
+
+    private void cachePut(String key, FloatVector vector) {
+        if (maxCachedFloats <= 0 || vector.isEmpty()) return;
+        synchronized (cacheLock) {
+            FloatVector old = cache.put(key, vector);
+            cachedFloats += vector.dimension() - (old == null ? 0 : old.dimension());
+            Iterator<Map.Entry<String, FloatVector>> it = cache.entrySet().iterator();
+            while (cachedFloats > maxCachedFloats && it.hasNext()) {
+                Map.Entry<String, FloatVector> eldest = it.next();
+                cachedFloats -= eldest.getValue().dimension();
+                it.remove();
+                meterRegistry.counter("embedding.cache.evictions").increment();
+            }
+        }
+    }
+
+    private int cacheEntries() {
+        synchronized (cacheLock) {
+            return cache.size();
+        }
+    }
+
+    private long cacheBytes() {
+        synchronized (cacheLock) {
+            return cachedFloats * Float.BYTES;
+        }
+    }
+
+    private static String hash(String text) {
+        try {
+            MessageDigest md = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(md.digest(text.getBytes(StandardCharsets.UTF_8)));
+        } catch (Exception e) {
+            throw new IllegalStateException("SHA-256 사용 불가", e);
+        }
+    }
+
+    private record Pending(String key, String text, CompletableFuture<FloatVector> future) {}
+
+    @Data
+    static class EmbedResponse {
+        private List<float[]> embeddings;
+    }
+}
@@ -0,0 +1,250 @@
+package com.smhrd.web.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+
+/**
+ * EXAONE 토크나이저 (HuggingFace tokenizer.json 기반 byte-level BPE).
+ * vLLM 서버와 같은 어휘/병합 규칙으로 토큰 수를 계산해 청크 분할과 max_tokens 계산에 사용한다.
+ * 파일이 없으면 기존 글자 수 기반 추정(길이 / 2.5)으로 동작한다.
+ *
+ * 토큰 ID가 아니라 개수만 필요하므로 pre-token 단위 BPE 결과 개수만 캐시한다.
+ */
+@Component
+@Slf4j
+public class ExaoneTokenizer {
+
+	// GPT-2 byte-level pre-tokenizer 기본 정규식 (tokenizer.json에 Split 패턴이 있으면 그것을 사용)
+	private static final String DEFAULT_PRETOKENIZE_REGEX =
+			"'s|'t|'re|'ve|'m|'ll|'d| ?\\p{L}+| ?\\p{N}+| ?[^\\s\\p{L}\\p{N}]+|\\s+(?!\\S)|\\s+";
+
+	private static final double HEURISTIC_CHARS_PER_TOKEN = 2.5;
+	// 공백 없이 매우 긴 pre-token은 BPE 비용이 커서 나눠서 계산 (경계에서 1~2토큰 오차 허용)
+	private static final int MAX_WORD_CHARS = 256;
+	private static final int WORD_CACHE_LIMIT = 100_000;
+
+	@Value("${vllm.api.tokenizer-path:}")
+	private String tokenizerPath;
+
+	private final ObjectMapper objectMapper = new ObjectMapper();
+	private final Map<String, Integer> wordCache = new ConcurrentHashMap<>();
+
+	private Pattern preTokenizer = Pattern.compile(DEFAULT_PRETOKENIZE_REGEX);
+	private Map<String, Integer> mergeRanks = Map.of();
+	private Set<String> vocab = Set.of();
+	private final char[] byteToUnicode = buildByteToUnicode();
+	private boolean loaded = false;
+
+	@PostConstruct
+	void load() {
+		if (tokenizerPath == null || tokenizerPath.isBlank()) {
+			log.info("ℹ️ 토크나이저 경로 미설정 → 글자 수 기반 토큰 추정 사용");
+			return;
+		}
+		File file = new File(tokenizerPath);
+		if (!file.isFile()) {
+			log.warn("⚠️ 토크나이저 파일 없음: {} → 글자 수 기반 토큰 추정 사용", tokenizerPath);
+			return;
+		}
+		try {
+			JsonNode root = objectMapper.readTree(file);
+			JsonNode model = root.path("model");
+
+			Set<String> v = new HashSet<>(model.path("vocab").size() * 2);
+			model.path("vocab").fieldNames().forEachRemaining(v::add);
+
+			Map<String, Integer> ranks = new HashMap<>(model.path("merges").size() * 2);
+			int rank = 0;
+			for (JsonNode m : model.path("merges")) {
+				// 구버전: "a b" 문자열, 신버전: ["a", "b"] 배열
+				String pair = m.isArray() ? m.get(0).asText() + " " + m.get(1).asText() : m.asText();
+				ranks.putIfAbsent(pair, rank++);
+			}
+
+			String regex = findSplitRegex(root.path("pre_tokenizer"));
+			if (regex != null) {
+				try {
+					preTokenizer = Pattern.compile(regex);
+				} catch (PatternSyntaxException e) {
+					log.warn("⚠️ pre-tokenizer 정규식 변환 실패, 기본 패턴 사용: {}", e.getMessage());
+				}
+			}
+
+			vocab = v;
+			mergeRanks = ranks;
+			loaded = true;
+			log.info("✅ 토크나이저 로드 완료: vocab={}, merges={}", v.size(), ranks.size());
+		} catch (Exception e) {
+			log.warn("⚠️ 토크나이저 로드 실패 → 글자 수 기반 토큰 추정 사용: {}", e.getMessage());
+		}
+	}
+
+	public boolean isLoaded() {
+		return loaded;
+	}
+
+	/** 텍스트 전체 토큰 수 (특수 토큰/채팅 템플릿 제외) */
+	public int countTokens(String text) {
+		if (text == null || text.isEmpty()) return 0;
+		if (!loaded) return (int) Math.ceil(text.length() / HEURISTIC_CHARS_PER_TOKEN);
+
+		int total = 0;
+		Matcher m = preTokenizer.matcher(text);
+		while (m.find()) {
+			total += countWord(text, m.start(), m.end());
+		}
+		return total;
+	}
+
+	/**
+	 * 토큰 예산 기준 분할. 각 청크는 maxTokens 이하이며, 다음 청크는 이전 청크 끝의
+	 * overlapTokens 만큼을 다시 포함한다. 경계는 항상 pre-token(단어/공백) 경계.
+	 */
+	public List<String> splitByTokens(String text, int maxTokens, int overlapTokens) {
+		List<String> chunks = new ArrayList<>();
+		if (text == null || text.isEmpty()) return chunks;
+
+		// pre-token 시작 위치와 토큰 수를 한 번만 계산
+		int[] starts = new int[64];
+		int[] counts = new int[64];
+		int n = 0;
+		Matcher m = preTokenizer.matcher(text);
+		while (m.find()) {
+			if (n == starts.length) {
+				starts = Arrays.copyOf(starts, n * 2);
+				counts = Arrays.copyOf(counts, n * 2);
+			}
+			starts[n] = m.start();
+			counts[n] = loaded
+					? countWord(text, m.start(), m.end())
+					: (int) Math.ceil((m.end() - m.start()) / HEURISTIC_CHARS_PER_TOKEN);
+			n++;
+		}
+		if (n == 0) {
+			chunks.add(text);
+			return chunks;
+		}
+
+		int budget = Math.max(1, maxTokens);
+		int overlap = Math.max(0, Math.min(overlapTokens, budget / 2));
+		int from = 0;
+		while (from < n) {
+			int to = from;
+			int used = 0;
+			while (to < n && (used + counts[to] <= budget || to == from)) {
+				used += counts[to++];
+			}
+			int endChar = (to < n) ? starts[to] : text.length();
+			chunks.add(text.substring(starts[from], endChar));
+			if (to >= n) break;
+
+			// 뒤에서부터 overlap 토큰만큼 되돌아가 다음 청크 시작 (최소 1 pre-token 전진 보장)
+			int back = to;
+			int kept = 0;
+			while (back - 1 > from && kept + counts[back - 1] <= overlap) {
+				kept += counts[--back];
+			}
+			from = back;
+		}
+		return chunks;
+	}
+
+	// ====== BPE ======
+
+	private int countWord(String text, int start, int end) {
+		int total = 0;
+		int s = start;
+		while (s < end) {
+			int e = Math.min(end, s + MAX_WORD_CHARS);
+			// 서로게이트 쌍이 잘리지 않도록 조정
+			if (e < end && Character.isHighSurrogate(text.charAt(e - 1))) e++;
+			String word = text.substring(s, e);
+			Integer cached = wordCache.get(word);
+			if (cached == null) {
+				cached = bpeCount(word);
+				if (wordCache.size() >= WORD_CACHE_LIMIT) wordCache.clear();
+				wordCache.put(word, cached);
+			}
+			total += cached;
+			s = e;
+		}
+		return total;
+	}
+
+	private int bpeCount(String word) {
+		byte[] bytes = word.getBytes(StandardCharsets.UTF_8);
+		List<String> symbols = new ArrayList<>(bytes.length);
+		for (byte b : bytes) {
+			symbols.add(String.valueOf(byteToUnicode[b & 0xFF]));
+		}
+		if (symbols.size() == 1) return 1;
+		if (vocab.contains(String.join("", symbols))) return 1;
+
+		while (symbols.size() > 1) {
+			int bestRank = Integer.MAX_VALUE;
+			int bestIdx = -1;
+			for (int i = 0; i < symbols.size() - 1; i++) {
+				Integer r = mergeRanks.get(symbols.get(i) + " " + symbols.get(i + 1));
+				if (r != null && r < bestRank) {
+					bestRank = r;
+					bestIdx = i;
+				}
+			}
+			if (bestIdx < 0) break;
+
+			// 같은 쌍이 여러 번 나오면 왼쪽부터 모두 병합
+			String left = symbols.get(bestIdx);
+			String right = symbols.get(bestIdx + 1);
+			List<String> merged = new ArrayList<>(symbols.size());
+			for (int i = 0; i < symbols.size(); i++) {
+				if (i < symbols.size() - 1 && symbols.get(i).equals(left) && symbols.get(i + 1).equals(right)) {
+					merged.add(left + right);
+					i++;
+				} else {
+					merged.add(symbols.get(i));
+				}
+			}
+			symbols = merged;
+		}
+		return symbols.size();
+	}
+
+	private String findSplitRegex(JsonNode preTokenizerNode) {
+		if (preTokenizerNode == null || preTokenizerNode.isMissingNode()) return null;
+		if ("Split".equals(preTokenizerNode.path("type").asText())) {
+			JsonNode regex = preTokenizerNode.path("pattern").path("Regex");
+			return regex.isTextual() ? regex.asText() : null;
+		}
+		for (JsonNode child : preTokenizerNode.path("pretokenizers")) {
+			String found = findSplitRegex(child);
+			if (found != null) return found;
+		}
+		return null;
+	}
+
+	// GPT-2 bytes_to_unicode: 출력 가능한 바이트는 그대로, 나머지는 256 이후 코드포인트로 매핑
+	private static char[] buildByteToUnicode() {
+		char[] table = new char[256];
+		boolean[] direct = new boolean[256];
+		for (int b = '!'; b <= '~'; b++) direct[b] = true;
+		for (int b = 0xA1; b <= 0xAC; b++) direct[b] = true;
+		for (int b = 0xAE; b <= 0xFF; b++) direct[b] = true;
+		int next = 0;
+		for (int b = 0; b < 256; b++) {
+			table[b] = direct[b] ? (char) b : (char) (256 + next++);
+		}
+		return table;
+	}
+}
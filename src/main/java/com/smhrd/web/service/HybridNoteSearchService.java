@@ -0,0 +1,308 @@
+package com.smhrd.web.service;
+
+import com.smhrd.web.dto.NoteSearchHit;
+import com.smhrd.web.util.FloatVector;
+import com.smhrd.web.util.PgVector;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * user_notes 하이브리드 검색 (어휘 + 벡터 → Reciprocal Rank Fusion).
+ *
+ * - 어휘: search_tsv @@ websearch_to_tsquery('simple') 또는 제목/본문 ILIKE (pg_trgm GIN 인덱스 사용)
+ *   'simple' 사전은 한국어 조사를 떼지 못하므로 "자바는" 같은 단어는 trigram 부분 일치가 받쳐 준다
+ * - 벡터: 질의 임베딩 코사인 거리 (VectorIndexManager 검색 프로필 적용)
+ * - 두 목록을 동시에 조회한 뒤 score = Σ 1 / (rrf-k + rank) 로 합치고,
+ *   최종 상위 N건만 ts_headline 으로 하이라이트 스니펫을 만들어 돌려준다 (content 전체는 보내지 않음)
+ */
+@Slf4j
+@Service
+public class HybridNoteSearchService {
+
+    private final NamedParameterJdbcTemplate postgresTemplate;
+    private final EmbeddingService embeddingService;
+    private final VectorIndexManager vectorIndexManager;
+    private final NoteSearchCache searchCache;
+
+    @Value("${note.search.rrf-k:60}")
+    private int rrfK;
+
+    // 각 검색에서 가져올 후보 수
+    @Value("${note.search.candidates:30}")
+    private int candidates;
+
+    @Value("${note.search.workers:8}")
+    private int workers;
+
+    // ts_headline 옵션: 챗봇은 마크다운이므로 굵게(**) 로 강조
+    @Value("${note.search.headline-options:StartSel=**, StopSel=**, MaxWords=35, MinWords=15, MaxFragments=2, FragmentDelimiter=\" … \"}")
+    private String headlineOptions;
+
+    private ExecutorService searchExecutor;
+
+    public HybridNoteSearchService(@Qualifier("postgresNamedParameterJdbcTemplate") NamedParameterJdbcTemplate postgresTemplate,
+                                   EmbeddingService embeddingService,
+                                   VectorIndexManager vectorIndexManager,
+                                   NoteSearchCache searchCache) {
+        this.postgresTemplate = postgresTemplate;
+        this.embeddingService = embeddingService;
+        this.vectorIndexManager = vectorIndexManager;
+        this.searchCache = searchCache;
+    }
+
+    @PostConstruct
+    public void init() {
+        searchExecutor = Executors.newFixedThreadPool(Math.max(2, workers), new CustomizableThreadFactory("note-search-"));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (searchExecutor != null) searchExecutor.shutdownNow();
+    }
+
+    public List<NoteSearchHit> search(Long userIdx, String query, int limit) {
+        return search(userIdx, query, null, null, limit, NoteSearchHit.Projection.SNIPPET);
+    }
+
+    public List<NoteSearchHit> search(Long userIdx, String query, int limit, NoteSearchHit.Projection projection) {
+        return search(userIdx, query, null, null, limit, projection);
+    }
+
+    /**
+     * projection 이 IDS 면 점수만, TITLE 이면 제목까지, SNIPPET 이면 ts_headline 스니펫까지 조회한다.
+     * 순위(note_idx 목록)는 NoteSearchCache 에 두고, 같은 질문이 다시 오면 임베딩/검색 없이 행만 읽는다.
+     */
+    public List<NoteSearchHit> search(Long userIdx, String query, LocalDateTime from, LocalDateTime to,
+                                      int limit, NoteSearchHit.Projection projection) {
+        if (userIdx == null || userIdx <= 0 || query == null || query.isBlank()) {
+            return new ArrayList<>();
+        }
+        String q = query.strip();
+        int top = Math.max(1, limit);
+        long start = System.currentTimeMillis();
+
+        long version = searchCache.version(userIdx);
+        List<NoteSearchCache.ScoredId> ranked = searchCache.get(userIdx, q, from, to, top).orElse(null);
+        boolean cached = ranked != null;
+        if (!cached) {
+            ranked = rank(userIdx, q, from, to, top, version);
+        }
+        if (ranked.isEmpty()) {
+            log.info("🔍 하이브리드 검색 결과 없음 - userIdx: {}, q: {}", userIdx, q);
+            return new ArrayList<>();
+        }
+
+        NoteSearchHit.Projection proj = projection != null ? projection : NoteSearchHit.Projection.SNIPPET;
+        List<Long> ids = ranked.stream().map(NoteSearchCache.ScoredId::noteIdx).toList();
+        Map<Long, NoteSearchHit> rows = proj == NoteSearchHit.Projection.IDS
+                ? null
+                : loadRows(userIdx, q, ids, proj == NoteSearchHit.Projection.SNIPPET);
+
+        List<NoteSearchHit> results = new ArrayList<>(ranked.size());
+        for (NoteSearchCache.ScoredId r : ranked) {
+            NoteSearchHit hit = rows == null ? NoteSearchHit.builder().noteIdx(r.noteIdx()).build() : rows.get(r.noteIdx());
+            if (hit == null) continue;
+            hit.setScore(r.score());
+            hit.setLexicalRank(r.lexicalRank());
+            hit.setVectorRank(r.vectorRank());
+            hit.setSimilarity(r.similarity());
+            results.add(hit);
+        }
+
+        log.info("✅ 하이브리드 검색 완료 - userIdx: {}, {}건{} ({}ms)",
+                userIdx, results.size(), cached ? " (캐시)" : "", System.currentTimeMillis() - start);
+        return results;
+    }
+
+    // 어휘 + 벡터 동시 조회 → RRF 상위 top 건
+    private List<NoteSearchCache.ScoredId> rank(Long userIdx, String q, LocalDateTime from, LocalDateTime to,
+                                                int top, long cacheVersion) {
+        CompletableFuture<List<Long>> lexical = CompletableFuture.supplyAsync(() -> lexicalSearch(userIdx, q, from, to), searchExecutor);
+        CompletableFuture<Map<Long, Double>> vector = CompletableFuture.supplyAsync(() -> vectorSearch(userIdx, q, from, to), searchExecutor);
+
+        List<Long> lexicalIds = joinQuietly(lexical, null, "어휘");
+        Map<Long, Double> vectorHits = joinQuietly(vector, null, "벡터");
+        // 한쪽이 실패한 결과는 캐시하지 않는다
+        boolean complete = lexicalIds != null && vectorHits != null;
+        if (lexicalIds == null) lexicalIds = List.of();
+        if (vectorHits == null) vectorHits = Map.of();
+        List<Long> vectorIds = new ArrayList<>(vectorHits.keySet());
+
+        // RRF
+        Map<Long, Double> fused = new HashMap<>();
+        for (int i = 0; i < lexicalIds.size(); i++) {
+            fused.merge(lexicalIds.get(i), 1.0 / (rrfK + i + 1), Double::sum);
+        }
+        for (int i = 0; i < vectorIds.size(); i++) {
+            fused.merge(vectorIds.get(i), 1.0 / (rrfK + i + 1), Double::sum);
+        }
+
+        List<NoteSearchCache.ScoredId> ranked = new ArrayList<>();
+        for (Map.Entry<Long, Double> e : fused.entrySet().stream()
+                .sorted(Map.Entry.<Long, Double>comparingByValue().reversed())
+                .limit(top)
+                .toList()) {
+            Long noteIdx = e.getKey();
+            int lexRank = lexicalIds.indexOf(noteIdx);
+            int vecRank = vectorIds.indexOf(noteIdx);
+            ranked.add(new NoteSearchCache.ScoredId(
+                    noteIdx,
+                    Math.round(e.getValue() * 100000) / 100000.0,
+                    lexRank >= 0 ? lexRank + 1 : null,
+                    vecRank >= 0 ? vecRank + 1 : null,
+                    vectorHits.get(noteIdx)));
+        }
+
+        log.info("🔀 RRF - userIdx: {}, 어휘 {}건 + 벡터 {}건 → {}건", userIdx, lexicalIds.size(), vectorIds.size(), ranked.size());
+        if (complete) {
+            searchCache.put(userIdx, q, from, to, top, ranked, cacheVersion);
+        }
+        return ranked;
+    }
+
+    // ====== 어휘 검색 ======
+
+    private List<Long> lexicalSearch(Long userIdx, String q, LocalDateTime from, LocalDateTime to) {
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("userId", userIdx)
+                .addValue("q", q)
+                .addValue("like", "%" + escapeLike(q) + "%")
+                .addValue("limit", candidates);
+        String dateFilter = dateFilter(params, from, to);
+
+        String sql = vectorIndexManager.isLexicalReady()
+                ? """
+                SELECT note_idx
+                FROM user_notes, websearch_to_tsquery('simple', :q) AS tsq
+                WHERE user_idx = :userId
+                  AND (search_tsv @@ tsq OR title ILIKE :like OR content ILIKE :like)
+                """ + dateFilter + """
+                ORDER BY ts_rank_cd(search_tsv, tsq) DESC,
+                         (title ILIKE :like) DESC,
+                         created_at DESC
+                LIMIT :limit
+                """
+                : """
+                SELECT note_idx
+                FROM user_notes
+                WHERE user_idx = :userId
+                  AND (title ILIKE :like OR content ILIKE :like)
+                """ + dateFilter + """
+                ORDER BY (title ILIKE :like) DESC, created_at DESC
+                LIMIT :limit
+                """;
+        return postgresTemplate.queryForList(sql, params, Long.class);
+    }
+
+    private static String dateFilter(MapSqlParameterSource params, LocalDateTime from, LocalDateTime to) {
+        StringBuilder sb = new StringBuilder();
+        if (from != null) {
+            sb.append(" AND created_at >= :startDate");
+            params.addValue("startDate", from);
+        }
+        if (to != null) {
+            sb.append(" AND created_at <= :endDate");
+            params.addValue("endDate", to);
+        }
+        return sb.toString();
+    }
+
+    private static String escapeLike(String s) {
+        return s.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+
+    // ====== 벡터 검색 ======
+
+    // note_idx → similarity (거리 순)
+    private Map<Long, Double> vectorSearch(Long userIdx, String q, LocalDateTime from, LocalDateTime to) {
+        FloatVector queryVector = embeddingService.embed(q);
+        if (queryVector.isEmpty()) return Map.of();
+
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("userId", userIdx)
+                .addValue("vector", PgVector.of(queryVector))
+                .addValue("limit", candidates);
+        String sql = """
+                SELECT note_idx, ROUND((1 - (embedding <=> :vector))::numeric, 4) AS similarity
+                FROM user_notes
+                WHERE user_idx = :userId AND embedding IS NOT NULL
+                """ + dateFilter(params, from, to) + """
+                ORDER BY embedding <=> :vector
+                LIMIT :limit
+                """;
+
+        Map<Long, Double> hits = new LinkedHashMap<>();
+        vectorIndexManager.inProfile(vectorIndexManager.defaultProfile(), t -> {
+            t.query(sql, params, rs -> {
+                hits.put(rs.getLong("note_idx"), rs.getDouble("similarity"));
+            });
+            return null;
+        });
+        return hits;
+    }
+
+    // ====== 결과 행 (최종 상위 N건만) ======
+
+    private Map<Long, NoteSearchHit> loadRows(Long userIdx, String q, List<Long> noteIds, boolean withSnippet) {
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("userId", userIdx)
+                .addValue("ids", noteIds)
+                .addValue("q", q)
+                .addValue("opts", headlineOptions);
+
+        // 'simple' tsquery 가 안 맞는 (trigram/벡터로만 찾은) 노트는 ts_headline 이 문서 앞부분을 돌려준다
+        String sql = withSnippet
+                ? """
+                SELECT note_idx, user_idx, title, created_at, length(content) AS content_length,
+                       ts_headline('simple', coalesce(content, ''), websearch_to_tsquery('simple', :q), :opts) AS snippet
+                FROM user_notes
+                WHERE user_idx = :userId AND note_idx IN (:ids)
+                """
+                : """
+                SELECT note_idx, user_idx, title, created_at
+                FROM user_notes
+                WHERE user_idx = :userId AND note_idx IN (:ids)
+                """;
+
+        Map<Long, NoteSearchHit> rows = new HashMap<>();
+        postgresTemplate.query(sql, params, rs -> {
+            long noteIdx = rs.getLong("note_idx");
+            Timestamp createdAt = rs.getTimestamp("created_at");
+            NoteSearchHit.NoteSearchHitBuilder hit = NoteSearchHit.builder()
+                    .noteIdx(noteIdx)
+                    .userIdx(rs.getLong("user_idx"))
+                    .title(rs.getString("title"))
+                    .createdAt(createdAt != null ? createdAt.toLocalDateTime() : null);
+            if (withSnippet) {
+                hit.contentLength(rs.getInt("content_length")).snippet(rs.getString("snippet"));
+            }
+            rows.put(noteIdx, hit.build());
+        });
+        return rows;
+    }
+
+    // 한쪽 검색이 실패해도 다른 쪽 결과로 응답
+    private static <T> T joinQuietly(CompletableFuture<T> future, T fallback, String name) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            log.warn("⚠️ {} 검색 실패 - 나머지 결과만 사용: {}", name, e.getCause() != null ? e.getCause().getMessage() : e.getMessage());
+            return fallback;
+        }
+    }
+}
@@ -0,0 +1,276 @@
+package com.smhrd.web.service;
+
+import com.smhrd.web.util.FloatVector;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Pattern;
+
+/**
+ * 챗봇 인텐트 빠른 분류 (LLM 호출 전 단계).
+ * 1) 키워드/정규식 규칙 → 일치하면 바로 확정
+ * 2) 라벨별 예시 문장(MongoDB intent_examples) 임베딩의 중심 벡터와 코사인 유사도 비교
+ *    → 최고 점수가 threshold 이상이고 2위와의 차이가 margin 이상이면 확정
+ * 3) 둘 다 아니면 empty → ChatService가 LLM으로 분류
+ */
+@Slf4j
+@Service
+public class IntentClassifier {
+
+    public static final List<String> INTENTS = List.of(
+            "NOTE_COUNT", "NOTE_LIST", "NOTE_SEARCH",
+            "SCHEDULE_CREATE", "SCHEDULE_LIST", "SCHEDULE_SEARCH",
+            "LECTURE_RECOMMEND", "LECTURE_SEARCH", "LECTURE_LIST",
+            "EXAM_CREATE", "EXAM_STATS", "EXAM_HISTORY",
+            "HELP", "GENERAL_CHAT");
+
+    public static final String SOURCE_RULE = "rule";
+    public static final String SOURCE_CENTROID = "centroid";
+    public static final String SOURCE_LLM = "llm";
+
+    private static final String COLLECTION = "intent_examples";
+
+    /** 분류 결과 (source: rule / centroid / llm) */
+    public record Result(String intent, double confidence, String source) {}
+
+    private record Rule(String intent, Pattern pattern) {}
+
+    // 위에서부터 먼저 일치하는 규칙 적용 (구체적인 것 먼저)
+    private static final List<Rule> RULES = List.of(
+            new Rule("NOTE_COUNT", Pattern.compile("노트.*(몇\\s*개|개수|갯수)|(몇\\s*개|개수|갯수).*노트")),
+            new Rule("NOTE_LIST", Pattern.compile("노트.*(목록|리스트)")),
+            new Rule("NOTE_SEARCH", Pattern.compile("노트.*(찾아|검색)|(최근|마지막).*노트")),
+            new Rule("SCHEDULE_CREATE", Pattern.compile("(일정|스케줄).*(추가|등록|만들|잡아)")),
+            new Rule("SCHEDULE_SEARCH", Pattern.compile("(일정|스케줄).*(찾아|검색)")),
+            new Rule("SCHEDULE_LIST", Pattern.compile("(일정|스케줄).*(목록|보여|알려)")),
+            new Rule("LECTURE_RECOMMEND", Pattern.compile("강의.*추천|추천.*강의")),
+            new Rule("LECTURE_LIST", Pattern.compile("수강\\s*중|수강하는|듣고\\s*있는\\s*강의")),
+            new Rule("LECTURE_SEARCH", Pattern.compile("(강의|수업).*(찾아|검색)")),
+            new Rule("EXAM_CREATE", Pattern.compile("(시험|문제).*(만들|출제|생성|내줘)")),
+            new Rule("EXAM_STATS", Pattern.compile("시험.*(통계|평균|합격률|점수|몇\\s*번)")),
+            new Rule("EXAM_HISTORY", Pattern.compile("시험.*(기록|이력|내역)")),
+            new Rule("HELP", Pattern.compile("^(도움말|사용법|help)$|(뭘|무엇을|뭐)\\s*할\\s*수\\s*있|기능.*알려", Pattern.CASE_INSENSITIVE))
+    );
+
+    // 컬렉션이 비어 있을 때 넣는 기본 예시 (관리자 API로 계속 추가)
+    private static final Map<String, List<String>> SEED_EXAMPLES = Map.ofEntries(
+            Map.entry("NOTE_COUNT", List.of("내가 쓴 글 몇 개야?", "저장된 필기 수 알려줘")),
+            Map.entry("NOTE_LIST", List.of("내 필기 전부 보여줘", "작성한 정리 목록 보여줘")),
+            Map.entry("NOTE_SEARCH", List.of("파이썬 정리한 거 찾아줘", "자바 상속 내용 어디 적었지?", "지난번에 공부한 스프링 내용 보여줘")),
+            Map.entry("SCHEDULE_CREATE", List.of("내일 3시에 스터디 추가해줘", "다음주 월요일 시험 등록해줘")),
+            Map.entry("SCHEDULE_LIST", List.of("이번주 할 일 뭐 있어?", "오늘 계획 알려줘")),
+            Map.entry("SCHEDULE_SEARCH", List.of("스터디 언제였지?", "발표 날짜 찾아줘")),
+            Map.entry("LECTURE_RECOMMEND", List.of("자바 공부하려는데 들을만한 거 있어?", "초보자한테 좋은 파이썬 수업 알려줘")),
+            Map.entry("LECTURE_SEARCH", List.of("스프링 부트 영상 찾아줘", "머신러닝 수업 있어?")),
+            Map.entry("LECTURE_LIST", List.of("내가 듣는 수업 목록", "지금 듣고 있는 과정 보여줘")),
+            Map.entry("EXAM_CREATE", List.of("파이썬 문제 풀어보고 싶어", "자바 퀴즈 내줘")),
+            Map.entry("EXAM_STATS", List.of("내 평균 점수 알려줘", "지금까지 몇 번 합격했어?")),
+            Map.entry("EXAM_HISTORY", List.of("지난번에 본 테스트 결과 보여줘", "예전에 푼 문제 결과")),
+            Map.entry("HELP", List.of("너 뭐 할 수 있어?", "사용 방법 알려줘")),
+            Map.entry("GENERAL_CHAT", List.of("안녕", "고마워", "리스트 컴프리헨션이 뭐야?", "재귀 함수 설명해줘", "오늘 기분이 안 좋아"))
+    );
+
+    private final MongoTemplate mongoTemplate;
+    private final EmbeddingService embeddingService;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${chat.intent.fast-path-enabled:true}")
+    private boolean enabled;
+
+    @Value("${chat.intent.centroid-threshold:0.82}")
+    private double threshold;
+
+    @Value("${chat.intent.centroid-margin:0.03}")
+    private double margin;
+
+    // 라벨 → 예시 임베딩 중심 벡터 (재계산 시 통째로 교체)
+    private volatile Map<String, FloatVector> centroids = Map.of();
+
+    private final AtomicLong fastHits = new AtomicLong();
+    private final AtomicLong total = new AtomicLong();
+
+    public IntentClassifier(MongoTemplate mongoTemplate, EmbeddingService embeddingService, MeterRegistry meterRegistry) {
+        this.mongoTemplate = mongoTemplate;
+        this.embeddingService = embeddingService;
+        this.meterRegistry = meterRegistry;
+        meterRegistry.gauge("chat.intent.fast_path.ratio", this, c -> c.hitRate());
+    }
+
+    // ====== 분류 ======
+
+    /** 규칙 → 중심 벡터 순서로 시도. 확신이 없으면 empty (호출 측이 LLM으로 분류 후 recordLlmFallback) */
+    public Optional<Result> classifyFast(String message) {
+        Optional<Result> byRule = classifyByRule(message);
+        return byRule.isPresent() ? byRule : classifyByCentroid(message);
+    }
+
+    /** 규칙만 확인 (I/O 없음) */
+    public Optional<Result> classifyByRule(String message) {
+        if (!enabled || message == null || message.isBlank()) return Optional.empty();
+        String text = message.strip();
+        for (Rule rule : RULES) {
+            if (rule.pattern().matcher(text).find()) {
+                return Optional.of(record(new Result(rule.intent(), 1.0, SOURCE_RULE)));
+            }
+        }
+        return Optional.empty();
+    }
+
+    /** 예시 임베딩 중심 벡터와 비교 (메시지 임베딩 1회) */
+    public Optional<Result> classifyByCentroid(String message) {
+        if (!enabled || message == null || message.isBlank()) return Optional.empty();
+        String text = message.strip();
+
+        Map<String, FloatVector> snapshot = centroids;
+        if (snapshot.isEmpty()) return Optional.empty();
+
+        FloatVector query;
+        try {
+            query = embeddingService.embed(text);
+        } catch (Exception e) {
+            log.warn("⚠️ 인텐트 임베딩 실패 → LLM 분류: {}", e.getMessage());
+            return Optional.empty();
+        }
+
+        String best = null;
+        double bestScore = -1, secondScore = -1;
+        for (Map.Entry<String, FloatVector> e : snapshot.entrySet()) {
+            double score = query.cosine(e.getValue());
+            if (score > bestScore) {
+                secondScore = bestScore;
+                bestScore = score;
+                best = e.getKey();
+            } else if (score > secondScore) {
+                secondScore = score;
+            }
+        }
+
+        if (best != null && bestScore >= threshold && bestScore - secondScore >= margin) {
+            return Optional.of(record(new Result(best, bestScore, SOURCE_CENTROID)));
+        }
+        log.debug("🎯 중심 벡터 분류 보류: best={} ({}), 2위와 차이 {}", best, bestScore, bestScore - secondScore);
+        return Optional.empty();
+    }
+
+    public void recordLlmFallback() {
+        total.incrementAndGet();
+        meterRegistry.counter("chat.intent.classified", "source", SOURCE_LLM).increment();
+    }
+
+    private Result record(Result result) {
+        total.incrementAndGet();
+        fastHits.incrementAndGet();
+        meterRegistry.counter("chat.intent.classified", "source", result.source()).increment();
+        return result;
+    }
+
+    private double hitRate() {
+        long t = total.get();
+        return t == 0 ? 0.0 : (double) fastHits.get() / t;
+    }
+
+    // ====== 예시 관리 ======
+
+    /** 예시 문장 추가 후 중심 벡터 재계산 */
+    public void addExample(String intent, String text) {
+        if (!INTENTS.contains(intent)) {
+            throw new IllegalArgumentException("알 수 없는 인텐트: " + intent);
+        }
+        if (text == null || text.isBlank()) {
+            throw new IllegalArgumentException("예시 문장이 비어 있습니다.");
+        }
+        String normalized = text.strip();
+        Document doc = new Document("intent", intent)
+                .append("text", normalized)
+                .append("embedding", embeddingService.embed(normalized).toList())
+                .append("created_at", new Date());
+        mongoTemplate.insert(doc, COLLECTION);
+        rebuild();
+    }
+
+    public Map<String, Object> stats() {
+        Map<String, Long> counts = new TreeMap<>();
+        for (Document d : mongoTemplate.findAll(Document.class, COLLECTION)) {
+            counts.merge(d.getString("intent"), 1L, Long::sum);
+        }
+        Map<String, Object> out = new LinkedHashMap<>();
+        out.put("examples", counts);
+        out.put("centroids", new TreeSet<>(centroids.keySet()));
+        out.put("threshold", threshold);
+        out.put("margin", margin);
+        out.put("classified", total.get());
+        out.put("fastPathHits", fastHits.get());
+        out.put("fastPathRate", hitRate());
+        return out;
+    }
+
+    // 시작 직후 1회 + 주기적으로 재계산 (DB에 직접 추가된 예시도 반영)
+    @Scheduled(initialDelayString = "${chat.intent.rebuild-initial-delay-ms:15000}",
+            fixedDelayString = "${chat.intent.rebuild-interval-ms:600000}")
+    public void scheduledRebuild() {
+        if (!enabled) return;
+        try {
+            rebuild();
+        } catch (Exception e) {
+            log.warn("⚠️ 인텐트 중심 벡터 재계산 실패: {}", e.getMessage());
+        }
+    }
+
+    /** 예시 로드 → 임베딩 없는 예시 보충 → 라벨별 정규화 평균 벡터 계산 */
+    public synchronized void rebuild() {
+        if (mongoTemplate.estimatedCount(COLLECTION) == 0) {
+            seedExamples();
+        }
+
+        List<Document> docs = mongoTemplate.findAll(Document.class, COLLECTION);
+        List<Document> missing = docs.stream()
+                .filter(d -> !(d.get("embedding") instanceof List<?> l) || l.isEmpty())
+                .toList();
+        if (!missing.isEmpty()) {
+            List<FloatVector> vectors = embeddingService.embedAll(missing.stream().map(d -> d.getString("text")).toList());
+            for (int i = 0; i < missing.size(); i++) {
+                Document d = missing.get(i);
+                List<Float> embedding = vectors.get(i).toList();
+                d.put("embedding", embedding);
+                mongoTemplate.updateFirst(Query.query(Criteria.where("_id").is(d.get("_id"))),
+                        Update.update("embedding", embedding), COLLECTION);
+            }
+        }
+
+        Map<String, float[]> sums = new HashMap<>();
+        for (Document d : docs) {
+            FloatVector v = FloatVector.fromList(d.getList("embedding", Number.class));
+            String intent = d.getString("intent");
+            if (v.isEmpty() || v.norm() == 0f || intent == null) continue;
+            float[] sum = sums.computeIfAbsent(intent, k -> new float[v.dimension()]);
+            if (sum.length != v.dimension()) continue;
+            float inv = 1f / v.norm();
+            for (int i = 0; i < sum.length; i++) {
+                sum[i] += v.get(i) * inv;
+            }
+        }
+
+        Map<String, FloatVector> next = new HashMap<>();
+        sums.forEach((intent, sum) -> next.put(intent, FloatVector.wrap(sum)));
+        centroids = Map.copyOf(next);
+        log.info("✅ 인텐트 중심 벡터 {}개 갱신 (예시 {}건)", next.size(), docs.size());
+    }
+
+    private void seedExamples() {
+        List<Document> seeds = new ArrayList<>();
+        SEED_EXAMPLES.forEach((intent, texts) -> texts.forEach(t ->
+                seeds.add(new Document("intent", intent).append("text", t).append("created_at", new Date()))));
+        mongoTemplate.insert(seeds, COLLECTION);
+        log.info("✅ intent_examples 기본 예시 {}건 등록", seeds.size());
+    }
+}
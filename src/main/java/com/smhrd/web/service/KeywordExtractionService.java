@@ -1,14 +1,12 @@
 package com.smhrd.web.service;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
 import com.smhrd.web.dto.CategoryResult;
+import com.smhrd.web.dto.ChatCompletionRequest;
 import com.smhrd.web.entity.CategoryHierarchy;
 import com.smhrd.web.repository.CategoryHierarchyRepository;
 import lombok.RequiredArgsConstructor;
-import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
-import org.springframework.web.reactive.function.client.WebClient;
 
 import java.util.*;
 import java.util.stream.Collectors;
@@ -16,10 +14,10 @@ import java.util.stream.Collectors;
 @Service
 public class KeywordExtractionService {
 
-    private final WebClient webClient;
+    private final VllmGateway vllmGateway;
     private final CategoryHierarchyRepository categoryHierarchyRepository;
-    public KeywordExtractionService(@Qualifier("vllmApiClient") WebClient webClient, CategoryHierarchyRepository categoryHierarchyRepository /* 기타 파라미터 */) {
-        this.webClient = webClient;
+    public KeywordExtractionService(VllmGateway vllmGateway, CategoryHierarchyRepository categoryHierarchyRepository /* 기타 파라미터 */) {
+        this.vllmGateway = vllmGateway;
         // ... 초기화
         this.categoryHierarchyRepository = categoryHierarchyRepository;
     }
@@ -34,7 +32,7 @@ public class KeywordExtractionService {
         String combined = (title + "\n" + content).trim();
 
         // 1) 키워드 추출
-        Set<String> keywords = extractKeywords(combined);
+        Set<String> keywords = extractKeywords(combined, userIdx);
 
         // 2) 카테고리 매칭 (공개 + 본인 것만)
         List<CategoryHierarchy> candidates = categoryHierarchyRepository
@@ -64,9 +62,9 @@ public class KeywordExtractionService {
     /**
      * LLM 호출: 키워드 추출
      */
-    private Set<String> extractKeywords(String text) {
+    private Set<String> extractKeywords(String text, Long userIdx) {
         String prompt = "다음 텍스트에서 핵심 기술 키워드를 한국어로만 추출하세요. 불필요한 설명이나 라벨(예: '한국어 키워드:')은 쓰지 말고, 키워드만 콤마로 구분하여 출력하세요:\n" + text;
-        String response = callLLM(prompt, 300);
+        String response = callLLM(VllmScheduler.Caller.userSummary(userIdx), prompt, 300);
         return Arrays.stream(response.split(","))
                 .map(String::trim)
                 .filter(s -> !s.isEmpty())
@@ -105,7 +103,7 @@ public class KeywordExtractionService {
                 summary, candidateList
         );
 
-        String response = callLLM(prompt, 200);
+        String response = callLLM(VllmScheduler.Caller.SYSTEM, prompt, 200);
         String[] parts = response.split("\\|");
         String bestCategoryName = parts[0].trim();
         double score = parts.length > 1 ? parseScore(parts[1].trim()) : 0.0;
@@ -130,31 +128,9 @@ public class KeywordExtractionService {
     /**
      * vLLM API 호출
      */
-    private String callLLM(String prompt, int maxTokens) {
-        Map<String, Object> req = new HashMap<>();
-        req.put("model", modelName);
-        req.put("max_tokens", maxTokens);
-        req.put("temperature", 0.3);
-        req.put("stream", false);
-        req.put("messages", List.of(Map.of("role", "user", "content", prompt)));
-
-        String response = webClient.post()
-                .uri("/v1/chat/completions")
-                .bodyValue(req)
-                .retrieve()
-                .bodyToMono(String.class)
-                .block();
-
-        return extractText(response);
-    }
-
-    private String extractText(String responseJson) {
-        try {
-            var node = new ObjectMapper().readTree(responseJson);
-            return node.path("choices").get(0).path("message").path("content").asText("");
-        } catch (Exception e) {
-            return "";
-        }
+    private String callLLM(VllmScheduler.Caller caller, String prompt, int maxTokens) {
+        ChatCompletionRequest req = ChatCompletionRequest.of(modelName, null, prompt, maxTokens, 0.3);
+        return vllmGateway.completeText(VllmGateway.Endpoint.SUMMARY, caller, req);
     }
 
     private String cleanSegment(String s) {
@@ -2,19 +2,29 @@ package com.smhrd.web.service;
 
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.smhrd.web.dto.ChatCompletionRequest;
 import com.smhrd.web.entity.*;
 import com.smhrd.web.repository.*;
+import com.smhrd.web.util.FloatVector;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import lombok.Data;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
-import org.springframework.web.reactive.function.client.WebClient;
 
 import java.nio.charset.StandardCharsets;
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.*;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Collectors;
 
 @Service
@@ -22,19 +32,22 @@ import java.util.stream.Collectors;
 public class LLMUnifiedService {
 
 	// ====== 필드 ======
-	private final WebClient vllmWebClient;
-	private final WebClient embeddingClient;
+	private final VllmGateway vllmGateway;
+	private final EmbeddingService embeddingService;
 	private final ObjectMapper objectMapper = new ObjectMapper();
 
 	private final PromptRepository promptRepository;
 	private final UserRepository userRepository;
 	private final NoteRepository noteRepository;
 	private final NoteFolderRepository noteFolderRepository;
+	private final NoteFolderPathService noteFolderPathService;
 	private final TagRepository tagRepository;
 	private final NoteTagRepository noteTagRepository;
 	private final CategoryHierarchyRepository categoryHierarchyRepository;
 	private final TestSummaryRepository testSummaryRepository;
 	private final FileParseService fileParseService;
+	private final SummaryCacheService summaryCache;
+	private final ExaoneTokenizer tokenizer;
 
 	@Value("${vllm.api.model}")
 	private String modelName;
@@ -48,37 +61,149 @@ public class LLMUnifiedService {
 	@Value("${vllm.api.context-limit:30000}")
 	private int contextLimit;
 
+	// 청크/중간 reduce 호출 워커 수. 실제 vLLM 동시 실행 수는 VllmScheduler가 우선순위/사용자별로 제한하므로
+	// 워커는 여러 사용자의 청크가 스케줄러 대기열에 함께 올라갈 수 있을 만큼 넉넉히 둔다
+	@Value("${vllm.api.max-concurrency:16}")
+	private int maxConcurrency;
+
+	// 청크 1개 요약 타임아웃 (느린 청크 하나가 전체 노트를 붙잡지 않도록)
+	@Value("${vllm.api.chunk-timeout-ms:90000}")
+	private long chunkTimeoutMs;
+
+	// reduce 1회에 합칠 최대 요약 수 (실제 값은 context-limit에 맞춰 이보다 작아질 수 있음)
+	@Value("${vllm.api.reduce-fan-in:8}")
+	private int maxReduceFanIn;
+
+	// 스트리밍 요약 요청을 처리하는 워커 수 (요청 스레드를 붙잡지 않도록 별도 풀에서 실행)
+	@Value("${vllm.api.summary-workers:8}")
+	private int summaryWorkers;
+
+	// Recursive 청크 크기/중복 (토큰 단위, 기존 4000자/500자 창과 비슷한 크기)
+	@Value("${vllm.api.chunk-tokens:1600}")
+	private int chunkTokens;
+
+	@Value("${vllm.api.chunk-overlap-tokens:200}")
+	private int chunkOverlapTokens;
+
+	// Semantic 청크 최대 크기 (토큰 단위)
+	@Value("${vllm.api.semantic-chunk-tokens:2000}")
+	private int semanticChunkTokens;
+
+	private ExecutorService chunkExecutor;
+	private ExecutorService summaryExecutor;
+
+	private static final int INTERMEDIATE_REDUCE_TOKENS = 1000;
+	private static final int FINAL_REDUCE_TOKENS = 2000;
+	private static final int REDUCE_PROMPT_OVERHEAD = 500;
+
 	private static final int NORMAL_MAX_BYTES = 50 * 1024;
 	private static final int MEDIUM_MAX_BYTES = 200 * 1024;
 
 	// ====== 생성자 ======
 	public LLMUnifiedService(
-			@Qualifier("vllmApiClient") WebClient vllmWebClient,
-			@Qualifier("embeddingClient") WebClient embeddingClient,
+			VllmGateway vllmGateway,
+			EmbeddingService embeddingService,
 			PromptRepository promptRepository,
 			UserRepository userRepository,
 			NoteRepository noteRepository,
 			NoteFolderRepository noteFolderRepository,
+			NoteFolderPathService noteFolderPathService,
 			TagRepository tagRepository,
 			NoteTagRepository noteTagRepository,
 			CategoryHierarchyRepository categoryHierarchyRepository,
 			TestSummaryRepository testSummaryRepository,
-			FileParseService fileParseService) {
-		this.vllmWebClient = vllmWebClient;
-		this.embeddingClient = embeddingClient;
+			FileParseService fileParseService,
+			SummaryCacheService summaryCache,
+			ExaoneTokenizer tokenizer) {
+		this.vllmGateway = vllmGateway;
+		this.embeddingService = embeddingService;
 		this.promptRepository = promptRepository;
 		this.userRepository = userRepository;
 		this.noteRepository = noteRepository;
 		this.noteFolderRepository = noteFolderRepository;
+		this.noteFolderPathService = noteFolderPathService;
 		this.tagRepository = tagRepository;
 		this.noteTagRepository = noteTagRepository;
 		this.categoryHierarchyRepository = categoryHierarchyRepository;
 		this.testSummaryRepository = testSummaryRepository;
 		this.fileParseService = fileParseService;
+		this.summaryCache = summaryCache;
+		this.tokenizer = tokenizer;
+	}
+
+	@PostConstruct
+	void initChunkExecutor() {
+		chunkExecutor = Executors.newFixedThreadPool(Math.max(1, maxConcurrency),
+				new CustomizableThreadFactory("llm-chunk-"));
+		summaryExecutor = Executors.newFixedThreadPool(Math.max(1, summaryWorkers),
+				new CustomizableThreadFactory("llm-summary-"));
+	}
+
+	@PreDestroy
+	void shutdownChunkExecutor() {
+		summaryExecutor.shutdownNow();
+		chunkExecutor.shutdownNow();
+	}
+
+	/**
+	 * 요약 진행 상황 콜백 (SSE 스트리밍용). 청크/병합 단계 진행률과 최종 요약 토큰을 전달한다.
+	 * 콜백은 워커 스레드에서 호출되므로 구현체는 스레드 안전해야 한다.
+	 */
+	public interface SummaryProgressListener {
+		SummaryProgressListener NONE = new SummaryProgressListener() {};
+
+		// 요약 전략 결정 시 (simple / recursive / semantic), chunkCount는 simple이면 1
+		default void onStage(String mode, int chunkCount) {}
+
+		default void onChunkDone(int done, int total) {}
+
+		default void onReduceLevel(int level, int inputs, int outputs) {}
+
+		// 최종 요약 생성 중 vLLM이 보내는 토큰 조각
+		default void onToken(String delta) {}
+
+		// 결과를 받을 쪽이 사라졌는지 (SSE 연결 종료 등). true면 남은 청크 호출과 토큰 스트림을 중단한다
+		default boolean isCancelled() { return false; }
+	}
+
+	private static void checkCancelled(SummaryProgressListener listener) {
+		if (listener.isCancelled()) {
+			throw new CancellationException("요약 요청이 취소되었습니다.");
+		}
+	}
+
+	/**
+	 * 요약을 별도 워커에서 실행한다. 진행 상황은 listener로 전달되고 결과는 future로 받는다.
+	 */
+	public CompletableFuture<SummaryResult> summarizeLongDocumentAsync(long userIdx, Long promptId, String original,
+	                                                                   SummaryProgressListener listener) {
+	    return CompletableFuture.supplyAsync(() -> {
+	        try {
+	            return summarizeLongDocument(userIdx, promptId, original, listener);
+	        } catch (RuntimeException e) {
+	            throw e;
+	        } catch (Exception e) {
+	            throw new CompletionException(e);
+	        }
+	    }, summaryExecutor);
 	}
 
 	// ✅ 새 메서드 추가: promptId로 직접 조회
 	public SummaryResult summarizeLongDocument(long userIdx, Long promptId, String original) throws Exception {
+	    return summarizeLongDocument(userIdx, promptId, original, SummaryProgressListener.NONE);
+	}
+
+	public SummaryResult summarizeLongDocument(long userIdx, Long promptId, String original,
+	                                           SummaryProgressListener listener) throws Exception {
+	    return summarizeLongDocument(userIdx, promptId, original, listener, VllmScheduler.Priority.USER_SUMMARY);
+	}
+
+	/**
+	 * priority: 사용자가 화면에서 기다리는 요약은 USER_SUMMARY, 비동기 작업 큐는 BACKGROUND
+	 */
+	public SummaryResult summarizeLongDocument(long userIdx, Long promptId, String original,
+	                                           SummaryProgressListener listener,
+	                                           VllmScheduler.Priority priority) throws Exception {
 	    String compact = compactText(original);
 	    int bytes = byteLen(compact);
 	    int estimatedTokens = estimateTokens(compact);
@@ -91,29 +216,49 @@ public class LLMUnifiedService {
 	    
 	    String instruction = prompt.getContent();
 	    
+	    // 문서 단위 캐시: 같은 자료 + 같은 프롬프트면 즉시 반환
+	    String docKey = summaryCache.key(SummaryCacheService.LEVEL_DOC, compact, instruction, modelName, temperature, maxTokens);
+	    Optional<SummaryResult> cached = summaryCache.getDocument(docKey);
+	    if (cached.isPresent()) {
+	        requireUser(userIdx);
+	        log.info("전략: CACHE HIT (문서 단위)");
+	        listener.onStage("cached", 0);
+	        return cached.get();
+	    }
+	    
+	    SummaryResult result = summarizeByStrategy(new VllmScheduler.Caller(priority, userIdx), instruction, compact,
+	        estimatedTokens, listener);
+	    summaryCache.putDocument(docKey, result);
+	    return result;
+	}
+
+	private SummaryResult summarizeByStrategy(VllmScheduler.Caller caller, String instruction, String compact, int estimatedTokens,
+	                                          SummaryProgressListener listener) throws Exception {
 	    // 3500 토큰 이하 → SIMPLE
 	    if (estimatedTokens <= 3500) {
 	        log.info("전략: SIMPLE (토큰: {})", estimatedTokens);
 	        try {
-	            String md = runPromptMarkdownWithInstruction(userIdx, instruction, compact);
+	            requireUser(caller.userIdx());
+	            listener.onStage("simple", 1);
+	            String md = streamOrCall(caller, instruction, compact, null, null, listener);
 	            SummaryResult result = SummaryResult.normal(md);
 	            result.setMode("simple");
 	            return result;
 	        } catch (Exception e) {
 	            log.warn("SIMPLE 실패, RECURSIVE로 전환: {}", e.getMessage());
-	            return summarizeWithRecursiveChunking(userIdx, instruction, compact);
+	            return summarizeWithRecursiveChunking(caller, instruction, compact, listener);
 	        }
 	    }
 	    
 	    // Recursive Chunking
 	    if (estimatedTokens <= 15000) {
 	        log.info("전략: RECURSIVE (토큰: {})", estimatedTokens);
-	        return summarizeWithRecursiveChunking(userIdx, instruction, compact);
+	        return summarizeWithRecursiveChunking(caller, instruction, compact, listener);
 	    }
 	    
 	    // Semantic Chunking
 	    log.info("전략: SEMANTIC (토큰: {})", estimatedTokens);
-	    return summarizeWithSemanticChunking(userIdx, instruction, compact);
+	    return summarizeWithSemanticChunking(caller, instruction, compact, listener);
 	}
 
 	// ✅ instruction을 직접 받는 헬퍼 메서드 추가
@@ -123,9 +268,46 @@ public class LLMUnifiedService {
 
 	private String runPromptMarkdownWithInstruction(long userIdx, String instruction, String original, 
 	                                                 String systemOverride, Integer maxTok, Double temp) throws Exception {
+	    requireUser(userIdx);
+	    return callWithInstruction(VllmScheduler.Caller.userSummary(userIdx), instruction, original, systemOverride, maxTok, temp, null);
+	}
+
+	private void requireUser(long userIdx) {
 	    userRepository.findByUserIdx(userIdx)
 	        .orElseThrow(() -> new IllegalArgumentException("사용자를 찾을 수 없습니다."));
+	}
+
+	// 사용자 검증 없이 vLLM 호출만 수행 (청크 병렬 호출용, timeout이 null이면 제한 없음)
+	private String callWithInstruction(VllmScheduler.Caller caller, String instruction, String original, String systemOverride,
+	                                   Integer maxTok, Double temp, Duration timeout) {
+	    ChatCompletionRequest req = instructionRequest(instruction, original, systemOverride, maxTok, temp);
 	    
+	    try {
+	        String content = vllmGateway.completeText(VllmGateway.Endpoint.SUMMARY, caller, req, timeout);
+	        return fixFences(content);
+	    } catch (Exception e) {
+	        log.error("vLLM 호출 실패: {}", e.getMessage());
+	        throw new RuntimeException("AI 요약 실패: " + e.getMessage(), e);
+	    }
+	}
+
+	// callWithInstruction의 비동기 버전: 스케줄러 슬롯을 받은 뒤에 chunkExecutor에서 호출 (풀 스레드가 슬롯 대기로 묶이지 않음)
+	private CompletableFuture<String> callWithInstructionAsync(VllmScheduler.Caller caller, String instruction, String original,
+	                                                           Integer maxTok, Double temp, Duration timeout) {
+	    ChatCompletionRequest req = instructionRequest(instruction, original, null, maxTok, temp);
+	    return vllmGateway.completeTextAsync(VllmGateway.Endpoint.SUMMARY, caller, req, timeout, chunkExecutor)
+	        .handle((content, ex) -> {
+	            if (ex != null) {
+	                Throwable cause = (ex instanceof CompletionException && ex.getCause() != null) ? ex.getCause() : ex;
+	                log.error("vLLM 호출 실패: {}", cause.getMessage());
+	                throw new RuntimeException("AI 요약 실패: " + cause.getMessage(), cause);
+	            }
+	            return fixFences(content);
+	        });
+	}
+
+	private ChatCompletionRequest instructionRequest(String instruction, String original, String systemOverride,
+	                                                 Integer maxTok, Double temp) {
 	    String systemMsg = systemOverride != null ? systemOverride : 
 	        "너는 사용자의 문서를 요약하거나 노트로 정리하는 비서다.\n\n" + instruction;
 	    
@@ -134,35 +316,48 @@ public class LLMUnifiedService {
 	    int maxTokensVal = maxTok != null ? maxTok : computeSafeMaxTokens(userMsg);
 	    double temperatureVal = temp != null ? temp : this.temperature;
 	    
-	    Map<String, Object> req = new HashMap<>();
-	    req.put("model", modelName);
-	    req.put("max_tokens", maxTokensVal);
-	    req.put("temperature", temperatureVal);
-	    req.put("stream", false);
+	    return ChatCompletionRequest.of(modelName, systemMsg, userMsg, maxTokensVal, temperatureVal);
+	}
+
+	// 최종 요약 호출: 스트리밍 리스너가 있으면 stream=true로 토큰을 흘려보내고, 없으면 일반 호출
+	private String streamOrCall(VllmScheduler.Caller caller, String instruction, String original, Integer maxTok, Double temp,
+	                            SummaryProgressListener listener) {
+	    if (listener == SummaryProgressListener.NONE) {
+	        return callWithInstruction(caller, instruction, original, null, maxTok, temp, null);
+	    }
+	    
+	    String systemMsg = "너는 사용자의 문서를 요약하거나 노트로 정리하는 비서다.\n\n" + instruction;
+	    String userMsg = original != null ? original : "";
 	    
-	    List<Map<String, String>> messages = new ArrayList<>();
-	    messages.add(Map.of("role", "system", "content", systemMsg));
-	    messages.add(Map.of("role", "user", "content", userMsg));
-	    req.put("messages", messages);
+	    ChatCompletionRequest req = ChatCompletionRequest.of(modelName, systemMsg, userMsg,
+	        maxTok != null ? maxTok : computeSafeMaxTokens(userMsg),
+	        temp != null ? temp : this.temperature);
 	    
+	    StringBuilder acc = new StringBuilder();
 	    try {
-	        String resp = vllmWebClient.post()
-	            .uri("/v1/chat/completions")
-	            .bodyValue(req)
-	            .retrieve()
-	            .bodyToMono(String.class)
-	            .block();
-	        
-	        return fixFences(extractAnyContent(resp));
+	        // 취소되면 takeWhile 이 upstream(vLLM HTTP 스트림)을 cancel → 슬롯 반환
+	        vllmGateway.stream(VllmGateway.Endpoint.SUMMARY, caller, req)
+	            .takeWhile(delta -> !listener.isCancelled())
+	            .doOnNext(delta -> {
+	                acc.append(delta);
+	                listener.onToken(delta);
+	            })
+	            .blockLast();
 	    } catch (Exception e) {
-	        log.error("vLLM 호출 실패: {}", e.getMessage());
+	        log.error("vLLM 스트리밍 호출 실패: {}", e.getMessage());
 	        throw new RuntimeException("AI 요약 실패: " + e.getMessage(), e);
 	    }
+	    checkCancelled(listener);
+	    return fixFences(acc.toString());
 	}
 
 	// ✅ 기존 메서드는 deprecated 처리 (하위 호환성)
 	@Deprecated
 	public SummaryResult summarizeLongDocument(long userIdx, String promptTitle, String original) throws Exception {
+	    return summarizeLongDocument(userIdx, findPromptIdByTitle(promptTitle), original);
+	}
+
+	public Long findPromptIdByTitle(String promptTitle) {
 	    // title로 첫 번째 프롬프트 조회
 	    List<Prompt> prompts = promptRepository.findAll().stream()
 	        .filter(p -> p.getTitle().equals(promptTitle))
@@ -177,66 +372,110 @@ public class LLMUnifiedService {
 	        log.warn("⚠️ 중복된 promptTitle='{}' 발견: {}개, 첫 번째(promptId={}) 사용", 
 	                 promptTitle, prompts.size(), promptId);
 	    }
-	    
-	    return summarizeLongDocument(userIdx, promptId, original);
+	    return promptId;
 	}
 
-	private SummaryResult summarizeWithRecursiveChunking(long userIdx, String instruction, String text) throws Exception {
-	    int chunkSize = 4000;
-	    int overlap = 500;
-	    List<String> chunks = splitWithOverlap(text, chunkSize, overlap);
+	private SummaryResult summarizeWithRecursiveChunking(VllmScheduler.Caller caller, String instruction, String text,
+	                                                     SummaryProgressListener listener) throws Exception {
+	    List<String> chunks = splitWithOverlap(text, chunkTokens, chunkOverlapTokens);
 	    log.info("Recursive: {} 청크", chunks.size());
+	    requireUser(caller.userIdx());
+	    listener.onStage("recursive", chunks.size());
 	    
-	    List<String> summaries = new ArrayList<>();
-	    for (int i = 0; i < chunks.size(); i++) {
-	        String prompt = String.format("%d/%d 청크:\n%s", i + 1, chunks.size(), chunks.get(i));
-	        String summary = runPromptMarkdownWithInstruction(userIdx, instruction, prompt, null, 600, 0.3);
-	        summaries.add(summary);
-	    }
+	    ChunkSummaries mapped = mapChunksInParallel(caller, instruction, chunks, "%d/%d 청크:\n%s", 600, 0.3, listener);
 	    
-	    String combined = String.join("\n\n", summaries);
-	    String finalSummary = runPromptMarkdownWithInstruction(userIdx, instruction, combined, null, 2000, 0.3);
+	    String combined = String.join("\n\n", mapped.getSummaries());
+	    listener.onReduceLevel(1, mapped.getSummaries().size(), 1);
+	    String finalSummary = streamOrCall(caller, instruction, combined, 2000, 0.3, listener);
 	    
 	    SummaryResult result = SummaryResult.normal(finalSummary);
 	    result.setMode("recursive");
-	    result.setMessage(chunks.size() + "청크");
+	    result.setMessage(mapped.describe(chunks.size()));
+	    result.setPartial(mapped.getFailedCount() > 0);
 	    return result;
 	}
 
-	private SummaryResult summarizeWithSemanticChunking(long userIdx, String instruction, String text) throws Exception {
+	private SummaryResult summarizeWithSemanticChunking(VllmScheduler.Caller caller, String instruction, String text,
+	                                                    SummaryProgressListener listener) throws Exception {
 	    List<String> paragraphs = splitIntoParagraphs(text);
 	    log.info("단락 개수: {}", paragraphs.size());
 	    
-	    List<List<Float>> embeddings = getParagraphEmbeddings(paragraphs);
+	    List<FloatVector> embeddings = getParagraphEmbeddings(paragraphs);
 	    List<SemanticChunk> chunks = mergeSemanticChunks(paragraphs, embeddings, 0.75);
 	    log.info("청크 개수: {}", chunks.size());
+	    requireUser(caller.userIdx());
+	    listener.onStage("semantic", chunks.size());
 	    
-	    List<String> summaries = new ArrayList<>();
-	    for (int i = 0; i < chunks.size(); i++) {
-	        String prompt = String.format("청크 %d/%d:\n%s", i + 1, chunks.size(), chunks.get(i).getText());
-	        String summary = runPromptMarkdownWithInstruction(userIdx, instruction, prompt, null, 800, 0.3);
-	        summaries.add(summary);
-	    }
+	    List<String> chunkTexts = chunks.stream().map(SemanticChunk::getText).collect(Collectors.toList());
+	    ChunkSummaries mapped = mapChunksInParallel(caller, instruction, chunkTexts, "청크 %d/%d:\n%s", 800, 0.3, listener);
 	    
-	    String finalSummary = hierarchicalReduce(userIdx, instruction, summaries);
+	    String finalSummary = hierarchicalReduce(caller, instruction, mapped.getSummaries(), listener);
 	    
 	    SummaryResult result = SummaryResult.economy(finalSummary, extractTopKeywords(text, 50));
 	    result.setMode("semantic");
-	    result.setMessage(chunks.size() + "청크");
+	    result.setMessage(mapped.describe(chunks.size()));
+	    result.setPartial(mapped.getFailedCount() > 0);
 	    return result;
 	}
 
+	/**
+	 * 청크 요약(map 단계)을 동시에 호출한다. 각 청크는 VllmScheduler 슬롯을 먼저 받은 뒤 chunkExecutor에서 실행되므로
+	 * 큰 문서 하나가 풀을 채워도 다른 사용자의 청크는 스케줄러 라운드로빈 순서대로 슬롯을 받는다.
+	 * 결과는 청크 순서를 유지하며, 타임아웃/실패한 청크는 건너뛴다 (전부 실패하면 예외).
+	 * 청크 캐시 키는 본문만으로 만든다 (위치 헤더 제외) → 일부만 바뀐 문서는 바뀐 청크만 다시 요약.
+	 */
+	private ChunkSummaries mapChunksInParallel(VllmScheduler.Caller caller, String instruction, List<String> chunks,
+	                                           String headerFormat, int maxTok, double temp, SummaryProgressListener listener) {
+	    Duration timeout = Duration.ofMillis(chunkTimeoutMs);
+	    AtomicInteger done = new AtomicInteger();
+	    int total = chunks.size();
+	    List<CompletableFuture<String>> futures = new ArrayList<>(total);
+	    for (int i = 0; i < total; i++) {
+	        final int idx = i;
+	        String chunk = chunks.get(i);
+	        String chunkKey = summaryCache.key(SummaryCacheService.LEVEL_CHUNK, chunk, instruction, modelName, temp, maxTok);
+	        futures.add(CompletableFuture
+	            .supplyAsync(() -> summaryCache.getChunk(chunkKey), chunkExecutor)
+	            .thenCompose(cached -> {
+	                if (cached.isPresent()) return CompletableFuture.completedFuture(cached.get());
+	                checkCancelled(listener);
+	                String prompt = String.format(headerFormat, idx + 1, total, chunk);
+	                return callWithInstructionAsync(caller, instruction, prompt, maxTok, temp, timeout)
+	                    .thenApply(summary -> {
+	                        summaryCache.putChunk(chunkKey, summary);
+	                        return summary;
+	                    });
+	            })
+	            .exceptionally(ex -> {
+	                log.warn("청크 {}/{} 요약 실패, 건너뜀: {}", idx + 1, total, ex.getMessage());
+	                return null;
+	            })
+	            .whenComplete((r, ex) -> listener.onChunkDone(done.incrementAndGet(), total)));
+	    }
+	    CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[0])).join();
+	    checkCancelled(listener);
+	    
+	    List<String> summaries = new ArrayList<>(futures.size());
+	    int failed = 0;
+	    for (CompletableFuture<String> f : futures) {
+	        String summary = f.join();
+	        if (summary == null || summary.isBlank()) {
+	            failed++;
+	        } else {
+	            summaries.add(summary);
+	        }
+	    }
+	    if (summaries.isEmpty()) {
+	        throw new RuntimeException("AI 요약 실패: 모든 청크 요약이 실패했습니다.");
+	    }
+	    return new ChunkSummaries(summaries, failed);
+	}
+
 	// ====== 보조 메서드 ======
 
-	private List<String> splitWithOverlap(String text, int chunkSize, int overlap) {
-		List<String> chunks = new ArrayList<>();
-		int start = 0;
-		while (start < text.length()) {
-			int end = Math.min(start + chunkSize, text.length());
-			chunks.add(text.substring(start, end));
-			start += (chunkSize - overlap);
-		}
-		return chunks;
+	// 토큰 예산 기준 분할 (단어 경계에서 자름, 이전 청크 끝 overlapTokens 만큼 중복 포함)
+	private List<String> splitWithOverlap(String text, int chunkTokens, int overlapTokens) {
+		return tokenizer.splitByTokens(text, chunkTokens, overlapTokens);
 	}
 
 	private List<String> splitIntoParagraphs(String text) {
@@ -265,57 +504,41 @@ public class LLMUnifiedService {
 		return result;
 	}
 
-	private List<List<Float>> getParagraphEmbeddings(List<String> paragraphs) {
+	private List<FloatVector> getParagraphEmbeddings(List<String> paragraphs) {
 		try {
-			Map<String, Object> response = embeddingClient.post()
-					.uri("/embed")
-					.bodyValue(Map.of("texts", paragraphs))
-					.retrieve()
-					.bodyToMono(Map.class)
-					.block();
-
-			List<List<Double>> embeddings = (List<List<Double>>) response.get("embeddings");
-			return embeddings.stream()
-					.map(emb -> emb.stream().map(Double::floatValue).collect(Collectors.toList()))
-					.collect(Collectors.toList());
+			return embeddingService.embedAll(paragraphs);
 		} catch (Exception e) {
 			log.error("임베딩 실패: {}", e.getMessage());
-			return Collections.nCopies(paragraphs.size(), Collections.emptyList());
-		}
-	}
-
-	private double cosineSimilarity(List<Float> vec1, List<Float> vec2) {
-		if (vec1.isEmpty() || vec2.isEmpty()) return 0.0;
-		double dotProduct = 0.0, norm1 = 0.0, norm2 = 0.0;
-		for (int i = 0; i < Math.min(vec1.size(), vec2.size()); i++) {
-			dotProduct += vec1.get(i) * vec2.get(i);
-			norm1 += vec1.get(i) * vec1.get(i);
-			norm2 += vec2.get(i) * vec2.get(i);
+			return Collections.nCopies(paragraphs.size(), FloatVector.EMPTY);
 		}
-		return dotProduct / (Math.sqrt(norm1) * Math.sqrt(norm2));
 	}
 
-	private List<SemanticChunk> mergeSemanticChunks(List<String> paragraphs, List<List<Float>> embeddings, double threshold) {
+	private List<SemanticChunk> mergeSemanticChunks(List<String> paragraphs, List<FloatVector> embeddings, double threshold) {
 		List<SemanticChunk> chunks = new ArrayList<>();
 		StringBuilder current = new StringBuilder();
 		List<Integer> indices = new ArrayList<>();
+		int currentTokens = 0;
 
 		for (int i = 0; i < paragraphs.size(); i++) {
+			int paraTokens = estimateTokens(paragraphs.get(i));
 			if (current.length() == 0) {
 				current.append(paragraphs.get(i));
 				indices.add(i);
+				currentTokens = paraTokens;
 			} else {
 				int prevIdx = indices.get(indices.size() - 1);
-				double sim = cosineSimilarity(embeddings.get(prevIdx), embeddings.get(i));
+				double sim = embeddings.get(prevIdx).cosine(embeddings.get(i));
 
-				if (sim >= threshold && current.length() < 5000) {
+				if (sim >= threshold && currentTokens + paraTokens <= semanticChunkTokens) {
 					current.append("\n\n").append(paragraphs.get(i));
 					indices.add(i);
+					currentTokens += paraTokens;
 				} else {
 					chunks.add(new SemanticChunk(current.toString(), new ArrayList<>(indices)));
 					current = new StringBuilder(paragraphs.get(i));
 					indices.clear();
 					indices.add(i);
+					currentTokens = paraTokens;
 				}
 			}
 		}
@@ -326,21 +549,75 @@ public class LLMUnifiedService {
 		return chunks;
 	}
 
-	private String hierarchicalReduce(long userIdx, String instruction, List<String> summaries) throws Exception {
-	    if (summaries.size() <= 3) {
-	        String combined = String.join("\n\n", summaries);
-	        return runPromptMarkdownWithInstruction(userIdx, instruction, combined, null, 2000, 0.3);
+	/**
+	 * 요약 트리 병렬 reduce.
+	 * 같은 레벨의 그룹은 동시에 실행되고, 각 그룹은 자신의 입력(하위 그룹)이 끝나는 즉시 시작한다.
+	 * fan-in은 vllm.api.context-limit 기준으로 한 번의 호출에 들어갈 수 있는 요약 개수로 정한다.
+	 */
+	private String hierarchicalReduce(VllmScheduler.Caller caller, String instruction, List<String> summaries,
+	                                  SummaryProgressListener listener) throws Exception {
+	    requireUser(caller.userIdx());
+	    if (summaries.size() <= 1) {
+	        String only = summaries.isEmpty() ? "" : summaries.get(0);
+	        listener.onReduceLevel(1, summaries.size(), 1);
+	        return streamOrCall(caller, instruction, only, FINAL_REDUCE_TOKENS, 0.3, listener);
 	    }
 	    
-	    List<String> intermediate = new ArrayList<>();
-	    for (int i = 0; i < summaries.size(); i += 3) {
-	        List<String> batch = summaries.subList(i, Math.min(i + 3, summaries.size()));
-	        String combined = String.join("\n\n", batch);
-	        String summary = runPromptMarkdownWithInstruction(userIdx, instruction, combined, null, 1000, 0.3);
-	        intermediate.add(summary);
+	    int avgLeafTokens = (int) summaries.stream().mapToInt(this::estimateTokens).average().orElse(INTERMEDIATE_REDUCE_TOKENS);
+	    int fanIn = reduceFanIn(avgLeafTokens);
+	    Duration timeout = Duration.ofMillis(chunkTimeoutMs);
+	    
+	    List<CompletableFuture<String>> level = new ArrayList<>();
+	    for (String s : summaries) {
+	        level.add(CompletableFuture.completedFuture(s));
+	    }
+	    int depth = 0;
+	    while (true) {
+	        // 이후 레벨의 입력 크기는 중간 reduce 출력 상한으로 본다
+	        if (depth > 0) {
+	            fanIn = reduceFanIn(INTERMEDIATE_REDUCE_TOKENS);
+	        }
+	        if (level.size() <= fanIn) break;
+	        
+	        List<CompletableFuture<String>> next = new ArrayList<>();
+	        for (int i = 0; i < level.size(); i += fanIn) {
+	            List<CompletableFuture<String>> group = level.subList(i, Math.min(i + fanIn, level.size()));
+	            next.add(CompletableFuture.allOf(group.toArray(new CompletableFuture<?>[0]))
+	                .thenCompose(v -> {
+	                    checkCancelled(listener);
+	                    String combined = group.stream().map(CompletableFuture::join).collect(Collectors.joining("\n\n"));
+	                    return callWithInstructionAsync(caller, instruction, combined, INTERMEDIATE_REDUCE_TOKENS, 0.3, timeout);
+	                }));
+	        }
+	        log.info("Reduce 레벨 {}: {}개 → {}개 (fan-in {})", depth + 1, level.size(), next.size(), fanIn);
+	        final int levelNo = depth + 1;
+	        final int inputs = level.size();
+	        final int outputs = next.size();
+	        CompletableFuture.allOf(level.toArray(new CompletableFuture<?>[0]))
+	            .thenRun(() -> listener.onReduceLevel(levelNo, inputs, outputs));
+	        level = next;
+	        depth++;
 	    }
 	    
-	    return hierarchicalReduce(userIdx, instruction, intermediate);
+	    // 마지막 레벨 (그룹 1개): 스트리밍 호출은 슬롯을 블로킹으로 기다리므로 chunkExecutor가 아니라 이 스레드에서 실행
+	    String combined;
+	    try {
+	        combined = level.stream().map(CompletableFuture::join).collect(Collectors.joining("\n\n"));
+	    } catch (CompletionException e) {
+	        Throwable cause = e.getCause() != null ? e.getCause() : e;
+	        throw (cause instanceof Exception ex) ? ex : new RuntimeException(cause);
+	    }
+	    log.info("Reduce 레벨 {}: {}개 → 1개 (fan-in {})", depth + 1, level.size(), fanIn);
+	    listener.onReduceLevel(depth + 1, level.size(), 1);
+	    checkCancelled(listener);
+	    return streamOrCall(caller, instruction, combined, FINAL_REDUCE_TOKENS, 0.3, listener);
+	}
+
+	// 입력 요약 1개의 예상 토큰 수로 fan-in 계산 (출력 예약분과 프롬프트 여유분 제외)
+	private int reduceFanIn(int childTokens) {
+	    int budget = contextLimit - FINAL_REDUCE_TOKENS - REDUCE_PROMPT_OVERHEAD;
+	    int fit = budget / Math.max(childTokens, 1);
+	    return Math.max(2, Math.min(fit, Math.max(2, maxReduceFanIn)));
 	}
 
 	
@@ -350,6 +627,18 @@ public class LLMUnifiedService {
 		private final List<Integer> paragraphIndices;
 	}
 
+	@Data
+	private static class ChunkSummaries {
+		private final List<String> summaries;
+		private final int failedCount;
+
+		String describe(int totalChunks) {
+			return failedCount == 0
+					? totalChunks + "청크"
+					: totalChunks + "청크 (" + failedCount + "개 청크 요약 실패)";
+		}
+	}
+
 	// ====== 기본 요약 메서드 ======
 
 	public String runPromptMarkdown(long userIdx, String promptTitle, String original) throws Exception {
@@ -363,27 +652,12 @@ public class LLMUnifiedService {
 		String systemMsg = "규칙: <요약대상> 태그 사이 텍스트만 요약. 창작 금지.\n" + instruction;
 		String userMsg = "<요약대상>\n" + (original == null ? "" : original) + "\n</요약대상>";
 
-		// ✅ vLLM 요청 포맷 수정
-		Map<String, Object> req = new HashMap<>();
-		req.put("model", modelName);
-		req.put("max_tokens", computeSafeMaxTokens(userMsg));
-		req.put("temperature", temperature);
-		req.put("stream", false);  // 중요!
-
-		List<Map<String, String>> messages = new ArrayList<>();
-		messages.add(Map.of("role", "system", "content", systemMsg));
-		messages.add(Map.of("role", "user", "content", userMsg));
-		req.put("messages", messages);
+		ChatCompletionRequest req = ChatCompletionRequest.of(modelName, systemMsg, userMsg,
+				computeSafeMaxTokens(userMsg), temperature);
 
 		try {
-			String resp = vllmWebClient.post()
-					.uri("/v1/chat/completions")
-					.bodyValue(req)
-					.retrieve()
-					.bodyToMono(String.class)
-					.block();
-
-			return fixFences(extractAnyContent(resp));
+			return fixFences(vllmGateway.completeText(VllmGateway.Endpoint.SUMMARY,
+					VllmScheduler.Caller.userSummary(userIdx), req));
 
 		} catch (Exception e) {
 			log.error("vLLM 호출 실패: {}", e.getMessage());
@@ -403,27 +677,12 @@ public class LLMUnifiedService {
 		int maxTokensVal = (maxTok != null) ? maxTok : computeSafeMaxTokens(userMsg);
 		double temperatureVal = (temp != null) ? temp : this.temperature;
 
-		// ✅ vLLM 요청 포맷 수정
-		Map<String, Object> req = new HashMap<>();
-		req.put("model", modelName);
-		req.put("max_tokens", maxTokensVal);
-		req.put("temperature", temperatureVal);
-		req.put("stream", false);
-
-		List<Map<String, String>> messages = new ArrayList<>();
-		messages.add(Map.of("role", "system", "content", systemMsg));
-		messages.add(Map.of("role", "user", "content", userMsg));
-		req.put("messages", messages);
+		ChatCompletionRequest req = ChatCompletionRequest.of(modelName, systemMsg, userMsg,
+				maxTokensVal, temperatureVal);
 
 		try {
-			String resp = vllmWebClient.post()
-					.uri("/v1/chat/completions")
-					.bodyValue(req)
-					.retrieve()
-					.bodyToMono(String.class)
-					.block();
-
-			return fixFences(extractAnyContent(resp));
+			return fixFences(vllmGateway.completeText(VllmGateway.Endpoint.SUMMARY,
+					VllmScheduler.Caller.userSummary(userIdx), req));
 
 		} catch (Exception e) {
 			log.error("vLLM 호출 실패: {}", e.getMessage());
@@ -442,7 +701,7 @@ public class LLMUnifiedService {
 					.orElseThrow(() -> new IllegalArgumentException("프롬프트 없음"))
 					.getContent();
 
-			return callUnifiedLLM(promptText, trimForTokens(content));
+			return callUnifiedLLM(userIdx, promptText, trimForTokens(content));
 		} catch (Exception e) {
 			throw new RuntimeException("텍스트 요약 실패: " + e.getMessage(), e);
 		}
@@ -458,7 +717,7 @@ public class LLMUnifiedService {
 					.getContent();
 
 			String text = fileParseService.extractText(file);
-			return callUnifiedLLM(promptText, trimForTokens(text));
+			return callUnifiedLLM(userIdx, promptText, trimForTokens(text));
 		} catch (Exception e) {
 			throw new RuntimeException("파일 요약 실패: " + e.getMessage(), e);
 		}
@@ -522,10 +781,12 @@ public class LLMUnifiedService {
 				.updatedAt(LocalDateTime.now())
 				.build();
 
-		return noteFolderRepository.save(folder).getFolderId();
+		Long folderId = noteFolderRepository.save(folder).getFolderId();
+		noteFolderPathService.onCreated(folderId);
+		return folderId;
 	}
 
-	private UnifiedResult callUnifiedLLM(String promptText, String original) {
+	private UnifiedResult callUnifiedLLM(long userIdx, String promptText, String original) {
 		try {
 			String fullPrompt = promptText + "\n\n" + original + "\n\n" +
 					"JSON 스키마로 출력:\n" +
@@ -537,21 +798,12 @@ public class LLMUnifiedService {
 					"}\n";
 
 			int safeMax = computeSafeMaxTokens(fullPrompt);
-			Map<String, Object> req = Map.of(
-					"model", modelName,
-					"max_tokens", safeMax,
-					"temperature", temperature,
-					"messages", List.of(Map.of("role", "user", "content", fullPrompt))
-			);
-
-			String response = vllmWebClient.post()
-					.uri("/v1/chat/completions")
-					.bodyValue(req)
-					.retrieve()
-					.bodyToMono(String.class)
-					.block();
-
-			String jsonText = stripFence(extractAnyContent(response));
+			ChatCompletionRequest req = ChatCompletionRequest.of(modelName, null, fullPrompt, safeMax, temperature);
+
+			String response = vllmGateway.completeText(VllmGateway.Endpoint.SUMMARY,
+					VllmScheduler.Caller.userSummary(userIdx), req);
+
+			String jsonText = stripFence(response);
 			JsonNode root = objectMapper.readTree(jsonText);
 
 			UnifiedResult r = new UnifiedResult();
@@ -574,18 +826,6 @@ public class LLMUnifiedService {
 
 	// ====== 유틸 메서드 ======
 
-	private String extractAnyContent(String response) throws Exception {
-		JsonNode root = objectMapper.readTree(response);
-		JsonNode choices = root.path("choices");
-		if (choices.isArray() && choices.size() > 0) {
-			String c = choices.get(0).path("message").path("content").asText(null);
-			if (c != null && !c.isBlank()) return c;
-		}
-		return response;
-	}
-
-
-
 	private String fixFences(String md) {
 		if (md == null) return "";
 		String s = md.strip(); // 양끝만 정리
@@ -665,8 +905,8 @@ private String trimForTokens(String content) {
 
 	public int estimateTokens(String text) {
 		if (text == null) return 0;
-		// 한국어는 토큰이 더 많이 필요
-		return (int) Math.ceil(text.length() / 2.5);  // 기존 3.5 → 2.5로 수정
+		// EXAONE 토크나이저로 실제 토큰 수 계산 (tokenizer.json 없으면 길이 / 2.5 추정)
+		return tokenizer.countTokens(text);
 	}
 
 public String compactText(String s) {
@@ -713,24 +953,10 @@ private int scoreCategory(Set<String> keys, String categoryKeywordsCsv) {
 		try {
 			log.info("vLLM 연결 테스트 시작...");
 
-			Map<String, Object> req = new HashMap<>();
-			req.put("model", modelName);
-			req.put("max_tokens", 100);
-			req.put("temperature", 0.7);
-			req.put("stream", false);
-
-			List<Map<String, String>> messages = new ArrayList<>();
-			messages.add(Map.of("role", "user", "content", "안녕하세요"));
-			req.put("messages", messages);
-
-			String resp = vllmWebClient.post()
-					.uri("/v1/chat/completions")
-					.bodyValue(req)
-					.retrieve()
-					.bodyToMono(String.class)
-					.block();
+			ChatCompletionRequest req = ChatCompletionRequest.of(modelName, null, "안녕하세요", 100, 0.7);
 
-			String result = extractAnyContent(resp);
+			String result = vllmGateway.completeText(VllmGateway.Endpoint.SUMMARY,
+					VllmScheduler.Caller.interactive(null), req);
 			log.info("vLLM 테스트 성공: {}", result);
 			return result;
 
@@ -748,6 +974,8 @@ public static class SummaryResult {
 	private String summaryMarkdown;
 	private List<String> keywords;
 	private String message;
+	// 일부 청크 요약이 실패한 결과 (문서 단위 캐시에 저장하지 않음)
+	private boolean partial;
 
 	public static SummaryResult normal(String md) {
 		SummaryResult r = new SummaryResult();
@@ -0,0 +1,140 @@
+package com.smhrd.web.service;
+
+import com.smhrd.web.util.FloatVector;
+import com.smhrd.web.util.PgVector;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.*;
+
+/**
+ * MySQL lectures → PostgreSQL course_embeddings.
+ * 제목 + 카테고리 기반 임베딩 ("제목 | 대분류 > 중분류 > 소분류")
+ */
+@Component
+public class LectureMigration implements MigrationPlugin<LectureMigration.LectureRow> {
+
+    private static final int EMBEDDING_DIM = 1024;
+
+    public record LectureRow(Long lecIdx, String title, String url, String categoryLarge, String categoryMedium,
+                             String categorySmall, LocalDateTime createdAt, String[] tags) {}
+
+    private final NamedParameterJdbcTemplate mysqlTemplate;
+    private final NamedParameterJdbcTemplate postgresTemplate;
+
+    public LectureMigration(@Qualifier("mysqlNamedParameterJdbcTemplate") NamedParameterJdbcTemplate mysqlTemplate,
+                            @Qualifier("postgresNamedParameterJdbcTemplate") NamedParameterJdbcTemplate postgresTemplate) {
+        this.mysqlTemplate = mysqlTemplate;
+        this.postgresTemplate = postgresTemplate;
+    }
+
+    @Override
+    public String name() {
+        return "lectures-postgres";
+    }
+
+    @Override
+    public String description() {
+        return "MySQL lectures → PostgreSQL course_embeddings (제목+카테고리 임베딩, 태그 포함)";
+    }
+
+    @Override
+    public List<LectureRow> fetchPage(String afterKey, int limit) {
+        List<Map<String, Object>> lectures = mysqlTemplate.queryForList("""
+                SELECT lec_idx, lec_title, lec_url, category_large, category_medium, category_small, created_at
+                FROM lectures
+                WHERE lec_idx > :after
+                ORDER BY lec_idx
+                LIMIT :limit
+                """, new MapSqlParameterSource()
+                .addValue("after", afterKey == null ? 0L : Long.parseLong(afterKey))
+                .addValue("limit", limit));
+        if (lectures.isEmpty()) return List.of();
+
+        List<Long> lecIds = lectures.stream().map(l -> ((Number) l.get("lec_idx")).longValue()).toList();
+        Map<Long, List<String>> tags = new HashMap<>();
+        mysqlTemplate.query("""
+                SELECT lt.lec_idx, t.name
+                FROM lecture_tags lt JOIN tags t ON lt.tag_idx = t.tag_idx
+                WHERE lt.lec_idx IN (:lecIds)
+                """, new MapSqlParameterSource("lecIds", lecIds),
+                rs -> {
+                    tags.computeIfAbsent(rs.getLong("lec_idx"), k -> new ArrayList<>()).add(rs.getString("name"));
+                });
+
+        List<LectureRow> rows = new ArrayList<>(lectures.size());
+        for (Map<String, Object> l : lectures) {
+            Long lecIdx = ((Number) l.get("lec_idx")).longValue();
+            Object createdAt = l.get("created_at");
+            rows.add(new LectureRow(
+                    lecIdx,
+                    (String) l.get("lec_title"),
+                    (String) l.get("lec_url"),
+                    (String) l.get("category_large"),
+                    (String) l.get("category_medium"),
+                    (String) l.get("category_small"),
+                    createdAt instanceof Timestamp ts ? ts.toLocalDateTime()
+                            : createdAt instanceof LocalDateTime ldt ? ldt : null,
+                    tags.getOrDefault(lecIdx, List.of()).toArray(new String[0])));
+        }
+        return rows;
+    }
+
+    @Override
+    public String keyOf(LectureRow row) {
+        return String.valueOf(row.lecIdx());
+    }
+
+    @Override
+    public long countRemaining(String afterKey) {
+        Long count = mysqlTemplate.queryForObject(
+                "SELECT COUNT(*) FROM lectures WHERE lec_idx > :after",
+                new MapSqlParameterSource("after", afterKey == null ? 0L : Long.parseLong(afterKey)), Long.class);
+        return count == null ? 0 : count;
+    }
+
+    @Override
+    public String embeddingText(LectureRow row) {
+        return String.format("%s | %s > %s > %s",
+                row.title(), row.categoryLarge(), row.categoryMedium(), row.categorySmall());
+    }
+
+    @Override
+    public int write(List<LectureRow> rows, List<FloatVector> vectors) {
+        String sql = """
+            INSERT INTO course_embeddings
+            (lec_idx, title, url, category_large, category_medium, category_small,
+             tags, embedding, created_at)
+            VALUES
+            (:lecIdx, :title, :url, :categoryLarge, :categoryMedium, :categorySmall,
+             :tags, CAST(:embedding AS vector), :createdAt)
+            ON CONFLICT (lec_idx) DO UPDATE SET
+                title = EXCLUDED.title,
+                embedding = EXCLUDED.embedding,
+                tags = EXCLUDED.tags
+            """;
+
+        FloatVector zero = FloatVector.wrap(new float[EMBEDDING_DIM]);
+        MapSqlParameterSource[] batch = new MapSqlParameterSource[rows.size()];
+        for (int i = 0; i < rows.size(); i++) {
+            LectureRow l = rows.get(i);
+            FloatVector v = vectors.get(i);
+            batch[i] = new MapSqlParameterSource()
+                    .addValue("lecIdx", l.lecIdx())
+                    .addValue("title", l.title())
+                    .addValue("url", l.url())
+                    .addValue("categoryLarge", l.categoryLarge())
+                    .addValue("categoryMedium", l.categoryMedium())
+                    .addValue("categorySmall", l.categorySmall())
+                    .addValue("tags", l.tags())
+                    .addValue("embedding", PgVector.of(v == null ? zero : v))
+                    .addValue("createdAt", l.createdAt());
+        }
+        postgresTemplate.batchUpdate(sql, batch);
+        return rows.size();
+    }
+}
@@ -0,0 +1,394 @@
+package com.smhrd.web.service;
+
+import com.smhrd.web.entity.MigrationCheckpoint;
+import com.smhrd.web.repository.MigrationCheckpointRepository;
+import com.smhrd.web.util.FloatVector;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * 대량 마이그레이션 엔진 (MigrationPlugin 실행기).
+ *
+ * 작업 하나는 다음 파이프라인으로 돈다:
+ *   읽기(작업 스레드, keyset 페이지) → 임베딩(migration-embed- 풀, 페이지 단위 병렬) → 쓰기(작업 전용 단일 스레드, 페이지 순서대로)
+ * - 동시에 떠 있는 페이지 수를 max-in-flight 로 제한해 (backpressure) 힙에는 몇 페이지만 올라간다
+ * - 페이지를 쓸 때마다 migration_checkpoints.last_key 를 갱신하므로 중단/장애 후 그 다음부터 재개
+ * - 앞 페이지 쓰기가 실패하면 뒤 페이지는 쓰지 않고 작업을 FAILED 로 끝낸다 (체크포인트는 마지막 성공 페이지)
+ * - 서버 종료로 멈춘 작업은 RUNNING 으로 남겨 다음 기동 시 auto-resume
+ *
+ * 메트릭: migration.rows{job,result=written|skipped}, migration.stage{job,stage=read|embed|write}
+ */
+@Slf4j
+@Service
+public class MigrationEngine {
+
+    /** 실행 중인 작업 상태 (메모리) */
+    private static final class Run {
+        final String name;
+        final long remainingAtStart;
+        final long startNanos = System.nanoTime();
+        final AtomicLong rows = new AtomicLong();
+        final AtomicLong inFlight = new AtomicLong();
+        volatile boolean stopRequested;
+        volatile Throwable error;
+        volatile double rowsPerSec;
+        volatile long lastBatchNanos = startNanos;
+        // 쓰기 스레드만 갱신, 작업 종료 시 작업 스레드가 join 이후 읽음
+        volatile MigrationCheckpoint checkpoint;
+
+        Run(String name, long remainingAtStart, MigrationCheckpoint checkpoint) {
+            this.name = name;
+            this.remainingAtStart = remainingAtStart;
+            this.checkpoint = checkpoint;
+        }
+
+        synchronized void fail(Throwable t) {
+            if (error == null) error = t;
+        }
+
+        // 최근 페이지 위주의 처리 속도 (지수 이동 평균)
+        void onBatch(int n) {
+            long now = System.nanoTime();
+            double seconds = Math.max(1e-3, (now - lastBatchNanos) / 1e9);
+            double instant = n / seconds;
+            rowsPerSec = rowsPerSec == 0 ? instant : 0.3 * instant + 0.7 * rowsPerSec;
+            lastBatchNanos = now;
+            rows.addAndGet(n);
+        }
+    }
+
+    private final Map<String, MigrationPlugin<?>> plugins = new LinkedHashMap<>();
+    private final MigrationCheckpointRepository checkpointRepository;
+    private final EmbeddingService embeddingService;
+    private final MeterRegistry meterRegistry;
+
+    private final Map<String, Run> running = new ConcurrentHashMap<>();
+    private volatile boolean shuttingDown;
+
+    private ExecutorService jobExecutor;
+    private ExecutorService embedExecutor;
+
+    @Value("${migration.batch-size:200}")
+    private int batchSize;
+
+    @Value("${migration.embed-workers:2}")
+    private int embedWorkers;
+
+    // 작업당 읽기는 끝났지만 아직 쓰지 않은 페이지 최대 수
+    @Value("${migration.max-in-flight:4}")
+    private int maxInFlight;
+
+    // 기동 시 RUNNING 으로 남은 작업(서버 종료/장애로 멈춘 것) 이어서 실행
+    @Value("${migration.auto-resume:true}")
+    private boolean autoResume;
+
+    public MigrationEngine(List<MigrationPlugin<?>> pluginList,
+                           MigrationCheckpointRepository checkpointRepository,
+                           EmbeddingService embeddingService,
+                           MeterRegistry meterRegistry) {
+        for (MigrationPlugin<?> plugin : pluginList) {
+            plugins.put(plugin.name(), plugin);
+        }
+        this.checkpointRepository = checkpointRepository;
+        this.embeddingService = embeddingService;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @PostConstruct
+    public void init() {
+        jobExecutor = Executors.newCachedThreadPool(new CustomizableThreadFactory("migration-job-"));
+        embedExecutor = Executors.newFixedThreadPool(Math.max(1, embedWorkers), new CustomizableThreadFactory("migration-embed-"));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        shuttingDown = true;
+        running.values().forEach(r -> r.stopRequested = true);
+        jobExecutor.shutdown();
+        try {
+            // 진행 중인 페이지까지 쓰고 체크포인트를 남길 시간
+            if (!jobExecutor.awaitTermination(30, TimeUnit.SECONDS)) {
+                jobExecutor.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            jobExecutor.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+        embedExecutor.shutdownNow();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void resumeInterrupted() {
+        if (!autoResume) return;
+        for (MigrationCheckpoint cp : checkpointRepository.findByStatus(MigrationCheckpoint.STATUS_RUNNING)) {
+            if (!plugins.containsKey(cp.getJobName())) continue;
+            try {
+                log.info("🔁 [마이그레이션] {} 이어서 실행 (last_key={}, 누적 {}건)",
+                        cp.getJobName(), cp.getLastKey(), cp.getProcessed());
+                start(cp.getJobName(), false);
+            } catch (Exception e) {
+                log.error("❌ [마이그레이션] {} 재개 실패: {}", cp.getJobName(), e.getMessage());
+            }
+        }
+    }
+
+    // ====== 공개 API ======
+
+    public Set<String> jobNames() {
+        return plugins.keySet();
+    }
+
+    /**
+     * 작업 시작. 체크포인트가 있으면 이어서, restart 이거나 이미 COMPLETED 면 처음부터.
+     */
+    public synchronized Map<String, Object> start(String name, boolean restart) {
+        MigrationPlugin<?> plugin = requirePlugin(name);
+        if (running.containsKey(name)) {
+            throw new IllegalStateException("이미 실행 중인 작업입니다: " + name);
+        }
+        if (shuttingDown) {
+            throw new IllegalStateException("서버 종료 중입니다.");
+        }
+
+        MigrationCheckpoint cp = checkpointRepository.findById(name).orElseGet(() -> new MigrationCheckpoint(name));
+        if (restart || MigrationCheckpoint.STATUS_COMPLETED.equals(cp.getStatus())) {
+            cp.setLastKey(null);
+            cp.setProcessed(0);
+            cp.setSkipped(0);
+        }
+        cp.setStatus(MigrationCheckpoint.STATUS_RUNNING);
+        cp.setLastError(null);
+        cp.setStartedAt(LocalDateTime.now());
+        cp.setFinishedAt(null);
+        cp.setUpdatedAt(LocalDateTime.now());
+        cp = checkpointRepository.save(cp);
+
+        Run run = new Run(name, plugin.countRemaining(cp.getLastKey()), cp);
+        running.put(name, run);
+        jobExecutor.submit(() -> execute(plugin, run));
+
+        log.info("🚀 [마이그레이션] {} 시작 - {} (남은 {}건, last_key={})",
+                name, plugin.description(), run.remainingAtStart, cp.getLastKey());
+        return status(name);
+    }
+
+    /** 현재 페이지까지 쓰고 멈춤 (다시 start 하면 이어서) */
+    public Map<String, Object> stop(String name) {
+        requirePlugin(name);
+        Run run = running.get(name);
+        if (run != null) {
+            run.stopRequested = true;
+            log.info("⏸️ [마이그레이션] {} 중단 요청", name);
+        }
+        return status(name);
+    }
+
+    /** 체크포인트 + (실행 중이면) 처리 속도/ETA */
+    public Map<String, Object> status(String name) {
+        MigrationPlugin<?> plugin = requirePlugin(name);
+        Run run = running.get(name);
+        MigrationCheckpoint cp = run != null ? run.checkpoint
+                : checkpointRepository.findById(name).orElseGet(() -> new MigrationCheckpoint(name));
+
+        Map<String, Object> status = new LinkedHashMap<>();
+        status.put("job", name);
+        status.put("description", plugin.description());
+        status.put("status", cp.getStatus());
+        status.put("running", run != null);
+        status.put("lastKey", cp.getLastKey());
+        status.put("processed", cp.getProcessed());
+        status.put("skipped", cp.getSkipped());
+        status.put("startedAt", cp.getStartedAt());
+        status.put("finishedAt", cp.getFinishedAt());
+        status.put("updatedAt", cp.getUpdatedAt());
+        if (cp.getLastError() != null) status.put("lastError", cp.getLastError());
+
+        if (run != null) {
+            long done = run.rows.get();
+            double elapsed = Math.max(1e-3, (System.nanoTime() - run.startNanos) / 1e9);
+            long remaining = Math.max(0, run.remainingAtStart - done);
+            double rate = run.rowsPerSec;
+            status.put("runRows", done);
+            status.put("remaining", remaining);
+            status.put("rowsPerSec", Math.round(rate * 10) / 10.0);
+            status.put("avgRowsPerSec", Math.round(done / elapsed * 10) / 10.0);
+            status.put("etaSeconds", rate > 0 ? Math.round(remaining / rate) : null);
+            status.put("inFlightPages", run.inFlight.get());
+            status.put("elapsedSeconds", Math.round(elapsed));
+        }
+        return status;
+    }
+
+    public List<Map<String, Object>> statusAll() {
+        List<Map<String, Object>> result = new ArrayList<>();
+        plugins.keySet().forEach(name -> result.add(status(name)));
+        return result;
+    }
+
+    // ====== 실행 ======
+
+    private <T> void execute(MigrationPlugin<T> plugin, Run run) {
+        String name = run.name;
+        ExecutorService writer = Executors.newSingleThreadExecutor(new CustomizableThreadFactory("migration-write-" + name + "-"));
+        Semaphore window = new Semaphore(Math.max(1, maxInFlight));
+        CompletableFuture<Void> tail = CompletableFuture.completedFuture(null);
+        String after = run.checkpoint.getLastKey();
+        int limit = Math.max(1, batchSize);
+
+        try {
+            while (!run.stopRequested && run.error == null) {
+                final String afterKey = after;
+                List<T> page = timed(name, "read", () -> plugin.fetchPage(afterKey, limit));
+                if (page.isEmpty()) break;
+
+                String pageLastKey = plugin.keyOf(page.get(page.size() - 1));
+                after = pageLastKey;
+
+                // 쓰기가 밀리면 여기서 읽기가 멈춘다
+                window.acquire();
+                run.inFlight.incrementAndGet();
+
+                CompletableFuture<List<FloatVector>> embedded =
+                        CompletableFuture.supplyAsync(() -> timed(name, "embed", () -> embed(plugin, page)), embedExecutor);
+
+                tail = tail.thenCombineAsync(embedded, (ignored, vectors) -> {
+                            writePage(plugin, run, page, vectors, pageLastKey);
+                            return (Void) null;
+                        }, writer)
+                        .whenComplete((v, e) -> {
+                            run.inFlight.decrementAndGet();
+                            window.release();
+                            if (e != null) run.fail(e instanceof CompletionException && e.getCause() != null ? e.getCause() : e);
+                        });
+
+                if (page.size() < limit) break;
+            }
+        } catch (InterruptedException e) {
+            run.fail(e);
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            run.fail(e);
+        }
+
+        try {
+            tail.join();
+        } catch (Exception ignored) {
+            // 오류는 run.error 에 기록됨
+        } finally {
+            writer.shutdown();
+        }
+
+        finish(run);
+    }
+
+    private <T> List<FloatVector> embed(MigrationPlugin<T> plugin, List<T> page) {
+        List<FloatVector> result = new ArrayList<>(Collections.nCopies(page.size(), (FloatVector) null));
+        List<Integer> positions = new ArrayList<>();
+        List<String> texts = new ArrayList<>();
+        for (int i = 0; i < page.size(); i++) {
+            String text = plugin.embeddingText(page.get(i));
+            if (text == null || text.isBlank()) continue;
+            positions.add(i);
+            texts.add(text.trim());
+        }
+        if (texts.isEmpty()) return result;
+
+        List<FloatVector> vectors = embeddingService.embedAll(texts);
+        for (int i = 0; i < positions.size(); i++) {
+            result.set(positions.get(i), vectors.get(i));
+        }
+        return result;
+    }
+
+    private <T> void writePage(MigrationPlugin<T> plugin, Run run, List<T> page, List<FloatVector> vectors, String lastKey) {
+        int written = timed(run.name, "write", () -> plugin.write(page, vectors));
+        int skipped = Math.max(0, page.size() - written);
+
+        MigrationCheckpoint cp = run.checkpoint;
+        cp.setLastKey(lastKey);
+        cp.setProcessed(cp.getProcessed() + written);
+        cp.setSkipped(cp.getSkipped() + skipped);
+        cp.setUpdatedAt(LocalDateTime.now());
+        run.checkpoint = checkpointRepository.save(cp);
+
+        run.onBatch(page.size());
+        meterRegistry.counter("migration.rows", "job", run.name, "result", "written").increment(written);
+        if (skipped > 0) {
+            meterRegistry.counter("migration.rows", "job", run.name, "result", "skipped").increment(skipped);
+        }
+    }
+
+    private void finish(Run run) {
+        MigrationCheckpoint cp = run.checkpoint;
+        Throwable error = run.error;
+        try {
+            if (shuttingDown) {
+                // RUNNING 그대로 두고 다음 기동 때 이어서
+                cp.setLastError(error == null ? null : truncate("서버 종료로 중단: " + error.getMessage()));
+            } else if (error != null) {
+                cp.setStatus(MigrationCheckpoint.STATUS_FAILED);
+                cp.setLastError(truncate(error.getClass().getSimpleName() + ": " + error.getMessage()));
+                cp.setFinishedAt(LocalDateTime.now());
+            } else if (run.stopRequested) {
+                cp.setStatus(MigrationCheckpoint.STATUS_STOPPED);
+                cp.setFinishedAt(LocalDateTime.now());
+            } else {
+                cp.setStatus(MigrationCheckpoint.STATUS_COMPLETED);
+                cp.setFinishedAt(LocalDateTime.now());
+            }
+            cp.setUpdatedAt(LocalDateTime.now());
+            checkpointRepository.save(cp);
+        } catch (Exception e) {
+            log.error("❌ [마이그레이션] {} 체크포인트 저장 실패: {}", run.name, e.getMessage());
+        } finally {
+            running.remove(run.name);
+        }
+
+        double elapsed = (System.nanoTime() - run.startNanos) / 1e9;
+        if (error != null) {
+            log.error("❌ [마이그레이션] {} 실패 (이번 실행 {}건, last_key={}): {}",
+                    run.name, run.rows.get(), cp.getLastKey(), error.getMessage(), error);
+        } else {
+            log.info("✅ [마이그레이션] {} {} - 이번 실행 {}건 / {}초, 누적 반영 {}건, 건너뜀 {}건",
+                    run.name, cp.getStatus(), run.rows.get(), Math.round(elapsed), cp.getProcessed(), cp.getSkipped());
+        }
+    }
+
+    // ====== 내부 ======
+
+    private MigrationPlugin<?> requirePlugin(String name) {
+        MigrationPlugin<?> plugin = plugins.get(name);
+        if (plugin == null) {
+            throw new IllegalArgumentException("알 수 없는 마이그레이션 작업: " + name + " (가능: " + plugins.keySet() + ")");
+        }
+        return plugin;
+    }
+
+    private <R> R timed(String job, String stage, Supplier<R> body) {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        try {
+            return body.get();
+        } finally {
+            sample.stop(meterRegistry.timer("migration.stage", "job", job, "stage", stage));
+        }
+    }
+
+    private static String truncate(String s) {
+        if (s == null) return null;
+        return s.length() <= 500 ? s : s.substring(0, 500);
+    }
+}
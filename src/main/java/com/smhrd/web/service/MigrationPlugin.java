@@ -0,0 +1,41 @@
+package com.smhrd.web.service;
+
+import com.smhrd.web.util.FloatVector;
+
+import java.util.List;
+
+/**
+ * MigrationEngine 에 등록되는 마이그레이션 한 종류.
+ * 엔진이 keyset 페이지 읽기 → (선택) 임베딩 → 배치 쓰기 → 체크포인트 순으로 호출한다.
+ *
+ * 키는 문자열로 체크포인트에 저장되므로, fetchPage 는 afterKey 보다 큰 행만 키 순서대로 돌려줘야 한다
+ * (같은 페이지를 다시 써도 결과가 같도록 write 는 upsert 로 구현).
+ *
+ * @param <T> 원본 행 타입
+ */
+public interface MigrationPlugin<T> {
+
+    /** 작업 이름 (체크포인트 키, API 경로) */
+    String name();
+
+    String description();
+
+    /** afterKey(null = 처음) 다음부터 키 순으로 최대 limit 건 */
+    List<T> fetchPage(String afterKey, int limit);
+
+    String keyOf(T row);
+
+    /** afterKey 이후 남은 행 수 (ETA 계산용, 대략이어도 됨) */
+    long countRemaining(String afterKey);
+
+    /** 임베딩할 텍스트. null 이면 임베딩하지 않음 (임베딩이 없는 플러그인은 기본값 그대로) */
+    default String embeddingText(T row) {
+        return null;
+    }
+
+    /**
+     * 한 페이지 쓰기. vectors 는 rows 와 같은 순서이고, 임베딩하지 않은 행은 null.
+     * @return 실제로 쓴 행 수 (나머지는 건너뛴 것으로 집계)
+     */
+    int write(List<T> rows, List<FloatVector> vectors);
+}
@@ -0,0 +1,122 @@
+package com.smhrd.web.service;
+
+import com.smhrd.web.util.FloatVector;
+import com.smhrd.web.util.PgVector;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * MongoDB notes 콜렉션 → PostgreSQL user_notes (keywords, file_id 포함).
+ * _id(ObjectId) 순으로 읽고, note_idx 가 없거나 본문이 빈 문서는 건너뛴다.
+ */
+@Slf4j
+@Component
+public class MongoNotePostgresMigration implements MigrationPlugin<Document> {
+
+    private static final String COLLECTION = "notes";
+
+    private final MongoTemplate mongoTemplate;
+    private final NamedParameterJdbcTemplate postgresTemplate;
+
+    public MongoNotePostgresMigration(MongoTemplate mongoTemplate,
+                                      @Qualifier("postgresNamedParameterJdbcTemplate") NamedParameterJdbcTemplate postgresTemplate) {
+        this.mongoTemplate = mongoTemplate;
+        this.postgresTemplate = postgresTemplate;
+    }
+
+    @Override
+    public String name() {
+        return "mongo-notes-postgres";
+    }
+
+    @Override
+    public String description() {
+        return "MongoDB notes → PostgreSQL user_notes (임베딩, keywords/file_id 포함)";
+    }
+
+    @Override
+    public List<Document> fetchPage(String afterKey, int limit) {
+        Query query = afterQuery(afterKey).with(Sort.by(Sort.Direction.ASC, "_id")).limit(limit);
+        return mongoTemplate.find(query, Document.class, COLLECTION);
+    }
+
+    @Override
+    public String keyOf(Document row) {
+        return row.getObjectId("_id").toHexString();
+    }
+
+    @Override
+    public long countRemaining(String afterKey) {
+        return mongoTemplate.count(afterQuery(afterKey), COLLECTION);
+    }
+
+    @Override
+    public String embeddingText(Document row) {
+        return row.get("note_idx") == null ? null : row.getString("content");
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public int write(List<Document> rows, List<FloatVector> vectors) {
+        String sql = """
+            INSERT INTO user_notes (note_idx, user_idx, title, content, keywords, embedding, file_id, created_at)
+            VALUES (:noteIdx, :userIdx, :title, :content, :keywords, CAST(:embedding AS vector), :fileId, :createdAt)
+            ON CONFLICT (note_idx) DO UPDATE SET
+                title = EXCLUDED.title,
+                content = EXCLUDED.content,
+                keywords = EXCLUDED.keywords,
+                embedding = EXCLUDED.embedding,
+                file_id = EXCLUDED.file_id
+            """;
+
+        List<MapSqlParameterSource> batch = new ArrayList<>(rows.size());
+        for (int i = 0; i < rows.size(); i++) {
+            Document doc = rows.get(i);
+            FloatVector embedding = vectors.get(i);
+            Object noteIdx = doc.get("note_idx");
+            if (!(noteIdx instanceof Number) || embedding == null || embedding.isEmpty()) {
+                log.debug("⚠️ 건너뜀: _id={} (note_idx 또는 본문 없음)", doc.get("_id"));
+                continue;
+            }
+            List<String> keywords = (List<String>) doc.get("keywords");
+            Date createdAt = doc.getDate("created_at");
+
+            batch.add(new MapSqlParameterSource()
+                    .addValue("noteIdx", ((Number) noteIdx).longValue())
+                    .addValue("userIdx", doc.get("user_idx") instanceof Number n ? n.longValue() : null)
+                    .addValue("title", doc.getString("title"))
+                    .addValue("content", doc.getString("content"))
+                    .addValue("keywords", keywords != null ? keywords.toArray(new String[0]) : new String[0])
+                    .addValue("embedding", PgVector.of(embedding))
+                    .addValue("fileId", doc.getString("file_id"))
+                    .addValue("createdAt", createdAt != null
+                            ? createdAt.toInstant().atZone(ZoneId.systemDefault()).toLocalDateTime()
+                            : LocalDateTime.now()));
+        }
+        if (batch.isEmpty()) return 0;
+
+        postgresTemplate.batchUpdate(sql, batch.toArray(new MapSqlParameterSource[0]));
+        return batch.size();
+    }
+
+    private static Query afterQuery(String afterKey) {
+        return afterKey == null
+                ? new Query()
+                : new Query(Criteria.where("_id").gt(new ObjectId(afterKey)));
+    }
+}
@@ -0,0 +1,518 @@
+package com.smhrd.web.service;
+
+import com.smhrd.web.entity.SyncOutbox;
+import com.smhrd.web.util.FloatVector;
+import com.smhrd.web.util.NoteContentHash;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.data.mongodb.core.schema.JsonSchemaObject;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * MySQL notes ↔ Postgres user_notes / MongoDB user_notes 불일치(드리프트) 점검과 복구.
+ *
+ * 노트마다 content_hash (md5(title + "\n" + content) 앞 32bit, {@link NoteContentHash}) 를 두고
+ * 저장소별로 (개수, 해시 합계) 요약을 단계적으로 비교한다.
+ *   1) 사용자별 요약 - 세 저장소에서 GROUP BY user_idx 한 번씩
+ *   2) 요약이 다른 사용자만 버킷별 요약 (note_idx % drift.buckets)
+ *   3) 요약이 다른 버킷만 행 단위 (note_idx, content_hash) 를 읽어 누락/변경/잉여 노트를 찾는다
+ * 일치하는 사용자/버킷은 본문을 읽지 않으므로 전체 비교보다 훨씬 싸다.
+ *
+ * 복구는 평소 경로를 그대로 쓴다.
+ *   - Postgres: sync_outbox 에 노트 UPSERT/DELETE 기록 → SyncOutboxRelay 가 반영
+ *   - MongoDB: note_idx 기준으로 중복 문서 정리 후 MySQL 내용으로 다시 씀 (MySQL 에 없거나 ACTIVE 가 아니면 삭제).
+ *     기존 summary 와 (요약 기준) 임베딩은 유지
+ * MySQL 은 ACTIVE 노트만 기준으로 본다.
+ *
+ * 메트릭: drift.users / drift.buckets / drift.rows {store}, drift.repairs {store}, drift.run (소요 시간)
+ */
+@Slf4j
+@Service
+public class NoteDriftReconciler {
+
+    private static final String MONGO_COLLECTION = "user_notes";
+    private static final String STORE_POSTGRES = "postgres";
+    private static final String STORE_MONGO = "mongo";
+    // note_idx 가 없는 문서는 MySQL 노트와 짝지을 수 없으므로 비교 대상에서 뺀다
+    private static final Document HAS_NOTE_IDX = new Document("note_idx", new Document("$type", "number"));
+
+    /** 요약 단위 (개수, 해시 합계) */
+    record Digest(long count, long hashSum) {}
+
+    private final NamedParameterJdbcTemplate mysqlTemplate;
+    private final NamedParameterJdbcTemplate postgresTemplate;
+    private final MongoTemplate mongoTemplate;
+    private final SyncOutboxService syncOutboxService;
+    private final EmbeddingService embeddingService;
+    private final MeterRegistry meterRegistry;
+
+    private final AtomicBoolean running = new AtomicBoolean(false);
+    private volatile Map<String, Object> lastReport = Map.of("status", "never");
+    private volatile boolean schemaReady;
+
+    @Value("${drift.enabled:true}")
+    private boolean enabled;
+
+
+    @Value("${drift.buckets:64}")
+    private int buckets;
+
+    // 한 번 실행에서 저장소별로 복구할 최대 노트 수 (나머지는 다음 실행에서)
+    @Value("${drift.max-repairs-per-run:500}")
+    private int maxRepairsPerRun;
+
+    // content_hash 없는 Mongo 문서를 한 번에 채울 최대 수
+    @Value("${drift.mongo-backfill-limit:2000}")
+    private int mongoBackfillLimit;
+
+    public NoteDriftReconciler(@Qualifier("mysqlNamedParameterJdbcTemplate") NamedParameterJdbcTemplate mysqlTemplate,
+                               @Qualifier("postgresNamedParameterJdbcTemplate") NamedParameterJdbcTemplate postgresTemplate,
+                               MongoTemplate mongoTemplate,
+                               SyncOutboxService syncOutboxService,
+                               EmbeddingService embeddingService,
+                               MeterRegistry meterRegistry) {
+        this.mysqlTemplate = mysqlTemplate;
+        this.postgresTemplate = postgresTemplate;
+        this.mongoTemplate = mongoTemplate;
+        this.syncOutboxService = syncOutboxService;
+        this.embeddingService = embeddingService;
+        this.meterRegistry = meterRegistry;
+    }
+
+    // 스키마 변경(content_hash 생성 컬럼)은 251018.sql / 251018_postgres.sql 로 적용. 기동 시에는 있는지만 확인
+    @PostConstruct
+    public void init() {
+        try {
+            Integer mysqlColumn = mysqlTemplate.getJdbcTemplate().queryForObject("""
+                    SELECT COUNT(*) FROM information_schema.COLUMNS
+                    WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = 'notes' AND COLUMN_NAME = 'content_hash'
+                    """, Integer.class);
+            Integer postgresColumn = postgresTemplate.getJdbcTemplate().queryForObject("""
+                    SELECT COUNT(*) FROM information_schema.columns
+                    WHERE table_name = 'user_notes' AND column_name = 'content_hash'
+                    """, Integer.class);
+            schemaReady = mysqlColumn != null && mysqlColumn > 0 && postgresColumn != null && postgresColumn > 0;
+            if (!schemaReady) {
+                log.warn("⚠️ [드리프트] content_hash 컬럼 없음 (MySQL: {}, Postgres: {}) - 스키마 스크립트 적용 전까지 점검 생략",
+                        mysqlColumn, postgresColumn);
+            }
+        } catch (Exception e) {
+            log.error("❌ [드리프트] content_hash 컬럼 확인 실패: {}", e.getMessage(), e);
+        }
+        try {
+            mongoTemplate.getCollection(MONGO_COLLECTION)
+                    .createIndex(new Document("user_idx", 1).append("note_idx", 1).append("content_hash", 1));
+        } catch (Exception e) {
+            log.warn("⚠️ Mongo user_notes 인덱스 생성 실패: {}", e.getMessage());
+        }
+    }
+
+    // ====== 실행 ======
+
+    @Scheduled(initialDelayString = "${drift.initial-delay-ms:300000}",
+            fixedDelayString = "${drift.interval-ms:3600000}")
+    public void scheduledRun() {
+        // 관리자가 수동으로 돌리는 중이면 이번 주기는 건너뜀
+        if (!enabled || !schemaReady || running.get()) return;
+        try {
+            reconcile();
+        } catch (Exception e) {
+            log.error("❌ [드리프트] 점검 실패: {}", e.getMessage(), e);
+        }
+    }
+
+    /** 점검 + 복구 한 번 실행. 이미 실행 중이면 IllegalStateException */
+    public Map<String, Object> reconcile() {
+        if (!schemaReady) {
+            throw new IllegalStateException("content_hash 컬럼이 없습니다. 251018.sql / 251018_postgres.sql 을 먼저 적용하세요.");
+        }
+        if (!running.compareAndSet(false, true)) {
+            throw new IllegalStateException("드리프트 점검이 이미 실행 중입니다.");
+        }
+        long start = System.currentTimeMillis();
+        try {
+            int backfilled = backfillMongoHashes();
+
+            Map<Long, Digest> mysqlUsers = mysqlUserDigests();
+            Map<String, Object> postgres = reconcileStore(STORE_POSTGRES, mysqlUsers, postgresUserDigests());
+            Map<String, Object> mongo = reconcileStore(STORE_MONGO, mysqlUsers, mongoUserDigests());
+
+            long tookMs = System.currentTimeMillis() - start;
+            meterRegistry.timer("drift.run").record(Duration.ofMillis(tookMs));
+
+            Map<String, Object> report = new LinkedHashMap<>();
+            report.put("status", "ok");
+            report.put("finishedAt", LocalDateTime.now().toString());
+            report.put("tookMs", tookMs);
+            report.put("users", mysqlUsers.size());
+            report.put("mongoHashBackfilled", backfilled);
+            report.put(STORE_POSTGRES, postgres);
+            report.put(STORE_MONGO, mongo);
+            lastReport = report;
+
+            log.info("🔍 [드리프트] 점검 완료 ({}ms) - postgres {}, mongo {}", tookMs, postgres, mongo);
+            return report;
+        } catch (RuntimeException e) {
+            lastReport = Map.of("status", "error", "finishedAt", LocalDateTime.now().toString(),
+                    "message", String.valueOf(e.getMessage()));
+            throw e;
+        } finally {
+            running.set(false);
+        }
+    }
+
+    public Map<String, Object> status() {
+        Map<String, Object> status = new LinkedHashMap<>();
+        status.put("enabled", enabled);
+        status.put("schemaReady", schemaReady);
+        status.put("running", running.get());
+        status.put("buckets", bucketCount());
+        status.put("last", lastReport);
+        return status;
+    }
+
+    // 사용자 → 버킷 → 행 순서로 좁혀가며 차이를 찾고 복구
+    private Map<String, Object> reconcileStore(String store, Map<Long, Digest> mysqlUsers, Map<Long, Digest> otherUsers) {
+        Set<Long> users = new TreeSet<>(mysqlUsers.keySet());
+        users.addAll(otherUsers.keySet());
+
+        int driftedUsers = 0;
+        int driftedBuckets = 0;
+        Set<Long> upserts = new LinkedHashSet<>();
+        Set<Long> deletes = new LinkedHashSet<>();
+        Map<Long, Long> owners = new HashMap<>();
+
+        for (Long userIdx : users) {
+            if (Objects.equals(mysqlUsers.get(userIdx), otherUsers.get(userIdx))) continue;
+            driftedUsers++;
+
+            Map<Integer, Digest> mysqlBuckets = mysqlBucketDigests(userIdx);
+            Map<Integer, Digest> otherBuckets = STORE_POSTGRES.equals(store)
+                    ? postgresBucketDigests(userIdx) : mongoBucketDigests(userIdx);
+            Set<Integer> bucketIds = new TreeSet<>(mysqlBuckets.keySet());
+            bucketIds.addAll(otherBuckets.keySet());
+            List<Integer> diffBuckets = bucketIds.stream()
+                    .filter(b -> !Objects.equals(mysqlBuckets.get(b), otherBuckets.get(b)))
+                    .toList();
+            if (diffBuckets.isEmpty()) continue;
+            driftedBuckets += diffBuckets.size();
+
+            Map<Long, Long> mysqlRows = mysqlRowHashes(userIdx, diffBuckets);
+            Map<Long, List<Long>> otherRows = STORE_POSTGRES.equals(store)
+                    ? postgresRowHashes(userIdx, diffBuckets) : mongoRowHashes(userIdx, diffBuckets);
+
+            mysqlRows.forEach((noteIdx, hash) -> {
+                List<Long> other = otherRows.get(noteIdx);
+                // 없음 / 내용 다름 / (Mongo) 같은 노트 문서가 여러 개
+                if (other == null || other.size() != 1 || !Objects.equals(other.get(0), hash)) {
+                    upserts.add(noteIdx);
+                    owners.put(noteIdx, userIdx);
+                }
+            });
+            otherRows.keySet().stream().filter(id -> !mysqlRows.containsKey(id)).forEach(noteIdx -> {
+                deletes.add(noteIdx);
+                owners.put(noteIdx, userIdx);
+            });
+        }
+
+        int drifted = upserts.size() + deletes.size();
+        meterRegistry.counter("drift.users", "store", store).increment(driftedUsers);
+        meterRegistry.counter("drift.buckets", "store", store).increment(driftedBuckets);
+        meterRegistry.counter("drift.rows", "store", store).increment(drifted);
+
+        // 상한까지만 복구 (남은 건 다음 실행에서 다시 잡힘)
+        List<Long> upsertBatch = upserts.stream().limit(Math.max(0, maxRepairsPerRun)).toList();
+        List<Long> deleteBatch = deletes.stream().limit(Math.max(0, maxRepairsPerRun - upsertBatch.size())).toList();
+        int repaired = STORE_POSTGRES.equals(store)
+                ? repairPostgres(upsertBatch, deleteBatch, owners)
+                : repairMongo(upsertBatch, deleteBatch);
+        meterRegistry.counter("drift.repairs", "store", store).increment(repaired);
+
+        if (drifted > 0) {
+            log.warn("⚠️ [드리프트] {} 불일치 - 사용자 {}, 버킷 {}, 노트 {} (변경/누락 {}, 잉여 {}), 복구 {}",
+                    store, driftedUsers, driftedBuckets, drifted, upserts.size(), deletes.size(), repaired);
+        }
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("users", driftedUsers);
+        result.put("buckets", driftedBuckets);
+        result.put("missingOrChanged", upserts.size());
+        result.put("extra", deletes.size());
+        result.put("repaired", repaired);
+        return result;
+    }
+
+    // ====== 복구 ======
+
+    private int repairPostgres(List<Long> upserts, List<Long> deletes, Map<Long, Long> owners) {
+        // 릴레이가 반영 시점의 MySQL 상태를 다시 읽으므로 op 는 기록용
+        upserts.forEach(id -> syncOutboxService.append(SyncOutbox.TYPE_NOTE, id, SyncOutbox.OP_UPSERT, owners.get(id)));
+        deletes.forEach(id -> syncOutboxService.append(SyncOutbox.TYPE_NOTE, id, SyncOutbox.OP_DELETE, owners.get(id)));
+        return upserts.size() + deletes.size();
+    }
+
+    private int repairMongo(List<Long> upserts, List<Long> deletes) {
+        int repaired = 0;
+        if (!deletes.isEmpty()) {
+            mongoTemplate.remove(new Query(Criteria.where("note_idx").in(deletes)), MONGO_COLLECTION);
+            repaired += deletes.size();
+        }
+        if (upserts.isEmpty()) return repaired;
+
+        List<Map<String, Object>> notes = mysqlTemplate.queryForList("""
+                SELECT note_idx, user_idx, title, content, created_at, content_hash
+                FROM notes
+                WHERE note_idx IN (:ids) AND status = 'ACTIVE'
+                """, new MapSqlParameterSource("ids", upserts));
+
+        // 기존 문서: 노트당 하나만 남기고 나머지(중복) 삭제
+        Map<Long, Document> kept = new HashMap<>();
+        List<ObjectId> duplicates = new ArrayList<>();
+        Query existing = new Query(Criteria.where("note_idx").in(upserts));
+        existing.fields().include("note_idx").include("content_hash").include("summary");
+        for (Document doc : mongoTemplate.find(existing, Document.class, MONGO_COLLECTION)) {
+            long noteIdx = ((Number) doc.get("note_idx")).longValue();
+            if (kept.putIfAbsent(noteIdx, doc) != null) {
+                duplicates.add(doc.getObjectId("_id"));
+            }
+        }
+        if (!duplicates.isEmpty()) {
+            mongoTemplate.remove(new Query(Criteria.where("_id").in(duplicates)), MONGO_COLLECTION);
+        }
+
+        // 내용이 바뀐 노트만 임베딩 재계산. 요약본이 있는 문서는 임베딩이 요약 기준이라 요약/임베딩을 그대로 둔다
+        List<Map<String, Object>> changed = notes.stream()
+                .filter(n -> {
+                    Document doc = kept.get(toLong(n.get("note_idx")));
+                    return !sameHash(doc, toLong(n.get("content_hash"))) && (doc == null || doc.get("summary") == null);
+                })
+                .toList();
+        List<FloatVector> vectors = embeddingService.embedAll(changed.stream()
+                .map(n -> Objects.toString(n.get("content"), ""))
+                .toList());
+        Map<Long, FloatVector> vectorByNote = new HashMap<>();
+        for (int i = 0; i < changed.size(); i++) {
+            vectorByNote.put(toLong(changed.get(i).get("note_idx")), vectors.get(i));
+        }
+
+        Set<Long> active = new HashSet<>();
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, MONGO_COLLECTION);
+        for (Map<String, Object> n : notes) {
+            Long noteIdx = toLong(n.get("note_idx"));
+            active.add(noteIdx);
+            String content = (String) n.get("content");
+            Update update = new Update()
+                    .set("user_idx", toLong(n.get("user_idx")))
+                    .set("title", n.get("title"))
+                    .set("content", content)
+                    .set("content_hash", toLong(n.get("content_hash")))
+                    .setOnInsert("summary", content)
+                    .setOnInsert("created_at", n.get("created_at") instanceof Timestamp t ? t.toLocalDateTime() : LocalDateTime.now());
+            FloatVector vector = vectorByNote.get(noteIdx);
+            if (vector != null) {
+                update.set("embedding", vector.toList());
+            }
+            bulk.upsert(new Query(Criteria.where("note_idx").is(noteIdx)), update);
+        }
+        if (!notes.isEmpty()) {
+            bulk.execute();
+        }
+
+        // 점검 이후 삭제/차단된 노트
+        List<Long> gone = upserts.stream().filter(id -> !active.contains(id)).toList();
+        if (!gone.isEmpty()) {
+            mongoTemplate.remove(new Query(Criteria.where("note_idx").in(gone)), MONGO_COLLECTION);
+        }
+        return repaired + upserts.size();
+    }
+
+    private static boolean sameHash(Document doc, Long hash) {
+        return doc != null && doc.get("content_hash") instanceof Number n && hash != null && n.longValue() == hash;
+    }
+
+    /**
+     * content_hash 가 없는 (이전에 저장된) Mongo 문서 채우기.
+     * 파일 업로드 노트는 Mongo content 가 요약본이라 문서 자체로 계산하면 MySQL 과 달라지므로
+     * note_idx 로 MySQL notes.content_hash 를 가져와 넣는다. MySQL 에 없는 노트는 비워 둔다 (행 비교에서 잉여로 정리됨).
+     */
+    private int backfillMongoHashes() {
+        Query missing = new Query(Criteria.where("content_hash").exists(false).and("note_idx").type(JsonSchemaObject.Type.NUMBER))
+                .limit(Math.max(1, mongoBackfillLimit));
+        missing.fields().include("note_idx");
+        Set<Long> noteIds = new LinkedHashSet<>();
+        mongoTemplate.find(missing, Document.class, MONGO_COLLECTION)
+                .forEach(doc -> noteIds.add(toLong(doc.get("note_idx"))));
+        if (noteIds.isEmpty()) return 0;
+
+        Map<Long, Long> hashes = new HashMap<>();
+        mysqlTemplate.query("SELECT note_idx, content_hash FROM notes WHERE note_idx IN (:ids)",
+                new MapSqlParameterSource("ids", noteIds), rs -> {
+            hashes.put(rs.getLong("note_idx"), rs.getLong("content_hash"));
+        });
+        if (hashes.isEmpty()) return 0;
+
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, MONGO_COLLECTION);
+        hashes.forEach((noteIdx, hash) -> bulk.updateMulti(
+                new Query(Criteria.where("note_idx").is(noteIdx).and("content_hash").exists(false)),
+                new Update().set("content_hash", hash)));
+        int updated = bulk.execute().getModifiedCount();
+        log.info("🛠️ [드리프트] Mongo content_hash 채움: {}건", updated);
+        return updated;
+    }
+
+    // ====== 요약 조회 ======
+
+    private Map<Long, Digest> mysqlUserDigests() {
+        Map<Long, Digest> digests = new HashMap<>();
+        mysqlTemplate.query("""
+                SELECT user_idx, COUNT(*) AS cnt, COALESCE(SUM(content_hash), 0) AS hash_sum
+                FROM notes
+                WHERE status = 'ACTIVE'
+                GROUP BY user_idx
+                """, rs -> {
+            digests.put(rs.getLong("user_idx"), new Digest(rs.getLong("cnt"), rs.getLong("hash_sum")));
+        });
+        return digests;
+    }
+
+    private Map<Long, Digest> postgresUserDigests() {
+        Map<Long, Digest> digests = new HashMap<>();
+        postgresTemplate.query("""
+                SELECT user_idx, COUNT(*) AS cnt, COALESCE(SUM(content_hash), 0) AS hash_sum
+                FROM user_notes
+                GROUP BY user_idx
+                """, rs -> {
+            digests.put(rs.getLong("user_idx"), new Digest(rs.getLong("cnt"), rs.getLong("hash_sum")));
+        });
+        return digests;
+    }
+
+    private Map<Long, Digest> mongoUserDigests() {
+        Map<Long, Digest> digests = new HashMap<>();
+        mongoTemplate.getCollection(MONGO_COLLECTION).aggregate(List.of(
+                new Document("$match", HAS_NOTE_IDX),
+                new Document("$group", new Document("_id", "$user_idx")
+                        .append("cnt", new Document("$sum", 1))
+                        .append("hash_sum", new Document("$sum", "$content_hash")))
+        )).forEach(doc -> {
+            if (doc.get("_id") instanceof Number userIdx) {
+                digests.put(userIdx.longValue(), new Digest(toLong(doc.get("cnt")), toLong(doc.get("hash_sum"))));
+            }
+        });
+        return digests;
+    }
+
+    private Map<Integer, Digest> mysqlBucketDigests(Long userIdx) {
+        Map<Integer, Digest> digests = new HashMap<>();
+        mysqlTemplate.query("""
+                SELECT note_idx % :buckets AS bucket, COUNT(*) AS cnt, COALESCE(SUM(content_hash), 0) AS hash_sum
+                FROM notes
+                WHERE user_idx = :userIdx AND status = 'ACTIVE'
+                GROUP BY bucket
+                """, bucketParams(userIdx), rs -> {
+            digests.put(rs.getInt("bucket"), new Digest(rs.getLong("cnt"), rs.getLong("hash_sum")));
+        });
+        return digests;
+    }
+
+    private Map<Integer, Digest> postgresBucketDigests(Long userIdx) {
+        Map<Integer, Digest> digests = new HashMap<>();
+        postgresTemplate.query("""
+                SELECT note_idx % :buckets AS bucket, COUNT(*) AS cnt, COALESCE(SUM(content_hash), 0) AS hash_sum
+                FROM user_notes
+                WHERE user_idx = :userIdx
+                GROUP BY 1
+                """, bucketParams(userIdx), rs -> {
+            digests.put(rs.getInt("bucket"), new Digest(rs.getLong("cnt"), rs.getLong("hash_sum")));
+        });
+        return digests;
+    }
+
+    private Map<Integer, Digest> mongoBucketDigests(Long userIdx) {
+        Map<Integer, Digest> digests = new HashMap<>();
+        mongoTemplate.getCollection(MONGO_COLLECTION).aggregate(List.of(
+                new Document("$match", new Document(HAS_NOTE_IDX).append("user_idx", userIdx)),
+                new Document("$group", new Document("_id", new Document("$mod", List.of("$note_idx", bucketCount())))
+                        .append("cnt", new Document("$sum", 1))
+                        .append("hash_sum", new Document("$sum", "$content_hash")))
+        )).forEach(doc -> {
+            if (doc.get("_id") instanceof Number bucket) {
+                digests.put(bucket.intValue(), new Digest(toLong(doc.get("cnt")), toLong(doc.get("hash_sum"))));
+            }
+        });
+        return digests;
+    }
+
+    private Map<Long, Long> mysqlRowHashes(Long userIdx, List<Integer> bucketIds) {
+        Map<Long, Long> rows = new HashMap<>();
+        mysqlTemplate.query("""
+                SELECT note_idx, content_hash
+                FROM notes
+                WHERE user_idx = :userIdx AND status = 'ACTIVE' AND note_idx % :buckets IN (:bucketIds)
+                """, bucketParams(userIdx).addValue("bucketIds", bucketIds), rs -> {
+            rows.put(rs.getLong("note_idx"), rs.getLong("content_hash"));
+        });
+        return rows;
+    }
+
+    private Map<Long, List<Long>> postgresRowHashes(Long userIdx, List<Integer> bucketIds) {
+        Map<Long, List<Long>> rows = new HashMap<>();
+        postgresTemplate.query("""
+                SELECT note_idx, content_hash
+                FROM user_notes
+                WHERE user_idx = :userIdx AND note_idx % :buckets IN (:bucketIds)
+                """, bucketParams(userIdx).addValue("bucketIds", bucketIds), rs -> {
+            rows.computeIfAbsent(rs.getLong("note_idx"), k -> new ArrayList<>()).add(rs.getLong("content_hash"));
+        });
+        return rows;
+    }
+
+    private Map<Long, List<Long>> mongoRowHashes(Long userIdx, List<Integer> bucketIds) {
+        Map<Long, List<Long>> rows = new HashMap<>();
+        Document filter = new Document(HAS_NOTE_IDX).append("user_idx", userIdx)
+                .append("$expr", new Document("$in", List.of(
+                        new Document("$mod", List.of("$note_idx", bucketCount())), bucketIds)));
+        Document projection = new Document("note_idx", 1).append("content_hash", 1);
+        mongoTemplate.getCollection(MONGO_COLLECTION).find(filter).projection(projection).forEach(doc -> {
+            if (doc.get("note_idx") instanceof Number noteIdx) {
+                // content_hash 가 없으면 null → 불일치로 잡힘
+                Long hash = doc.get("content_hash") instanceof Number h ? h.longValue() : null;
+                rows.computeIfAbsent(noteIdx.longValue(), k -> new ArrayList<>()).add(hash);
+            }
+        });
+        return rows;
+    }
+
+    private MapSqlParameterSource bucketParams(Long userIdx) {
+        return new MapSqlParameterSource()
+                .addValue("userIdx", userIdx)
+                .addValue("buckets", bucketCount());
+    }
+
+    private int bucketCount() {
+        return Math.max(1, buckets);
+    }
+
+    private static Long toLong(Object value) {
+        return value instanceof Number n ? n.longValue() : null;
+    }
+}
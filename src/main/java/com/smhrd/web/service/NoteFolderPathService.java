@@ -0,0 +1,183 @@
+package com.smhrd.web.service;
+
+import com.smhrd.web.entity.NoteFolder;
+import com.smhrd.web.repository.NoteFolderRepository;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.*;
+
+/**
+ * 노트 폴더(note_folders) materialized path 관리.
+ * 각 폴더에 루트부터 자기 자신까지의 id 경로(path = "/3/17/42/")와 depth 를 저장해 두고,
+ * 깊이와 상관없이 한 번의 쿼리로
+ *   - 경로 이름 조회 (조상 = path 가 내 path 의 접두어인 폴더)
+ *   - 하위 트리 삭제 / 이동 (path LIKE '내 path%')
+ * 를 처리한다. path 는 id 기반이라 이름 변경 시에는 바뀌지 않는다.
+ *
+ * 폴더를 만들면 onCreated, 부모를 바꾸면 move 를 호출해야 한다.
+ */
+@Slf4j
+@Service
+public class NoteFolderPathService {
+
+    private final NoteFolderRepository noteFolderRepository;
+    private final JdbcTemplate mysqlJdbcTemplate;
+
+    // 기동 시 path 가 비어 있는 폴더(컬럼 추가 직후 기존 데이터)를 채움. 컬럼/인덱스는 251018.sql 로 적용
+    @Value("${note.folder.path.backfill-on-startup:true}")
+    private boolean backfillOnStartup;
+
+    public NoteFolderPathService(NoteFolderRepository noteFolderRepository,
+                                 @Qualifier("mysqlJdbcTemplate") JdbcTemplate mysqlJdbcTemplate) {
+        this.noteFolderRepository = noteFolderRepository;
+        this.mysqlJdbcTemplate = mysqlJdbcTemplate;
+    }
+
+    @PostConstruct
+    public void init() {
+        if (!backfillOnStartup) return;
+        try {
+            Integer missing = mysqlJdbcTemplate.queryForObject(
+                    "SELECT COUNT(*) FROM note_folders WHERE path IS NULL", Integer.class);
+            if (missing != null && missing > 0) {
+                int updated = rebuildInternal();
+                log.info("🛠️ 폴더 경로 채움: {}건 (path 없던 폴더 {}건)", updated, missing);
+            }
+        } catch (Exception e) {
+            log.error("❌ 폴더 경로 채우기 실패 (251018.sql 의 note_folders.path / depth 컬럼 확인): {}", e.getMessage(), e);
+        }
+    }
+
+    // ====== 갱신 ======
+
+    /** 새 폴더 저장 직후 호출 (IDENTITY 라 insert 가 이미 실행된 상태) */
+    @Transactional
+    public void onCreated(Long folderId) {
+        noteFolderRepository.initPath(folderId);
+    }
+
+    /**
+     * 폴더(와 하위 트리 전체)를 새 부모 아래로 이동. parent_folder_id 와 path 를 함께 바꾼다.
+     * 자기 자신이나 자기 하위 폴더 아래로는 옮길 수 없다.
+     */
+    @Transactional
+    public void move(NoteFolder folder, Long targetParentId) {
+        String oldPrefix = requirePath(folder.getFolderId());
+
+        String parentPath = "/";
+        int parentDepth = -1;
+        if (targetParentId != null) {
+            NoteFolder parent = noteFolderRepository.findByFolderIdAndUserIdx(targetParentId, folder.getUserIdx())
+                    .orElseThrow(() -> new IllegalArgumentException("대상 폴더를 찾을 수 없습니다."));
+            parentPath = requirePath(parent.getFolderId());
+            if (parentPath.startsWith(oldPrefix)) {
+                throw new IllegalArgumentException("폴더를 자기 자신이나 하위 폴더로 이동할 수 없습니다.");
+            }
+            parentDepth = depthOf(parentPath);
+        }
+
+        folder.setParentFolderId(targetParentId);
+        noteFolderRepository.save(folder);
+
+        String newPrefix = parentPath + folder.getFolderId() + "/";
+        int depthDelta = (parentDepth + 1) - depthOf(oldPrefix);
+        if (!newPrefix.equals(oldPrefix)) {
+            noteFolderRepository.movePathPrefix(folder.getUserIdx(), oldPrefix, newPrefix, depthDelta);
+        }
+    }
+
+    /** 폴더와 하위 트리 삭제. 안에 있던 노트는 루트로 이동. 삭제된 폴더 수 반환 */
+    @Transactional
+    public int deleteSubtree(Long userIdx, Long folderId) {
+        String prefix = requirePath(folderId);
+        noteFolderRepository.detachNotesUnder(userIdx, prefix);
+        return noteFolderRepository.deleteSubtree(userIdx, prefix);
+    }
+
+    /** parent_folder_id 기준으로 모든 path 재계산. 바뀐 행 수 반환 */
+    @Transactional
+    public int rebuildAll() {
+        return rebuildInternal();
+    }
+
+    // ====== 조회 ======
+
+    /** 폴더별 이름 경로 (루트 → 폴더 순) */
+    @Transactional(readOnly = true)
+    public Map<Long, List<String>> namesOf(Collection<Long> folderIds) {
+        Set<Long> ids = new HashSet<>(folderIds);
+        ids.remove(null);
+        if (ids.isEmpty()) return Map.of();
+
+        Map<Long, List<String>> result = new HashMap<>();
+        for (Object[] row : noteFolderRepository.findAncestorNames(ids)) {
+            Long folderId = ((Number) row[0]).longValue();
+            result.computeIfAbsent(folderId, k -> new ArrayList<>()).add((String) row[1]);
+        }
+        return result;
+    }
+
+    /** "/상위/하위" 형식 경로 (폴더 없음/조회 실패 시 "/") */
+    @Transactional(readOnly = true)
+    public Map<Long, String> slashPaths(Collection<Long> folderIds) {
+        Map<Long, String> result = new HashMap<>();
+        namesOf(folderIds).forEach((id, names) -> result.put(id, "/" + String.join("/", names)));
+        return result;
+    }
+
+    /** 구분자로 이은 경로 (예: " > "). 폴더가 없으면 null */
+    @Transactional(readOnly = true)
+    public String joinedPath(Long folderId, String separator) {
+        if (folderId == null) return null;
+        List<String> names = namesOf(List.of(folderId)).get(folderId);
+        return names == null || names.isEmpty() ? null : String.join(separator, names);
+    }
+
+    // ====== 내부 ======
+
+    private String requirePath(Long folderId) {
+        String path = noteFolderRepository.findPath(folderId);
+        if (path == null) {
+            // 기동 후 SQL 밖에서 만들어진 폴더 등 — 전체 재계산 후 다시 조회
+            rebuildInternal();
+            path = noteFolderRepository.findPath(folderId);
+        }
+        if (path == null) {
+            throw new IllegalStateException("폴더 경로를 계산할 수 없습니다: " + folderId);
+        }
+        return path;
+    }
+
+    private int rebuildInternal() {
+        return mysqlJdbcTemplate.update("""
+                UPDATE note_folders f
+                JOIN (
+                    WITH RECURSIVE t (folder_id, path, depth) AS (
+                        SELECT folder_id, CAST(CONCAT('/', folder_id, '/') AS CHAR(512)), 0
+                        FROM note_folders WHERE parent_folder_id IS NULL
+                        UNION ALL
+                        SELECT c.folder_id, CONCAT(t.path, c.folder_id, '/'), t.depth + 1
+                        FROM note_folders c JOIN t ON c.parent_folder_id = t.folder_id
+                    )
+                    SELECT folder_id, path, depth FROM t
+                ) x ON x.folder_id = f.folder_id
+                SET f.path = x.path, f.depth = x.depth
+                WHERE f.path IS NULL OR f.path <> x.path OR f.depth <> x.depth
+                """);
+    }
+
+    // "/3/17/42/" → 2
+    private static int depthOf(String path) {
+        int slashes = 0;
+        for (int i = 0; i < path.length(); i++) {
+            if (path.charAt(i) == '/') slashes++;
+        }
+        return Math.max(0, slashes - 2);
+    }
+}
@@ -0,0 +1,96 @@
+package com.smhrd.web.service;
+
+import com.mongodb.bulk.BulkWriteResult;
+import com.smhrd.web.util.FloatVector;
+import com.smhrd.web.util.NoteContentHash;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * MySQL notes → MongoDB user_notes 채우기.
+ * 이미 있는 문서는 건드리지 않고 (setOnInsert) 없는 노트만 본문을 요약/임베딩 없이 넣는다.
+ */
+@Component
+public class NoteMongoMigration implements MigrationPlugin<NoteMongoMigration.NoteDoc> {
+
+    public record NoteDoc(Long noteIdx, Long userIdx, String title, String content, LocalDateTime createdAt) {}
+
+    private final NamedParameterJdbcTemplate mysqlTemplate;
+    private final MongoTemplate mongoTemplate;
+
+    public NoteMongoMigration(@Qualifier("mysqlNamedParameterJdbcTemplate") NamedParameterJdbcTemplate mysqlTemplate,
+                              MongoTemplate mongoTemplate) {
+        this.mysqlTemplate = mysqlTemplate;
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    @Override
+    public String name() {
+        return "notes-mongo";
+    }
+
+    @Override
+    public String description() {
+        return "MySQL notes → MongoDB user_notes (없는 노트만 추가)";
+    }
+
+    @Override
+    public List<NoteDoc> fetchPage(String afterKey, int limit) {
+        return mysqlTemplate.query("""
+                SELECT note_idx, user_idx, title, content, created_at
+                FROM notes
+                WHERE note_idx > :after
+                ORDER BY note_idx
+                LIMIT :limit
+                """, new MapSqlParameterSource()
+                        .addValue("after", afterKey == null ? 0L : Long.parseLong(afterKey))
+                        .addValue("limit", limit),
+                (rs, i) -> new NoteDoc(
+                        rs.getLong("note_idx"),
+                        rs.getLong("user_idx"),
+                        rs.getString("title"),
+                        rs.getString("content"),
+                        rs.getTimestamp("created_at") == null ? null : rs.getTimestamp("created_at").toLocalDateTime()));
+    }
+
+    @Override
+    public String keyOf(NoteDoc row) {
+        return String.valueOf(row.noteIdx());
+    }
+
+    @Override
+    public long countRemaining(String afterKey) {
+        Long count = mysqlTemplate.queryForObject(
+                "SELECT COUNT(*) FROM notes WHERE note_idx > :after",
+                new MapSqlParameterSource("after", afterKey == null ? 0L : Long.parseLong(afterKey)), Long.class);
+        return count == null ? 0 : count;
+    }
+
+    @Override
+    public int write(List<NoteDoc> rows, List<FloatVector> vectors) {
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, "user_notes");
+        for (NoteDoc n : rows) {
+            bulk.upsert(new Query(Criteria.where("note_idx").is(n.noteIdx())), new Update()
+                    .setOnInsert("user_idx", n.userIdx())
+                    .setOnInsert("title", n.title())
+                    .setOnInsert("content", n.content())
+                    .setOnInsert("summary", n.content()) // 요약본 없으면 원본
+                    .setOnInsert("embedding", List.of())  // 임베딩은 빈 배열
+                    .setOnInsert("content_hash", NoteContentHash.of(n.title(), n.content()))
+                    .setOnInsert("created_at", n.createdAt()));
+        }
+        BulkWriteResult result = bulk.execute();
+        // 새로 넣은 문서만 반영으로 집계 (기존 문서는 건너뜀)
+        return result.getUpserts().size();
+    }
+}
@@ -0,0 +1,129 @@
+package com.smhrd.web.service;
+
+import com.smhrd.web.util.FloatVector;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.*;
+
+/**
+ * MySQL notes → Postgres user_notes 전체 재임베딩 (폴더 경로/태그 포함).
+ * 쓰기는 노트 동기화와 같은 upsert(PostgresSyncService.upsertNotes)를 사용한다.
+ */
+@Component
+public class NotePostgresMigration implements MigrationPlugin<PostgresSyncService.NoteRow> {
+
+    private static final int EMBEDDING_DIM = 1024;
+
+    private final NamedParameterJdbcTemplate mysqlTemplate;
+    private final NoteFolderPathService noteFolderPathService;
+    private final PostgresSyncService postgresSyncService;
+
+    public NotePostgresMigration(@Qualifier("mysqlNamedParameterJdbcTemplate") NamedParameterJdbcTemplate mysqlTemplate,
+                                 NoteFolderPathService noteFolderPathService,
+                                 PostgresSyncService postgresSyncService) {
+        this.mysqlTemplate = mysqlTemplate;
+        this.noteFolderPathService = noteFolderPathService;
+        this.postgresSyncService = postgresSyncService;
+    }
+
+    @Override
+    public String name() {
+        return "notes-postgres";
+    }
+
+    @Override
+    public String description() {
+        return "MySQL notes → PostgreSQL user_notes (임베딩, 폴더/태그 포함)";
+    }
+
+    @Override
+    public List<PostgresSyncService.NoteRow> fetchPage(String afterKey, int limit) {
+        List<Map<String, Object>> notes = mysqlTemplate.queryForList("""
+                SELECT note_idx, user_idx, title, content, folder_id, created_at
+                FROM notes
+                WHERE status = 'ACTIVE' AND note_idx > :after
+                ORDER BY note_idx
+                LIMIT :limit
+                """, new MapSqlParameterSource()
+                .addValue("after", parseKey(afterKey))
+                .addValue("limit", limit));
+        if (notes.isEmpty()) return List.of();
+
+        List<Long> noteIds = notes.stream().map(n -> toLong(n.get("note_idx"))).toList();
+
+        // 태그/폴더 경로는 페이지 단위로 한 번씩
+        Map<Long, List<String>> tags = new HashMap<>();
+        mysqlTemplate.query("""
+                SELECT nt.note_idx, t.name
+                FROM note_tags nt JOIN tags t ON t.tag_idx = nt.tag_idx
+                WHERE nt.note_idx IN (:noteIds)
+                """, new MapSqlParameterSource("noteIds", noteIds),
+                rs -> {
+                    tags.computeIfAbsent(rs.getLong("note_idx"), k -> new ArrayList<>()).add(rs.getString("name"));
+                });
+        Map<Long, String> folderPaths = noteFolderPathService.slashPaths(
+                notes.stream().map(n -> toLong(n.get("folder_id"))).filter(Objects::nonNull).toList());
+
+        List<PostgresSyncService.NoteRow> rows = new ArrayList<>(notes.size());
+        for (Map<String, Object> n : notes) {
+            Long noteIdx = toLong(n.get("note_idx"));
+            Long folderId = toLong(n.get("folder_id"));
+            rows.add(new PostgresSyncService.NoteRow(
+                    noteIdx,
+                    toLong(n.get("user_idx")),
+                    (String) n.get("title"),
+                    (String) n.get("content"),
+                    folderId,
+                    folderPaths.getOrDefault(folderId, "/"),
+                    tags.getOrDefault(noteIdx, List.of()).toArray(new String[0]),
+                    toDateTime(n.get("created_at")),
+                    false));
+        }
+        return rows;
+    }
+
+    @Override
+    public String keyOf(PostgresSyncService.NoteRow row) {
+        return String.valueOf(row.noteIdx());
+    }
+
+    @Override
+    public long countRemaining(String afterKey) {
+        Long count = mysqlTemplate.queryForObject(
+                "SELECT COUNT(*) FROM notes WHERE status = 'ACTIVE' AND note_idx > :after",
+                new MapSqlParameterSource("after", parseKey(afterKey)), Long.class);
+        return count == null ? 0 : count;
+    }
+
+    @Override
+    public String embeddingText(PostgresSyncService.NoteRow row) {
+        return row.content();
+    }
+
+    @Override
+    public int write(List<PostgresSyncService.NoteRow> rows, List<FloatVector> vectors) {
+        // 빈 본문은 컬럼 차원(1024)에 맞춘 영벡터
+        FloatVector zero = FloatVector.wrap(new float[EMBEDDING_DIM]);
+        List<FloatVector> filled = vectors.stream().map(v -> v == null ? zero : v).toList();
+        return postgresSyncService.upsertNotes(rows, filled);
+    }
+
+    private static long parseKey(String key) {
+        return key == null ? 0L : Long.parseLong(key);
+    }
+
+    private static Long toLong(Object value) {
+        return value instanceof Number n ? n.longValue() : null;
+    }
+
+    private static LocalDateTime toDateTime(Object value) {
+        if (value instanceof Timestamp ts) return ts.toLocalDateTime();
+        if (value instanceof LocalDateTime ldt) return ldt;
+        return null;
+    }
+}
@@ -0,0 +1,173 @@
+package com.smhrd.web.service;
+
+import com.smhrd.web.event.NoteDeletedEvent;
+import com.smhrd.web.event.NoteSavedEvent;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 사용자별 노트 검색 결과 캐시.
+ * 같은 세션에서 비슷한 질문을 다시 하면 임베딩 호출과 Postgres 검색(어휘/벡터)을 건너뛰고,
+ * 저장해 둔 note_idx 순위 목록으로 행만 다시 읽는다 (본문/스니펫은 캐시하지 않음).
+ *
+ * - 키: (userIdx, 정규화한 질의, 기간 필터, limit)
+ * - 해당 사용자의 NoteSavedEvent / NoteDeletedEvent 가 발행되면 그 사용자 캐시 전체 제거
+ * - 사용자마다 version 을 두어, 제거 전에 시작된 검색 결과가 제거 후에 들어오는 것을 막는다
+ */
+@Slf4j
+@Component
+public class NoteSearchCache {
+
+    /** 캐시되는 결과 한 건 (순위 정보만) */
+    public record ScoredId(Long noteIdx, Double score, Integer lexicalRank, Integer vectorRank, Double similarity) {}
+
+    private record Key(String query, LocalDateTime from, LocalDateTime to, int limit) {}
+
+    private record Entry(List<ScoredId> hits, long createdAt) {}
+
+    private static final class UserCache {
+        final AtomicLong version = new AtomicLong();
+        final LinkedHashMap<Key, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+        volatile long lastAccess = System.currentTimeMillis();
+    }
+
+    private final MeterRegistry meterRegistry;
+    private final Map<Long, UserCache> users = new ConcurrentHashMap<>();
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong lookups = new AtomicLong();
+
+    @Value("${note.search.cache.enabled:true}")
+    private boolean enabled;
+
+    @Value("${note.search.cache.ttl-seconds:600}")
+    private long ttlSeconds;
+
+    @Value("${note.search.cache.per-user:32}")
+    private int perUser;
+
+    @Value("${note.search.cache.max-users:5000}")
+    private int maxUsers;
+
+    public NoteSearchCache(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+        meterRegistry.gaugeMapSize("note.search.cache.users", List.of(), users);
+        meterRegistry.gauge("note.search.cache.hit_ratio", this,
+                c -> c.lookups.get() == 0 ? 0.0 : (double) c.hits.get() / c.lookups.get());
+    }
+
+    /** 검색 시작 전에 읽어 두었다가 put 에 넘긴다 */
+    public long version(Long userIdx) {
+        UserCache c = users.get(userIdx);
+        return c == null ? 0L : c.version.get();
+    }
+
+    public Optional<List<ScoredId>> get(Long userIdx, String query, LocalDateTime from, LocalDateTime to, int limit) {
+        if (!enabled || userIdx == null) return Optional.empty();
+        lookups.incrementAndGet();
+
+        UserCache c = users.get(userIdx);
+        Entry entry = null;
+        if (c != null) {
+            c.lastAccess = System.currentTimeMillis();
+            Key key = new Key(normalize(query), from, to, limit);
+            synchronized (c) {
+                entry = c.entries.get(key);
+                if (entry != null && isExpired(entry)) {
+                    c.entries.remove(key);
+                    entry = null;
+                }
+            }
+        }
+
+        if (entry == null) {
+            meterRegistry.counter("note.search.cache.requests", "result", "miss").increment();
+            return Optional.empty();
+        }
+        hits.incrementAndGet();
+        meterRegistry.counter("note.search.cache.requests", "result", "hit").increment();
+        return Optional.of(entry.hits());
+    }
+
+    public void put(Long userIdx, String query, LocalDateTime from, LocalDateTime to, int limit,
+                    List<ScoredId> result, long versionAtStart) {
+        if (!enabled || userIdx == null || result == null) return;
+
+        UserCache c = users.computeIfAbsent(userIdx, k -> new UserCache());
+        c.lastAccess = System.currentTimeMillis();
+        synchronized (c) {
+            // 검색 도중 노트가 저장/삭제됐으면 결과를 버린다
+            if (c.version.get() != versionAtStart) return;
+            c.entries.put(new Key(normalize(query), from, to, limit), new Entry(List.copyOf(result), System.currentTimeMillis()));
+            Iterator<Key> it = c.entries.keySet().iterator();
+            while (c.entries.size() > Math.max(1, perUser) && it.hasNext()) {
+                it.next();
+                it.remove();
+            }
+        }
+        if (users.size() > Math.max(1, maxUsers)) {
+            evictIdleUsers();
+        }
+    }
+
+    public void evictUser(Long userIdx, String reason) {
+        if (userIdx == null) return;
+        // 캐시가 없어도 version 을 올려 둔다 (진행 중인 검색이 옛 결과를 넣지 못하게)
+        UserCache c = users.computeIfAbsent(userIdx, k -> new UserCache());
+        synchronized (c) {
+            c.version.incrementAndGet();
+            if (c.entries.isEmpty()) return;
+            c.entries.clear();
+        }
+        meterRegistry.counter("note.search.cache.evictions", "reason", reason).increment();
+        log.debug("🧹 노트 검색 캐시 제거 - userIdx: {} ({})", userIdx, reason);
+    }
+
+    // 커밋 이후에 제거 (Postgres 반영은 아웃박스 릴레이가 비동기로 하므로 PostgresSyncService.sync 에서 한 번 더 제거)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onNoteSaved(NoteSavedEvent event) {
+        evictUser(event.getUserIdx(), "note_saved");
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onNoteDeleted(NoteDeletedEvent event) {
+        evictUser(event.getUserIdx(), "note_deleted");
+    }
+
+    // ====== 내부 ======
+
+    // 대소문자/공백/끝 문장부호 차이는 같은 질문으로 본다
+    static String normalize(String query) {
+        if (query == null) return "";
+        return query.strip()
+                .toLowerCase(Locale.ROOT)
+                .replaceAll("\\s+", " ")
+                .replaceAll("[?？!！.。~]+$", "");
+    }
+
+    private boolean isExpired(Entry entry) {
+        return System.currentTimeMillis() - entry.createdAt() > ttlSeconds * 1000L;
+    }
+
+    // 사용자 수 상한 초과 시 오래 안 쓴 사용자부터 절반까지 제거
+    private void evictIdleUsers() {
+        int target = Math.max(1, maxUsers) / 2;
+        users.entrySet().stream()
+                .sorted(Comparator.comparingLong(e -> e.getValue().lastAccess))
+                .limit(Math.max(0, users.size() - target))
+                .map(Map.Entry::getKey)
+                .toList()
+                .forEach(userIdx -> {
+                    users.remove(userIdx);
+                    meterRegistry.counter("note.search.cache.evictions", "reason", "capacity").increment();
+                });
+    }
+}
@@ -3,24 +3,22 @@ package com.smhrd.web.service;
 import com.smhrd.web.entity.*;
 import com.smhrd.web.repository.*;
 import com.smhrd.web.event.NoteSavedEvent;
+import com.smhrd.web.util.FloatVector;
+import com.smhrd.web.util.NoteContentHash;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.bson.Document;
-import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.mongodb.core.MongoTemplate;
-import org.springframework.http.MediaType;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.multipart.MultipartFile;
-import org.springframework.web.reactive.function.client.WebClient;
 
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
-import java.util.Optional;
 import java.util.stream.Collectors;
 
 @Service
@@ -34,11 +32,10 @@ public class NotionContentService {
     private final NoteTagRepository noteTagRepository;
     private final LLMUnifiedService llmUnifiedService;
     private final MongoTemplate mongoTemplate;
-    private final NoteFolderRepository noteFolderRepository;
+    private final NoteFolderPathService noteFolderPathService;
     private final ApplicationEventPublisher eventPublisher;
 
-    @Qualifier("embeddingClient")
-    private final WebClient embeddingClient;
+    private final EmbeddingService embeddingService;
 
     // ✅ 기존 saveNote 메서드 (MongoDB 저장 추가)
     @Transactional
@@ -197,7 +194,7 @@ public class NotionContentService {
     private void saveToMongoDB(long userIdx, Long noteIdx, String title, String content, String summary) {
         try {
             log.info("MongoDB 저장 - noteIdx: {}", noteIdx);
-            List<Float> embedding = generateEmbedding(summary != null ? summary : content);
+            FloatVector embedding = generateEmbedding(summary != null ? summary : content);
 
             // MySQL에서 태그와 폴더 정보 가져오기
             Note note = noteRepository.findById(noteIdx).orElse(null);
@@ -211,9 +208,7 @@ public class NotionContentService {
                     .collect(Collectors.toList());
 
                 // ✅ 폴더(카테고리) 경로 생성
-                if (note.getFolderId() != null) {
-                    category = buildFolderPath(note.getFolderId());
-                }
+                category = noteFolderPathService.joinedPath(note.getFolderId(), " > ");
             }
 
             Document doc = new Document();
@@ -224,7 +219,11 @@ public class NotionContentService {
             doc.put("summary", summary);
             doc.put("tags", tags);
             doc.put("category", category);
-            doc.put("embedding", embedding);
+            doc.put("embedding", embedding.toList());
+            // 드리프트 비교용 해시는 MySQL 노트 기준 (파일 업로드는 Mongo content 가 요약본이라 다름)
+            doc.put("content_hash", note != null
+                    ? NoteContentHash.of(note.getTitle(), note.getContent())
+                    : NoteContentHash.of(title, content));
             doc.put("created_at", LocalDateTime.now());
 
             mongoTemplate.save(doc, "user_notes");
@@ -234,54 +233,20 @@ public class NotionContentService {
         }
     }
 
-    // ✅ 폴더 경로 생성 헬퍼 메서드
-    private String buildFolderPath(Long folderId) {
-        List<String> path = new ArrayList<>();
-        Long currentId = folderId;
-
-        // 최대 10단계까지만 (무한루프 방지)
-        for (int i = 0; i < 10 && currentId != null; i++) {
-            Optional<NoteFolder> folder = noteFolderRepository.findById(currentId);
-            if (folder.isPresent()) {
-                path.add(0, folder.get().getFolderName()); // 앞에 추가
-                currentId = folder.get().getParentFolderId();
-            } else {
-                break;
-            }
-        }
-
-        return path.isEmpty() ? null : String.join(" > ", path);
-    }
-
-    private List<Float> generateEmbedding(String text) {
+    private FloatVector generateEmbedding(String text) {
         try {
             if (text == null || text.isBlank()) {
-                return new ArrayList<>();
+                return FloatVector.EMPTY;
             }
 
             if (text.length() > 1000) {
                 text = text.substring(0, 1000);
             }
 
-            Map<String, Object> response = embeddingClient.post()
-                .uri("/embed")
-                .contentType(MediaType.APPLICATION_JSON)
-                .bodyValue(Map.of("texts", List.of(text)))
-                .retrieve()
-                .bodyToMono(Map.class)
-                .block();
-
-            if (response == null) return new ArrayList<>();
-
-            List<List<Double>> embeddings = (List<List<Double>>) response.get("embeddings");
-            if (embeddings == null || embeddings.isEmpty()) return new ArrayList<>();
-
-            return embeddings.get(0).stream()
-                .map(Double::floatValue)
-                .collect(Collectors.toList());
+            return embeddingService.embed(text);
         } catch (Exception e) {
             log.error("임베딩 생성 실패: {}", e.getMessage());
-            return new ArrayList<>();
+            return FloatVector.EMPTY;
         }
     }
 
@@ -0,0 +1,373 @@
+package com.smhrd.web.service;
+
+import com.smhrd.web.entity.Note;
+import com.smhrd.web.entity.TestResult;
+import com.smhrd.web.entity.UserAnswer;
+import com.smhrd.web.repository.NoteRepository;
+import com.smhrd.web.repository.TestResultRepository;
+import com.smhrd.web.repository.UserAnswerRepository;
+import com.smhrd.web.util.FloatVector;
+import com.smhrd.web.util.PgVector;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.function.Supplier;
+
+/**
+ * MySQL 노트/시험 결과를 Postgres(user_notes, exam_results, wrong_answer_notes)에 배치로 반영.
+ * SyncOutboxRelay 가 모은 대상 id 목록을 받아
+ *   1) MySQL 에서 한 번에 읽고 (읽기 전용 트랜잭션, 임베딩 호출 전에 종료)
+ *   2) 임베딩이 필요한 본문을 embedAll 한 번으로 요청하고
+ *   3) 테이블별 JDBC batch 로 upsert 한다.
+ * 모든 쓰기는 upsert/delete 라 같은 배치를 다시 적용해도 결과가 같다 (재시도 안전).
+ */
+@Slf4j
+@Service
+public class PostgresSyncService {
+
+    private static final int EMBEDDING_DIM = 1024;
+
+    /** user_notes 에 반영할 노트 한 건 (deleted 면 삭제) */
+    public record NoteRow(Long noteIdx, Long userIdx, String title, String content, Long folderId,
+                   String folderPath, String[] tags, LocalDateTime createdAt, boolean deleted) {}
+
+    record WrongAnswerRow(Long testSourceIdx, String question, String correctAnswer, String userAnswer,
+                          String category, String content) {}
+
+    record ExamRow(TestResult result, Long userIdx, Long testIdx, List<WrongAnswerRow> wrongAnswers) {}
+
+    /** 반영 결과 (캐시 제거 대상 사용자 포함) */
+    public record SyncResult(int notesUpserted, int notesDeleted, int examsUpserted, int wrongAnswersUpserted,
+                             Set<Long> touchedUsers) {}
+
+    private final NoteRepository noteRepository;
+    private final TestResultRepository testResultRepository;
+    private final UserAnswerRepository userAnswerRepository;
+    private final EmbeddingService embeddingService;
+    private final NoteSearchCache noteSearchCache;
+    private final MeterRegistry meterRegistry;
+    private final NamedParameterJdbcTemplate postgresTemplate;
+    private final NoteFolderPathService noteFolderPathService;
+    private final TransactionTemplate readOnlyTx;
+
+    public PostgresSyncService(NoteRepository noteRepository,
+                               TestResultRepository testResultRepository,
+                               UserAnswerRepository userAnswerRepository,
+                               EmbeddingService embeddingService,
+                               NoteSearchCache noteSearchCache,
+                               MeterRegistry meterRegistry,
+                               @Qualifier("postgresNamedParameterJdbcTemplate") NamedParameterJdbcTemplate postgresTemplate,
+                               NoteFolderPathService noteFolderPathService,
+                               PlatformTransactionManager transactionManager) {
+        this.noteRepository = noteRepository;
+        this.testResultRepository = testResultRepository;
+        this.userAnswerRepository = userAnswerRepository;
+        this.embeddingService = embeddingService;
+        this.noteSearchCache = noteSearchCache;
+        this.meterRegistry = meterRegistry;
+        this.postgresTemplate = postgresTemplate;
+        this.noteFolderPathService = noteFolderPathService;
+        this.readOnlyTx = new TransactionTemplate(transactionManager);
+        this.readOnlyTx.setReadOnly(true);
+    }
+
+    /**
+     * 노트/시험 결과 id 목록을 Postgres 에 반영. 임베딩/DB 오류는 그대로 던져 배치 전체를 재시도하게 한다.
+     */
+    public SyncResult sync(Collection<Long> noteIds, Collection<Long> resultIds) {
+        // 1) MySQL 읽기
+        List<NoteRow> notes = new ArrayList<>();
+        List<ExamRow> exams = new ArrayList<>();
+        timed("load", () -> readOnlyTx.execute(status -> {
+            notes.addAll(loadNotes(noteIds));
+            exams.addAll(loadExams(resultIds));
+            return null;
+        }));
+
+        List<NoteRow> upserts = notes.stream().filter(n -> !n.deleted()).toList();
+        List<Long> deletes = notes.stream().filter(NoteRow::deleted).map(NoteRow::noteIdx).toList();
+        List<WrongAnswerRow> wrongAnswers = exams.stream().flatMap(e -> e.wrongAnswers().stream()).toList();
+
+        // 2) 임베딩 (노트 본문 + 오답 노트 본문을 한 번에)
+        List<String> texts = new ArrayList<>(upserts.size() + wrongAnswers.size());
+        upserts.forEach(n -> texts.add(n.content()));
+        wrongAnswers.forEach(w -> texts.add(w.content()));
+        List<FloatVector> vectors = timed("embed", () -> embedAll(texts));
+
+        // 3) Postgres batch upsert / delete
+        int[] counts = timed("upsert", () -> {
+            int noteCount = upsertNotes(upserts, vectors.subList(0, upserts.size()));
+            int deleted = deleteNotes(deletes);
+            int examCount = upsertExams(exams);
+            int wrongCount = upsertWrongAnswers(exams, vectors.subList(upserts.size(), vectors.size()));
+            return new int[]{noteCount, deleted, examCount, wrongCount};
+        });
+
+        Set<Long> touchedUsers = new HashSet<>();
+        notes.stream().map(NoteRow::userIdx).filter(Objects::nonNull).forEach(touchedUsers::add);
+        // 커밋 직후 제거 이후 ~ Postgres 반영 전 사이에 캐시된 검색 결과 제거
+        touchedUsers.forEach(userIdx -> noteSearchCache.evictUser(userIdx, "note_synced"));
+        exams.forEach(e -> touchedUsers.add(e.userIdx()));
+
+        return new SyncResult(counts[0], counts[1], counts[2], counts[3], touchedUsers);
+    }
+
+    // ====== MySQL 읽기 ======
+
+    private List<NoteRow> loadNotes(Collection<Long> noteIds) {
+        if (noteIds.isEmpty()) return List.of();
+
+        Map<Long, Note> found = new HashMap<>();
+        noteRepository.findAllById(noteIds).forEach(n -> found.put(n.getNoteIdx(), n));
+
+        // 배치 안 노트들의 폴더 경로를 한 번에 조회
+        Map<Long, String> folderPaths = noteFolderPathService.slashPaths(
+                found.values().stream().map(Note::getFolderId).filter(Objects::nonNull).toList());
+
+        List<NoteRow> rows = new ArrayList<>(noteIds.size());
+        for (Long noteIdx : noteIds) {
+            Note note = found.get(noteIdx);
+            // MySQL 에서 사라졌거나 소프트 삭제된 노트는 Postgres 에서도 삭제
+            if (note == null || !"ACTIVE".equals(note.getStatus())) {
+                Long userIdx = note == null ? null : note.getUser().getUserIdx();
+                rows.add(new NoteRow(noteIdx, userIdx, null, null, null, null, null, null, true));
+                continue;
+            }
+            rows.add(new NoteRow(
+                    note.getNoteIdx(),
+                    note.getUser().getUserIdx(),
+                    note.getTitle(),
+                    note.getContent(),
+                    note.getFolderId(),
+                    folderPaths.getOrDefault(note.getFolderId(), "/"),
+                    getNoteTags(note),
+                    note.getCreatedAt(),
+                    false));
+        }
+        return rows;
+    }
+
+    private List<ExamRow> loadExams(Collection<Long> resultIds) {
+        if (resultIds.isEmpty()) return List.of();
+
+        List<ExamRow> rows = new ArrayList<>(resultIds.size());
+        for (TestResult result : testResultRepository.findAllById(resultIds)) {
+            List<UserAnswer> answers = userAnswerRepository
+                    .findByResultResultIdxOrderByTestSourceTestSourceIdxAsc(result.getResultIdx());
+
+            List<WrongAnswerRow> wrong = new ArrayList<>();
+            for (UserAnswer answer : answers) {
+                if (Boolean.TRUE.equals(answer.getIsCorrect())) continue;
+                String question = answer.getTestSource().getQuestion();
+                String correctAnswer = answer.getTestSource().getAnswer();
+                String userAnswer = answer.getUserAnswer();
+                String category = answer.getTestSource().getCategoryLarge();
+
+                String content = String.format("""
+                    [틀린 문제]
+                    %s
+                    
+                    [정답]: %s
+                    [내 답]: %s
+                    
+                    [카테고리]: %s
+                    [시험]: %s
+                    [시험 날짜]: %s
+                    """,
+                        question, correctAnswer, userAnswer,
+                        category, result.getTest().getTestTitle(), result.getCreatedAt());
+
+                wrong.add(new WrongAnswerRow(answer.getTestSource().getTestSourceIdx(),
+                        question, correctAnswer, userAnswer, category, content));
+            }
+            rows.add(new ExamRow(result, result.getUser().getUserIdx(), result.getTest().getTestIdx(), wrong));
+        }
+        return rows;
+    }
+
+    private String[] getNoteTags(Note note) {
+        if (note.getNoteTags() == null || note.getNoteTags().isEmpty()) {
+            return new String[0];
+        }
+
+        try {
+            return note.getNoteTags().stream()
+                    .map(noteTag -> noteTag.getTag().getName())
+                    .toArray(String[]::new);
+        } catch (Exception e) {
+            log.warn("⚠️ 태그 추출 실패 (noteIdx={}): {}", note.getNoteIdx(), e.getMessage());
+            return new String[0];
+        }
+    }
+
+    // ====== 임베딩 ======
+
+    // 빈 본문은 호출 없이 컬럼 차원(1024)에 맞춘 영벡터, 나머지는 한 번에 요청 (실패 시 예외 → 배치 재시도)
+    private List<FloatVector> embedAll(List<String> texts) {
+        FloatVector zero = FloatVector.wrap(new float[EMBEDDING_DIM]);
+        List<FloatVector> result = new ArrayList<>(Collections.nCopies(texts.size(), zero));
+
+        List<Integer> positions = new ArrayList<>();
+        List<String> inputs = new ArrayList<>();
+        for (int i = 0; i < texts.size(); i++) {
+            String t = texts.get(i);
+            if (t == null || t.isBlank()) continue;
+            positions.add(i);
+            inputs.add(t.trim());
+        }
+        if (inputs.isEmpty()) return result;
+
+        List<FloatVector> vectors = embeddingService.embedAll(inputs);
+        for (int i = 0; i < positions.size(); i++) {
+            result.set(positions.get(i), vectors.get(i));
+        }
+        return result;
+    }
+
+    // ====== Postgres 쓰기 ======
+
+    /** user_notes batch upsert (vectors 는 notes 와 같은 순서). 대량 마이그레이션(NotePostgresMigration)도 사용 */
+    public int upsertNotes(List<NoteRow> notes, List<FloatVector> vectors) {
+        if (notes.isEmpty()) return 0;
+
+        String sql = """
+            INSERT INTO user_notes
+            (note_idx, user_idx, title, content, embedding, folder_id, folder_path, tags, created_at)
+            VALUES
+            (:noteIdx, :userIdx, :title, :content, CAST(:embedding AS vector),
+             :folderId, :folderPath, :tags, :createdAt)
+            ON CONFLICT (note_idx) DO UPDATE SET
+                title = EXCLUDED.title,
+                content = EXCLUDED.content,
+                embedding = EXCLUDED.embedding,
+                folder_id = EXCLUDED.folder_id,
+                folder_path = EXCLUDED.folder_path,
+                tags = EXCLUDED.tags,
+                updated_at = CURRENT_TIMESTAMP
+            """;
+
+        MapSqlParameterSource[] batch = new MapSqlParameterSource[notes.size()];
+        for (int i = 0; i < notes.size(); i++) {
+            NoteRow n = notes.get(i);
+            batch[i] = new MapSqlParameterSource()
+                    .addValue("noteIdx", n.noteIdx())
+                    .addValue("userIdx", n.userIdx())
+                    .addValue("title", n.title())
+                    .addValue("content", n.content())
+                    .addValue("embedding", PgVector.of(vectors.get(i)))
+                    .addValue("folderId", n.folderId())
+                    .addValue("folderPath", n.folderPath())
+                    .addValue("tags", n.tags())
+                    .addValue("createdAt", n.createdAt());
+        }
+        postgresTemplate.batchUpdate(sql, batch);
+        return notes.size();
+    }
+
+    private int deleteNotes(List<Long> noteIds) {
+        if (noteIds.isEmpty()) return 0;
+        return postgresTemplate.update(
+                "DELETE FROM user_notes WHERE note_idx IN (:noteIds)",
+                new MapSqlParameterSource("noteIds", noteIds));
+    }
+
+    private int upsertExams(List<ExamRow> exams) {
+        if (exams.isEmpty()) return 0;
+
+        String sql = """
+            INSERT INTO exam_results
+            (result_idx, user_idx, test_idx, total_score, user_score, correct_count, wrong_count,
+             test_duration, passed, start_time, end_time, created_at)
+            VALUES
+            (:resultIdx, :userIdx, :testIdx, :totalScore, :userScore, :correctCount, :wrongCount,
+             :testDuration, :passed, :startTime, :endTime, :createdAt)
+            ON CONFLICT (result_idx) DO UPDATE SET
+                total_score = EXCLUDED.total_score,
+                user_score = EXCLUDED.user_score,
+                correct_count = EXCLUDED.correct_count,
+                wrong_count = EXCLUDED.wrong_count,
+                passed = EXCLUDED.passed,
+                updated_at = CURRENT_TIMESTAMP
+            """;
+
+        MapSqlParameterSource[] batch = new MapSqlParameterSource[exams.size()];
+        for (int i = 0; i < exams.size(); i++) {
+            ExamRow e = exams.get(i);
+            TestResult result = e.result();
+            batch[i] = new MapSqlParameterSource()
+                    .addValue("resultIdx", result.getResultIdx())
+                    .addValue("userIdx", e.userIdx())
+                    .addValue("testIdx", e.testIdx())
+                    .addValue("totalScore", result.getTotalScore())
+                    .addValue("userScore", result.getUserScore())
+                    .addValue("correctCount", result.getCorrectCount())
+                    .addValue("wrongCount", result.getWrongCount())
+                    .addValue("testDuration", result.getTestDuration())
+                    .addValue("passed", result.getPassed())
+                    .addValue("startTime", result.getStartTime())
+                    .addValue("endTime", result.getEndTime())
+                    .addValue("createdAt", result.getCreatedAt());
+        }
+        postgresTemplate.batchUpdate(sql, batch);
+        return exams.size();
+    }
+
+    private int upsertWrongAnswers(List<ExamRow> exams, List<FloatVector> vectors) {
+        if (vectors.isEmpty()) return 0;
+
+        String sql = """
+            INSERT INTO wrong_answer_notes
+            (user_idx, result_idx, test_source_idx, question, correct_answer, user_answer,
+             category, content, embedding, created_at)
+            VALUES
+            (:userIdx, :resultIdx, :testSourceIdx, :question, :correctAnswer, :userAnswer,
+             :category, :content, CAST(:embedding AS vector), :createdAt)
+            ON CONFLICT (result_idx, test_source_idx) DO UPDATE SET
+                content = EXCLUDED.content,
+                embedding = EXCLUDED.embedding,
+                updated_at = CURRENT_TIMESTAMP
+            """;
+
+        List<MapSqlParameterSource> batch = new ArrayList<>(vectors.size());
+        int v = 0;
+        for (ExamRow e : exams) {
+            for (WrongAnswerRow w : e.wrongAnswers()) {
+                batch.add(new MapSqlParameterSource()
+                        .addValue("userIdx", e.userIdx())
+                        .addValue("resultIdx", e.result().getResultIdx())
+                        .addValue("testSourceIdx", w.testSourceIdx())
+                        .addValue("question", w.question())
+                        .addValue("correctAnswer", w.correctAnswer())
+                        .addValue("userAnswer", w.userAnswer())
+                        .addValue("category", w.category())
+                        .addValue("content", w.content())
+                        .addValue("embedding", PgVector.of(vectors.get(v++)))
+                        .addValue("createdAt", e.result().getCreatedAt()));
+            }
+        }
+        postgresTemplate.batchUpdate(sql, batch.toArray(new MapSqlParameterSource[0]));
+        return batch.size();
+    }
+
+    private <T> T timed(String stage, Supplier<T> body) {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String outcome = "success";
+        try {
+            return body.get();
+        } catch (RuntimeException e) {
+            outcome = "error";
+            throw e;
+        } finally {
+            sample.stop(meterRegistry.timer("sync.outbox.stage", "stage", stage, "outcome", outcome));
+        }
+    }
+}
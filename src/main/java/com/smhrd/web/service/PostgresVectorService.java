@@ -1,14 +1,30 @@
 package com.smhrd.web.service;
 
+import com.smhrd.web.dto.NoteSearchHit;
+import com.smhrd.web.util.FloatVector;
+import com.smhrd.web.util.PgVector;
 import lombok.extern.slf4j.Slf4j;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.PGCopyOutputStream;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.RowMapper;
 import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
 import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
 import org.springframework.stereotype.Service;
 import org.springframework.jdbc.core.JdbcTemplate;
 
 import javax.sql.DataSource;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
 import java.time.LocalDateTime;
 import java.util.*;
 
@@ -22,6 +38,40 @@ public class PostgresVectorService {
     @Qualifier("postgresNamedParameterJdbcTemplate")
     private NamedParameterJdbcTemplate namedParameterJdbcTemplate;
 
+    @Autowired
+    private VectorIndexManager vectorIndexManager;
+
+    // 이 건수 이상이면 batch INSERT 대신 COPY BINARY → 임시 테이블 → upsert 경로 사용
+    @Value("${postgres.vector.copy-threshold:500}")
+    private int copyThreshold;
+
+    @Value("${postgres.vector.batch-size:200}")
+    private int batchSize;
+
+    // SNIPPET 검색 결과에 담는 본문 글자 수
+    @Value("${note.search.snippet-chars:160}")
+    private int snippetChars;
+
+    /** saveUserNotes 입력 한 건 */
+    public record UserNoteRow(Long userIdx, Long noteIdx, String title, String content, FloatVector embedding) {}
+
+    private static final String UPSERT_USER_NOTE_SQL = """
+            INSERT INTO user_notes (user_idx, note_idx, title, content, embedding, created_at)
+            VALUES (:userId, :noteIdx, :title, :content, :embedding, NOW())
+            ON CONFLICT (note_idx) DO UPDATE SET
+                title = EXCLUDED.title,
+                content = EXCLUDED.content,
+                embedding = EXCLUDED.embedding,
+                updated_at = NOW()
+            """;
+
+    // COPY BINARY 파일 시그니처 + flags(0) + 헤더 확장 길이(0)
+    private static final byte[] COPY_BINARY_HEADER = {
+            'P', 'G', 'C', 'O', 'P', 'Y', '\n', (byte) 0xff, '\r', '\n', 0,
+            0, 0, 0, 0,
+            0, 0, 0, 0
+    };
+
     // ✅ PostgreSQL DataSource만 주입
     public PostgresVectorService(@Qualifier("postgresDataSource") DataSource dataSource) {
         this.postgresJdbcTemplate = new JdbcTemplate(dataSource);
@@ -64,33 +114,59 @@ public class PostgresVectorService {
     }
 
     /**
-     * 벡터 검색
+     * 벡터 검색 (기본 검색 프로필, 제목만)
      */
-    public List<Map<String, Object>> searchVectors(
+    public List<NoteSearchHit> searchVectors(
             Long userId,
-            List<Float> queryVector,
+            FloatVector queryVector,
             LocalDateTime startDate,
             LocalDateTime endDate,
             int limit) {
+        return searchVectors(userId, queryVector, startDate, endDate, limit,
+                NoteSearchHit.Projection.TITLE, null, vectorIndexManager.defaultProfile());
+    }
+
+    /**
+     * 벡터 검색
+     * content 전체는 가져오지 않는다. SNIPPET 이면 queryText 에서 고른 검색어 주변 snippet-chars 글자만 잘라 온다
+     * (검색어가 없거나 본문에 없으면 앞부분). 본문 전체가 필요하면 loadNoteContent 사용.
+     *
+     * ANN 인덱스는 user_idx/기간 조건을 스캔 후에 거르므로 limit 보다 적게 나오면 정확 검색(EXACT)으로 한 번 더 조회한다.
+     */
+    public List<NoteSearchHit> searchVectors(
+            Long userId,
+            FloatVector queryVector,
+            LocalDateTime startDate,
+            LocalDateTime endDate,
+            int limit,
+            NoteSearchHit.Projection projection,
+            String queryText,
+            VectorIndexManager.Profile profile) {
         try {
-            log.info("🔍 pgvector 검색 시작 - userId: {}, vector_dim: {}", userId, queryVector.size());
+            log.info("🔍 pgvector 검색 시작 - userId: {}, vector_dim: {}, projection: {}, profile: {}",
+                    userId, queryVector.dimension(), projection, profile);
 
             if (userId == null || userId <= 0) {
                 log.warn("⚠️ 유효하지 않은 userId: {}", userId);
                 return new ArrayList<>();
             }
 
-            String vectorStr = "[" + String.join(",",
-                    queryVector.stream().map(Object::toString).toArray(String[]::new)) + "]";
+            NoteSearchHit.Projection proj = projection != null ? projection : NoteSearchHit.Projection.TITLE;
+            String term = proj == NoteSearchHit.Projection.SNIPPET ? bestTerm(queryText) : null;
 
-            String sql = """
-                    SELECT
-                        note_idx,
-                        user_idx,
-                        title,
-                        content,
-                        ROUND((1 - (embedding <=> :vector::vector))::numeric, 4) as similarity,
-                        created_at
+            String columns = switch (proj) {
+                case IDS -> "note_idx";
+                case TITLE -> "note_idx, user_idx, title, created_at";
+                case SNIPPET -> "note_idx, user_idx, title, created_at, length(content) AS content_length, "
+                        + (term == null
+                        ? "left(content, :window) AS snippet"
+                        : "CASE WHEN strpos(lower(content), lower(:term)) = 0 THEN left(content, :window) "
+                        + "ELSE substr(content, greatest(1, strpos(lower(content), lower(:term)) - :half), :window) END AS snippet");
+            };
+
+            String sql = "SELECT " + columns + """
+                    ,
+                        ROUND((1 - (embedding <=> :vector::vector))::numeric, 4) as similarity
                     FROM user_notes
                     WHERE user_idx = :userId
                       AND embedding IS NOT NULL
@@ -102,13 +178,45 @@ public class PostgresVectorService {
 
             MapSqlParameterSource params = new MapSqlParameterSource()
                     .addValue("userId", userId)
-                    .addValue("vector", vectorStr)
-                    .addValue("limit", limit);
+                    .addValue("vector", PgVector.of(queryVector))
+                    .addValue("limit", limit)
+                    .addValue("window", snippetChars)
+                    .addValue("half", snippetChars / 3);
 
+            if (term != null) params.addValue("term", term);
             if (startDate != null) params.addValue("startDate", startDate);
             if (endDate != null) params.addValue("endDate", endDate);
 
-            List<Map<String, Object>> results = namedParameterJdbcTemplate.queryForList(sql, params);
+            RowMapper<NoteSearchHit> mapper = (rs, rowNum) -> {
+                NoteSearchHit.NoteSearchHitBuilder hit = NoteSearchHit.builder()
+                        .noteIdx(rs.getLong("note_idx"))
+                        .similarity(rs.getDouble("similarity"));
+                if (proj != NoteSearchHit.Projection.IDS) {
+                    Timestamp createdAt = rs.getTimestamp("created_at");
+                    hit.userIdx(rs.getLong("user_idx"))
+                            .title(rs.getString("title"))
+                            .createdAt(createdAt != null ? createdAt.toLocalDateTime() : null);
+                }
+                if (proj == NoteSearchHit.Projection.SNIPPET) {
+                    int length = rs.getInt("content_length");
+                    hit.contentLength(length).snippet(ellipsize(rs.getString("snippet"), length));
+                }
+                return hit.build();
+            };
+
+            List<NoteSearchHit> results = vectorIndexManager.inProfile(profile, t -> t.query(sql, params, mapper));
+            // ANN 결과가 모자랄 때만 정확 검색으로 다시: iterative scan 이 꺼져 있고 실제로 더 가져올 행이 있을 때
+            // (노트가 limit 보다 적은 대부분의 사용자는 여기서 바로 반환)
+            if (results.size() < limit && profile != VectorIndexManager.Profile.EXACT
+                    && !vectorIndexManager.isIterativeScan()
+                    && countEmbedded(userId, startDate, endDate, limit) > results.size()) {
+                List<NoteSearchHit> exact = vectorIndexManager.inProfile(
+                        VectorIndexManager.Profile.EXACT, t -> t.query(sql, params, mapper));
+                if (exact.size() > results.size()) {
+                    log.info("🔁 ANN 결과 부족 ({} < {}) → 정확 검색 결과 사용", results.size(), limit);
+                    results = exact;
+                }
+            }
             log.info("✅ pgvector 검색 완료: {} 개 결과 (userId: {})", results.size(), userId);
             return results;
 
@@ -118,6 +226,65 @@ public class PostgresVectorService {
         }
     }
 
+    // 사용자의 임베딩 있는 노트 수 (limit 까지만 셈, user_idx 인덱스로 처리)
+    private int countEmbedded(Long userId, LocalDateTime startDate, LocalDateTime endDate, int limit) {
+        String sql = """
+                SELECT COUNT(*) FROM (
+                    SELECT 1 FROM user_notes
+                    WHERE user_idx = :userId
+                      AND embedding IS NOT NULL
+                """ + (startDate != null ? " AND created_at >= :startDate" : "") +
+                (endDate != null ? " AND created_at <= :endDate" : "") + """
+
+                    LIMIT :limit
+                ) t
+                """;
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("userId", userId)
+                .addValue("limit", limit);
+        if (startDate != null) params.addValue("startDate", startDate);
+        if (endDate != null) params.addValue("endDate", endDate);
+        Integer count = namedParameterJdbcTemplate.queryForObject(sql, params, Integer.class);
+        return count == null ? 0 : count;
+    }
+
+    /**
+     * 노트 본문 전체 (검색 결과에서 사용자가 펼쳐 볼 때만)
+     */
+    public Optional<String> loadNoteContent(Long userId, Long noteIdx) {
+        try {
+            List<String> rows = namedParameterJdbcTemplate.queryForList(
+                    "SELECT content FROM user_notes WHERE user_idx = :userId AND note_idx = :noteIdx",
+                    new MapSqlParameterSource()
+                            .addValue("userId", userId)
+                            .addValue("noteIdx", noteIdx),
+                    String.class);
+            return rows.isEmpty() ? Optional.empty() : Optional.ofNullable(rows.get(0));
+        } catch (Exception e) {
+            log.error("❌ 노트 본문 조회 실패 - userId: {}, noteIdx: {}", userId, noteIdx, e);
+            return Optional.empty();
+        }
+    }
+
+    /** 스니펫 기준이 될 검색어: 질의에서 가장 긴 단어 (2자 이상) */
+    static String bestTerm(String queryText) {
+        if (queryText == null) return null;
+        String best = null;
+        for (String token : queryText.split("[\\s\\p{Punct}]+")) {
+            if (token.length() >= 2 && (best == null || token.length() > best.length())) {
+                best = token;
+            }
+        }
+        return best;
+    }
+
+    // 본문 일부만 잘라 왔으면 말줄임표
+    private String ellipsize(String snippet, int contentLength) {
+        if (snippet == null) return null;
+        String s = snippet.replaceAll("\\s+", " ").strip();
+        return snippet.length() < contentLength ? s + "…" : s;
+    }
+
     /**
      * 사용자 노트 개수
      */
@@ -183,16 +350,13 @@ public class PostgresVectorService {
             Long noteIdx,
             String title,
             String content,
-            List<Float> embedding) {
+            FloatVector embedding) {
         try {
             if (embedding == null || embedding.isEmpty()) {
                 log.warn("⚠️ 임베딩이 없습니다");
                 return false;
             }
 
-            String vectorStr = "[" + String.join(",",
-                    embedding.stream().map(Object::toString).toArray(String[]::new)) + "]";
-
             String sql = """
                     INSERT INTO user_notes (user_idx, note_idx, title, content, embedding, created_at)
                     VALUES (:userId, :noteIdx, :title, :content, :embedding::vector, NOW())
@@ -208,7 +372,7 @@ public class PostgresVectorService {
                             .addValue("noteIdx", noteIdx)
                             .addValue("title", title)
                             .addValue("content", content)
-                            .addValue("embedding", vectorStr)
+                            .addValue("embedding", PgVector.of(embedding))
             );
 
             log.info("✅ 노트 저장: userId={}, noteIdx={}, result={}", userId, noteIdx, saved);
@@ -219,4 +383,145 @@ public class PostgresVectorService {
             return false;
         }
     }
+
+    /**
+     * 노트 일괄 저장 (재임베딩/마이그레이션용).
+     * 같은 noteIdx가 여러 번 있으면 마지막 값만 사용하고, 임베딩이 없는 행은 건너뛴다.
+     * copy-threshold 미만: JDBC batch upsert / 이상: COPY BINARY 로 임시 테이블 적재 후 한 번에 upsert
+     *
+     * @return 저장(INSERT/UPDATE)된 행 수
+     */
+    public int saveUserNotes(List<UserNoteRow> rows) {
+        if (rows == null || rows.isEmpty()) return 0;
+
+        Map<Long, UserNoteRow> unique = new LinkedHashMap<>();
+        for (UserNoteRow row : rows) {
+            if (row == null || row.noteIdx() == null || row.embedding() == null || row.embedding().isEmpty()) continue;
+            unique.put(row.noteIdx(), row);
+        }
+        if (unique.isEmpty()) {
+            log.warn("⚠️ 저장할 노트가 없습니다 (임베딩 누락 {}건)", rows.size());
+            return 0;
+        }
+        List<UserNoteRow> list = new ArrayList<>(unique.values());
+
+        long start = System.currentTimeMillis();
+        try {
+            int saved = list.size() >= copyThreshold ? copyUpsert(list) : batchUpsert(list);
+            log.info("✅ 노트 일괄 저장: {}건 (요청 {}건, {}, {}ms)", saved, rows.size(),
+                    list.size() >= copyThreshold ? "COPY" : "batch", System.currentTimeMillis() - start);
+            return saved;
+        } catch (Exception e) {
+            log.error("❌ 노트 일괄 저장 실패 ({}건)", list.size(), e);
+            return 0;
+        }
+    }
+
+    private int batchUpsert(List<UserNoteRow> rows) {
+        int saved = 0;
+        int size = Math.max(1, batchSize);
+        for (int from = 0; from < rows.size(); from += size) {
+            List<UserNoteRow> chunk = rows.subList(from, Math.min(rows.size(), from + size));
+            SqlParameterSource[] batch = new SqlParameterSource[chunk.size()];
+            for (int i = 0; i < chunk.size(); i++) {
+                UserNoteRow row = chunk.get(i);
+                batch[i] = new MapSqlParameterSource()
+                        .addValue("userId", row.userIdx())
+                        .addValue("noteIdx", row.noteIdx())
+                        .addValue("title", row.title())
+                        .addValue("content", row.content())
+                        .addValue("embedding", PgVector.of(row.embedding()));
+            }
+            for (int n : namedParameterJdbcTemplate.batchUpdate(UPSERT_USER_NOTE_SQL, batch)) {
+                // SUCCESS_NO_INFO(-2)는 성공 1건으로 계산
+                saved += n == Statement.SUCCESS_NO_INFO ? 1 : Math.max(0, n);
+            }
+        }
+        return saved;
+    }
+
+    private int copyUpsert(List<UserNoteRow> rows) {
+        Integer saved = postgresJdbcTemplate.execute((ConnectionCallback<Integer>) conn -> {
+            boolean autoCommit = conn.getAutoCommit();
+            conn.setAutoCommit(false);
+            try {
+                try (Statement st = conn.createStatement()) {
+                    st.execute("""
+                            CREATE TEMP TABLE tmp_user_notes_load (
+                                user_idx BIGINT, note_idx BIGINT, title TEXT, content TEXT, embedding vector
+                            ) ON COMMIT DROP
+                            """);
+                }
+
+                writeCopyBinary(conn, rows);
+
+                int count;
+                try (Statement st = conn.createStatement()) {
+                    count = st.executeUpdate("""
+                            INSERT INTO user_notes (user_idx, note_idx, title, content, embedding, created_at)
+                            SELECT user_idx, note_idx, title, content, embedding, NOW() FROM tmp_user_notes_load
+                            ON CONFLICT (note_idx) DO UPDATE SET
+                                title = EXCLUDED.title,
+                                content = EXCLUDED.content,
+                                embedding = EXCLUDED.embedding,
+                                updated_at = NOW()
+                            """);
+                }
+                conn.commit();
+                return count;
+            } catch (SQLException | RuntimeException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(autoCommit);
+            }
+        });
+        return saved != null ? saved : 0;
+    }
+
+    // 컬럼 순서: user_idx, note_idx, title, content, embedding
+    private void writeCopyBinary(Connection conn, List<UserNoteRow> rows) throws SQLException {
+        PGConnection pg = conn.unwrap(PGConnection.class);
+        String sql = "COPY tmp_user_notes_load (user_idx, note_idx, title, content, embedding) FROM STDIN (FORMAT BINARY)";
+        byte[] vectorBuf = new byte[0];
+
+        try (DataOutputStream out = new DataOutputStream(new PGCopyOutputStream(pg, sql, 1 << 16))) {
+            out.write(COPY_BINARY_HEADER);
+            for (UserNoteRow row : rows) {
+                out.writeShort(5);
+                writeLong(out, row.userIdx());
+                writeLong(out, row.noteIdx());
+                writeText(out, row.title());
+                writeText(out, row.content());
+
+                int len = 4 + 4 * row.embedding().dimension();
+                if (vectorBuf.length < len) vectorBuf = new byte[len];
+                PgVector.writeBinary(row.embedding(), vectorBuf, 0);
+                out.writeInt(len);
+                out.write(vectorBuf, 0, len);
+            }
+            out.writeShort(-1);
+        } catch (IOException e) {
+            throw new SQLException("COPY BINARY 전송 실패: " + e.getMessage(), e);
+        }
+    }
+
+    private static void writeLong(DataOutputStream out, Long value) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+            return;
+        }
+        out.writeInt(8);
+        out.writeLong(value);
+    }
+
+    private static void writeText(DataOutputStream out, String value) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
 }
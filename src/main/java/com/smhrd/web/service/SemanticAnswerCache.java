@@ -0,0 +1,237 @@
+package com.smhrd.web.service;
+
+import com.mongodb.client.model.IndexOptions;
+import com.mongodb.client.model.Indexes;
+import com.smhrd.web.util.CosineLshIndex;
+import com.smhrd.web.util.FloatVector;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 챗봇 답변 의미 캐시.
+ * 개인 데이터가 들어가지 않는 일반 대화 답변을 질문 임베딩과 함께 저장하고,
+ * 새 질문과의 코사인 유사도가 threshold 이상이면 저장된 답변을 그대로 돌려준다.
+ *
+ * - 저장소: MongoDB chat_answer_cache (created_at TTL 인덱스) + 메모리 LSH 인덱스
+ * - generation = hash(모델, 시스템 프롬프트, 생성 파라미터). 값이 바뀌면 이전 답변은 모두 무효화
+ * - chat.answer-cache.excluded-intents 에 있는 인텐트(NOTE_*, EXAM_* 등)는 조회/저장하지 않음
+ * - 답변이 세션 이전 대화에 좌우되지 않도록 호출 측(ChatService)은 이전 대화가 없는 턴에서만 사용한다
+ */
+@Slf4j
+@Service
+public class SemanticAnswerCache {
+
+    private static final String COLLECTION = "chat_answer_cache";
+
+    private final MongoTemplate mongoTemplate;
+    private final EmbeddingService embeddingService;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${chat.answer-cache.enabled:true}")
+    private boolean enabled;
+
+    @Value("${chat.answer-cache.threshold:0.93}")
+    private double threshold;
+
+    @Value("${chat.answer-cache.ttl-hours:72}")
+    private long ttlHours;
+
+    @Value("${chat.answer-cache.max-entries:5000}")
+    private int maxEntries;
+
+    // 접두사 매칭: "NOTE_" 는 NOTE_COUNT, NOTE_SEARCH ... 모두 제외
+    @Value("${chat.answer-cache.excluded-intents:NOTE_,EXAM_,SCHEDULE_,LECTURE_LIST}")
+    private List<String> excludedIntents;
+
+    @Value("${chat.answer-cache.lsh-tables:10}")
+    private int lshTables;
+
+    @Value("${chat.answer-cache.lsh-bits:10}")
+    private int lshBits;
+
+    private record Entry(String id, String question, FloatVector vector, String answer, long createdAt) {}
+
+    private final Object lock = new Object();
+    // 삽입 순서 = 오래된 순 (max-entries 초과 시 앞에서부터 제거)
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>();
+    private CosineLshIndex<String> index;
+    private String activeGeneration;
+
+    public SemanticAnswerCache(MongoTemplate mongoTemplate, EmbeddingService embeddingService, MeterRegistry meterRegistry) {
+        this.mongoTemplate = mongoTemplate;
+        this.embeddingService = embeddingService;
+        this.meterRegistry = meterRegistry;
+        meterRegistry.gauge("chat.answer_cache.entries", this, c -> c.size());
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void ensureIndexes() {
+        try {
+            mongoTemplate.getCollection(COLLECTION).createIndex(
+                    Indexes.ascending("created_at"),
+                    new IndexOptions().expireAfter(ttlHours, TimeUnit.HOURS));
+            log.info("✅ chat_answer_cache TTL 인덱스 확인 완료 ({}시간)", ttlHours);
+        } catch (Exception e) {
+            log.warn("⚠️ chat_answer_cache 인덱스 생성 실패: {}", e.getMessage());
+        }
+    }
+
+    /** 모델/시스템 프롬프트/생성 파라미터로 만든 캐시 세대 키 */
+    public static String generation(String model, String systemPrompt, Object... params) {
+        try {
+            MessageDigest md = MessageDigest.getInstance("SHA-256");
+            md.update(String.valueOf(model).getBytes(StandardCharsets.UTF_8));
+            md.update((byte) 0);
+            md.update(String.valueOf(systemPrompt).getBytes(StandardCharsets.UTF_8));
+            for (Object p : params) {
+                md.update((byte) 0);
+                md.update(String.valueOf(p).getBytes(StandardCharsets.UTF_8));
+            }
+            return HexFormat.of().formatHex(md.digest()).substring(0, 16);
+        } catch (Exception e) {
+            throw new IllegalStateException("SHA-256 사용 불가", e);
+        }
+    }
+
+    public boolean isCacheable(String intent) {
+        if (!enabled || intent == null) return false;
+        for (String prefix : excludedIntents) {
+            String p = prefix.strip();
+            if (!p.isEmpty() && intent.startsWith(p)) return false;
+        }
+        return true;
+    }
+
+    // ====== 조회/저장 ======
+
+    public Optional<String> lookup(String generation, String intent, String question) {
+        if (!isCacheable(intent) || question == null || question.isBlank()) {
+            return Optional.empty();
+        }
+        FloatVector query;
+        try {
+            query = embeddingService.embed(question.strip());
+        } catch (Exception e) {
+            log.warn("⚠️ 답변 캐시 임베딩 실패: {}", e.getMessage());
+            return Optional.empty();
+        }
+
+        Entry best = null;
+        double bestScore = threshold;
+        long minCreatedAt = System.currentTimeMillis() - TimeUnit.HOURS.toMillis(ttlHours);
+        synchronized (lock) {
+            ensureGeneration(generation);
+            for (String id : index.candidates(query)) {
+                Entry e = entries.get(id);
+                if (e == null || e.createdAt() < minCreatedAt) continue;
+                double score = query.cosine(e.vector());
+                if (score >= bestScore) {
+                    bestScore = score;
+                    best = e;
+                }
+            }
+        }
+
+        if (best == null) {
+            meterRegistry.counter("chat.answer_cache.requests", "result", "miss").increment();
+            return Optional.empty();
+        }
+        meterRegistry.counter("chat.answer_cache.requests", "result", "hit").increment();
+        log.info("💾 답변 캐시 적중 ({}): \"{}\" ≈ \"{}\"", String.format("%.3f", bestScore), question, best.question());
+        return Optional.of(best.answer());
+    }
+
+    public void put(String generation, String model, String intent, String question, String answer) {
+        if (!isCacheable(intent) || question == null || question.isBlank() || answer == null || answer.isBlank()) {
+            return;
+        }
+        try {
+            String q = question.strip();
+            FloatVector vector = embeddingService.embed(q);
+            if (vector.isEmpty()) return;
+
+            Date now = new Date();
+            Document doc = new Document("_id", new ObjectId())
+                    .append("generation", generation)
+                    .append("intent", intent)
+                    .append("model", model)
+                    .append("question", q)
+                    .append("embedding", vector.toList())
+                    .append("answer", answer)
+                    .append("created_at", now);
+            mongoTemplate.insert(doc, COLLECTION);
+
+            synchronized (lock) {
+                ensureGeneration(generation);
+                addLocked(new Entry(doc.getObjectId("_id").toHexString(), q, vector, answer, now.getTime()));
+            }
+        } catch (Exception e) {
+            log.warn("⚠️ 답변 캐시 저장 실패: {}", e.getMessage());
+        }
+    }
+
+    private int size() {
+        synchronized (lock) {
+            return entries.size();
+        }
+    }
+
+    // ====== 내부 (lock 보유) ======
+
+    // 처음 사용 시 또는 세대가 바뀌면: 다른 세대 문서 삭제 후 현재 세대 문서로 인덱스 재구성
+    private void ensureGeneration(String generation) {
+        if (generation.equals(activeGeneration)) return;
+
+        entries.clear();
+        index = new CosineLshIndex<>(lshTables, lshBits, 42L);
+        activeGeneration = generation;
+
+        try {
+            long removed = mongoTemplate.remove(
+                    Query.query(Criteria.where("generation").ne(generation)), COLLECTION).getDeletedCount();
+            if (removed > 0) {
+                log.info("🧹 모델/프롬프트 변경으로 답변 캐시 {}건 무효화", removed);
+            }
+
+            Query query = Query.query(Criteria.where("generation").is(generation))
+                    .with(org.springframework.data.domain.Sort.by("created_at"));
+            for (Document d : mongoTemplate.find(query, Document.class, COLLECTION)) {
+                FloatVector v = FloatVector.fromList(d.getList("embedding", Number.class));
+                Date createdAt = d.getDate("created_at");
+                addLocked(new Entry(d.getObjectId("_id").toHexString(), d.getString("question"), v,
+                        d.getString("answer"), createdAt == null ? 0L : createdAt.getTime()));
+            }
+            log.info("✅ 답변 캐시 로드: {}건", entries.size());
+        } catch (Exception e) {
+            log.warn("⚠️ 답변 캐시 로드 실패 (빈 캐시로 시작): {}", e.getMessage());
+        }
+    }
+
+    private void addLocked(Entry entry) {
+        if (entry.vector().isEmpty()) return;
+        entries.put(entry.id(), entry);
+        index.add(entry.id(), entry.vector());
+
+        Iterator<Map.Entry<String, Entry>> it = entries.entrySet().iterator();
+        while (entries.size() > Math.max(1, maxEntries) && it.hasNext()) {
+            String oldest = it.next().getKey();
+            it.remove();
+            index.remove(oldest);
+            meterRegistry.counter("chat.answer_cache.evictions").increment();
+        }
+    }
+}
@@ -0,0 +1,188 @@
+package com.smhrd.web.service;
+
+import com.mongodb.client.model.IndexOptions;
+import com.mongodb.client.model.Indexes;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 요약 결과 캐시 (content-addressed).
+ * - 키: SHA-256(정규화 텍스트, 프롬프트 내용, 모델, temperature, max_tokens)
+ * - 문서 단위(doc)와 청크 단위(chunk) 두 레벨로 저장
+ * - 조회 순서: 힙 LRU → MongoDB(summary_cache)
+ * - 제거 정책: 힙은 LRU 크기 제한, MongoDB는 마지막 조회 기준 TTL
+ */
+@Service
+@Slf4j
+public class SummaryCacheService {
+
+	public static final String LEVEL_DOC = "doc";
+	public static final String LEVEL_CHUNK = "chunk";
+
+	private static final String COLLECTION = "summary_cache";
+
+	private final MongoTemplate mongoTemplate;
+	private final MeterRegistry meterRegistry;
+
+	@Value("${summary.cache.enabled:true}")
+	private boolean enabled;
+
+	@Value("${summary.cache.heap-entries:1000}")
+	private int heapEntries;
+
+	@Value("${summary.cache.ttl-days:30}")
+	private long ttlDays;
+
+	private Map<String, Document> heap;
+
+	public SummaryCacheService(MongoTemplate mongoTemplate, MeterRegistry meterRegistry) {
+		this.mongoTemplate = mongoTemplate;
+		this.meterRegistry = meterRegistry;
+	}
+
+	@PostConstruct
+	void initHeap() {
+		int capacity = Math.max(1, heapEntries);
+		heap = Collections.synchronizedMap(new LinkedHashMap<>(capacity, 0.75f, true) {
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<String, Document> eldest) {
+				boolean evict = size() > capacity;
+				if (evict) {
+					meterRegistry.counter("summary.cache.evictions", "store", "heap").increment();
+				}
+				return evict;
+			}
+		});
+		meterRegistry.gaugeMapSize("summary.cache.heap.size", List.of(), heap);
+	}
+
+	// 마지막 조회 시각 기준 TTL 인덱스 (조회될 때마다 갱신되므로 자주 쓰이는 요약은 유지됨)
+	@EventListener(ApplicationReadyEvent.class)
+	public void ensureIndexes() {
+		try {
+			mongoTemplate.getCollection(COLLECTION).createIndex(
+					Indexes.ascending("last_hit_at"),
+					new IndexOptions().expireAfter(ttlDays, TimeUnit.DAYS));
+			log.info("✅ summary_cache TTL 인덱스 확인 완료 ({}일)", ttlDays);
+		} catch (Exception e) {
+			log.warn("⚠️ summary_cache 인덱스 생성 실패: {}", e.getMessage());
+		}
+	}
+
+	// ====== 키 ======
+
+	public String key(String level, String text, String instruction, String model, double temperature, int maxTokens) {
+		try {
+			MessageDigest md = MessageDigest.getInstance("SHA-256");
+			for (String part : new String[]{level, text, instruction, model,
+					String.valueOf(temperature), String.valueOf(maxTokens)}) {
+				md.update(String.valueOf(part).getBytes(StandardCharsets.UTF_8));
+				md.update((byte) 0);
+			}
+			return HexFormat.of().formatHex(md.digest());
+		} catch (Exception e) {
+			throw new IllegalStateException("SHA-256 사용 불가", e);
+		}
+	}
+
+	// ====== 청크 단위 ======
+
+	public Optional<String> getChunk(String key) {
+		return lookup(LEVEL_CHUNK, key).map(d -> d.getString("summary"));
+	}
+
+	public void putChunk(String key, String summary) {
+		if (summary == null || summary.isBlank()) return;
+		store(LEVEL_CHUNK, key, new Document("summary", summary));
+	}
+
+	// ====== 문서 단위 ======
+
+	public Optional<LLMUnifiedService.SummaryResult> getDocument(String key) {
+		return lookup(LEVEL_DOC, key).map(d -> {
+			LLMUnifiedService.SummaryResult r = new LLMUnifiedService.SummaryResult();
+			r.setSuccess(true);
+			r.setMode(d.getString("mode"));
+			r.setSummaryMarkdown(d.getString("summary"));
+			r.setKeywords(d.getList("keywords", String.class, List.of()));
+			r.setMessage(d.getString("message"));
+			return r;
+		});
+	}
+
+	public void putDocument(String key, LLMUnifiedService.SummaryResult result) {
+		if (result == null || !result.isSuccess() || result.isPartial()) return;
+		Document value = new Document("summary", result.getSummaryMarkdown())
+				.append("mode", result.getMode())
+				.append("keywords", result.getKeywords() == null ? List.of() : result.getKeywords())
+				.append("message", result.getMessage());
+		store(LEVEL_DOC, key, value);
+	}
+
+	// ====== 내부 ======
+
+	private Optional<Document> lookup(String level, String key) {
+		if (!enabled) return Optional.empty();
+
+		Document cached = heap.get(key);
+		if (cached != null) {
+			hit(level, "heap").increment();
+			return Optional.of(cached);
+		}
+
+		try {
+			Query q = Query.query(Criteria.where("_id").is(key));
+			Document found = mongoTemplate.findAndModify(q,
+					new Update().set("last_hit_at", new Date()).inc("hits", 1),
+					Document.class, COLLECTION);
+			if (found != null) {
+				Document value = (Document) found.get("value");
+				heap.put(key, value);
+				hit(level, "mongo").increment();
+				return Optional.of(value);
+			}
+		} catch (Exception e) {
+			log.warn("⚠️ 요약 캐시 조회 실패 (무시): {}", e.getMessage());
+		}
+
+		meterRegistry.counter("summary.cache.requests", "level", level, "result", "miss", "store", "none").increment();
+		return Optional.empty();
+	}
+
+	private void store(String level, String key, Document value) {
+		if (!enabled) return;
+		heap.put(key, value);
+		try {
+			Date now = new Date();
+			mongoTemplate.upsert(Query.query(Criteria.where("_id").is(key)),
+					new Update().set("level", level)
+							.set("value", value)
+							.set("last_hit_at", now)
+							.setOnInsert("created_at", now)
+							.setOnInsert("hits", 0),
+					COLLECTION);
+		} catch (Exception e) {
+			log.warn("⚠️ 요약 캐시 저장 실패 (무시): {}", e.getMessage());
+		}
+	}
+
+	private Counter hit(String level, String store) {
+		return meterRegistry.counter("summary.cache.requests", "level", level, "result", "hit", "store", store);
+	}
+}
@@ -0,0 +1,387 @@
+package com.smhrd.web.service;
+
+import com.mongodb.client.result.UpdateResult;
+import com.smhrd.web.entity.SummaryJob;
+import com.smhrd.web.repository.SummaryJobRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+
+import java.net.InetAddress;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * 비동기 요약 작업 큐.
+ * - 제출 즉시 jobId 반환, 제한된 워커 풀에서 summarizeLongDocument 실행
+ * - 작업 상태/진행률은 MongoDB(summary_jobs)에 저장 → 재시작 시 미완료 작업 재개
+ *   (청크 요약은 SummaryCacheService에 남아 있으므로 재개 시 끝난 청크는 다시 호출하지 않음)
+ * - 작업마다 owner(노드) + lease_until(임대)을 두고, 실행 중에는 주기적으로 임대를 연장한다.
+ *   재개는 임대가 끝난 작업만 조건부 update 로 점유한 노드 한 곳에서만 한다 (다중 노드 중복 실행 방지)
+ * - 진행 상황은 /user/queue/summary-jobs 로 실시간 전송
+ * - 같은 사용자 + 같은 원본 + 같은 프롬프트의 진행 중 작업이 있으면 그 작업 id를 반환
+ */
+@Slf4j
+@Service
+public class SummaryJobService {
+
+    private static final List<String> ACTIVE_STATUSES = List.of(SummaryJob.QUEUED, SummaryJob.RUNNING);
+    private static final String DESTINATION = "/queue/summary-jobs";
+
+    private final SummaryJobRepository jobRepository;
+    private final MongoTemplate mongoTemplate;
+    private final LLMUnifiedService llmService;
+    private final FileStorageService fileStorageService;
+    private final FileParseService fileParseService;
+
+    @Autowired(required = false)  // WebSocket이 없을 수도 있으니
+    private SimpMessagingTemplate messagingTemplate;
+
+    @Value("${summary.job.workers:2}")
+    private int workers;
+
+    @Value("${summary.job.queue-capacity:100}")
+    private int queueCapacity;
+
+    // 임대 시간. 실행 중인 노드는 1/3 주기로 연장하고, 만료된 작업은 다른 노드가 가져간다
+    @Value("${summary.job.lease-seconds:120}")
+    private long leaseSeconds;
+
+    private ThreadPoolExecutor executor;
+    private ScheduledExecutorService leaseScheduler;
+
+    // 이 프로세스 식별자 (재시작하면 바뀜)
+    private final String nodeId = nodeName() + ":" + UUID.randomUUID().toString().substring(0, 8);
+
+    // 이 노드 실행기에 들어가 있는 (대기 + 실행 중) 작업 id
+    private final Set<String> localJobs = ConcurrentHashMap.newKeySet();
+
+    // 같은 키의 동시 제출이 둘 다 새 작업을 만들지 않도록 제출 구간만 직렬화
+    private final Object submitLock = new Object();
+
+    public SummaryJobService(SummaryJobRepository jobRepository,
+                             MongoTemplate mongoTemplate,
+                             LLMUnifiedService llmService,
+                             FileStorageService fileStorageService,
+                             FileParseService fileParseService) {
+        this.jobRepository = jobRepository;
+        this.mongoTemplate = mongoTemplate;
+        this.llmService = llmService;
+        this.fileStorageService = fileStorageService;
+        this.fileParseService = fileParseService;
+    }
+
+    @PostConstruct
+    void initExecutor() {
+        int n = Math.max(1, workers);
+        executor = new ThreadPoolExecutor(n, n, 0L, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(Math.max(1, queueCapacity)),
+                new CustomizableThreadFactory("summary-job-"));
+        leaseScheduler = Executors.newSingleThreadScheduledExecutor(new CustomizableThreadFactory("summary-job-lease-"));
+        long renewSeconds = Math.max(1, leaseSeconds / 3);
+        leaseScheduler.scheduleWithFixedDelay(this::renewLeases, renewSeconds, renewSeconds, TimeUnit.SECONDS);
+    }
+
+    @PreDestroy
+    void shutdownExecutor() {
+        // 실행 중이던 작업은 RUNNING 상태로 남기고 임대만 풀어 둔다 → 다음 기동(또는 다른 노드)에서 바로 재개
+        leaseScheduler.shutdownNow();
+        executor.shutdownNow();
+        try {
+            if (!localJobs.isEmpty()) {
+                mongoTemplate.updateMulti(
+                        Query.query(Criteria.where("_id").in(localJobs).and("owner").is(nodeId)),
+                        new Update().unset("owner").unset("lease_until"), SummaryJob.class);
+            }
+        } catch (Exception e) {
+            log.warn("⚠️ 요약 작업 임대 반환 실패: {}", e.getMessage());
+        }
+    }
+
+    // 기동 직후 한 번, 이후 임대 주기마다 주인 없는 미완료 작업 재개
+    @EventListener(ApplicationReadyEvent.class)
+    public void onReady() {
+        resumePendingJobs();
+        long period = Math.max(10, leaseSeconds);
+        leaseScheduler.scheduleWithFixedDelay(this::resumePendingJobs, period, period, TimeUnit.SECONDS);
+    }
+
+    // 임대가 없거나 끝난 미완료 작업만 점유해서 재개 (다른 노드가 실행 중인 작업은 건드리지 않음)
+    void resumePendingJobs() {
+        try {
+            LocalDateTime now = LocalDateTime.now();
+            List<SummaryJob> orphans = mongoTemplate.find(Query.query(leaseExpired(now))
+                    .with(Sort.by("created_at")), SummaryJob.class);
+            int resumed = 0;
+            for (SummaryJob job : orphans) {
+                if (localJobs.contains(job.getId()) || !claim(job.getId())) continue;
+                try {
+                    enqueue(job);
+                    resumed++;
+                } catch (RejectedExecutionException e) {
+                    // 대기열이 찼으면 임대를 돌려주고 다음 주기(또는 다른 노드)에 맡김
+                    release(job.getId());
+                    break;
+                }
+            }
+            if (resumed > 0) {
+                log.info("🔁 미완료 요약 작업 {}건 재개 (node={})", resumed, nodeId);
+            }
+        } catch (Exception e) {
+            log.warn("⚠️ 미완료 요약 작업 재개 실패: {}", e.getMessage());
+        }
+    }
+
+    // ====== 임대 ======
+
+    private Criteria leaseExpired(LocalDateTime now) {
+        return Criteria.where("status").in(ACTIVE_STATUSES)
+                .orOperator(Criteria.where("lease_until").is(null), Criteria.where("lease_until").lt(now));
+    }
+
+    /** 임대가 끝난 작업을 이 노드 것으로 표시. 다른 노드가 먼저 가져갔으면 false */
+    private boolean claim(String jobId) {
+        LocalDateTime now = LocalDateTime.now();
+        UpdateResult result = mongoTemplate.updateFirst(
+                Query.query(Criteria.where("_id").is(jobId)).addCriteria(leaseExpired(now)),
+                new Update().set("owner", nodeId).set("lease_until", now.plusSeconds(leaseSeconds)).set("updated_at", now),
+                SummaryJob.class);
+        return result.getModifiedCount() > 0;
+    }
+
+    private void release(String jobId) {
+        mongoTemplate.updateFirst(Query.query(Criteria.where("_id").is(jobId).and("owner").is(nodeId)),
+                new Update().unset("owner").unset("lease_until"), SummaryJob.class);
+    }
+
+    // 이 노드가 들고 있는 작업 임대 연장
+    private void renewLeases() {
+        if (localJobs.isEmpty()) return;
+        try {
+            mongoTemplate.updateMulti(
+                    Query.query(Criteria.where("_id").in(localJobs).and("owner").is(nodeId)),
+                    new Update().set("lease_until", LocalDateTime.now().plusSeconds(leaseSeconds)), SummaryJob.class);
+        } catch (Exception e) {
+            log.warn("⚠️ 요약 작업 임대 연장 실패: {}", e.getMessage());
+        }
+    }
+
+    private static String nodeName() {
+        try {
+            return InetAddress.getLocalHost().getHostName();
+        } catch (Exception e) {
+            return "unknown";
+        }
+    }
+
+    // ====== 제출 ======
+
+    public SummaryJob submitFile(Long userIdx, String fileId, Long promptId) {
+        return submit(SummaryJob.builder()
+                .userIdx(userIdx)
+                .fileId(fileId)
+                .promptId(promptId)
+                .dedupeKey(dedupeKey(userIdx, "file:" + fileId, promptId))
+                .build());
+    }
+
+    public SummaryJob submitText(Long userIdx, String content, Long promptId) {
+        return submit(SummaryJob.builder()
+                .userIdx(userIdx)
+                .content(content)
+                .promptId(promptId)
+                .dedupeKey(dedupeKey(userIdx, "text:" + content, promptId))
+                .build());
+    }
+
+    public Optional<SummaryJob> getJob(String jobId, Long userIdx) {
+        return jobRepository.findByIdAndUserIdx(jobId, userIdx);
+    }
+
+    private SummaryJob submit(SummaryJob job) {
+        synchronized (submitLock) {
+            Optional<SummaryJob> running = jobRepository.findFirstByDedupeKeyAndStatusIn(job.getDedupeKey(), ACTIVE_STATUSES);
+            if (running.isPresent()) {
+                log.info("♻️ 중복 요약 요청 → 기존 작업으로 병합: jobId={}", running.get().getId());
+                return running.get();
+            }
+
+            LocalDateTime now = LocalDateTime.now();
+            job.setStatus(SummaryJob.QUEUED);
+            job.setOwner(nodeId);
+            job.setLeaseUntil(now.plusSeconds(leaseSeconds));
+            job.setCreatedAt(now);
+            job.setUpdatedAt(now);
+            SummaryJob saved = jobRepository.save(job);
+
+            try {
+                enqueue(saved);
+            } catch (RejectedExecutionException e) {
+                markFailed(saved, "요약 대기열이 가득 찼습니다. 잠시 후 다시 시도해주세요.");
+                throw new IllegalStateException("요약 대기열이 가득 찼습니다. 잠시 후 다시 시도해주세요.");
+            }
+            log.info("📥 요약 작업 등록: jobId={}, userIdx={}", saved.getId(), saved.getUserIdx());
+            return saved;
+        }
+    }
+
+    private void enqueue(SummaryJob job) {
+        localJobs.add(job.getId());
+        try {
+            executor.execute(() -> run(job));
+        } catch (RejectedExecutionException e) {
+            localJobs.remove(job.getId());
+            throw e;
+        }
+    }
+
+    // ====== 실행 ======
+
+    private void run(SummaryJob job) {
+        try {
+            execute(job);
+        } finally {
+            localJobs.remove(job.getId());
+        }
+    }
+
+    private void execute(SummaryJob job) {
+        String jobId = job.getId();
+        // 대기하는 동안 임대를 잃었으면 (다른 노드가 가져감) 실행하지 않음
+        UpdateResult started = mongoTemplate.updateFirst(
+                Query.query(Criteria.where("_id").is(jobId).and("owner").is(nodeId).and("status").in(ACTIVE_STATUSES)),
+                new Update().set("status", SummaryJob.RUNNING).set("error", null).set("updated_at", LocalDateTime.now()),
+                SummaryJob.class);
+        if (started.getModifiedCount() == 0) {
+            log.warn("⏭️ 다른 노드가 가져간 요약 작업 건너뜀: jobId={}", jobId);
+            return;
+        }
+        notifyUser(job.getUserIdx(), Map.of("jobId", jobId, "status", SummaryJob.RUNNING));
+
+        try {
+            String text = loadSource(job);
+            LLMUnifiedService.SummaryResult result =
+                    llmService.summarizeLongDocument(job.getUserIdx(), job.getPromptId(), text,
+                            new JobProgressListener(job), VllmScheduler.Priority.BACKGROUND);
+
+            update(jobId, new Update()
+                    .set("status", SummaryJob.DONE)
+                    .set("mode", result.getMode())
+                    .set("summary", result.getSummaryMarkdown())
+                    .set("keywords", result.getKeywords())
+                    .set("message", result.getMessage())
+                    .set("finished_at", LocalDateTime.now()));
+
+            Map<String, Object> payload = new HashMap<>();
+            payload.put("jobId", jobId);
+            payload.put("status", SummaryJob.DONE);
+            payload.put("mode", result.getMode());
+            payload.put("message", result.getMessage());
+            notifyUser(job.getUserIdx(), payload);
+            log.info("✅ 요약 작업 완료: jobId={}, mode={}", jobId, result.getMode());
+
+        } catch (Exception e) {
+            if (Thread.currentThread().isInterrupted() || executor.isShutdown()) {
+                // 종료 중 중단된 작업은 RUNNING으로 남겨 다음 기동 시 재개
+                log.warn("⏸️ 종료로 중단된 요약 작업: jobId={}", jobId);
+                return;
+            }
+            log.error("❌ 요약 작업 실패: jobId={}, 오류: {}", jobId, e.getMessage(), e);
+            markFailed(job, e.getMessage());
+        }
+    }
+
+    private String loadSource(SummaryJob job) throws Exception {
+        if (job.getFileId() == null) {
+            return job.getContent() == null ? "" : job.getContent();
+        }
+        FileStorageService.FileInfo meta = fileStorageService.previewFile(job.getFileId());
+        if (meta == null) {
+            throw new IllegalArgumentException("파일을 찾을 수 없습니다.");
+        }
+        byte[] bytes = fileStorageService.downloadFile(job.getFileId());
+        String filename = (meta.getOriginalName() == null) ? "file" : meta.getOriginalName();
+        return fileParseService.extractText(bytes, filename);
+    }
+
+    private void markFailed(SummaryJob job, String error) {
+        update(job.getId(), new Update()
+                .set("status", SummaryJob.FAILED)
+                .set("error", error)
+                .set("finished_at", LocalDateTime.now()));
+        notifyUser(job.getUserIdx(), Map.of("jobId", job.getId(), "status", SummaryJob.FAILED,
+                "error", String.valueOf(error)));
+    }
+
+    // 진행률 필드만 부분 갱신 (청크 콜백이 여러 스레드에서 동시에 올 수 있음)
+    private void update(String jobId, Update update) {
+        try {
+            mongoTemplate.updateFirst(Query.query(Criteria.where("_id").is(jobId)),
+                    update.set("updated_at", LocalDateTime.now()), SummaryJob.class);
+        } catch (Exception e) {
+            log.warn("⚠️ 요약 작업 상태 저장 실패: jobId={}, 오류: {}", jobId, e.getMessage());
+        }
+    }
+
+    private void notifyUser(Long userIdx, Map<String, Object> payload) {
+        if (messagingTemplate == null || userIdx == null) return;
+        try {
+            messagingTemplate.convertAndSendToUser(userIdx.toString(), DESTINATION, payload);
+        } catch (Exception e) {
+            log.debug("요약 작업 진행 알림 전송 실패: {}", e.getMessage());
+        }
+    }
+
+    private String dedupeKey(Long userIdx, String source, Long promptId) {
+        try {
+            MessageDigest md = MessageDigest.getInstance("SHA-256");
+            md.update((userIdx + "|" + promptId + "|" + source).getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(md.digest());
+        } catch (Exception e) {
+            throw new IllegalStateException("SHA-256 사용 불가", e);
+        }
+    }
+
+    /** 요약 진행 상황 → summary_jobs 문서 갱신 + WebSocket 알림 */
+    private class JobProgressListener implements LLMUnifiedService.SummaryProgressListener {
+        private final SummaryJob job;
+
+        JobProgressListener(SummaryJob job) {
+            this.job = job;
+        }
+
+        @Override
+        public void onStage(String mode, int chunkCount) {
+            update(job.getId(), new Update().set("mode", mode).set("total_chunks", chunkCount).set("done_chunks", 0));
+            notifyUser(job.getUserIdx(), Map.of("jobId", job.getId(), "stage", "start", "mode", mode, "total", chunkCount));
+        }
+
+        @Override
+        public void onChunkDone(int done, int total) {
+            update(job.getId(), new Update().max("done_chunks", done));
+            notifyUser(job.getUserIdx(), Map.of("jobId", job.getId(), "stage", "chunk", "done", done, "total", total));
+        }
+
+        @Override
+        public void onReduceLevel(int level, int inputs, int outputs) {
+            update(job.getId(), new Update().max("reduce_level", level));
+            notifyUser(job.getUserIdx(), Map.of("jobId", job.getId(), "stage", "reduce",
+                    "level", level, "inputs", inputs, "outputs", outputs));
+        }
+    }
+}
@@ -0,0 +1,188 @@
+package com.smhrd.web.service;
+
+import com.smhrd.web.entity.SyncOutbox;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * sync_outbox → Postgres 중계 워커.
+ * 주기적으로 처리 가능한 행을 batch-size 만큼 점유(FOR UPDATE SKIP LOCKED)해서 PostgresSyncService 로 한 번에 반영한다.
+ *
+ * - 같은 대상(노트/시험 결과)이 배치 안에 여러 번 있으면 한 번만 반영 (반영 시점의 MySQL 상태를 읽으므로 마지막 변경이 적용됨)
+ * - 실패한 배치는 지수 백오프로 재시도, 처리 중 노드가 죽어도 임대 만료 후 다른 워커가 다시 가져감
+ * - 배치가 가득 차면 쉬지 않고 다음 배치를 이어서 처리 (몰린 저장을 빠르게 소화)
+ *
+ * 메트릭: sync.outbox.lag{stage=claim|applied} (기록 → 점유/반영 지연), sync.outbox.stage{stage=load|embed|upsert},
+ *        sync.outbox.rows{result}, sync.outbox.pending, sync.outbox.oldest_age_seconds, sync.outbox.failed
+ */
+@Slf4j
+@Component
+public class SyncOutboxRelay {
+
+    private final SyncOutboxService outboxService;
+    private final PostgresSyncService postgresSyncService;
+    private final MeterRegistry meterRegistry;
+
+    private final AtomicLong pending = new AtomicLong();
+    private final AtomicLong oldestAgeSeconds = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+
+    private ScheduledExecutorService scheduler;
+
+    @Value("${sync.outbox.enabled:true}")
+    private boolean enabled;
+
+    // 배치 + 단일 워커로 충분한 처리량이 나오고, 같은 노트를 두 워커가 동시에 반영하는 경합도 없음
+    @Value("${sync.outbox.workers:1}")
+    private int workers;
+
+    @Value("${sync.outbox.batch-size:100}")
+    private int batchSize;
+
+    @Value("${sync.outbox.poll-interval-ms:500}")
+    private long pollIntervalMs;
+
+    // 한 번 깨어났을 때 연속으로 처리할 최대 배치 수 (가득 찬 배치가 계속 나올 때)
+    @Value("${sync.outbox.max-batches-per-poll:20}")
+    private int maxBatchesPerPoll;
+
+    @Value("${sync.outbox.stats-interval-ms:10000}")
+    private long statsIntervalMs;
+
+    @Value("${sync.outbox.retention-hours:24}")
+    private long retentionHours;
+
+    public SyncOutboxRelay(SyncOutboxService outboxService,
+                           PostgresSyncService postgresSyncService,
+                           MeterRegistry meterRegistry) {
+        this.outboxService = outboxService;
+        this.postgresSyncService = postgresSyncService;
+        this.meterRegistry = meterRegistry;
+        meterRegistry.gauge("sync.outbox.pending", pending);
+        meterRegistry.gauge("sync.outbox.oldest_age_seconds", oldestAgeSeconds);
+        meterRegistry.gauge("sync.outbox.failed", failed);
+    }
+
+    @PostConstruct
+    public void start() {
+        if (!enabled) {
+            log.info("⏸️ [아웃박스] 중계 비활성화 (sync.outbox.enabled=false)");
+            return;
+        }
+        int n = Math.max(1, workers);
+        scheduler = Executors.newScheduledThreadPool(n + 1, new CustomizableThreadFactory("sync-outbox-"));
+        for (int i = 0; i < n; i++) {
+            scheduler.scheduleWithFixedDelay(this::poll, pollIntervalMs, pollIntervalMs, TimeUnit.MILLISECONDS);
+        }
+        scheduler.scheduleWithFixedDelay(this::maintain, 0, statsIntervalMs, TimeUnit.MILLISECONDS);
+        log.info("📤 [아웃박스] 중계 시작 - workers: {}, batch: {}, poll: {}ms", n, batchSize, pollIntervalMs);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (scheduler == null) return;
+        scheduler.shutdown();
+        try {
+            // 처리 중인 배치는 마무리 (못 끝내도 임대 만료 후 재처리됨)
+            if (!scheduler.awaitTermination(10, TimeUnit.SECONDS)) {
+                scheduler.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            scheduler.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // ====== 처리 ======
+
+    private void poll() {
+        try {
+            for (int i = 0; i < Math.max(1, maxBatchesPerPoll); i++) {
+                if (Thread.currentThread().isInterrupted()) return;
+                int claimed = drainOnce();
+                if (claimed < batchSize) return;
+            }
+        } catch (Exception e) {
+            // 스케줄 작업이 예외로 끝나면 이후 실행이 취소되므로 여기서 삼킨다
+            log.error("❌ [아웃박스] 폴링 실패: {}", e.getMessage(), e);
+        }
+    }
+
+    /** 배치 하나 처리. 점유한 행 수 반환 */
+    int drainOnce() {
+        List<SyncOutbox> rows = outboxService.claimBatch(Math.max(1, batchSize));
+        if (rows.isEmpty()) return 0;
+
+        recordLag(rows, "claim");
+
+        // 대상별 중복 제거 (입력 순서 유지)
+        Set<Long> noteIds = new LinkedHashSet<>();
+        Set<Long> resultIds = new LinkedHashSet<>();
+        for (SyncOutbox row : rows) {
+            if (SyncOutbox.TYPE_NOTE.equals(row.getAggregateType())) {
+                noteIds.add(row.getAggregateId());
+            } else if (SyncOutbox.TYPE_EXAM_RESULT.equals(row.getAggregateType())) {
+                resultIds.add(row.getAggregateId());
+            } else {
+                log.warn("⚠️ [아웃박스] 알 수 없는 대상 종류: {} (outbox_idx={})", row.getAggregateType(), row.getOutboxIdx());
+            }
+        }
+
+        List<Long> ids = rows.stream().map(SyncOutbox::getOutboxIdx).toList();
+        try {
+            PostgresSyncService.SyncResult result = postgresSyncService.sync(noteIds, resultIds);
+            outboxService.markDone(ids);
+            recordLag(rows, "applied");
+            meterRegistry.counter("sync.outbox.rows", "result", "done").increment(rows.size());
+
+            log.info("✅ [아웃박스] {}건 반영 - 노트 upsert {} / 삭제 {}, 시험 결과 {} (오답 {})",
+                    rows.size(), result.notesUpserted(), result.notesDeleted(),
+                    result.examsUpserted(), result.wrongAnswersUpserted());
+        } catch (Exception e) {
+            int gaveUp = outboxService.markRetry(rows, e.getClass().getSimpleName() + ": " + e.getMessage());
+            meterRegistry.counter("sync.outbox.rows", "result", "retry").increment(rows.size() - gaveUp);
+            meterRegistry.counter("sync.outbox.rows", "result", "failed").increment(gaveUp);
+            log.warn("⚠️ [아웃박스] {}건 반영 실패, 재시도 예약: {}", rows.size(), e.getMessage());
+        }
+        return rows.size();
+    }
+
+    // 적체 현황 게이지 갱신 + 오래된 DONE 행 정리
+    private void maintain() {
+        try {
+            pending.set(outboxService.countPending());
+            failed.set(outboxService.countFailed());
+            LocalDateTime oldest = outboxService.oldestPendingCreatedAt();
+            oldestAgeSeconds.set(oldest == null ? 0 : Math.max(0, Duration.between(oldest, LocalDateTime.now()).toSeconds()));
+
+            int purged = outboxService.purgeDone(LocalDateTime.now().minusHours(retentionHours), 1000);
+            if (purged > 0) {
+                log.debug("🧹 [아웃박스] 완료 행 {}건 정리", purged);
+            }
+        } catch (Exception e) {
+            log.warn("⚠️ [아웃박스] 상태 갱신 실패: {}", e.getMessage());
+        }
+    }
+
+    private void recordLag(List<SyncOutbox> rows, String stage) {
+        LocalDateTime now = LocalDateTime.now();
+        for (SyncOutbox row : rows) {
+            if (row.getCreatedAt() == null) continue;
+            Duration lag = Duration.between(row.getCreatedAt(), now);
+            meterRegistry.timer("sync.outbox.lag", "stage", stage).record(lag.isNegative() ? Duration.ZERO : lag);
+        }
+    }
+}
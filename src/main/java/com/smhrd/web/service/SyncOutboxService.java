@@ -0,0 +1,139 @@
+package com.smhrd.web.service;
+
+import com.smhrd.web.entity.SyncOutbox;
+import com.smhrd.web.repository.SyncOutboxRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * sync_outbox 기록/점유/완료 처리.
+ * append 는 호출한 쪽(노트/시험 저장) 트랜잭션에 참여하므로 원본 데이터와 함께 커밋되거나 함께 롤백된다.
+ * 나머지는 SyncOutboxRelay 가 짧은 트랜잭션으로 호출한다.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class SyncOutboxService {
+
+    private final SyncOutboxRepository outboxRepository;
+
+    @Value("${sync.outbox.lease-seconds:120}")
+    private long leaseSeconds;
+
+    @Value("${sync.outbox.max-attempts:10}")
+    private int maxAttempts;
+
+    @Value("${sync.outbox.backoff-base-ms:2000}")
+    private long backoffBaseMs;
+
+    @Value("${sync.outbox.backoff-max-ms:600000}")
+    private long backoffMaxMs;
+
+    @Transactional(propagation = Propagation.REQUIRED)
+    public void append(String aggregateType, Long aggregateId, String op, Long userIdx) {
+        LocalDateTime now = LocalDateTime.now();
+        outboxRepository.save(SyncOutbox.builder()
+                .aggregateType(aggregateType)
+                .aggregateId(aggregateId)
+                .op(op)
+                .userIdx(userIdx)
+                .availableAt(now)
+                .createdAt(now)
+                .build());
+    }
+
+    /** 처리할 행을 잠그고 PROCESSING 으로 표시 (임대 시간 동안 다른 워커/노드가 가져가지 않음) */
+    @Transactional
+    public List<SyncOutbox> claimBatch(int limit) {
+        LocalDateTime now = LocalDateTime.now();
+        List<SyncOutbox> rows = outboxRepository.lockNextBatch(now, limit);
+        if (rows.isEmpty()) return rows;
+
+        List<Long> ids = rows.stream().map(SyncOutbox::getOutboxIdx).toList();
+        LocalDateTime leaseUntil = now.plusSeconds(leaseSeconds);
+        outboxRepository.claim(ids, leaseUntil);
+        // claim 이 컨텍스트를 비워서 rows 는 준영속 상태 → 아래 변경은 DB 에 쓰이지 않고 호출 측 값만 맞춘다
+        rows.forEach(r -> {
+            r.setStatus(SyncOutbox.STATUS_PROCESSING);
+            r.setAttempts(r.getAttempts() + 1);
+            r.setAvailableAt(leaseUntil);
+        });
+        return rows;
+    }
+
+    @Transactional
+    public void markDone(Collection<Long> ids) {
+        if (ids.isEmpty()) return;
+        outboxRepository.markDone(ids, LocalDateTime.now());
+    }
+
+    /**
+     * 실패한 행 재시도 예약 (지수 백오프). 최대 시도 횟수를 넘으면 FAILED 로 남긴다.
+     * @return FAILED 로 전환된 행 수
+     */
+    @Transactional
+    public int markRetry(List<SyncOutbox> rows, String error) {
+        if (rows.isEmpty()) return 0;
+        String message = truncate(error, 500);
+        LocalDateTime now = LocalDateTime.now();
+
+        List<Long> failed = rows.stream()
+                .filter(r -> r.getAttempts() >= maxAttempts)
+                .map(SyncOutbox::getOutboxIdx)
+                .toList();
+        if (!failed.isEmpty()) {
+            outboxRepository.markRetry(failed, SyncOutbox.STATUS_FAILED, message, now);
+            log.error("❌ [아웃박스] {}건 재시도 한도({}) 초과 → FAILED: {}", failed.size(), maxAttempts, message);
+        }
+
+        // 시도 횟수가 같은 행끼리 묶어 같은 대기 시간으로 예약
+        rows.stream()
+                .filter(r -> r.getAttempts() < maxAttempts)
+                .collect(Collectors.groupingBy(SyncOutbox::getAttempts,
+                        Collectors.mapping(SyncOutbox::getOutboxIdx, Collectors.toList())))
+                .forEach((attempts, ids) -> outboxRepository.markRetry(
+                        ids, SyncOutbox.STATUS_PENDING, message, now.plusNanos(backoffMs(attempts) * 1_000_000L)));
+        return failed.size();
+    }
+
+    @Transactional
+    public int purgeDone(LocalDateTime before, int limit) {
+        return outboxRepository.purgeDone(before, limit);
+    }
+
+    @Transactional(readOnly = true)
+    public long countPending() {
+        return outboxRepository.countPending();
+    }
+
+    @Transactional(readOnly = true)
+    public LocalDateTime oldestPendingCreatedAt() {
+        return outboxRepository.oldestPendingCreatedAt();
+    }
+
+    @Transactional(readOnly = true)
+    public long countFailed() {
+        return outboxRepository.countFailed();
+    }
+
+    // ====== 내부 ======
+
+    private long backoffMs(int attempts) {
+        int shift = Math.min(Math.max(attempts - 1, 0), 20);
+        return Math.min(backoffBaseMs << shift, backoffMaxMs);
+    }
+
+    private static String truncate(String s, int max) {
+        if (s == null) return null;
+        return s.length() <= max ? s : s.substring(0, max);
+    }
+}
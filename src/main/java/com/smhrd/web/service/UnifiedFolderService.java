@@ -16,6 +16,7 @@ public class UnifiedFolderService {
     private final NoteFolderRepository noteFolderRepository;
     private final NoteRepository noteRepository;
     private final NoteTagRepository noteTagRepository;
+    private final NoteFolderPathService noteFolderPathService;
 
     // ========================================
     // NoteFolder 트리 조회
@@ -103,43 +104,18 @@ public class UnifiedFolderService {
                 .status("ACTIVE")
                 .build();
 
-        return noteFolderRepository.save(folder).getFolderId();
+        Long folderId = noteFolderRepository.save(folder).getFolderId();
+        noteFolderPathService.onCreated(folderId);
+        return folderId;
     }
 
     @Transactional
     public void deleteNoteFolder(Long userIdx, Long folderId) {
-        NoteFolder folder = noteFolderRepository.findByFolderIdAndUserIdx(folderId, userIdx)
+        noteFolderRepository.findByFolderIdAndUserIdx(folderId, userIdx)
                 .orElseThrow(() -> new IllegalArgumentException("폴더를 찾을 수 없습니다."));
 
-        deleteSubNoteFoldersRecursively(userIdx, folderId);
-
-        List<Note> notes = noteRepository
-                .findByUser_UserIdxAndFolderIdAndStatusOrderByCreatedAtDesc(userIdx, folderId, "ACTIVE");
-        notes.forEach(n -> {
-            n.setFolderId(null);
-            noteRepository.save(n);
-        });
-
-        noteFolderRepository.deleteByFolderIdAndUserIdx(folderId, userIdx);
-    }
-
-    private void deleteSubNoteFoldersRecursively(Long userIdx, Long parentFolderId) {
-        List<NoteFolder> subs = noteFolderRepository
-                .findByUserIdxAndParentFolderIdOrderByFolderNameAsc(userIdx, parentFolderId);
-
-        for (NoteFolder sub : subs) {
-            deleteSubNoteFoldersRecursively(userIdx, sub.getFolderId());
-
-            List<Note> notes = noteRepository
-                    .findByUser_UserIdxAndFolderIdAndStatusOrderByCreatedAtDesc(
-                            userIdx, sub.getFolderId(), "ACTIVE");
-            notes.forEach(n -> {
-                n.setFolderId(null);
-                noteRepository.save(n);
-            });
-
-            noteFolderRepository.deleteByFolderIdAndUserIdx(sub.getFolderId(), userIdx);
-        }
+        // 하위 폴더 전체 + 안의 노트 루트 이동을 깊이와 상관없이 한 번에
+        noteFolderPathService.deleteSubtree(userIdx, folderId);
     }
 
     @Transactional
@@ -175,9 +151,8 @@ public class UnifiedFolderService {
             NoteFolder target = existingFolder.get();
             mergeNoteFolders(folder, target, userIdx);
         } else {
-            folder.setParentFolderId(targetParentId);
             folder.setUpdatedAt(LocalDateTime.now());
-            noteFolderRepository.save(folder);
+            noteFolderPathService.move(folder, targetParentId);
         }
     }
 
@@ -192,18 +167,12 @@ public class UnifiedFolderService {
             if (existingSubFolder.isPresent()) {
                 mergeNoteFolders(sub, existingSubFolder.get(), userIdx);
             } else {
-                sub.setParentFolderId(target.getFolderId());
                 sub.setUpdatedAt(LocalDateTime.now());
-                noteFolderRepository.save(sub);
+                noteFolderPathService.move(sub, target.getFolderId());
             }
         }
 
-        List<Note> notes = noteRepository
-                .findByUser_UserIdxAndFolderIdAndStatusOrderByCreatedAtDesc(userIdx, source.getFolderId(), "ACTIVE");
-        notes.forEach(note -> {
-            note.setFolderId(target.getFolderId());
-            noteRepository.save(note);
-        });
+        noteFolderRepository.moveNotes(userIdx, source.getFolderId(), target.getFolderId());
 
         noteFolderRepository.delete(source);
     }
@@ -0,0 +1,477 @@
+package com.smhrd.web.service;
+
+import com.smhrd.web.util.FloatVector;
+import com.smhrd.web.util.PgVector;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.postgresql.PGConnection;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Function;
+
+/**
+ * user_notes.embedding ANN 인덱스 관리.
+ *
+ * - 기동 시 HNSW(vector_cosine_ops) 인덱스와 user_idx 필터용 btree 인덱스를 확인하고, 없거나 INVALID면 CONCURRENTLY 로 (재)생성
+ * - 검색 프로필(FAST/BALANCED/PRECISE/EXACT)별 hnsw.ef_search / ivfflat.probes 를 트랜잭션 단위(SET LOCAL)로 적용
+ * - user_idx 조건은 인덱스 스캔 뒤에 걸러지므로 pgvector 0.8+ 에서는 hnsw.iterative_scan 을 켜서 결과 부족을 막는다
+ * - 표본 노트로 ANN 결과를 정확 검색(EXACT)과 비교하는 recall 벤치마크 제공 (관리자용)
+ */
+@Slf4j
+@Service
+public class VectorIndexManager {
+
+    public static final String HNSW_INDEX = "idx_user_notes_embedding_hnsw";
+    public static final String USER_INDEX = "idx_user_notes_user_created";
+    public static final String TSV_INDEX = "idx_user_notes_search_tsv";
+    public static final String TITLE_TRGM_INDEX = "idx_user_notes_title_trgm";
+    public static final String CONTENT_TRGM_INDEX = "idx_user_notes_content_trgm";
+
+    public enum Profile { FAST, BALANCED, PRECISE, EXACT }
+
+    private final JdbcTemplate postgresJdbcTemplate;
+
+    // 없는 인덱스를 CONCURRENTLY 로 만들지 (운영에서는 251018_postgres.sql 로 미리 만들어 두는 것을 기본으로 함)
+    @Value("${vector.index.auto-create:false}")
+    private boolean autoCreate;
+
+    @Value("${vector.index.hnsw.m:16}")
+    private int hnswM;
+
+    @Value("${vector.index.hnsw.ef-construction:64}")
+    private int hnswEfConstruction;
+
+    // 하이브리드 검색용 search_tsv 컬럼 + GIN(tsvector/trigram) 인덱스
+    @Value("${vector.index.lexical.enabled:true}")
+    private boolean lexicalEnabled;
+
+    @Value("${vector.search.default-profile:BALANCED}")
+    private Profile defaultProfile;
+
+    @Value("${vector.search.ef-search.fast:20}")
+    private int efSearchFast;
+
+    @Value("${vector.search.ef-search.balanced:40}")
+    private int efSearchBalanced;
+
+    @Value("${vector.search.ef-search.precise:200}")
+    private int efSearchPrecise;
+
+    @Value("${vector.search.probes.fast:1}")
+    private int probesFast;
+
+    @Value("${vector.search.probes.balanced:5}")
+    private int probesBalanced;
+
+    @Value("${vector.search.probes.precise:20}")
+    private int probesPrecise;
+
+    private ExecutorService indexExecutor;
+
+    // 마지막 점검 결과
+    private volatile String extensionVersion;
+    private volatile boolean iterativeScan;
+    private volatile String annIndex;
+    private volatile boolean lexicalReady;
+    private volatile boolean trigramReady;
+    private volatile String lastCheckMessage = "not checked";
+
+    public VectorIndexManager(@Qualifier("postgresDataSource") DataSource dataSource) {
+        this.postgresJdbcTemplate = new JdbcTemplate(dataSource);
+    }
+
+    @PostConstruct
+    public void init() {
+        indexExecutor = Executors.newSingleThreadExecutor(new CustomizableThreadFactory("vector-index-"));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (indexExecutor != null) indexExecutor.shutdownNow();
+    }
+
+    // HNSW 빌드는 데이터가 많으면 오래 걸리므로 기동 스레드를 막지 않는다
+    @EventListener(ApplicationReadyEvent.class)
+    public void onReady() {
+        indexExecutor.submit(() -> {
+            try {
+                ensureIndexes();
+            } catch (Exception e) {
+                lastCheckMessage = "failed: " + e.getMessage();
+                log.warn("⚠️ 벡터 인덱스 점검 실패: {}", e.getMessage());
+            }
+        });
+    }
+
+    // ====== 인덱스 생성/검증 ======
+
+    public synchronized Map<String, Object> ensureIndexes() {
+        List<String> ext = postgresJdbcTemplate.queryForList(
+                "SELECT extversion FROM pg_extension WHERE extname = 'vector'", String.class);
+        if (ext.isEmpty()) {
+            lastCheckMessage = "pgvector extension not installed";
+            log.warn("⚠️ pgvector 확장이 설치되어 있지 않습니다 - 벡터 인덱스 점검 생략");
+            return status();
+        }
+        extensionVersion = ext.get(0);
+        iterativeScan = versionAtLeast(extensionVersion, 0, 8);
+
+        List<Map<String, Object>> indexes = listIndexes();
+
+        // 1. HNSW: 이름이 같은데 INVALID면 (CONCURRENTLY 빌드 중단 등) 지우고 다시 만든다
+        Map<String, Object> hnsw = findByName(indexes, HNSW_INDEX);
+        if (hnsw != null && !Boolean.TRUE.equals(hnsw.get("valid"))) {
+            log.warn("⚠️ {} 인덱스가 INVALID 상태 - 재생성", HNSW_INDEX);
+            postgresJdbcTemplate.execute("DROP INDEX CONCURRENTLY IF EXISTS " + HNSW_INDEX);
+            hnsw = null;
+        }
+
+        Map<String, Object> ann = hnsw != null ? hnsw : findCosineAnn(indexes);
+        if (ann == null && autoCreate) {
+            long start = System.currentTimeMillis();
+            log.info("🔧 {} 생성 시작 (m={}, ef_construction={})", HNSW_INDEX, hnswM, hnswEfConstruction);
+            postgresJdbcTemplate.execute(String.format(
+                    "CREATE INDEX CONCURRENTLY IF NOT EXISTS %s ON user_notes USING hnsw (embedding vector_cosine_ops) WITH (m = %d, ef_construction = %d)",
+                    HNSW_INDEX, hnswM, hnswEfConstruction));
+            log.info("✅ {} 생성 완료 ({}ms)", HNSW_INDEX, System.currentTimeMillis() - start);
+        }
+
+        // 2. user_idx 필터 + 최근 노트 정렬용 btree
+        ensureManagedIndex(indexes, USER_INDEX, "ON user_notes (user_idx, created_at DESC)");
+
+        // 3. 전문 검색: search_tsv(제목 A, 본문 B 가중치) + trigram (한국어 조사 붙은 단어/부분 일치용)
+        if (lexicalEnabled) {
+            ensureLexical(indexes);
+        }
+
+        indexes = listIndexes();
+        ann = findCosineAnn(indexes);
+        annIndex = ann != null ? (String) ann.get("name") : null;
+
+        for (Map<String, Object> idx : indexes) {
+            String def = String.valueOf(idx.get("definition"));
+            if ((def.contains("USING hnsw") || def.contains("USING ivfflat")) && !def.contains("vector_cosine_ops")) {
+                log.warn("⚠️ {} 는 코사인(<=>) 연산자 클래스가 아니라 검색에 쓰이지 않습니다: {}", idx.get("name"), def);
+            }
+        }
+
+        lastCheckMessage = annIndex != null ? "ok" : "no cosine ANN index (sequential scan)";
+        log.info("✅ 벡터 인덱스 점검 완료 - pgvector {}, ANN 인덱스: {}, iterative_scan: {}, 전문 검색: {}, trigram: {}",
+                extensionVersion, annIndex != null ? annIndex : "없음", iterativeScan, lexicalReady, trigramReady);
+        return status();
+    }
+
+    // 확장/컬럼 추가는 테이블 재작성이라 기동 시 하지 않고 251018_postgres.sql 로 적용한다. 여기서는 확인만
+    private void ensureLexical(List<Map<String, Object>> indexes) {
+        trigramReady = !postgresJdbcTemplate.queryForList(
+                "SELECT 1 FROM pg_extension WHERE extname = 'pg_trgm'", Integer.class).isEmpty();
+
+        boolean hasColumn = hasSearchColumn();
+        if (!hasColumn) {
+            log.warn("⚠️ user_notes.search_tsv 컬럼 없음 - 251018_postgres.sql 적용 전까지 어휘 검색은 ILIKE 로 대체");
+        }
+        if (hasColumn) {
+            ensureManagedIndex(indexes, TSV_INDEX, "ON user_notes USING gin (search_tsv)");
+        }
+        if (trigramReady) {
+            ensureManagedIndex(indexes, TITLE_TRGM_INDEX, "ON user_notes USING gin (title gin_trgm_ops)");
+            ensureManagedIndex(indexes, CONTENT_TRGM_INDEX, "ON user_notes USING gin (content gin_trgm_ops)");
+        }
+        lexicalReady = hasColumn;
+    }
+
+    private boolean hasSearchColumn() {
+        return !postgresJdbcTemplate.queryForList("""
+                SELECT 1 FROM information_schema.columns
+                WHERE table_name = 'user_notes' AND column_name = 'search_tsv'
+                """, Integer.class).isEmpty();
+    }
+
+    // 이름으로 관리하는 인덱스: INVALID면 지우고, 없으면 CONCURRENTLY 로 생성
+    private void ensureManagedIndex(List<Map<String, Object>> indexes, String name, String definition) {
+        if (!autoCreate) return;
+        Map<String, Object> idx = findByName(indexes, name);
+        if (idx != null && Boolean.TRUE.equals(idx.get("valid"))) return;
+        if (idx != null) {
+            log.warn("⚠️ {} 인덱스가 INVALID 상태 - 재생성", name);
+            postgresJdbcTemplate.execute("DROP INDEX CONCURRENTLY IF EXISTS " + name);
+        }
+        long start = System.currentTimeMillis();
+        postgresJdbcTemplate.execute("CREATE INDEX CONCURRENTLY IF NOT EXISTS " + name + " " + definition);
+        log.info("✅ {} 생성 완료 ({}ms)", name, System.currentTimeMillis() - start);
+    }
+
+    /** pgvector 0.8+ iterative scan 사용 여부 (켜져 있으면 user_idx 필터로 ANN 결과가 모자라지 않음) */
+    public boolean isIterativeScan() {
+        return iterativeScan;
+    }
+
+    /** search_tsv 컬럼이 준비됐는지 (아니면 하이브리드 검색은 ILIKE 로만 어휘 검색) */
+    public boolean isLexicalReady() {
+        return lexicalReady;
+    }
+
+    public Map<String, Object> status() {
+        Map<String, Object> status = new LinkedHashMap<>();
+        status.put("extensionVersion", extensionVersion);
+        status.put("annIndex", annIndex);
+        status.put("iterativeScan", iterativeScan);
+        status.put("lexicalReady", lexicalReady);
+        status.put("trigramReady", trigramReady);
+        status.put("defaultProfile", defaultProfile.name());
+        status.put("lastCheck", lastCheckMessage);
+
+        Map<String, Object> profiles = new LinkedHashMap<>();
+        for (Profile p : Profile.values()) {
+            profiles.put(p.name(), p == Profile.EXACT
+                    ? Map.of("indexScan", false)
+                    : Map.of("efSearch", efSearch(p), "probes", probes(p)));
+        }
+        status.put("profiles", profiles);
+
+        try {
+            status.put("indexes", listIndexes());
+            status.put("estimatedRows", postgresJdbcTemplate.queryForObject(
+                    "SELECT reltuples::bigint FROM pg_class WHERE relname = 'user_notes'", Long.class));
+        } catch (Exception e) {
+            status.put("error", e.getMessage());
+        }
+        return status;
+    }
+
+    private List<Map<String, Object>> listIndexes() {
+        return postgresJdbcTemplate.query("""
+                SELECT i.relname AS name, am.amname AS method, ix.indisvalid AS valid,
+                       pg_get_indexdef(ix.indexrelid) AS definition
+                FROM pg_index ix
+                JOIN pg_class i ON i.oid = ix.indexrelid
+                JOIN pg_class t ON t.oid = ix.indrelid
+                JOIN pg_am am ON am.oid = i.relam
+                WHERE t.relname = 'user_notes'
+                ORDER BY i.relname
+                """, (rs, rowNum) -> {
+            Map<String, Object> row = new LinkedHashMap<>();
+            row.put("name", rs.getString("name"));
+            row.put("method", rs.getString("method"));
+            row.put("valid", rs.getBoolean("valid"));
+            row.put("definition", rs.getString("definition"));
+            return row;
+        });
+    }
+
+    private static Map<String, Object> findByName(List<Map<String, Object>> indexes, String name) {
+        return indexes.stream().filter(i -> name.equals(i.get("name"))).findFirst().orElse(null);
+    }
+
+    // 직접 만든 인덱스가 있으면 그대로 인정 (hnsw 우선, 그다음 ivfflat)
+    private static Map<String, Object> findCosineAnn(List<Map<String, Object>> indexes) {
+        Map<String, Object> ivfflat = null;
+        for (Map<String, Object> idx : indexes) {
+            if (!Boolean.TRUE.equals(idx.get("valid"))) continue;
+            String def = String.valueOf(idx.get("definition"));
+            if (!def.contains("vector_cosine_ops")) continue;
+            if ("hnsw".equals(idx.get("method"))) return idx;
+            if ("ivfflat".equals(idx.get("method")) && ivfflat == null) ivfflat = idx;
+        }
+        return ivfflat;
+    }
+
+    static boolean versionAtLeast(String version, int major, int minor) {
+        try {
+            String[] parts = version.split("\\.");
+            int ma = Integer.parseInt(parts[0]);
+            int mi = parts.length > 1 ? Integer.parseInt(parts[1]) : 0;
+            return ma > major || (ma == major && mi >= minor);
+        } catch (Exception e) {
+            return false;
+        }
+    }
+
+    // ====== 검색 프로필 ======
+
+    public Profile defaultProfile() {
+        return defaultProfile;
+    }
+
+    private int efSearch(Profile profile) {
+        return switch (profile) {
+            case FAST -> efSearchFast;
+            case PRECISE -> efSearchPrecise;
+            default -> efSearchBalanced;
+        };
+    }
+
+    private int probes(Profile profile) {
+        return switch (profile) {
+            case FAST -> probesFast;
+            case PRECISE -> probesPrecise;
+            default -> probesBalanced;
+        };
+    }
+
+    /**
+     * 프로필 설정(SET LOCAL)을 적용한 한 트랜잭션 안에서 work 를 실행한다.
+     * postgresDataSource 는 호출마다 새 연결이므로 설정과 쿼리를 같은 연결에 묶어야 한다.
+     */
+    public <T> T inProfile(Profile profile, Function<NamedParameterJdbcTemplate, T> work) {
+        Profile p = profile != null ? profile : defaultProfile;
+        return postgresJdbcTemplate.execute((ConnectionCallback<T>) conn -> {
+            boolean autoCommit = conn.getAutoCommit();
+            conn.setAutoCommit(false);
+            try {
+                applyProfile(conn, p);
+                T result = work.apply(new NamedParameterJdbcTemplate(new SingleConnectionDataSource(conn, true)));
+                conn.commit();
+                return result;
+            } catch (SQLException | RuntimeException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(autoCommit);
+            }
+        });
+    }
+
+    private void applyProfile(Connection conn, Profile profile) throws SQLException {
+        if (profile == Profile.EXACT) {
+            // HNSW/IVFFlat 은 index scan 으로만 쓰이므로 끄면 정확 검색 (user_idx btree 는 bitmap scan 으로 계속 사용)
+            try (PreparedStatement ps = conn.prepareStatement("SELECT set_config('enable_indexscan', 'off', true)")) {
+                ps.execute();
+            }
+            return;
+        }
+        String sql = iterativeScan
+                ? "SELECT set_config('hnsw.ef_search', ?, true), set_config('ivfflat.probes', ?, true), set_config('hnsw.iterative_scan', 'relaxed_order', true)"
+                : "SELECT set_config('hnsw.ef_search', ?, true), set_config('ivfflat.probes', ?, true)";
+        try (PreparedStatement ps = conn.prepareStatement(sql)) {
+            ps.setString(1, String.valueOf(efSearch(profile)));
+            ps.setString(2, String.valueOf(probes(profile)));
+            ps.execute();
+        }
+    }
+
+    // ====== recall 벤치마크 ======
+
+    private record Sample(long noteIdx, long userIdx, FloatVector embedding) {}
+
+    /**
+     * 표본 노트의 임베딩을 질의로 삼아 같은 사용자 범위에서 ANN(profile) 결과와 EXACT 결과를 비교한다.
+     * 운영 DB에 표본 수 × 2 번의 검색을 실행하므로 관리자가 한가한 시간에 수동으로 호출할 것.
+     */
+    public Map<String, Object> benchmarkRecall(int sampleSize, int k, Profile profile) {
+        int n = Math.max(1, Math.min(sampleSize, 500));
+        int topK = Math.max(1, Math.min(k, 100));
+        Profile p = profile != null ? profile : defaultProfile;
+
+        List<Sample> samples = loadSamples(n);
+        if (samples.isEmpty()) {
+            return Map.of("status", "error", "message", "임베딩이 있는 노트가 없습니다");
+        }
+
+        String sql = """
+                SELECT note_idx FROM user_notes
+                WHERE user_idx = :userId AND embedding IS NOT NULL
+                ORDER BY embedding <=> :vector
+                LIMIT :limit
+                """;
+
+        double recallSum = 0;
+        double recallMin = 1.0;
+        long[] annNanos = new long[samples.size()];
+        long[] exactNanos = new long[samples.size()];
+
+        for (int i = 0; i < samples.size(); i++) {
+            Sample s = samples.get(i);
+            MapSqlParameterSource params = new MapSqlParameterSource()
+                    .addValue("userId", s.userIdx())
+                    .addValue("vector", PgVector.of(s.embedding()))
+                    .addValue("limit", topK);
+
+            long t0 = System.nanoTime();
+            List<Long> ann = inProfile(p, t -> t.queryForList(sql, params, Long.class));
+            long t1 = System.nanoTime();
+            List<Long> exact = inProfile(Profile.EXACT, t -> t.queryForList(sql, params, Long.class));
+            long t2 = System.nanoTime();
+
+            annNanos[i] = t1 - t0;
+            exactNanos[i] = t2 - t1;
+
+            double recall = 1.0;
+            if (!exact.isEmpty()) {
+                Set<Long> truth = new HashSet<>(exact);
+                long hit = ann.stream().filter(truth::contains).count();
+                recall = (double) hit / exact.size();
+            }
+            recallSum += recall;
+            recallMin = Math.min(recallMin, recall);
+        }
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("status", "success");
+        result.put("profile", p.name());
+        result.put("annIndex", annIndex);
+        result.put("samples", samples.size());
+        result.put("k", topK);
+        result.put("recallMean", Math.round(recallSum / samples.size() * 10000) / 10000.0);
+        result.put("recallMin", Math.round(recallMin * 10000) / 10000.0);
+        result.put("annLatencyMs", latency(annNanos));
+        result.put("exactLatencyMs", latency(exactNanos));
+        log.info("📊 벡터 recall 벤치마크 - profile={}, samples={}, k={}, recall={}",
+                p, samples.size(), topK, result.get("recallMean"));
+        return result;
+    }
+
+    private List<Sample> loadSamples(int n) {
+        return postgresJdbcTemplate.execute((ConnectionCallback<List<Sample>>) conn -> {
+            // vector 컬럼을 PgVector 로 받기 (텍스트/바이너리 수신 모두 처리)
+            conn.unwrap(PGConnection.class).addDataType(PgVector.TYPE, PgVector.class);
+            List<Sample> out = new ArrayList<>();
+            try (PreparedStatement ps = conn.prepareStatement(
+                    "SELECT note_idx, user_idx, embedding FROM user_notes WHERE embedding IS NOT NULL ORDER BY random() LIMIT ?")) {
+                ps.setInt(1, n);
+                try (var rs = ps.executeQuery()) {
+                    while (rs.next()) {
+                        Object v = rs.getObject("embedding");
+                        if (v instanceof PgVector pv && !pv.vector().isEmpty()) {
+                            out.add(new Sample(rs.getLong("note_idx"), rs.getLong("user_idx"), pv.vector()));
+                        }
+                    }
+                }
+            }
+            return out;
+        });
+    }
+
+    private static Map<String, Object> latency(long[] nanos) {
+        long[] sorted = nanos.clone();
+        Arrays.sort(sorted);
+        return Map.of(
+                "p50", percentileMs(sorted, 0.50),
+                "p95", percentileMs(sorted, 0.95),
+                "max", percentileMs(sorted, 1.0));
+    }
+
+    private static double percentileMs(long[] sorted, double q) {
+        int idx = (int) Math.ceil(q * sorted.length) - 1;
+        long v = sorted[Math.max(0, Math.min(sorted.length - 1, idx))];
+        return Math.round(v / 10_000.0) / 100.0;
+    }
+}
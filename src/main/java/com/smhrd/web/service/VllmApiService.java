@@ -1,32 +1,19 @@
 package com.smhrd.web.service;
 
-import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.smhrd.web.dto.ChatCompletionRequest;
 import com.smhrd.web.entity.Prompt;
 import com.smhrd.web.repository.PromptRepository;
-import lombok.RequiredArgsConstructor;
-import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.http.HttpHeaders;
-import org.springframework.http.MediaType;
 import org.springframework.stereotype.Service;
-import org.springframework.web.reactive.function.client.WebClient;
-import reactor.core.publisher.Mono;
 
 import java.time.Duration;
-import java.util.HashMap;
-import java.util.List;
-import java.util.Map;
 
 @Service
 public class VllmApiService {
 
-    private final WebClient vllmWebClient;
-    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final VllmGateway vllmGateway;
     private final PromptRepository promptRepository;
 
-    private final WebClient.Builder webClientBuilder;
-
     @Value("${vllm.api.model}")
     private String modelName;
 
@@ -36,16 +23,9 @@ public class VllmApiService {
     @Value("${vllm.api.temperature}")
     private double temperature;
 
-    @Value("${vllm.api.url}")
-    private String apiUrl;
-
-    public VllmApiService(
-            @Qualifier("vllmApiClient") WebClient vllmWebClient,
-            PromptRepository promptRepository,
-            WebClient.Builder webClientBuilder) {
-        this.vllmWebClient = vllmWebClient;
+    public VllmApiService(VllmGateway vllmGateway, PromptRepository promptRepository) {
+        this.vllmGateway = vllmGateway;
         this.promptRepository = promptRepository;
-        this.webClientBuilder = webClientBuilder;
     }
     /**
      * 노션 생성: DB 프롬프트 + 사용자 입력을 합쳐 마크다운 전문을 반환
@@ -58,33 +38,16 @@ public class VllmApiService {
             String fullPrompt = prompt.getContent() + "\n\n" + userContent;
 
             // 2. 요청 데이터 구성
-            Map<String, Object> requestData = new HashMap<>();
-            requestData.put("model", modelName);
-            List<Map<String, String>> messages = List.of(
-                    Map.of("role", "system", "content", "You are a helpful assistant."),
-                    Map.of("role", "user", "content", fullPrompt)
-            );
-            requestData.put("messages", messages);
-            requestData.put("max_tokens", maxTokens);
-            requestData.put("temperature", temperature);
+            ChatCompletionRequest req = ChatCompletionRequest.of(modelName,
+                    "You are a helpful assistant.", fullPrompt, maxTokens, temperature);
 
             // 3. vLLM API 호출
-            String response = webClientBuilder.baseUrl(apiUrl).build()
-                    .post().uri("/v1/chat/completions")
-                    .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
-                    .bodyValue(requestData)
-                    .retrieve().bodyToMono(String.class)
-                    .timeout(Duration.ofSeconds(60))
-                    .block();
-
-            if (response == null) {
+            String content = vllmGateway.completeText(VllmGateway.Endpoint.SUMMARY,
+                    VllmScheduler.Caller.userSummary(null), req, Duration.ofSeconds(60));
+            if (content.isEmpty()) {
                 throw new RuntimeException("vLLM 서버가 빈 응답을 반환했습니다.");
             }
-
-            // 4. JSON 파싱
-            JsonNode root = objectMapper.readTree(response);
-            JsonNode contentNode = root.path("choices").get(0).path("message").path("content");
-            return contentNode.asText();
+            return content;
 
         } catch (Exception e) {
             throw new RuntimeException("AI 요약 생성 중 오류가 발생했습니다: " + e.getMessage(), e);
@@ -96,31 +59,12 @@ public class VllmApiService {
      */
     public String generateResponse(String contextualPrompt) {
         try {
-            Map<String, Object> req = new HashMap<>();
-            req.put("model", modelName);
-            req.put("max_tokens", Math.min(maxTokens, 800));
-            req.put("temperature", 1.0);
-            req.put("stream", false);
-
             String system = "You are a helpful assistant. Answer in Korean.";
-            List<Map<String, String>> messages = List.of(
-                    Map.of("role", "system", "content", system),
-                    Map.of("role", "user", "content", contextualPrompt)
-            );
-            req.put("messages", messages);
-
-            String response = vllmWebClient.post()
-                    .uri("/v1/chat/completions")
-                    .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
-                    .bodyValue(req)
-                    .retrieve()
-                    .bodyToMono(String.class)
-                    .timeout(Duration.ofSeconds(60))
-                    .block();
-
-            JsonNode root = objectMapper.readTree(response);
-            JsonNode contentNode = root.path("choices").get(0).path("message").path("content");
-            return contentNode.asText();
+            ChatCompletionRequest req = ChatCompletionRequest.of(modelName, system, contextualPrompt,
+                    Math.min(maxTokens, 800), 1.0);
+
+            return vllmGateway.completeText(VllmGateway.Endpoint.SUMMARY,
+                    VllmScheduler.Caller.interactive(null), req, Duration.ofSeconds(60));
 
         } catch (Exception e) {
             return "AI 서비스 호출 중 오류가 발생했습니다: " + e.getMessage();
@@ -151,34 +95,12 @@ public String generateWithCustomSystem(String systemPrompt,
         int maxTok = (maxTokens == null || maxTokens <= 0) ? maxTokens : maxTokens;
         double temp = (temperature == null) ? temperature : temperature;
 
-        java.util.Map<String, Object> req = new java.util.HashMap<>();
-        req.put("model", modelName);
-        req.put("max_tokens", maxTok);
-        req.put("temperature", temp);
-        req.put("stream", false);
-        req.put("messages", java.util.List.of(
-            java.util.Map.of("role", "system", "content", systemPrompt == null ? "" : systemPrompt),
-            java.util.Map.of("role", "user",   "content", userContent == null ? "" : userContent)
-        ));
-
-        String resp = vllmWebClient.post()
-            .uri("/v1/chat/completions")
-            .bodyValue(req)
-            .retrieve()
-            .bodyToMono(String.class)
-            .block();
-
-        // 공통 추출기와 동일 로직을 사용해 content를 꺼냄
-        try {
-            com.fasterxml.jackson.databind.JsonNode root = new com.fasterxml.jackson.databind.ObjectMapper().readTree(resp);
-            com.fasterxml.jackson.databind.JsonNode choices = root.path("choices");
-            if (choices.isArray() && choices.size() > 0) {
-                String c = choices.get(0).path("message").path("content").asText(null);
-                if (c != null && !c.isBlank()) return c.trim();
-            }
-        } catch (Exception ignore) {}
-        return resp;
+        ChatCompletionRequest req = ChatCompletionRequest.of(modelName,
+                systemPrompt == null ? "" : systemPrompt, userContent, maxTok, temp);
+
+        return vllmGateway.completeText(VllmGateway.Endpoint.SUMMARY, VllmScheduler.Caller.userSummary(null), req).trim();
     }
 }
 
 
+
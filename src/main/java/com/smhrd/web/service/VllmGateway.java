@@ -0,0 +1,344 @@
+package com.smhrd.web.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.smhrd.web.dto.ChatCompletionRequest;
+import com.smhrd.web.dto.ChatCompletionResponse;
+import com.smhrd.web.dto.ChatMessage;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientRequestException;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.util.retry.Retry;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * vLLM 호출 단일 창구.
+ * - 엔드포인트: SUMMARY(요약/노트용 vllm.api), CHAT(챗봇용 vllm.chatbot)
+ * - 실행 순서/동시 실행 수는 VllmScheduler가 결정 (호출자가 우선순위와 사용자를 넘김)
+ * - 재시도 가능한 오류(연결 실패, 429/502/503/504)만 지터 백오프로 재시도
+ * - 연속 실패 시 서킷 오픈 → 일정 시간 즉시 실패 (GPU 과부하 시 Tomcat 스레드가 쌓이지 않도록)
+ */
+@Slf4j
+@Component
+public class VllmGateway {
+
+	public enum Endpoint { SUMMARY, CHAT }
+
+	/** 스케줄러 대기열 초과 / 서킷 오픈으로 요청을 받지 않은 경우 */
+	public static class VllmOverloadedException extends RuntimeException {
+		private static final long serialVersionUID = 1L;
+
+		public VllmOverloadedException(String message) {
+			super(message);
+		}
+	}
+
+	private static final String COMPLETIONS_URI = "/v1/chat/completions";
+
+	private final Map<Endpoint, WebClient> clients = new EnumMap<>(Endpoint.class);
+	private final Map<Endpoint, CircuitBreaker> breakers = new EnumMap<>(Endpoint.class);
+	private final ObjectMapper objectMapper = new ObjectMapper();
+	private final MeterRegistry meterRegistry;
+	private final VllmScheduler scheduler;
+	private final ExaoneTokenizer tokenizer;
+
+	// max_tokens를 지정하지 않은 요청의 출력 토큰 추정치 (스케줄러 토큰 예산용)
+	private static final int DEFAULT_OUTPUT_TOKENS = 512;
+
+	@Value("${vllm.gateway.max-retries:2}")
+	private int maxRetries;
+
+	@Value("${vllm.gateway.retry-backoff-ms:300}")
+	private long retryBackoffMs;
+
+	@Value("${vllm.gateway.breaker.failure-threshold:5}")
+	private int breakerFailureThreshold;
+
+	@Value("${vllm.gateway.breaker.open-ms:30000}")
+	private long breakerOpenMs;
+
+	public VllmGateway(@Qualifier("vllmApiClient") WebClient vllmApiClient,
+					   @Qualifier("vllmChat") WebClient vllmChat,
+					   MeterRegistry meterRegistry,
+					   VllmScheduler scheduler,
+					   ExaoneTokenizer tokenizer) {
+		clients.put(Endpoint.SUMMARY, vllmApiClient);
+		clients.put(Endpoint.CHAT, vllmChat);
+		this.meterRegistry = meterRegistry;
+		this.scheduler = scheduler;
+		this.tokenizer = tokenizer;
+	}
+
+	@PostConstruct
+	void init() {
+		for (Endpoint ep : Endpoint.values()) {
+			breakers.put(ep, new CircuitBreaker(ep));
+		}
+	}
+
+	// ====== 일반 호출 ======
+
+	public ChatCompletionResponse complete(Endpoint endpoint, VllmScheduler.Caller caller, ChatCompletionRequest request) {
+		return complete(endpoint, caller, request, null);
+	}
+
+	/**
+	 * 블로킹 호출. timeout이 null이면 HTTP 클라이언트의 응답 타임아웃만 적용.
+	 * 스케줄러 대기 시간은 timeout에 포함되지 않는다.
+	 */
+	public ChatCompletionResponse complete(Endpoint endpoint, VllmScheduler.Caller caller,
+										   ChatCompletionRequest request, Duration timeout) {
+		request.setStream(false);
+		CircuitBreaker breaker = admit(endpoint);
+		VllmScheduler.Permit permit = acquire(endpoint, caller, request, breaker);
+		try {
+			return send(endpoint, request, timeout, breaker);
+		} finally {
+			permit.release();
+		}
+	}
+
+	/** 첫 번째 choice 본문만 필요한 경우 (없으면 빈 문자열) */
+	public String completeText(Endpoint endpoint, VllmScheduler.Caller caller, ChatCompletionRequest request) {
+		return completeText(endpoint, caller, request, null);
+	}
+
+	public String completeText(Endpoint endpoint, VllmScheduler.Caller caller,
+							   ChatCompletionRequest request, Duration timeout) {
+		return firstContent(complete(endpoint, caller, request, timeout));
+	}
+
+	/**
+	 * completeText의 비동기 버전. 스케줄러 슬롯을 받은 뒤에야 executor에 호출을 넣으므로
+	 * executor 스레드는 슬롯 대기로 묶이지 않는다 (청크 병렬 호출용).
+	 */
+	public CompletableFuture<String> completeTextAsync(Endpoint endpoint, VllmScheduler.Caller caller,
+													   ChatCompletionRequest request, Duration timeout, Executor executor) {
+		request.setStream(false);
+		CircuitBreaker breaker;
+		try {
+			breaker = admit(endpoint);
+		} catch (VllmOverloadedException e) {
+			return CompletableFuture.failedFuture(e);
+		}
+		return scheduler.acquireAsync(caller, estimateTokens(request))
+				.whenComplete((permit, e) -> {
+					if (e != null) {
+						breaker.releaseTrial();
+						record(endpoint, "rejected");
+					}
+				})
+				.thenApplyAsync(permit -> {
+					try {
+						return firstContent(send(endpoint, request, timeout, breaker));
+					} finally {
+						permit.release();
+					}
+				}, executor);
+	}
+
+	private ChatCompletionResponse send(Endpoint endpoint, ChatCompletionRequest request, Duration timeout,
+										CircuitBreaker breaker) {
+		try {
+			Mono<ChatCompletionResponse> call = clients.get(endpoint).post()
+					.uri(COMPLETIONS_URI)
+					.bodyValue(request)
+					.retrieve()
+					.bodyToMono(ChatCompletionResponse.class)
+					.retryWhen(retrySpec(endpoint));
+			if (timeout != null) {
+				call = call.timeout(timeout);
+			}
+			ChatCompletionResponse response = call.block();
+			breaker.onSuccess();
+			record(endpoint, "success");
+			return response;
+		} catch (RuntimeException e) {
+			onFailure(endpoint, breaker, e);
+			throw e;
+		}
+	}
+
+	private static String firstContent(ChatCompletionResponse response) {
+		String content = (response == null) ? null : response.firstContent();
+		return content == null ? "" : content;
+	}
+
+	// ====== 스트리밍 호출 ======
+
+	/**
+	 * stream=true 호출. 토큰 조각(delta.content)만 흘려보낸다.
+	 * 실행 슬롯은 구독 시점에 확보되고 스트림이 끝나거나 취소될 때 반환된다.
+	 * 스트리밍은 일부 토큰이 이미 전달됐을 수 있으므로 재시도하지 않는다.
+	 */
+	public Flux<String> stream(Endpoint endpoint, VllmScheduler.Caller caller, ChatCompletionRequest request) {
+		request.setStream(true);
+		return Flux.defer(() -> {
+			CircuitBreaker breaker = admit(endpoint);
+			VllmScheduler.Permit permit = acquire(endpoint, caller, request, breaker);
+			return streamWithPermit(endpoint, request, breaker, permit);
+		});
+	}
+
+	private Flux<String> streamWithPermit(Endpoint endpoint, ChatCompletionRequest request,
+										  CircuitBreaker breaker, VllmScheduler.Permit permit) {
+		return clients.get(endpoint).post()
+				.uri(COMPLETIONS_URI)
+				.accept(MediaType.TEXT_EVENT_STREAM)
+				.bodyValue(request)
+				.retrieve()
+				.bodyToFlux(String.class)
+				.mapNotNull(this::parseDelta)
+				.doOnComplete(() -> {
+					breaker.onSuccess();
+					record(endpoint, "success");
+				})
+				.doOnError(e -> onFailure(endpoint, breaker, e))
+				.doOnCancel(breaker::releaseTrial)
+				.doFinally(signal -> permit.release());
+	}
+
+	// SSE data 한 건 → delta.content ([DONE], 빈 청크, 파싱 실패는 null)
+	private String parseDelta(String data) {
+		if (data == null) return null;
+		String payload = data.strip();
+		if (payload.startsWith("data:")) payload = payload.substring(5).strip();
+		if (payload.isEmpty() || "[DONE]".equals(payload)) return null;
+		try {
+			String delta = objectMapper.readValue(payload, ChatCompletionResponse.class).firstContent();
+			return (delta == null || delta.isEmpty()) ? null : delta;
+		} catch (Exception e) {
+			log.debug("스트리밍 청크 파싱 실패: {}", payload);
+			return null;
+		}
+	}
+
+	// ====== 보호 장치 ======
+
+	private CircuitBreaker admit(Endpoint endpoint) {
+		CircuitBreaker breaker = breakers.get(endpoint);
+		if (!breaker.allowRequest()) {
+			record(endpoint, "circuit_open");
+			throw new VllmOverloadedException("AI 서버가 일시적으로 응답하지 않습니다. 잠시 후 다시 시도해주세요.");
+		}
+		return breaker;
+	}
+
+	private VllmScheduler.Permit acquire(Endpoint endpoint, VllmScheduler.Caller caller,
+										 ChatCompletionRequest request, CircuitBreaker breaker) {
+		try {
+			return scheduler.acquire(caller, estimateTokens(request));
+		} catch (VllmOverloadedException e) {
+			breaker.releaseTrial();
+			record(endpoint, "rejected");
+			throw e;
+		}
+	}
+
+	// 프롬프트 토큰 + 출력 상한 (채팅 템플릿 토큰은 무시)
+	private int estimateTokens(ChatCompletionRequest request) {
+		int tokens = 0;
+		for (ChatMessage m : request.getMessages()) {
+			tokens += tokenizer.countTokens(m.getContent());
+		}
+		return tokens + (request.getMaxTokens() != null ? request.getMaxTokens() : DEFAULT_OUTPUT_TOKENS);
+	}
+
+	private Retry retrySpec(Endpoint endpoint) {
+		return Retry.backoff(Math.max(0, maxRetries), Duration.ofMillis(retryBackoffMs))
+				.jitter(0.5)
+				.filter(this::isRetryable)
+				.doBeforeRetry(s -> log.warn("🔁 vLLM {} 재시도 {}회: {}", endpoint, s.totalRetries() + 1,
+						s.failure().getMessage()))
+				.onRetryExhaustedThrow((spec, signal) -> signal.failure());
+	}
+
+	// 연결 단계 실패와 과부하 응답만 재시도 (생성 도중 타임아웃은 GPU를 이미 썼으므로 재시도하지 않음)
+	private boolean isRetryable(Throwable t) {
+		if (t instanceof WebClientRequestException) return true;
+		if (t instanceof WebClientResponseException r) {
+			int code = r.getStatusCode().value();
+			return code == 429 || code == 502 || code == 503 || code == 504;
+		}
+		return false;
+	}
+
+	// 서킷 실패로 칠 오류: 연결 실패, 타임아웃, 5xx, 429 (그 외 4xx는 요청 문제이므로 제외)
+	private void onFailure(Endpoint endpoint, CircuitBreaker breaker, Throwable e) {
+		boolean serverSide = e instanceof WebClientRequestException
+				|| e instanceof TimeoutException
+				|| (e.getCause() instanceof TimeoutException)
+				|| (e instanceof WebClientResponseException r
+					&& (r.getStatusCode().is5xxServerError() || r.getStatusCode().value() == 429));
+		if (serverSide) {
+			breaker.onFailure();
+		} else {
+			breaker.onSuccess();
+		}
+		record(endpoint, "error");
+	}
+
+	private void record(Endpoint endpoint, String outcome) {
+		meterRegistry.counter("vllm.gateway.requests", "endpoint", endpoint.name(), "outcome", outcome).increment();
+	}
+
+	/** 연속 실패 기반 서킷 브레이커 (CLOSED → OPEN → HALF_OPEN 시험 1건 → CLOSED/OPEN) */
+	private class CircuitBreaker {
+		private final Endpoint endpoint;
+		private final AtomicInteger consecutiveFailures = new AtomicInteger();
+		private final AtomicBoolean trialInFlight = new AtomicBoolean(false);
+		private volatile long openedAt = 0L;   // 0이면 CLOSED
+
+		CircuitBreaker(Endpoint endpoint) {
+			this.endpoint = endpoint;
+		}
+
+		boolean allowRequest() {
+			long opened = openedAt;
+			if (opened == 0L) return true;
+			if (System.currentTimeMillis() - opened < breakerOpenMs) return false;
+			// HALF_OPEN: 시험 요청 1건만 통과
+			return trialInFlight.compareAndSet(false, true);
+		}
+
+		void releaseTrial() {
+			trialInFlight.set(false);
+		}
+
+		void onSuccess() {
+			consecutiveFailures.set(0);
+			if (openedAt != 0L) {
+				log.info("✅ vLLM {} 서킷 닫힘 (복구 확인)", endpoint);
+			}
+			openedAt = 0L;
+			trialInFlight.set(false);
+		}
+
+		void onFailure() {
+			int failures = consecutiveFailures.incrementAndGet();
+			if (openedAt != 0L || failures >= Math.max(1, breakerFailureThreshold)) {
+				if (openedAt == 0L) {
+					log.warn("🚫 vLLM {} 서킷 오픈: 연속 실패 {}회, {}ms 동안 즉시 실패", endpoint, failures, breakerOpenMs);
+				}
+				openedAt = System.currentTimeMillis();
+			}
+			trialInFlight.set(false);
+		}
+	}
+}
@@ -0,0 +1,379 @@
+package com.smhrd.web.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tag;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * vLLM 요청 스케줄러 (클라이언트 측).
+ * 요약 서버와 챗봇 서버가 같은 GPU를 쓰므로 두 엔드포인트의 실행 슬롯을 하나로 관리한다.
+ *
+ * - 우선순위: INTERACTIVE(챗봇) > USER_SUMMARY(사용자가 기다리는 요약) > BACKGROUND(비동기 작업)
+ *   · 상위 클래스에 대기자가 있으면 하위 클래스는 슬롯을 받지 못함
+ *   · interactive-reserved 개 슬롯은 INTERACTIVE 전용 → 긴 문서 요약 중에도 챗봇 응답 지연이 늘지 않음
+ *   · BACKGROUND는 background-max 개까지만 동시에 실행
+ * - 같은 클래스 안에서는 userIdx 단위 라운드로빈 (청크 60개짜리 문서 하나가 다른 사용자를 막지 않도록)
+ * - 사용자별 처리 중 토큰(프롬프트 + max_tokens) 상한: 진행 중인 요청이 없으면 크기와 관계없이 1건은 허용
+ * - 스레드 풀에서 호출할 때는 acquireAsync로 슬롯을 먼저 받고 작업을 넣는다
+ *   (풀 스레드가 acquire 대기로 묶이면 풀 큐의 FIFO 순서가 라운드로빈보다 먼저 적용됨)
+ */
+@Slf4j
+@Component
+public class VllmScheduler {
+
+	public enum Priority { INTERACTIVE, USER_SUMMARY, BACKGROUND }
+
+	/** 호출 주체 (우선순위 + 사용자). userIdx가 null이면 시스템 호출로 묶어서 취급 */
+	public record Caller(Priority priority, Long userIdx) {
+		public static final Caller SYSTEM = new Caller(Priority.BACKGROUND, null);
+
+		public static Caller interactive(Long userIdx) {
+			return new Caller(Priority.INTERACTIVE, userIdx);
+		}
+
+		public static Caller userSummary(Long userIdx) {
+			return new Caller(Priority.USER_SUMMARY, userIdx);
+		}
+
+		public static Caller background(Long userIdx) {
+			return new Caller(Priority.BACKGROUND, userIdx);
+		}
+	}
+
+	/** 실행 슬롯. release는 여러 번 호출해도 한 번만 반영된다 */
+	public final class Permit implements AutoCloseable {
+		private final Waiter waiter;
+		private boolean released = false;
+
+		private Permit(Waiter waiter) {
+			this.waiter = waiter;
+		}
+
+		public void release() {
+			lock.lock();
+			try {
+				if (released) return;
+				released = true;
+				running--;
+				runningByClass.merge(waiter.priority, -1, Integer::sum);
+				tokensByUser.computeIfPresent(waiter.userKey, (k, v) -> v - waiter.tokens <= 0 ? null : v - waiter.tokens);
+				dispatch();
+			} finally {
+				lock.unlock();
+				completeGranted();
+			}
+		}
+
+		@Override
+		public void close() {
+			release();
+		}
+	}
+
+	private static final long SYSTEM_USER_KEY = -1L;
+
+	@Value("${vllm.scheduler.max-concurrent:8}")
+	private int maxConcurrent;
+
+	@Value("${vllm.scheduler.interactive-reserved:2}")
+	private int interactiveReserved;
+
+	@Value("${vllm.scheduler.background-max:2}")
+	private int backgroundMax;
+
+	@Value("${vllm.scheduler.user-max-tokens-in-flight:24000}")
+	private int userMaxTokensInFlight;
+
+	@Value("${vllm.scheduler.max-queue:256}")
+	private int maxQueue;
+
+	// 챗봇은 오래 기다리게 하느니 빨리 실패시키고, 요약은 순서를 기다린다
+	@Value("${vllm.scheduler.interactive-queue-timeout-ms:10000}")
+	private long interactiveQueueTimeoutMs;
+
+	@Value("${vllm.scheduler.batch-queue-timeout-ms:600000}")
+	private long batchQueueTimeoutMs;
+
+	private final MeterRegistry meterRegistry;
+
+	private final ReentrantLock lock = new ReentrantLock();
+	// 클래스별 → 사용자별 FIFO. LinkedHashMap 순서가 라운드로빈 순서 (슬롯을 받은 사용자는 맨 뒤로)
+	private final Map<Priority, LinkedHashMap<Long, ArrayDeque<Waiter>>> queues = new EnumMap<>(Priority.class);
+	private final Map<Priority, Integer> runningByClass = new EnumMap<>(Priority.class);
+	private final Map<Long, Integer> tokensByUser = new HashMap<>();
+	// 슬롯을 받았지만 아직 future를 완료하지 않은 비동기 대기자 (콜백이 lock 안에서 실행되지 않도록 lock 밖에서 완료)
+	private final List<Waiter> grantedAsync = new ArrayList<>();
+	private ScheduledExecutorService timeoutTimer;
+	private int running = 0;
+	private int queued = 0;
+
+	public VllmScheduler(MeterRegistry meterRegistry) {
+		this.meterRegistry = meterRegistry;
+	}
+
+	@PostConstruct
+	void init() {
+		timeoutTimer = Executors.newSingleThreadScheduledExecutor(new CustomizableThreadFactory("vllm-scheduler-timeout-"));
+		for (Priority p : Priority.values()) {
+			queues.put(p, new LinkedHashMap<>());
+			runningByClass.put(p, 0);
+			List<Tag> tags = List.of(Tag.of("priority", p.name()));
+			meterRegistry.gauge("vllm.scheduler.running", tags, this, s -> s.runningOf(p));
+			meterRegistry.gauge("vllm.scheduler.queued", tags, this, s -> s.queuedOf(p));
+		}
+		log.info("✅ vLLM 스케줄러: 슬롯 {}개 (챗봇 전용 {}개, 백그라운드 최대 {}개), 사용자별 토큰 상한 {}",
+				maxConcurrent, interactiveReserved, backgroundMax, userMaxTokensInFlight);
+	}
+
+	@PreDestroy
+	void shutdown() {
+		timeoutTimer.shutdownNow();
+	}
+
+	/**
+	 * 실행 슬롯 확보 (블로킹). 대기열 초과 또는 대기 시간 초과 시 VllmOverloadedException.
+	 *
+	 * @param tokens 이 요청이 차지할 토큰 수 추정치 (프롬프트 + max_tokens)
+	 */
+	public Permit acquire(Caller caller, int tokens) {
+		Priority priority = caller.priority();
+		Waiter w = new Waiter(priority, userKey(caller), Math.max(0, tokens), lock.newCondition());
+
+		lock.lock();
+		try {
+			enqueue(w);
+
+			long remaining = TimeUnit.MILLISECONDS.toNanos(queueTimeoutMs(priority));
+			while (!w.granted) {
+				if (remaining <= 0L) {
+					removeWaiter(w);
+					throw rejection(priority, "timeout");
+				}
+				try {
+					remaining = w.condition.awaitNanos(remaining);
+				} catch (InterruptedException e) {
+					if (!w.granted) {
+						removeWaiter(w);
+						Thread.currentThread().interrupt();
+						throw new VllmGateway.VllmOverloadedException("AI 요청 대기 중 중단되었습니다.");
+					}
+					Thread.currentThread().interrupt();
+				}
+			}
+		} finally {
+			lock.unlock();
+			completeGranted();
+		}
+
+		recordWait(w);
+		return new Permit(w);
+	}
+
+	/**
+	 * 실행 슬롯 확보 (논블로킹). 슬롯이 배정되면 future가 완료되고, 대기열 초과/대기 시간 초과는
+	 * VllmOverloadedException으로 실패한다. 완료 콜백은 슬롯을 반환하는 스레드에서 실행되므로
+	 * 무거운 작업은 thenApplyAsync 등으로 다른 executor에 넘길 것.
+	 */
+	public CompletableFuture<Permit> acquireAsync(Caller caller, int tokens) {
+		Priority priority = caller.priority();
+		Waiter w = new Waiter(priority, userKey(caller), Math.max(0, tokens), null);
+
+		lock.lock();
+		try {
+			enqueue(w);
+			if (!w.granted) {
+				w.timeout = timeoutTimer.schedule(() -> expire(w), queueTimeoutMs(priority), TimeUnit.MILLISECONDS);
+			}
+		} catch (VllmGateway.VllmOverloadedException e) {
+			w.future.completeExceptionally(e);
+		} finally {
+			lock.unlock();
+			completeGranted();
+		}
+		return w.future;
+	}
+
+	private static Long userKey(Caller caller) {
+		return caller.userIdx() == null ? SYSTEM_USER_KEY : caller.userIdx();
+	}
+
+	private long queueTimeoutMs(Priority priority) {
+		return (priority == Priority.INTERACTIVE) ? interactiveQueueTimeoutMs : batchQueueTimeoutMs;
+	}
+
+	private void recordWait(Waiter w) {
+		Timer.builder("vllm.scheduler.wait")
+				.tag("priority", w.priority.name())
+				.register(meterRegistry)
+				.record(System.nanoTime() - w.enqueuedAt, TimeUnit.NANOSECONDS);
+	}
+
+	// 비동기 대기자 중 슬롯을 받은 것들의 future 완료 (lock 밖에서 호출)
+	private void completeGranted() {
+		List<Waiter> granted;
+		lock.lock();
+		try {
+			if (grantedAsync.isEmpty()) return;
+			granted = new ArrayList<>(grantedAsync);
+			grantedAsync.clear();
+		} finally {
+			lock.unlock();
+		}
+		for (Waiter w : granted) {
+			if (w.timeout != null) w.timeout.cancel(false);
+			recordWait(w);
+			Permit permit = new Permit(w);
+			if (!w.future.complete(permit)) {
+				permit.release();   // 호출 측이 이미 future를 취소함
+			}
+		}
+	}
+
+	private void expire(Waiter w) {
+		VllmGateway.VllmOverloadedException e;
+		lock.lock();
+		try {
+			if (w.granted) return;
+			removeWaiter(w);
+			e = rejection(w.priority, "timeout");
+		} finally {
+			lock.unlock();
+		}
+		w.future.completeExceptionally(e);
+	}
+
+	// ====== 내부 (lock 보유 상태에서만 호출) ======
+
+	private void enqueue(Waiter w) {
+		if (queued >= maxQueue) {
+			throw rejection(w.priority, "queue_full");
+		}
+		queues.get(w.priority).computeIfAbsent(w.userKey, k -> new ArrayDeque<>()).addLast(w);
+		queued++;
+		dispatch();
+	}
+
+	// 빈 슬롯이 있는 동안 우선순위 순서대로, 클래스 안에서는 사용자 라운드로빈으로 배정
+	private void dispatch() {
+		boolean progressed = true;
+		while (progressed && running < maxConcurrent) {
+			progressed = false;
+			for (Priority p : Priority.values()) {
+				LinkedHashMap<Long, ArrayDeque<Waiter>> byUser = queues.get(p);
+				if (byUser.isEmpty()) continue;
+				if (!classHasCapacity(p)) break;   // 상위 클래스 대기자가 있으면 하위 클래스로 넘어가지 않음
+
+				Waiter next = null;
+				for (ArrayDeque<Waiter> q : byUser.values()) {
+					Waiter head = q.peekFirst();
+					if (head != null && withinUserBudget(head)) {
+						next = head;
+						break;
+					}
+				}
+				if (next == null) continue;       // 이 클래스는 전원 토큰 상한에 걸림 → 하위 클래스에 기회
+
+				grant(next);
+				progressed = true;
+				break;
+			}
+		}
+	}
+
+	private boolean classHasCapacity(Priority p) {
+		int reservedFree = maxConcurrent - Math.max(0, Math.min(interactiveReserved, maxConcurrent - 1));
+		return switch (p) {
+			case INTERACTIVE -> running < maxConcurrent;
+			case USER_SUMMARY -> running < reservedFree;
+			case BACKGROUND -> running < reservedFree && runningOf(Priority.BACKGROUND) < Math.max(1, backgroundMax);
+		};
+	}
+
+	private boolean withinUserBudget(Waiter w) {
+		int inFlight = tokensByUser.getOrDefault(w.userKey, 0);
+		return inFlight == 0 || inFlight + w.tokens <= userMaxTokensInFlight;
+	}
+
+	private void grant(Waiter w) {
+		LinkedHashMap<Long, ArrayDeque<Waiter>> byUser = queues.get(w.priority);
+		ArrayDeque<Waiter> q = byUser.remove(w.userKey);
+		q.pollFirst();
+		if (!q.isEmpty()) {
+			byUser.put(w.userKey, q);   // 남은 요청이 있으면 맨 뒤로 → 다음 사용자 차례
+		}
+		queued--;
+		running++;
+		runningByClass.merge(w.priority, 1, Integer::sum);
+		tokensByUser.merge(w.userKey, w.tokens, Integer::sum);
+		w.granted = true;
+		if (w.condition != null) {
+			w.condition.signal();
+		} else {
+			grantedAsync.add(w);
+		}
+	}
+
+	private void removeWaiter(Waiter w) {
+		LinkedHashMap<Long, ArrayDeque<Waiter>> byUser = queues.get(w.priority);
+		ArrayDeque<Waiter> q = byUser.get(w.userKey);
+		if (q != null && q.remove(w)) {
+			queued--;
+			if (q.isEmpty()) byUser.remove(w.userKey);
+		}
+	}
+
+	private VllmGateway.VllmOverloadedException rejection(Priority priority, String reason) {
+		meterRegistry.counter("vllm.scheduler.rejected", "priority", priority.name(), "reason", reason).increment();
+		log.warn("⚠️ vLLM 스케줄러 요청 거절: priority={}, reason={}, running={}, queued={}",
+				priority, reason, running, queued);
+		return new VllmGateway.VllmOverloadedException("AI 서버 요청이 많습니다. 잠시 후 다시 시도해주세요.");
+	}
+
+	private int runningOf(Priority p) {
+		return runningByClass.getOrDefault(p, 0);
+	}
+
+	private int queuedOf(Priority p) {
+		lock.lock();
+		try {
+			return queues.get(p).values().stream().mapToInt(ArrayDeque::size).sum();
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	private static final class Waiter {
+		final Priority priority;
+		final Long userKey;
+		final int tokens;
+		final long enqueuedAt = System.nanoTime();
+		// 블로킹 대기자는 condition, 비동기 대기자는 future (+ 대기 시간 초과 타이머)
+		final Condition condition;
+		final CompletableFuture<Permit> future;
+		ScheduledFuture<?> timeout;
+		boolean granted = false;
+
+		Waiter(Priority priority, Long userKey, int tokens, Condition condition) {
+			this.priority = priority;
+			this.userKey = userKey;
+			this.tokens = tokens;
+			this.condition = condition;
+			this.future = (condition == null) ? new CompletableFuture<>() : null;
+		}
+	}
+}
@@ -0,0 +1,150 @@
+package com.smhrd.web.util;
+
+import java.util.*;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * 코사인 유사도용 근사 최근접 이웃 인덱스 (random hyperplane LSH).
+ * 테이블마다 bits개의 랜덤 초평면 부호로 버킷 키를 만들고, 질의 벡터와 같은 버킷에 있는 항목을 후보로 돌려준다.
+ * 후보의 정확한 유사도 계산/필터링은 호출 측에서 한다.
+ *
+ * 각도 θ인 두 벡터가 한 테이블에서 같은 버킷에 들어갈 확률은 (1 - θ/π)^bits,
+ * 테이블 중 하나라도 겹칠 확률은 1 - (1 - (1 - θ/π)^bits)^tables.
+ * (기본값 10x10 기준 cos 0.92 → 약 95%)
+ */
+public final class CosineLshIndex<K> {
+
+	private final int tables;
+	private final int bits;
+	private final long seed;
+
+	private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+	// [table][bit] → 초평면 법선. 첫 벡터가 들어올 때 차원에 맞춰 생성
+	private float[][][] planes;
+	private final List<Map<Integer, Set<K>>> buckets;
+	private final Map<K, int[]> keysById = new HashMap<>();
+
+	public CosineLshIndex(int tables, int bits, long seed) {
+		if (bits < 1 || bits > 30) throw new IllegalArgumentException("bits는 1~30 사이여야 합니다: " + bits);
+		this.tables = Math.max(1, tables);
+		this.bits = bits;
+		this.seed = seed;
+		this.buckets = new ArrayList<>(this.tables);
+		for (int t = 0; t < this.tables; t++) {
+			buckets.add(new HashMap<>());
+		}
+	}
+
+	public void add(K id, FloatVector vector) {
+		if (vector.isEmpty()) return;
+		lock.writeLock().lock();
+		try {
+			removeLocked(id);
+			int[] keys = hash(vector);
+			if (keys == null) return;
+			for (int t = 0; t < tables; t++) {
+				buckets.get(t).computeIfAbsent(keys[t], k -> new HashSet<>()).add(id);
+			}
+			keysById.put(id, keys);
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	public void remove(K id) {
+		lock.writeLock().lock();
+		try {
+			removeLocked(id);
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	public void clear() {
+		lock.writeLock().lock();
+		try {
+			buckets.forEach(Map::clear);
+			keysById.clear();
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	public int size() {
+		lock.readLock().lock();
+		try {
+			return keysById.size();
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	/** 질의 벡터와 버킷을 하나 이상 공유하는 항목들 */
+	public Set<K> candidates(FloatVector query) {
+		if (query.isEmpty()) return Set.of();
+		lock.readLock().lock();
+		try {
+			if (planes == null || planes[0][0].length != query.dimension()) return Set.of();
+			int[] keys = hashLocked(query);
+			Set<K> out = new HashSet<>();
+			for (int t = 0; t < tables; t++) {
+				Set<K> bucket = buckets.get(t).get(keys[t]);
+				if (bucket != null) out.addAll(bucket);
+			}
+			return out;
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	// ====== 내부 (write lock 보유) ======
+
+	private void removeLocked(K id) {
+		int[] keys = keysById.remove(id);
+		if (keys == null) return;
+		for (int t = 0; t < tables; t++) {
+			Map<Integer, Set<K>> table = buckets.get(t);
+			Set<K> bucket = table.get(keys[t]);
+			if (bucket != null) {
+				bucket.remove(id);
+				if (bucket.isEmpty()) table.remove(keys[t]);
+			}
+		}
+	}
+
+	// 차원이 다른 벡터(모델 교체 등)는 인덱싱하지 않음
+	private int[] hash(FloatVector v) {
+		if (planes == null) {
+			planes = randomPlanes(v.dimension());
+		} else if (planes[0][0].length != v.dimension()) {
+			return null;
+		}
+		return hashLocked(v);
+	}
+
+	private int[] hashLocked(FloatVector v) {
+		float[] values = v.array();
+		int[] keys = new int[tables];
+		for (int t = 0; t < tables; t++) {
+			int key = 0;
+			for (int b = 0; b < bits; b++) {
+				if (FloatVector.dot(planes[t][b], values) >= 0f) key |= (1 << b);
+			}
+			keys[t] = key;
+		}
+		return keys;
+	}
+
+	private float[][][] randomPlanes(int dimension) {
+		Random random = new Random(seed);
+		float[][][] p = new float[tables][bits][dimension];
+		for (int t = 0; t < tables; t++) {
+			for (int b = 0; b < bits; b++) {
+				for (int d = 0; d < dimension; d++) {
+					p[t][b][d] = (float) random.nextGaussian();
+				}
+			}
+		}
+		return p;
+	}
+}
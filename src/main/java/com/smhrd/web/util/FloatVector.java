@@ -0,0 +1,131 @@
+package com.smhrd.web.util;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 임베딩 벡터 값 타입 (float[] + 미리 계산한 L2 norm).
+ * List&lt;Float&gt;는 차원마다 박싱 객체가 하나씩 생기고 유사도 계산 때마다 언박싱되므로,
+ * 임베딩은 이 타입으로 주고받고 저장/전송 직전에만 변환한다.
+ *
+ * 내부 배열은 공유될 수 있으므로 변경하지 않는다 (불변 취급).
+ */
+public final class FloatVector {
+
+	public static final FloatVector EMPTY = new FloatVector(new float[0]);
+
+	private final float[] values;
+	private final float norm;
+
+	private FloatVector(float[] values) {
+		this.values = values;
+		this.norm = (float) Math.sqrt(dot(values, values));
+	}
+
+	/** 배열을 복사하지 않고 감싼다 (호출 후 배열을 변경하지 말 것) */
+	public static FloatVector wrap(float[] values) {
+		return (values == null || values.length == 0) ? EMPTY : new FloatVector(values);
+	}
+
+	public static FloatVector copyOf(float[] values) {
+		return (values == null || values.length == 0) ? EMPTY : new FloatVector(values.clone());
+	}
+
+	/** Mongo 문서/JSON 등에서 읽은 숫자 리스트 (Float, Double 모두 허용) */
+	public static FloatVector fromList(List<? extends Number> list) {
+		if (list == null || list.isEmpty()) return EMPTY;
+		float[] v = new float[list.size()];
+		for (int i = 0; i < v.length; i++) {
+			v[i] = list.get(i).floatValue();
+		}
+		return new FloatVector(v);
+	}
+
+	public int dimension() {
+		return values.length;
+	}
+
+	public boolean isEmpty() {
+		return values.length == 0;
+	}
+
+	public float get(int i) {
+		return values[i];
+	}
+
+	public float norm() {
+		return norm;
+	}
+
+	/** 내부 배열 (읽기 전용) */
+	public float[] array() {
+		return values;
+	}
+
+	public float dot(FloatVector other) {
+		return dot(values, other.values);
+	}
+
+	/** 코사인 유사도. 빈 벡터나 영벡터가 섞이면 0 */
+	public double cosine(FloatVector other) {
+		if (norm == 0f || other.norm == 0f) return 0.0;
+		return dot(values, other.values) / ((double) norm * other.norm);
+	}
+
+	// ====== 변환 ======
+
+	/** pgvector 텍스트 표현 "[v1,v2,...]" */
+	public String toPgVector() {
+		StringBuilder sb = new StringBuilder(values.length * 12 + 2).append('[');
+		for (int i = 0; i < values.length; i++) {
+			if (i > 0) sb.append(',');
+			sb.append(values[i]);
+		}
+		return sb.append(']').toString();
+	}
+
+	/** Mongo 저장 등 박싱 리스트가 필요한 경우에만 사용 */
+	public List<Float> toList() {
+		if (values.length == 0) return Collections.emptyList();
+		List<Float> list = new ArrayList<>(values.length);
+		for (float v : values) list.add(v);
+		return list;
+	}
+
+	public List<Double> toDoubleList() {
+		if (values.length == 0) return Collections.emptyList();
+		List<Double> list = new ArrayList<>(values.length);
+		for (float v : values) list.add((double) v);
+		return list;
+	}
+
+	// ====== 커널 ======
+
+	/**
+	 * 내적. 길이가 다르면 짧은 쪽 길이까지만 계산한다.
+	 * 누산기를 4개로 나눠 루프 간 의존성을 끊어 두면 JIT이 언롤/벡터화하기 쉽다.
+	 */
+	public static float dot(float[] a, float[] b) {
+		int n = Math.min(a.length, b.length);
+		float s0 = 0f, s1 = 0f, s2 = 0f, s3 = 0f;
+		int i = 0;
+		for (; i + 3 < n; i += 4) {
+			s0 += a[i] * b[i];
+			s1 += a[i + 1] * b[i + 1];
+			s2 += a[i + 2] * b[i + 2];
+			s3 += a[i + 3] * b[i + 3];
+		}
+		for (; i < n; i++) {
+			s0 += a[i] * b[i];
+		}
+		return (s0 + s1) + (s2 + s3);
+	}
+
+	public static double cosine(float[] a, float[] b) {
+		float na = (float) Math.sqrt(dot(a, a));
+		float nb = (float) Math.sqrt(dot(b, b));
+		if (na == 0f || nb == 0f) return 0.0;
+		return dot(a, b) / ((double) na * nb);
+	}
+}
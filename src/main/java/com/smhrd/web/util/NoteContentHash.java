@@ -0,0 +1,27 @@
+package com.smhrd.web.util;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+/**
+ * 저장소 간 노트 비교용 내용 해시.
+ * md5(title + "\n" + content) 앞 8자리(32bit)를 부호 없는 정수로 쓴다.
+ * MySQL notes.content_hash / Postgres user_notes.content_hash 생성 컬럼과 같은 식이라
+ * MongoDB 문서에 넣는 값도 이 함수로 계산해야 세 저장소의 합계가 맞는다. (null 은 빈 문자열)
+ */
+public final class NoteContentHash {
+
+	private NoteContentHash() {
+	}
+
+	public static long of(String title, String content) {
+		String text = (title == null ? "" : title) + "\n" + (content == null ? "" : content);
+		try {
+			byte[] md5 = MessageDigest.getInstance("MD5").digest(text.getBytes(StandardCharsets.UTF_8));
+			return ((md5[0] & 0xFFL) << 24) | ((md5[1] & 0xFFL) << 16) | ((md5[2] & 0xFFL) << 8) | (md5[3] & 0xFFL);
+		} catch (NoSuchAlgorithmException e) {
+			throw new IllegalStateException("MD5 를 사용할 수 없습니다.", e);
+		}
+	}
+}
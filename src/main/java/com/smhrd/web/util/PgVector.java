@@ -0,0 +1,137 @@
+package com.smhrd.web.util;
+
+import org.postgresql.util.PGBinaryObject;
+import org.postgresql.util.PGobject;
+
+import java.sql.SQLException;
+import java.util.Arrays;
+
+/**
+ * pgvector `vector` 타입 JDBC 파라미터.
+ * 연결에 vector OID가 binaryTransferEnable로 등록돼 있으면 드라이버가 toBytes()로 바이너리 전송하고,
+ * 아니면 getValue()의 "[1.0,2.0,...]" 텍스트로 전송한다 (어느 쪽이든 SQL은 동일).
+ *
+ * 바이너리 포맷 (pgvector vector_recv): int16 dim, int16 unused(0), float4 × dim (big-endian)
+ */
+public class PgVector extends PGobject implements PGBinaryObject {
+
+	private static final long serialVersionUID = 1L;
+
+	public static final String TYPE = "vector";
+
+	private FloatVector vector = FloatVector.EMPTY;
+
+	public PgVector() {
+		setType(TYPE);
+	}
+
+	public PgVector(FloatVector vector) {
+		this();
+		this.vector = vector == null ? FloatVector.EMPTY : vector;
+	}
+
+	public static PgVector of(FloatVector vector) {
+		return new PgVector(vector);
+	}
+
+	public FloatVector vector() {
+		return vector;
+	}
+
+	// ====== 텍스트 ======
+
+	@Override
+	public String getValue() {
+		return vector.toPgVector();
+	}
+
+	@Override
+	public void setValue(String value) throws SQLException {
+		if (value == null || value.isBlank()) {
+			vector = FloatVector.EMPTY;
+			return;
+		}
+		String s = value.strip();
+		if (s.startsWith("[")) s = s.substring(1);
+		if (s.endsWith("]")) s = s.substring(0, s.length() - 1);
+		if (s.isBlank()) {
+			vector = FloatVector.EMPTY;
+			return;
+		}
+		String[] parts = s.split(",");
+		float[] v = new float[parts.length];
+		try {
+			for (int i = 0; i < parts.length; i++) {
+				v[i] = Float.parseFloat(parts[i].strip());
+			}
+		} catch (NumberFormatException e) {
+			throw new SQLException("vector 값 파싱 실패: " + value, e);
+		}
+		vector = FloatVector.wrap(v);
+	}
+
+	// ====== 바이너리 ======
+
+	@Override
+	public int lengthInBytes() {
+		return 4 + 4 * vector.dimension();
+	}
+
+	@Override
+	public void toBytes(byte[] bytes, int offset) {
+		writeBinary(vector, bytes, offset);
+	}
+
+	@Override
+	public void setByteValue(byte[] value, int offset) throws SQLException {
+		int dim = ((value[offset] & 0xff) << 8) | (value[offset + 1] & 0xff);
+		if (value.length < offset + 4 + 4 * dim) {
+			throw new SQLException("vector 바이너리 길이 부족: dim=" + dim);
+		}
+		float[] v = new float[dim];
+		int p = offset + 4;
+		for (int i = 0; i < dim; i++, p += 4) {
+			int bits = ((value[p] & 0xff) << 24) | ((value[p + 1] & 0xff) << 16)
+					| ((value[p + 2] & 0xff) << 8) | (value[p + 3] & 0xff);
+			v[i] = Float.intBitsToFloat(bits);
+		}
+		vector = FloatVector.wrap(v);
+	}
+
+	/** COPY BINARY 등에서 재사용: bytes[offset..offset+4+4*dim) 에 vector_recv 포맷으로 기록 */
+	public static void writeBinary(FloatVector vector, byte[] bytes, int offset) {
+		float[] values = vector.array();
+		int dim = values.length;
+		bytes[offset] = (byte) (dim >>> 8);
+		bytes[offset + 1] = (byte) dim;
+		bytes[offset + 2] = 0;
+		bytes[offset + 3] = 0;
+		int p = offset + 4;
+		for (float f : values) {
+			int bits = Float.floatToIntBits(f);
+			bytes[p++] = (byte) (bits >>> 24);
+			bytes[p++] = (byte) (bits >>> 16);
+			bytes[p++] = (byte) (bits >>> 8);
+			bytes[p++] = (byte) bits;
+		}
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj) return true;
+		if (!(obj instanceof PgVector other)) return false;
+		return Arrays.equals(vector.array(), other.vector.array());
+	}
+
+	@Override
+	public int hashCode() {
+		return Arrays.hashCode(vector.array());
+	}
+
+	@Override
+	public Object clone() throws CloneNotSupportedException {
+		PgVector copy = (PgVector) super.clone();
+		copy.vector = vector;
+		return copy;
+	}
+}
@@ -566,38 +566,96 @@ document.addEventListener('DOMContentLoaded', () => {
           }
       }
     }
-  async function requestTextSummary(contentToSend, promptId) {
-      const res = await fetch('/notion/create-text', {
+  // ==== SSE 스트리밍 요약 ====
+  // 토큰이 오기 시작하면 오버레이를 내리고 작성 중인 요약을 결과 영역에 그대로 보여줌 (버튼은 완료까지 비활성, 완료 후 에디터로 교체)
+  function showStreamingSummary(text) {
+      const overlay = document.getElementById('nc-loadingOverlay');
+      if (overlay) overlay.style.display = 'none';
+
+      let box = document.getElementById('nc-streamingSummary');
+      if (!box) {
+        $resultBox.innerHTML = '<div id="nc-streamingSummary" class="nc-md"></div>';
+        box = document.getElementById('nc-streamingSummary');
+      }
+      box.textContent = text;
+  }
+
+  // fetch 스트림으로 text/event-stream 을 읽어 progress/token 이벤트를 처리하고 done 데이터를 반환
+  async function requestSummaryStream(url, payload) {
+      const res = await fetch(url, {
         method: 'POST',
         headers: {
           ...withCsrf(),
-          'Content-Type': 'application/json'
+          'Content-Type': 'application/json',
+          'Accept': 'text/event-stream'
         },
-        body: JSON.stringify({
-          content: contentToSend,
-          promptId: promptId 
-        })
+        body: JSON.stringify(payload)
+      });
+      if (!res.ok || !res.body) throw new Error('요약 요청 실패 (' + res.status + ')');
+
+      const reader = res.body.getReader();
+      const decoder = new TextDecoder('utf-8');
+      let buffer = '';
+      let generated = '';
+      let result = null;
+
+      const handleEvent = (name, data) => {
+        if (name === 'progress') {
+          if (data.stage === 'start') {
+            generated = '';
+            if (data.mode === 'cached') setLoading(true, '저장된 요약을 불러오는 중입니다...');
+            else setLoading(true, data.mode === 'simple' ? '요약 중입니다...' : `문서를 ${data.total}개 청크로 나눠 요약 중입니다...`);
+          } else if (data.stage === 'chunk') {
+            setLoading(true, `청크 요약 중... (${data.done}/${data.total})`);
+          } else if (data.stage === 'reduce') {
+            setLoading(true, `요약 병합 중... (${data.level}단계, ${data.inputs} → ${data.outputs})`);
+          }
+        } else if (name === 'token') {
+          generated += data.t;
+          showStreamingSummary(generated);
+        } else if (name === 'done' || name === 'error') {
+          result = data;
+        }
+      };
+
+      while (true) {
+        const { value, done } = await reader.read();
+        if (done) break;
+        buffer += decoder.decode(value, { stream: true });
+
+        let sep;
+        while ((sep = buffer.indexOf('\n\n')) >= 0) {
+          const block = buffer.slice(0, sep);
+          buffer = buffer.slice(sep + 2);
+          let name = 'message';
+          const dataLines = [];
+          block.split('\n').forEach(line => {
+            if (line.startsWith('event:')) name = line.slice(6).trim();
+            else if (line.startsWith('data:')) dataLines.push(line.slice(5));
+          });
+          if (dataLines.length) {
+            try { handleEvent(name, JSON.parse(dataLines.join('\n'))); } catch (e) { console.warn('SSE 파싱 실패', e); }
+          }
+        }
+      }
+
+      if (!result) throw new Error('요약 스트림이 비정상 종료되었습니다.');
+      return result;
+    }
+
+  async function requestTextSummary(contentToSend, promptId) {
+      const data = await requestSummaryStream('/notion/create-text/stream', {
+        content: contentToSend,
+        promptId: promptId
       });
-      
-      const data = await res.json();
       if (!data.success) throw new Error(data.error || '요약 실패');
       return data;
     }
 	async function requestFileSummaryById(fileId, promptId) {
-	    const res = await fetch('/notion/create-by-id', {
-	      method: 'POST',
-	      headers: {
-	        ...withCsrf(),
-	        'Content-Type': 'application/json'
-	      },
-	      body: JSON.stringify({
-	        fileId: fileId,
-	        promptId: promptId 
-	      })
+	    return await requestSummaryStream('/notion/create-by-id/stream', {
+	      fileId: fileId,
+	      promptId: promptId
 	    });
-	    
-	    const data = await res.json();
-	    return data;
 	  }
 
   // 요약하기
@@ -169,6 +169,7 @@ function addChatMessage(sender, message, shouldSave = true) {
 }
 
 // 메시지 전송 (실제 ID 사용)
+// /api/chat/stream 으로 보내고 생성되는 토큰을 말풍선에 바로 표시
 async function sendMessage() {
     const input = document.getElementById('userInput'); // ✅ 실제 ID (chatInput이 아니라 userInput!)
     if (!input) {
@@ -183,15 +184,31 @@ async function sendMessage() {
     addChatMessage('user', message);
     input.value = '';
 
-    // 로딩 메시지 추가
+    // 로딩 메시지 추가 (첫 토큰이 오면 이 말풍선에 답변을 채움)
     addChatMessage('bot', '답변을 생성하고 있습니다...', false);
+    const chatBody = document.getElementById('chatBody');
+    const bubble = chatBody && chatBody.lastChild ? chatBody.lastChild.querySelector('.message') : null;
+
+    let reply = '';
+    const showReply = (text, final) => {
+        if (!bubble) return;
+        // 생성 중에는 텍스트로, 완료되면 마크다운/폼 버튼까지 렌더링
+        if (final) bubble.innerHTML = renderBotMessage(text);
+        else bubble.textContent = text;
+        chatBody.scrollTop = chatBody.scrollHeight;
+    };
+    const finish = (text) => {
+        showReply(text, true);
+        saveChatHistory();
+    };
 
     try {
         const csrf = getCsrfToken();
-        const response = await fetch('/api/chat/send', {
+        const response = await fetch('/api/chat/stream', {
             method: 'POST',
             headers: {
                 'Content-Type': 'application/json',
+                'Accept': 'text/event-stream',
                 [csrf.header]: csrf.token
             },
             body: JSON.stringify({
@@ -200,26 +217,58 @@ async function sendMessage() {
             })
         });
 
-        // 로딩 메시지 제거
-        const chatBody = document.getElementById('chatBody');
-        if (chatBody && chatBody.lastChild) {
-            chatBody.removeChild(chatBody.lastChild);
+        if (!response.ok || !response.body) {
+            finish('죄송합니다. 오류가 발생했습니다.');
+            return;
+        }
+
+        const reader = response.body.getReader();
+        const decoder = new TextDecoder('utf-8');
+        let buffer = '';
+        let result = null;
+
+        const handleEvent = (name, data) => {
+            if (name === 'start') {
+                if (data.sessionId) currentSessionId = data.sessionId;
+            } else if (name === 'token') {
+                reply += data.t;
+                showReply(reply, false);
+            } else if (name === 'done' || name === 'error') {
+                result = { name, data };
+            }
+        };
+
+        while (true) {
+            const { value, done } = await reader.read();
+            if (done) break;
+            buffer += decoder.decode(value, { stream: true });
+
+            let sep;
+            while ((sep = buffer.indexOf('\n\n')) >= 0) {
+                const block = buffer.slice(0, sep);
+                buffer = buffer.slice(sep + 2);
+                let name = 'message';
+                const dataLines = [];
+                block.split('\n').forEach(line => {
+                    if (line.startsWith('event:')) name = line.slice(6).trim();
+                    else if (line.startsWith('data:')) dataLines.push(line.slice(5));
+                });
+                if (dataLines.length) {
+                    try { handleEvent(name, JSON.parse(dataLines.join('\n'))); } catch (e) { console.warn('SSE 파싱 실패', e); }
+                }
+            }
         }
 
-        if (response.ok) {
-            const data = await response.json();
-            addChatMessage('bot', data.reply || '응답을 받지 못했습니다.');
+        if (result && result.name === 'done') {
+            finish(result.data.reply || reply || '응답을 받지 못했습니다.');
+        } else if (result && result.name === 'error') {
+            finish(result.data.error || '죄송합니다. 오류가 발생했습니다.');
         } else {
-            addChatMessage('bot', '죄송합니다. 오류가 발생했습니다.');
+            finish(reply || '응답을 받지 못했습니다.');
         }
     } catch (error) {
         console.error('Chat error:', error);
-        // 로딩 메시지 제거
-        const chatBody = document.getElementById('chatBody');
-        if (chatBody && chatBody.lastChild) {
-            chatBody.removeChild(chatBody.lastChild);
-        }
-        addChatMessage('bot', '네트워크 오류가 발생했습니다.');
+        finish(reply || '네트워크 오류가 발생했습니다.');
     }
 }
 